@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.benchmark;
+
+import com.google.gson.GsonBuilder;
+
+import org.junit.Assert;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal JMH-like harness that measures average time of operation in fixed count of warm up and measurement iterations.
+ * Bytes allocated by operation are measured too, when JVM supports thread allocation counters,
+ * they are reported as {@code ·gc.alloc.rate.norm} secondary metric, same as JMH gc profiler does.
+ * <p>
+ * Every iteration runs operation batch size times, so cheap operations are not dominated by timer resolution.
+ * Results of operations are consumed to avoid dead code elimination.
+ * Report is written in JMH json format to {@code benchmark.reportDir} system property directory, so it could be compared by JMH tooling.
+ */
+public class BenchmarkRunner {
+
+    public interface Operation {
+        /**
+         * @param invocation sequential number of invocation within benchmark, could be used to pick fixture.
+         * @return Returns result of operation, it is consumed by runner.
+         */
+        Object run(int invocation) throws Exception;
+    }
+
+    private static final String REPORT_DIR_PROPERTY = "benchmark.reportDir";
+    private static final String LABEL_PROPERTY = "benchmark.label";
+    /**
+     * Two-sided 99.9% quantile of normal distribution, JMH uses the same confidence level.
+     */
+    private static final double CONFIDENCE_QUANTILE = 3.29;
+    private static final String ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm";
+
+    private final String suite;
+    private final List<Map<String, Object>> results = new ArrayList<>();
+
+    private int warmupIterations = 5;
+    private int measurementIterations = 10;
+    private int batchSize = 100;
+
+    // consumes results of operations
+    private volatile int sink;
+
+    public BenchmarkRunner(Class<?> suite) {
+        this.suite = suite.getName();
+    }
+
+    public BenchmarkRunner warmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+        return this;
+    }
+
+    public BenchmarkRunner measurementIterations(int measurementIterations) {
+        this.measurementIterations = measurementIterations;
+        return this;
+    }
+
+    public BenchmarkRunner batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Measures operation with default batch size and adds its result to report.
+     *
+     * @return Returns average time of operation in nanoseconds.
+     */
+    public double run(String name, Operation operation) throws Exception {
+        return run(name, batchSize, operation);
+    }
+
+    /**
+     * Measures operation and adds its result to report.
+     *
+     * @param batchSize count of operations in every iteration.
+     * @return Returns average time of operation in nanoseconds.
+     */
+    public double run(String name, int batchSize, Operation operation) throws Exception {
+        int invocation = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            invocation = runIteration(operation, batchSize, invocation);
+        }
+
+        com.sun.management.ThreadMXBean threadBean = allocationCounter();
+        long threadId = Thread.currentThread().getId();
+        double[] scores = new double[measurementIterations];
+        double[] allocations = threadBean == null ? null : new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            long allocatedBefore = threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            invocation = runIteration(operation, batchSize, invocation);
+            scores[i] = (System.nanoTime() - start) / (double) batchSize;
+            if (threadBean != null) {
+                allocations[i] = (threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / (double) batchSize;
+            }
+        }
+
+        Map<String, Object> result = toJmhResult(name, batchSize, scores, allocations);
+        results.add(result);
+        System.out.println(String.format(Locale.US, "%s.%s: %.1f ns/op %s B/op (%d x %d)",
+                suite, name, mean(scores), allocations == null ? "n/a" : String.format(Locale.US, "%.1f", mean(allocations)),
+                measurementIterations, batchSize));
+        return mean(scores);
+    }
+
+    /**
+     * @return Returns thread allocation counter or null if JVM does not support it.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemorySupported()) return null;
+        if (!threadBean.isThreadAllocatedMemoryEnabled()) threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    /**
+     * Writes report of all benchmarks that are run by this runner.
+     */
+    public void writeReport() throws IOException {
+        String reportDir = System.getProperty(REPORT_DIR_PROPERTY);
+        if (reportDir == null || reportDir.isEmpty()) return;
+
+        File dir = new File(reportDir);
+        Assert.assertTrue("Can not create " + dir, dir.isDirectory() || dir.mkdirs());
+        File report = new File(dir, suite + ".json");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(report), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create().toJson(results, writer);
+        }
+        System.out.println("Benchmark report " + report.getAbsolutePath());
+    }
+
+    private int runIteration(Operation operation, int batchSize, int invocation) throws Exception {
+        int consumed = 0;
+        for (int i = 0; i < batchSize; i++) {
+            Object result = operation.run(invocation++);
+            consumed += result == null ? 0 : System.identityHashCode(result);
+        }
+        sink += consumed;
+        return invocation;
+    }
+
+    /**
+     * @param allocations bytes allocated per operation in every iteration, null if not measured.
+     */
+    private Map<String, Object> toJmhResult(String name, int batchSize, double[] scores, double[] allocations) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jmhVersion", "compatible");
+        result.put("benchmark", suite + "." + name);
+        result.put("mode", "avgt");
+        result.put("threads", 1);
+        result.put("forks", 0);
+        result.put("jvm", System.getProperty("java.home"));
+        result.put("vmVersion", System.getProperty("java.vm.version"));
+        result.put("warmupIterations", warmupIterations);
+        result.put("warmupBatchSize", batchSize);
+        result.put("measurementIterations", measurementIterations);
+        result.put("measurementBatchSize", batchSize);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("label", System.getProperty(LABEL_PROPERTY, ""));
+        result.put("params", params);
+        result.put("primaryMetric", toJmhMetric(scores, "ns/op"));
+        Map<String, Object> secondaryMetrics = new LinkedHashMap<>();
+        if (allocations != null) {
+            secondaryMetrics.put(ALLOCATION_METRIC, toJmhMetric(allocations, "B/op"));
+        }
+        result.put("secondaryMetrics", secondaryMetrics);
+        return result;
+    }
+
+    private static Map<String, Object> toJmhMetric(double[] scores, String unit) {
+        double mean = mean(scores);
+        double error = scores.length > 1 ? CONFIDENCE_QUANTILE * stdev(scores, mean) / Math.sqrt(scores.length) : Double.NaN;
+
+        double[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("0.0", sorted[0]);
+        percentiles.put("50.0", percentile(sorted, 0.5));
+        percentiles.put("90.0", percentile(sorted, 0.9));
+        percentiles.put("99.0", percentile(sorted, 0.99));
+        percentiles.put("100.0", sorted[sorted.length - 1]);
+
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("score", mean);
+        metric.put("scoreError", error);
+        metric.put("scoreConfidence", new double[]{mean - error, mean + error});
+        metric.put("scorePercentiles", percentiles);
+        metric.put("scoreUnit", unit);
+        metric.put("rawData", new double[][]{scores});
+        return metric;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) sum += value;
+        return sum / values.length;
+    }
+
+    private static double stdev(double[] values, double mean) {
+        double sum = 0;
+        for (double value : values) sum += (value - mean) * (value - mean);
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gfycat.benchmark;
+
+import com.gfycat.disklrucache.DiskLruCache;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Journal and file operations of media cache with typical preview sized entries.
+ */
+public class DiskLruCacheBenchmark {
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner(DiskLruCacheBenchmark.class);
+
+    private static final int APP_VERSION = 1;
+    private static final long MAX_SIZE = 64 * 1024 * 1024;
+    private static final int ENTRIES_COUNT = 200;
+    private static final byte[] VALUE = new byte[32 * 1024];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DiskLruCache cache;
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        cache = DiskLruCache.open(folder.newFolder("cache"), APP_VERSION, MAX_SIZE);
+        for (int i = 0; i < ENTRIES_COUNT; i++) {
+            put(key(i));
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    public void getHit() throws Exception {
+        runner.run("getHit", invocation -> cache.get(key(invocation % ENTRIES_COUNT)));
+    }
+
+    @Test
+    public void getMiss() throws Exception {
+        runner.run("getMiss", invocation -> cache.get("missing" + invocation % ENTRIES_COUNT));
+    }
+
+    @Test
+    public void editCommit() throws Exception {
+        runner.run("editCommit", invocation -> put(key(invocation % ENTRIES_COUNT)));
+    }
+
+    @Test
+    public void reopen() throws Exception {
+        runner.run("reopen", 10, invocation -> {
+            cache.close();
+            cache = DiskLruCache.open(cache.getDirectory(), APP_VERSION, MAX_SIZE);
+            return cache;
+        });
+    }
+
+    @Test
+    public void reopenAsyncFirstGet() throws Exception {
+        runner.run("reopenAsyncFirstGet", 10, invocation -> {
+            cache.close();
+            cache = DiskLruCache.openAsync(cache.getDirectory(), APP_VERSION, MAX_SIZE);
+            return cache.get(key(invocation % ENTRIES_COUNT));
+        });
+    }
+
+    private DiskLruCache.Editor put(String key) throws IOException {
+        DiskLruCache.Editor editor = cache.edit(key);
+        Assert.assertNotNull(editor);
+        try (OutputStream os = editor.newOutputStream()) {
+            os.write(VALUE);
+        }
+        editor.commit();
+        return editor;
+    }
+
+    private static String key(int index) {
+        return "gfycat" + index + ".webp";
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.benchmark;
+
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+import com.gfycat.core.gfycatapi.pojo.GfycatTypeAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Realistic feed content for benchmarks, every gfycat is a copy of real api response with unique id and tags.
+ */
+public class Fixtures {
+
+    public static final int FEED_SIZE = 100;
+
+    /**
+     * Same configuration as api Gson of GfyCoreInitializer.
+     */
+    public static final Gson API_GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new GfycatTypeAdapterFactory())
+            .create();
+
+    private static String gfycatModel;
+
+    /**
+     * @param offset index of first gfycat, lists with different offsets have different ids.
+     */
+    public static String gfycatListJson(int count, int offset) {
+        JsonArray gfycats = new JsonArray();
+        for (int i = offset; i < offset + count; i++) {
+            JsonObject gfycat = new JsonParser().parse(getGfycatModel()).getAsJsonObject();
+            gfycat.addProperty("gfyId", "gfycat" + i);
+            gfycat.addProperty("gfyName", "Gfycat" + i);
+            JsonArray tags = new JsonArray();
+            tags.add(new JsonPrimitive("tag" + i));
+            tags.add(new JsonPrimitive("common"));
+            gfycat.add("tags", tags);
+            gfycats.add(gfycat);
+        }
+        JsonObject result = new JsonObject();
+        result.addProperty("cursor", "cursor" + offset);
+        result.addProperty("digest", "digest" + offset);
+        result.add("gfycats", gfycats);
+        return result.toString();
+    }
+
+    public static GfycatList gfycatList(int count, int offset) {
+        return API_GSON.fromJson(gfycatListJson(count, offset), GfycatList.class);
+    }
+
+    public static List<Gfycat> gfycats(int count, int offset) {
+        return gfycatList(count, offset).getGfycats();
+    }
+
+    private static synchronized String getGfycatModel() {
+        if (gfycatModel == null) {
+            try (InputStream is = Fixtures.class.getClassLoader().getResourceAsStream("gfycat.json")) {
+                gfycatModel = IOUtils.toString(is);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can not read gfycat.json", e);
+            }
+        }
+        return gfycatModel;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gfycat.benchmark;
+
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+import com.google.gson.Gson;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Parsing of feed response, api Gson with streaming adapters against reflective binding.
+ * Both time and bytes allocated per parse of {@link Fixtures#FEED_SIZE} items are reported.
+ */
+public class GfycatListParsingBenchmark {
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner(GfycatListParsingBenchmark.class).batchSize(20);
+
+    private static final String FEED_JSON = Fixtures.gfycatListJson(Fixtures.FEED_SIZE, 0);
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport();
+    }
+
+    @Test
+    public void parseFeedStreaming() throws Exception {
+        runner.run("parseFeedStreaming", invocation -> Fixtures.API_GSON.fromJson(FEED_JSON, GfycatList.class));
+    }
+
+    @Test
+    public void parseFeedReflective() throws Exception {
+        Gson gson = new Gson();
+        runner.run("parseFeedReflective", invocation -> gson.fromJson(FEED_JSON, GfycatList.class));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gfycat.benchmark;
+
+import com.gfycat.common.utils.Utils;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tags of every gfycat are stored in database as serialized list, so it is deserialized for every row of feed query.
+ */
+public class TagsSerializationBenchmark {
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner(TagsSerializationBenchmark.class).batchSize(1000);
+
+    private static final byte[] TAGS = Utils.serializeListOfStrings(Arrays.asList("funny", "cat", "reaction", "lol", "animals"));
+    private static final byte[] NO_TAGS = Utils.serializeListOfStrings(Collections.emptyList());
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport();
+    }
+
+    @Test
+    public void deSerializeTags() throws Exception {
+        runner.run("deSerializeTags", invocation -> Utils.deSerializeListOfStrings(TAGS));
+    }
+
+    @Test
+    public void deSerializeEmptyTags() throws Exception {
+        runner.run("deSerializeEmptyTags", invocation -> Utils.deSerializeListOfStrings(NO_TAGS));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gfycat.core.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.gfycat.benchmark.BenchmarkRunner;
+import com.gfycat.benchmark.Fixtures;
+import com.gfycat.core.FeedIdentifier;
+import com.gfycat.core.PublicFeedIdentifier;
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.IOException;
+
+/**
+ * Feed cache on SQLite: feed replacement, revalidation of the same content, feed query and row mapping.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeedDatabaseBenchmark {
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner(FeedDatabaseBenchmark.class)
+            .warmupIterations(3)
+            .batchSize(10);
+
+    private static final FeedIdentifier FEED = PublicFeedIdentifier.fromSearch("benchmark");
+    private static final GfycatList FIRST_PAGE = Fixtures.gfycatList(Fixtures.FEED_SIZE, 0);
+    private static final GfycatList OTHER_PAGE = Fixtures.gfycatList(Fixtures.FEED_SIZE, Fixtures.FEED_SIZE);
+
+    private GfycatFeedDatabaseCache cache;
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport();
+    }
+
+    @Before
+    public void setUp() {
+        cache = new GfycatFeedDatabaseCache(RuntimeEnvironment.application);
+        cache.insertFeed(FEED, FIRST_PAGE, CloseMode.Auto);
+    }
+
+    @Test
+    public void insertFeed() throws Exception {
+        runner.run("insertFeed", invocation -> {
+            // alternate content, so every insert replaces the feed
+            cache.insertFeed(FEED, invocation % 2 == 0 ? OTHER_PAGE : FIRST_PAGE, CloseMode.Auto);
+            return null;
+        });
+    }
+
+    @Test
+    public void insertSameFeed() throws Exception {
+        runner.run("insertSameFeed", invocation -> {
+            cache.insertFeed(FEED, FIRST_PAGE, CloseMode.Auto);
+            return null;
+        });
+    }
+
+    @Test
+    public void getFeedData() throws Exception {
+        runner.run("getFeedData", invocation -> cache.getFeedData(FEED));
+    }
+
+    @Test
+    public void getGfycat() throws Exception {
+        runner.run("getGfycat", 100, invocation -> cache.getGfycat("gfycat" + invocation % Fixtures.FEED_SIZE));
+    }
+
+    @Test
+    public void getGfycatFromCursor() throws Exception {
+        SQLiteDatabase db = new GfycatDBHelper(RuntimeEnvironment.application).getReadableDatabase();
+        Cursor cursor = db.query(GfycatDatabaseContracts.GfycatContract.TABLE_NAME, null, null, null, null, null, null);
+        try {
+            Assert.assertEquals(Fixtures.FEED_SIZE, cursor.getCount());
+            runner.run("getGfycatFromCursor", 1000, invocation -> {
+                cursor.moveToPosition(invocation % Fixtures.FEED_SIZE);
+                return CursorHelper.getGfycatFromCursor(cursor);
+            });
+        } finally {
+            IOUtils.closeQuietly(cursor);
+            db.close();
+        }
+    }
+}
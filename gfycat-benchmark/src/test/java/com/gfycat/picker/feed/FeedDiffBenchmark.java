@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.gfycat.picker.feed;
+
+import android.support.v7.util.DiffUtil;
+
+import com.gfycat.benchmark.BenchmarkRunner;
+import com.gfycat.benchmark.Fixtures;
+import com.gfycat.common.utils.Algorithms;
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Update path of {@link GfycatDiffSupportAdapter}: ordered subset check for load more and refresh, diff calculation for any other change.
+ */
+public class FeedDiffBenchmark {
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner(FeedDiffBenchmark.class);
+
+    private static final int FEED_SIZE = 5 * Fixtures.FEED_SIZE;
+
+    private static final List<Gfycat> FEED = Fixtures.gfycats(FEED_SIZE, 0);
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport();
+    }
+
+    @Test
+    public void isOrderedSubsetLoadMore() throws Exception {
+        List<Gfycat> displayed = new ArrayList<>(FEED.subList(0, FEED_SIZE - Fixtures.FEED_SIZE));
+        runner.run("isOrderedSubsetLoadMore", invocation -> Algorithms.isOrderedSubset(displayed, FEED));
+    }
+
+    @Test
+    public void isOrderedSubsetRefresh() throws Exception {
+        List<Gfycat> displayed = new ArrayList<>(FEED.subList(Fixtures.FEED_SIZE, FEED_SIZE));
+        runner.run("isOrderedSubsetRefresh", invocation -> Algorithms.isOrderedSubset(displayed, FEED));
+    }
+
+    @Test
+    public void isOrderedSubsetMismatch() throws Exception {
+        List<Gfycat> changed = new ArrayList<>(FEED);
+        changed.remove(FEED_SIZE / 2);
+        runner.run("isOrderedSubsetMismatch", invocation -> Algorithms.isOrderedSubset(FEED, changed));
+    }
+
+    @Test
+    public void diffWithRemovedAndMovedItems() throws Exception {
+        List<Gfycat> changed = new ArrayList<>(FEED);
+        for (int i = 0; i < changed.size(); i += 10) {
+            changed.remove(i);
+        }
+        Collections.swap(changed, 1, changed.size() - 2);
+        runner.run("diffWithRemovedAndMovedItems", 10, invocation -> DiffUtil.calculateDiff(new GfycatDiffCallback(FEED, changed), true));
+    }
+}
@@ -16,13 +16,19 @@
 
 package com.gfycat.common.recycler;
 
+import android.os.SystemClock;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
 
 import com.gfycat.common.utils.Logging;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -32,6 +38,14 @@ import io.reactivex.Observable;
  * Responsible to find items that should and should not play.
  * Calls item.autoPlay and item.autoPause
  * <p/>
+ * Visible items are ranked by visible fraction of their area and distance to center of RecyclerView,
+ * only top {@link #setMaxFullRateItems(int)} items play with full frame rate.
+ * Rest of visible items play throttled if they implement {@link ThrottlingAutoPlayable}, and are paused otherwise.
+ * <p/>
+ * While RecyclerView scrolls faster than {@link #setFlingVelocityThreshold(float)} all items are paused,
+ * or suspended if they implement {@link SuspendableAutoPlayable}, and no item is started.
+ * When scroll slows down, items are started again in order of their rank.
+ * <p/>
  * Created by dekalo on 16.09.15.
  */
 public class AutoPlayController extends RxScrollListener {
@@ -41,11 +55,50 @@ public class AutoPlayController extends RxScrollListener {
     public static final float AUTO_PLAY_AREA_START_PADDING_RELATIVE = 0f;
     public static final float AUTO_PLAY_AREA_END_PADDING_RELATIVE = 0f;
 
-    private Set<AutoPlayable> playingItems = new HashSet<>();
+    public static final int DEFAULT_MAX_FULL_RATE_ITEMS = 6;
+
+    /**
+     * Scroll velocity in dp per second, when an item crosses the screen in about 200ms.
+     */
+    public static final float DEFAULT_FLING_VELOCITY_THRESHOLD = 2500;
+
+    /**
+     * Playback is resumed when velocity drops below this fraction of fling threshold.
+     */
+    private static final float FLING_RESUME_FRACTION = 0.4f;
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+    /**
+     * Scroll events with bigger interval are considered as start of new scroll.
+     */
+    private static final long MAX_SCROLL_EVENT_INTERVAL = 100;
+
+    /**
+     * Weight of normalized distance to center in item rank, visible fraction has weight 1.
+     */
+    private static final float CENTER_DISTANCE_WEIGHT = 0.5f;
+
+    private static final Comparator<Candidate> BY_SCORE_DESC = (lhs, rhs) -> Float.compare(rhs.score, lhs.score);
+
+    // all collections are reused between recalculations
+    private final Set<AutoPlayable> playingItems = new HashSet<>();
+    private final Set<AutoPlayable> throttledItems = new HashSet<>();
+    // ordered by rank, so items are started in visibility order
+    private final Set<AutoPlayable> shouldPlayItems = new LinkedHashSet<>();
+    private final Set<AutoPlayable> shouldThrottleItems = new LinkedHashSet<>();
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final List<Candidate> candidatesPool = new ArrayList<>();
+
     private static final long SKIP_RECALCULATION_DURATION = 300;
 
     private long lastRecalculationTime;
     private boolean isEnabled = true;
+    private int maxFullRateItems = DEFAULT_MAX_FULL_RATE_ITEMS;
+    private float flingVelocityThreshold = DEFAULT_FLING_VELOCITY_THRESHOLD;
+
+    private boolean isFlinging;
+    private long lastScrollTime;
+    // px per second
+    private float velocity;
 
     @Override
     protected Observable<RecyclerView> configure(Observable<RecyclerView> initial) {
@@ -60,74 +113,189 @@ public class AutoPlayController extends RxScrollListener {
         forceUpdate(recyclerView);
     }
 
+    /**
+     * @param maxFullRateItems count of best visible items that play with full frame rate.
+     */
+    public void setMaxFullRateItems(int maxFullRateItems) {
+        this.maxFullRateItems = maxFullRateItems;
+    }
+
+    /**
+     * @param dpPerSecond scroll velocity that pauses all items, 0 to keep items playing regardless of velocity.
+     */
+    public void setFlingVelocityThreshold(float dpPerSecond) {
+        this.flingVelocityThreshold = dpPerSecond;
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        updateVelocity(recyclerView, dx, dy);
+        super.onScrolled(recyclerView, dx, dy);
+    }
+
+    @Override
+    public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            velocity = 0;
+            lastScrollTime = 0;
+            stopFling();
+        }
+        super.onScrollStateChanged(recyclerView, newState);
+    }
+
+    private void updateVelocity(RecyclerView recyclerView, int dx, int dy) {
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - lastScrollTime;
+        if (elapsed <= 0) return;
+        lastScrollTime = now;
+
+        if (elapsed > MAX_SCROLL_EVENT_INTERVAL) {
+            velocity = 0;
+            return;
+        }
+        float instantVelocity = (float) Math.hypot(dx, dy) * TimeUnit.SECONDS.toMillis(1) / elapsed;
+        velocity = velocity * VELOCITY_SMOOTHING + instantVelocity * (1 - VELOCITY_SMOOTHING);
+
+        float threshold = flingVelocityThreshold * recyclerView.getResources().getDisplayMetrics().density;
+        if (!isFlinging && threshold > 0 && velocity > threshold) {
+            startFling();
+        } else if (isFlinging && velocity < threshold * FLING_RESUME_FRACTION) {
+            stopFling();
+        }
+    }
+
+    /**
+     * Items that are passed by fling should not hold decoder and network, so everything is stopped at once without debounce.
+     */
+    private void startFling() {
+        isFlinging = true;
+        for (AutoPlayable item : playingItems) {
+            if (item instanceof SuspendableAutoPlayable) {
+                ((SuspendableAutoPlayable) item).autoSuspend();
+            } else {
+                item.autoPause();
+            }
+        }
+        Logging.d(LOG_TAG, "startFling() velocity = ", velocity, " suspended = ", playingItems.size());
+        playingItems.clear();
+        throttledItems.clear();
+    }
+
+    private void stopFling() {
+        if (!isFlinging) return;
+        isFlinging = false;
+        // debounced scroll event that follows should not be skipped
+        lastRecalculationTime = 0;
+        Logging.d(LOG_TAG, "stopFling() velocity = ", velocity);
+    }
+
     public void onActionCall(RecyclerView recyclerView) {
+        if (isFlinging)
+            return;
+
         if (System.currentTimeMillis() < lastRecalculationTime + SKIP_RECALCULATION_DURATION)
             return;
 
         lastRecalculationTime = System.currentTimeMillis();
 
-        Set<AutoPlayable> shouldPlayItems = collectShouldPlayItems(recyclerView);
+        collectShouldPlayItems(recyclerView);
 
         long part1 = System.currentTimeMillis() - lastRecalculationTime;
 
         Iterator<AutoPlayable> iterator = playingItems.iterator();
         while (iterator.hasNext()) {
             AutoPlayable next = iterator.next();
-            if (!shouldPlayItems.contains(next)) {
+            if (!shouldPlayItems.contains(next) && !shouldThrottleItems.contains(next)) {
                 next.autoPause();
                 iterator.remove();
             }
         }
-        iterator = shouldPlayItems.iterator();
-        while (iterator.hasNext()) {
-            AutoPlayable next = iterator.next();
-            if (!playingItems.contains(next)) {
-                playingItems.add(next);
+        for (AutoPlayable item : shouldPlayItems) {
+            if (!item.isAutoPlay() || throttledItems.contains(item)) {
+                item.autoPlay();
             }
         }
-        for (AutoPlayable item : playingItems) {
-            if (!item.isAutoPlay()) {
-                item.autoPlay();
+        for (AutoPlayable item : shouldThrottleItems) {
+            if (!item.isAutoPlay() || !throttledItems.contains(item)) {
+                ((ThrottlingAutoPlayable) item).autoPlayThrottled();
             }
         }
 
-        long part2 = System.currentTimeMillis() - lastRecalculationTime - part1 - part1;
+        long part2 = System.currentTimeMillis() - lastRecalculationTime - part1;
 
-        playingItems = shouldPlayItems;
+        playingItems.clear();
+        playingItems.addAll(shouldPlayItems);
+        playingItems.addAll(shouldThrottleItems);
+        throttledItems.clear();
+        throttledItems.addAll(shouldThrottleItems);
 
-        Logging.d(LOG_TAG, "onScrolled() playingItems = ", playingItems.size());
+        Logging.d(LOG_TAG, "onScrolled() playingItems = ", playingItems.size(), " throttled = ", throttledItems.size());
         Logging.d(LOG_TAG, "onScrolled() duration = ", (System.currentTimeMillis() - lastRecalculationTime), " 1: ", part1, " 2: ", part2);
     }
 
-    private Set<AutoPlayable> collectShouldPlayItems(RecyclerView recyclerView) {
+    /**
+     * Fills shouldPlayItems and shouldThrottleItems.
+     */
+    private void collectShouldPlayItems(RecyclerView recyclerView) {
+        shouldPlayItems.clear();
+        shouldThrottleItems.clear();
+        candidatesPool.addAll(candidates);
+        candidates.clear();
 
         if (!isEnabled || !recyclerView.isAttachedToWindow())
-            return new HashSet<>();
-
-        Set<AutoPlayable> set = new HashSet<>();
+            return;
 
         RecyclerView.LayoutManager lm = recyclerView.getLayoutManager();
 
-        int autoPlayAreaStart = (int) (recyclerView.getTop() + recyclerView.getHeight() * AUTO_PLAY_AREA_START_PADDING_RELATIVE);
-        int autoPlayAreaEnd = (int) (recyclerView.getBottom() - recyclerView.getHeight() * AUTO_PLAY_AREA_END_PADDING_RELATIVE);
+        int width = recyclerView.getWidth();
+        int height = recyclerView.getHeight();
+        int autoPlayAreaStart = (int) (height * AUTO_PLAY_AREA_START_PADDING_RELATIVE);
+        int autoPlayAreaEnd = (int) (height - height * AUTO_PLAY_AREA_END_PADDING_RELATIVE);
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float maxDistance = (float) Math.hypot(centerX, centerY);
 
         int count = lm.getChildCount();
         for (int i = 0; i < count; i++) {
             View child = lm.getChildAt(i);
+            int viewLeft = lm.getDecoratedLeft(child);
+            int viewRight = lm.getDecoratedRight(child);
             int viewStart = lm.getDecoratedTop(child);
             int viewEnd = lm.getDecoratedBottom(child);
 
-            boolean shouldPlay = false;
-            shouldPlay = shouldPlay || (recyclerView.getTop() <= viewStart && recyclerView.getBottom() >= viewEnd); // completely visible
-            shouldPlay = shouldPlay || !(autoPlayAreaStart > viewEnd || autoPlayAreaEnd < viewStart); // near center;
+            if (autoPlayAreaStart > viewEnd || autoPlayAreaEnd < viewStart) continue;
+
+            RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(child);
+            if (!(viewHolder instanceof AutoPlayable)) continue;
 
-            if (shouldPlay) {
-                RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(child);
-                if (viewHolder instanceof AutoPlayable) {
-                    set.add((AutoPlayable) viewHolder);
-                }
+            long area = (long) (viewRight - viewLeft) * (viewEnd - viewStart);
+            long visibleArea = (long) Math.max(0, Math.min(viewRight, width) - Math.max(viewLeft, 0))
+                    * Math.max(0, Math.min(viewEnd, height) - Math.max(viewStart, 0));
+            float visibleFraction = area > 0 ? visibleArea / (float) area : 0;
+            float distance = maxDistance > 0 ? (float) Math.hypot((viewLeft + viewRight) / 2f - centerX, (viewStart + viewEnd) / 2f - centerY) / maxDistance : 0;
+
+            Candidate candidate = candidatesPool.isEmpty() ? new Candidate() : candidatesPool.remove(candidatesPool.size() - 1);
+            candidate.item = (AutoPlayable) viewHolder;
+            candidate.score = visibleFraction - CENTER_DISTANCE_WEIGHT * distance;
+            candidates.add(candidate);
+        }
+
+        Collections.sort(candidates, BY_SCORE_DESC);
+        for (int i = 0; i < candidates.size(); i++) {
+            AutoPlayable item = candidates.get(i).item;
+            if (i < maxFullRateItems) {
+                shouldPlayItems.add(item);
+            } else if (item instanceof ThrottlingAutoPlayable) {
+                shouldThrottleItems.add(item);
             }
         }
-        return set;
+        for (Candidate candidate : candidates) {
+            candidate.item = null;
+        }
+    }
+
+    private static class Candidate {
+        private AutoPlayable item;
+        private float score;
     }
 }
@@ -18,6 +18,7 @@ package com.gfycat.common.recycler;
 
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.RecyclerView.ViewHolder;
+import android.util.SparseIntArray;
 import android.view.ViewGroup;
 
 import com.gfycat.common.utils.Assertions;
@@ -37,11 +38,19 @@ public class GroupAdapter extends RecyclerView.Adapter<ViewHolder> {
 
     private static final int STEP = 500;
 
+    /**
+     * Child view types starting from this value are not shifted by child index, so they are the same in any group.
+     * Such view types could be used to share {@link RecyclerView.RecycledViewPool} between groups of different layout.
+     * Every shared view type should be used by only one child of a group.
+     */
+    public static final int FIRST_SHARED_VIEW_TYPE = 1 << 20;
+
     private final Fifo<String> changeLog = new Fifo();
 
     private RecyclerView.Adapter<ViewHolder>[] adapters;
     private String[] adapterNames;
     private int[] sizes;
+    private final SparseIntArray sharedViewTypeAdapters = new SparseIntArray();
 
     private static String[] buildAdapterNames(RecyclerView.Adapter[] adapters) {
         String[] adapterNames = new String[adapters.length];
@@ -52,11 +61,12 @@ public class GroupAdapter extends RecyclerView.Adapter<ViewHolder> {
     }
 
     /**
-     * Mentioned adapter should have view types not more than 100.
+     * Mentioned adapter should have view types less than 500 or not less than {@link #FIRST_SHARED_VIEW_TYPE}.
      */
     public GroupAdapter(RecyclerView.Adapter<ViewHolder>[] adapters, String[] adapterNames) {
         this.adapters = adapters;
         this.adapterNames = adapterNames;
+        setHasStableIds(anyHasStableIds(adapters));
         syncSizes();
         registerObserver();
         if (adapterNames.length != adapters.length)
@@ -67,6 +77,13 @@ public class GroupAdapter extends RecyclerView.Adapter<ViewHolder> {
         this(adapters, buildAdapterNames(adapters));
     }
 
+    private static boolean anyHasStableIds(RecyclerView.Adapter[] adapters) {
+        for (RecyclerView.Adapter adapter : adapters) {
+            if (adapter.hasStableIds()) return true;
+        }
+        return false;
+    }
+
     private void syncSizes() {
         sizes = new int[adapters.length];
         for (int i = 0; i < adapters.length; i++) {
@@ -156,8 +173,11 @@ public class GroupAdapter extends RecyclerView.Adapter<ViewHolder> {
 
     @Override
     public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        int relativeViewType = viewType % STEP;
+        int relativeViewType = viewType >= FIRST_SHARED_VIEW_TYPE ? viewType : viewType % STEP;
         int adapterIndex = getAdapterIndexFromViewType(viewType);
+        if (adapterIndex >= adapters.length) {
+            throw new IllegalStateException("GroupAdapter::onCreateViewHolder(" + viewType + ") unknown view type.");
+        }
         return adapters[adapterIndex].onCreateViewHolder(parent, relativeViewType);
     }
 
@@ -167,19 +187,59 @@ public class GroupAdapter extends RecyclerView.Adapter<ViewHolder> {
         return relativeViewTypeToAbsolute(indexAndPosition[0], adapters[indexAndPosition[0]].getItemViewType(indexAndPosition[1]));
     }
 
+    /**
+     * Ids of child adapters are combined with adapter index, so they do not clash between children.
+     * Child adapter without stable ids gets its relative position as id, such adapters are expected to be small headers.
+     */
+    @Override
+    public long getItemId(int absolutePosition) {
+        if (!hasStableIds()) return RecyclerView.NO_ID;
+        int[] indexAndPosition = getAdapterIndexAndRelativePosition(absolutePosition);
+        RecyclerView.Adapter<ViewHolder> adapter = adapters[indexAndPosition[0]];
+        long relativeId = adapter.hasStableIds() ? adapter.getItemId(indexAndPosition[1]) : indexAndPosition[1];
+        return relativeIdToAbsolute(indexAndPosition[0], relativeId);
+    }
+
+    private static long relativeIdToAbsolute(int adapterIndex, long relativeId) {
+        long result = 31 * relativeId + adapterIndex;
+        return result == RecyclerView.NO_ID ? Long.MAX_VALUE - adapterIndex : result;
+    }
+
     public int getRelativeItemViewType(int absolutePosition) {
         int[] indexAndPosition = getAdapterIndexAndRelativePosition(absolutePosition);
         return adapters[indexAndPosition[0]].getItemViewType(indexAndPosition[1]);
     }
 
+    /**
+     * @return Returns view type used by this adapter for relativeViewType of provided child adapter, -1 if adapter is not part of this group.
+     */
+    public int getAbsoluteViewType(RecyclerView.Adapter adapter, int relativeViewType) {
+        for (int i = 0; i < adapters.length; i++) {
+            if (adapters[i] == adapter) return relativeViewTypeToAbsolute(i, relativeViewType);
+        }
+        return -1;
+    }
+
     private int relativeViewTypeToAbsolute(int adapterIndex, int relativeViewType) {
+        if (relativeViewType >= FIRST_SHARED_VIEW_TYPE) {
+            int previous = sharedViewTypeAdapters.get(relativeViewType, adapterIndex);
+            if (previous != adapterIndex) {
+                Assertions.fail(new IllegalStateException("GroupAdapter::relativeViewTypeToAbsolute(" + adapterIndex + ", " + relativeViewType + ") is already used by " + previous));
+            }
+            sharedViewTypeAdapters.put(relativeViewType, adapterIndex);
+            return relativeViewType;
+        }
         if (relativeViewType >= STEP || relativeViewType < 0) {
             Assertions.fail(new IllegalStateException("GroupAdapter::relativeViewTypeToAbsolute(" + adapterIndex + ", " + relativeViewType + ")"));
         }
         return STEP * adapterIndex + relativeViewType;
     }
 
+    /**
+     * Adapter of shared view type is known after its first {@link #getItemViewType(int)}, adapters.length is returned before that.
+     */
     private int getAdapterIndexFromViewType(int viewType) {
+        if (viewType >= FIRST_SHARED_VIEW_TYPE) return sharedViewTypeAdapters.get(viewType, adapters.length);
         return viewType / STEP;
     }
 
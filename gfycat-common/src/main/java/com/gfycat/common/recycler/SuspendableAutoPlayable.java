@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.common.recycler;
+
+/**
+ * {@link AutoPlayable} that could drop its pending work when it is paused.
+ * <p>
+ * Used by {@link AutoPlayController} during fast fling, when items are likely to leave screen before their content is loaded,
+ * items that do not implement it are paused instead.
+ */
+public interface SuspendableAutoPlayable extends AutoPlayable {
+
+    /**
+     * Pauses playback and cancels loading that is not finished yet, {@link #autoPlay()} starts it again.
+     */
+    void autoSuspend();
+}
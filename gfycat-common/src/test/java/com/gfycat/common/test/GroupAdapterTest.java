@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.common.test;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.gfycat.common.recycler.GroupAdapter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@RunWith(RobolectricTestRunner.class)
+public class GroupAdapterTest {
+
+    @Test
+    public void testStableIdsAreForwarded() {
+        ItemsAdapter header = new ItemsAdapter(false, 0);
+        ItemsAdapter items = new ItemsAdapter(true, 10, 20, 30);
+        GroupAdapter groupAdapter = new GroupAdapter(header, items);
+
+        Assert.assertTrue(groupAdapter.hasStableIds());
+        long first = groupAdapter.getItemId(1);
+
+        // item with id 10 moves from first to last position of child
+        items.ids = new long[]{20, 30, 10};
+        Assert.assertEquals(first, groupAdapter.getItemId(3));
+        Assert.assertNotEquals(first, groupAdapter.getItemId(1));
+    }
+
+    @Test
+    public void testIdsAreUniqueBetweenChildren() {
+        GroupAdapter groupAdapter = new GroupAdapter(
+                new ItemsAdapter(false, 0, 0),
+                new ItemsAdapter(true, 0, 1, 2),
+                new ItemsAdapter(true, 0, 1, 2));
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < groupAdapter.getItemCount(); i++) {
+            long id = groupAdapter.getItemId(i);
+            Assert.assertNotEquals(RecyclerView.NO_ID, id);
+            ids.add(id);
+        }
+        Assert.assertEquals(groupAdapter.getItemCount(), ids.size());
+    }
+
+    @Test
+    public void testNoStableIdsWithoutStableChildren() {
+        GroupAdapter groupAdapter = new GroupAdapter(new ItemsAdapter(false, 0), new ItemsAdapter(false, 0, 0));
+
+        Assert.assertFalse(groupAdapter.hasStableIds());
+        Assert.assertEquals(RecyclerView.NO_ID, groupAdapter.getItemId(1));
+    }
+
+    private static class ItemsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private long[] ids;
+
+        private ItemsAdapter(boolean stableIds, long... ids) {
+            this.ids = ids;
+            setHasStableIds(stableIds);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return ids[position];
+        }
+
+        @Override
+        public int getItemCount() {
+            return ids.length;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+    }
+}
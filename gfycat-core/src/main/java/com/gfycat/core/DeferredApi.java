@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+/**
+ * Retrofit api that could be passed to components before network stack is built.
+ * <p>
+ * Rx calls wait for api inside of returned stream, so nothing is blocked until subscription.
+ * Calls with other return types block till api is ready.
+ */
+class DeferredApi {
+
+    @SuppressWarnings("unchecked")
+    static <T> T create(Class<T> apiClass, Single<T> api) {
+        return (T) Proxy.newProxyInstance(apiClass.getClassLoader(), new Class<?>[]{apiClass}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, apiClass, method, args);
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Observable.class) {
+                return api.flatMapObservable(instance -> (Observable<?>) invoke(instance, method, args));
+            } else if (returnType == Single.class) {
+                return api.flatMap(instance -> (Single<?>) invoke(instance, method, args));
+            } else if (returnType == Completable.class) {
+                return api.flatMapCompletable(instance -> (Completable) invoke(instance, method, args));
+            } else if (returnType == Flowable.class) {
+                return api.flatMapPublisher(instance -> (Flowable<?>) invoke(instance, method, args));
+            } else if (returnType == Maybe.class) {
+                return api.flatMapMaybe(instance -> (Maybe<?>) invoke(instance, method, args));
+            }
+            return invoke(api.blockingGet(), method, args);
+        });
+    }
+
+    private static Object invoke(Object instance, Method method, Object[] args) throws Exception {
+        try {
+            return method.invoke(instance, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Class<?> apiClass, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "DeferredApi(" + apiClass.getSimpleName() + ")";
+        }
+    }
+}
@@ -21,6 +21,7 @@ import android.content.Context;
 import com.gfycat.core.downloading.FeedData;
 import com.gfycat.core.downloading.FeedDescription;
 import com.gfycat.core.downloading.FeedManager;
+import com.gfycat.core.downloading.SearchSession;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.gfycatapi.pojo.GfycatCategoriesList;
 
@@ -72,6 +73,11 @@ public class FeedManagerAsyncWrapper implements FeedManager {
         return subject.singleOrError().flatMapCompletable(feedManager -> feedManager.getGfycats(feedIdentifier));
     }
 
+    @Override
+    public Completable getGfycats(FeedIdentifier feedIdentifier, SearchSession searchSession, boolean refresh) {
+        return subject.singleOrError().flatMapCompletable(feedManager -> feedManager.getGfycats(feedIdentifier, searchSession, refresh));
+    }
+
     @Override
     public Completable getNewGfycats(FeedDescription feedDescription) {
         return subject.singleOrError().flatMapCompletable(feedManager -> feedManager.getNewGfycats(feedDescription));
@@ -24,6 +24,7 @@ import com.gfycat.core.contentmanagement.UserOwnedContentManager;
 import com.gfycat.core.contentmanagement.UserOwnedContentManagerAsyncWrapper;
 import com.gfycat.core.creation.UploadManager;
 import com.gfycat.core.creation.UploadManagerAsyncWrapper;
+import com.gfycat.core.downloading.FeedFreshnessPolicies;
 import com.gfycat.core.downloading.FeedManager;
 import com.gfycat.core.storage.MediaFilesManager;
 import com.gfycat.core.storage.MediaFilesManagerAsyncWrapper;
@@ -43,6 +44,7 @@ public final class GfyCore {
     private UploadManagerAsyncWrapper uploadManager = new UploadManagerAsyncWrapper();
     private UserOwnedContentManagerAsyncWrapper userOwnedContentManager = new UserOwnedContentManagerAsyncWrapper();
     private NSFWContentManagerAsyncWrapper nsfwContentManager = new NSFWContentManagerAsyncWrapper();
+    private FeedFreshnessPolicies feedFreshnessPolicies = new FeedFreshnessPolicies();
 
     private GfyCore() {
     }
@@ -68,6 +70,10 @@ public final class GfyCore {
         this.uploadManager.init(uploadManager);
     }
 
+    void initUploadManagerLazily(Single<? extends UploadManager> lazyUploadManager) {
+        this.uploadManager.initLazily(lazyUploadManager);
+    }
+
     void initUserOwnedContentManager(UserOwnedContentManager userOwnedContentManager) {
         this.userOwnedContentManager.init(userOwnedContentManager);
     }
@@ -75,6 +81,10 @@ public final class GfyCore {
     void initNsfwContentManager(NSFWContentManager nsfwContentManager) {
         this.nsfwContentManager.init(nsfwContentManager);
     }
+
+    void initFeedFreshnessPolicies(FeedFreshnessPolicies feedFreshnessPolicies) {
+        this.feedFreshnessPolicies = feedFreshnessPolicies;
+    }
     ///////////////////////////////
 
     /**
@@ -133,6 +143,13 @@ public final class GfyCore {
         return get().userOwnedContentManager;
     }
 
+    /**
+     * @return Returns {@link FeedFreshnessPolicies} that decides when cached feeds and categories should be refreshed.
+     */
+    public static FeedFreshnessPolicies getFeedFreshnessPolicies() {
+        return get().feedFreshnessPolicies;
+    }
+
     /**
      * For test purposes.
      */
@@ -143,5 +160,6 @@ public final class GfyCore {
         uploadManager = new UploadManagerAsyncWrapper();
         userOwnedContentManager = new UserOwnedContentManagerAsyncWrapper();
         nsfwContentManager = new NSFWContentManagerAsyncWrapper();
+        feedFreshnessPolicies = new FeedFreshnessPolicies();
     }
 }
@@ -19,6 +19,9 @@ package com.gfycat.core;
 import android.content.Context;
 import android.text.TextUtils;
 
+import com.gfycat.core.creation.ChunkedUploader;
+import com.gfycat.core.downloading.FeedFreshnessPolicies;
+import com.gfycat.core.downloading.FreshnessPolicy;
 import com.gfycat.core.storage.DefaultDiskCache;
 
 import java.io.File;
@@ -37,8 +40,10 @@ public class GfyCoreInitializationBuilder {
     private Interceptor jsonInterceptor;
     private Interceptor mediaInterceptor;
     private Runnable dropUserRelatedContent;
+    private ChunkedUploader.Config chunkedUploadConfig;
 
     private DefaultDiskCache.CacheSizeOptions cacheSizeOptions = new DefaultDiskCache.CacheSizeOptions();
+    private FeedFreshnessPolicies feedFreshnessPolicies = new FeedFreshnessPolicies();
 
     /**
      * @param context               of application.
@@ -94,6 +99,42 @@ public class GfyCoreInitializationBuilder {
         return this;
     }
 
+    /**
+     * Set how long cached feeds of provided type are served without network request.
+     *
+     * @param feedType to apply policy for.
+     * @param policy   time to live and stale-while-revalidate windows.
+     */
+    public GfyCoreInitializationBuilder setFeedFreshnessPolicy(FeedType feedType, FreshnessPolicy policy) {
+        feedFreshnessPolicies.setPolicy(feedType, policy);
+        return this;
+    }
+
+    /**
+     * Set how long cached feeds without explicitly set policy are served without network request.
+     */
+    public GfyCoreInitializationBuilder setDefaultFeedFreshnessPolicy(FreshnessPolicy policy) {
+        feedFreshnessPolicies.setDefaultFeedPolicy(policy);
+        return this;
+    }
+
+    /**
+     * Set how long cached categories are served without network request.
+     */
+    public GfyCoreInitializationBuilder setCategoriesFreshnessPolicy(FreshnessPolicy policy) {
+        feedFreshnessPolicies.setCategoriesPolicy(policy);
+        return this;
+    }
+
+    /**
+     * Upload created gfycats by chunks, failed chunks are retried without upload of whole content.
+     * By default content is uploaded with single request.
+     */
+    public GfyCoreInitializationBuilder setChunkedUpload(ChunkedUploader.Config config) {
+        this.chunkedUploadConfig = config;
+        return this;
+    }
+
     GfyCoreInitializationBuilder setJsonInterceptor(Interceptor interceptor) {
         this.jsonInterceptor = interceptor;
         return this;
@@ -130,6 +171,10 @@ public class GfyCoreInitializationBuilder {
         return cacheSizeOptions;
     }
 
+    FeedFreshnessPolicies getFeedFreshnessPolicies() {
+        return feedFreshnessPolicies;
+    }
+
     Interceptor getMediaInterceptor() {
         return mediaInterceptor == null ? NO_INTERCEPTOR : mediaInterceptor;
     }
@@ -138,6 +183,10 @@ public class GfyCoreInitializationBuilder {
         return jsonInterceptor == null ? NO_INTERCEPTOR : jsonInterceptor;
     }
 
+    ChunkedUploader.Config getChunkedUploadConfig() {
+        return chunkedUploadConfig;
+    }
+
     Runnable getDropUserRelatedContent() {
         return dropUserRelatedContent == null ? NO_DROP_USER_CONTENT : dropUserRelatedContent;
     }
@@ -40,21 +40,27 @@ import com.gfycat.core.db.GfycatFeedDatabaseCache;
 import com.gfycat.core.downloading.CategoriesCache;
 import com.gfycat.core.downloading.FeedManagerImpl;
 import com.gfycat.core.gfycatapi.GfycatAPI;
+import com.gfycat.core.gfycatapi.pojo.GfycatTypeAdapterFactory;
 import com.gfycat.core.storage.CachedMediaFilesManager;
 import com.gfycat.core.storage.DefaultDiskCache;
 import com.gfycat.core.storage.DiskCache;
+import com.gfycat.core.storage.ThroughputEstimator;
 import com.gfycat.disklrucache.DiskLruCache;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import io.reactivex.Completable;
+import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
 import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
@@ -72,8 +78,16 @@ public class GfyCoreInitializer {
     private static final String LOG_TAG = "GfyCoreInitializer";
 
     private static final int MAX_DOWNLOADING_VIDEOS_COUNT = 2;
+
+    /**
+     * Feed responses are parsed with streaming adapters instead of reflection.
+     */
+    private static final Gson API_GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new GfycatTypeAdapterFactory())
+            .create();
     private static boolean initializationPerformed;
     static volatile boolean initializationCompleted;
+    private static volatile InitializationGraph initializationGraph;
 
     /**
      * GfyCore initialization method.
@@ -89,6 +103,7 @@ public class GfyCoreInitializer {
         } else {
             // start initialization
             initializationPerformed = true;
+            GfyCore.get().initFeedFreshnessPolicies(builder.getFeedFreshnessPolicies());
             coreInitSingleObservable(builder)
                     .subscribeOn(Schedulers.io())
                     .doOnError(throwable -> Assertions.fail(new ChainedException(throwable)))
@@ -101,91 +116,151 @@ public class GfyCoreInitializer {
     }
 
     private static Completable coreInitSingleObservable(GfyCoreInitializationBuilder builder) {
-        return Completable.create(subscriber -> {
+        return Completable.defer(() -> {
 
             Logging.d(LOG_TAG, "initialization start");
 
             DiskLruCache.setupAssertionsLogger(throwable -> Assertions.fail(new ChainedException(throwable)));
 
-            Queue<File> cacheFolderOptions = builder.getCacheFolder() == null
-                    ? collectCacheVariants(builder.getContext())
-                    : new LinkedList<>(Collections.singletonList(builder.getCacheFolder()));
-
-            DiskCache diskCache = DefaultDiskCache.initialize(cacheFolderOptions, builder.getCacheSizeOptions());
-
+            Context context = builder.getContext();
             String appDomainName = getApplicationDomain(builder.getGfycatApplicationInfo());
-
-            OkHttpClient.Builder videoClientBuilder =
-                    new OkHttpClient.Builder()
-                            .cache(null)
-                            .connectionPool(new ConnectionPool(0, 1, TimeUnit.SECONDS))
-                            .protocols(Collections.singletonList(Protocol.HTTP_1_1))
-                            .dispatcher(new Dispatcher(Executors.newFixedThreadPool(MAX_DOWNLOADING_VIDEOS_COUNT)));
-
-            AuthenticationAPI authenticationApi = new Retrofit.Builder()
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
-                    .client(new OkHttpClient.Builder().addInterceptor(builder.getJsonInterceptor()).build())
-                    .baseUrl(NetworkConfig.buildApiUrl(appDomainName))
-                    .build()
-                    .create(AuthenticationAPI.class);
-
-            TokenAuthenticator authenticator = new TokenAuthenticator(builder.getContext(), builder.getGfycatApplicationInfo(), authenticationApi);
-
-            OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder().authenticator(authenticator).addInterceptor(authenticator).addInterceptor(builder.getJsonInterceptor());
-            OkHttpClient client = clientBuilder.build();
-
-            OkHttpClient noAuthClient = new OkHttpClient.Builder().addInterceptor(builder.getMediaInterceptor()).build(); //https://gfycat.atlassian.net/browse/ANDMES-547
-            OkHttpClient videoClient = videoClientBuilder.addInterceptor(builder.getMediaInterceptor()).retryOnConnectionFailure(false).build();
-
             String apiUrl = NetworkConfig.buildApiUrl(appDomainName);
 
-            SignUpAPI signUpApi = buildGeneralApi(apiUrl, client, SignUpAPI.class);
-            GfycatAPI gfycatApi = buildGeneralApi(apiUrl, client, GfycatAPI.class);
-            CreationAPI creationApi = buildGeneralApi(apiUrl, client, CreationAPI.class);
-            NoAuthAPI noAuthApi = buildGeneralApi(apiUrl, noAuthClient, NoAuthAPI.class);
-
-            authenticator.setSignUpAPI(signUpApi);
-
-            GfycatFeedDatabaseCache feedCache = new GfycatFeedDatabaseCache(builder.getContext());
+            InitializationGraph graph = new InitializationGraph();
+            initializationGraph = graph;
 
-            FeedManagerImpl feedManager = new FeedManagerImpl(new CategoriesCache(builder.getContext()), gfycatApi, feedCache);
-            GfyCore.get().initFeedManager(feedManager);
-
-            UserAccountManagerImpl userAccountManager = new UserAccountManagerImpl(builder.getContext(), authenticator, gfycatApi, noAuthApi, () -> {
-                feedCache.delete(PublicFeedIdentifier.myGfycats());
-                builder.getDropUserRelatedContent();
+            Single<DiskCache> diskCache = graph.component("diskCache", () -> {
+                Queue<File> cacheFolderOptions = builder.getCacheFolder() == null
+                        ? collectCacheVariants(context)
+                        : new LinkedList<>(Collections.singletonList(builder.getCacheFolder()));
+                return DefaultDiskCache.initialize(cacheFolderOptions, builder.getCacheSizeOptions());
             });
-            GfyCore.get().initUserAccountManager(userAccountManager);
-
-            CachedMediaFilesManager videoDownloadingManager = new CachedMediaFilesManager(videoClient, diskCache);
-            GfyCore.get().initMediaFilesManager(videoDownloadingManager);
-
-            NSFWContentManagerImpl nsfwContentManager = new NSFWContentManagerImpl(gfycatApi, feedCache);
-            GfyCore.get().initNsfwContentManager(nsfwContentManager);
-
-            UserOwnedContentManagerImpl userOwnedContentManager = new UserOwnedContentManagerImpl(gfycatApi, creationApi, feedCache);
-            GfyCore.get().initUserOwnedContentManager(userOwnedContentManager);
-
-            DefaultUploadManager uploadManager = new DefaultUploadManager(creationApi, videoClient, NetworkConfig.buildUploadUrl(appDomainName), gfyName -> feedManager.getGfycat(gfyName).blockingGet());
-            GfyCore.get().initUploadManager(uploadManager);
-
-            GfyPrivate.initialize(appDomainName, videoClient, creationApi, userAccountManager, feedManager);
-            GfycatImpression.initialize(builder.getContext(), builder.getGfycatApplicationInfo());
-
-            GfycatAnalytics.addEngine(new MetricsEngine(builder.getContext(), builder.getGfycatApplicationInfo()));
-            GfycatAnalytics.addLogger(CoreLogger.class, new CoreLoggerImpl());
 
-            initializeAdsPlugin(builder.getContext());
-            GfycatPluginInitializer.initialize(builder.getContext());
+            Single<GfycatFeedDatabaseCache> feedCache = graph.component("feedCache", () -> new GfycatFeedDatabaseCache(context));
+
+            Single<TokenAuthenticator> authenticator = graph.component("authenticator", () -> {
+                AuthenticationAPI authenticationApi = new Retrofit.Builder()
+                        .addConverterFactory(GsonConverterFactory.create())
+                        .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                        .client(new OkHttpClient.Builder().addInterceptor(builder.getJsonInterceptor()).build())
+                        .baseUrl(apiUrl)
+                        .build()
+                        .create(AuthenticationAPI.class);
+                return new TokenAuthenticator(context, builder.getGfycatApplicationInfo(), authenticationApi);
+            });
 
-            Logging.d(LOG_TAG, "initialization end");
-            initializationCompleted = true;
+            Single<OkHttpClient> client = graph.component("client", () -> new OkHttpClient.Builder()
+                            .authenticator(authenticator.blockingGet())
+                            .addInterceptor(authenticator.blockingGet())
+                            .addInterceptor(builder.getJsonInterceptor())
+                            .build(),
+                    authenticator);
+
+            Single<OkHttpClient> noAuthClient = graph.component("noAuthClient",
+                    () -> new OkHttpClient.Builder().addInterceptor(builder.getMediaInterceptor()).build()); //https://gfycat.atlassian.net/browse/ANDMES-547
+
+            Single<OkHttpClient> videoClient = graph.component("videoClient", () -> new OkHttpClient.Builder()
+                    .cache(null)
+                    .connectionPool(new ConnectionPool(0, 1, TimeUnit.SECONDS))
+                    .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                    .dispatcher(new Dispatcher(Executors.newFixedThreadPool(MAX_DOWNLOADING_VIDEOS_COUNT)))
+                    .addInterceptor(builder.getMediaInterceptor())
+                    .eventListenerFactory(ThroughputEstimator.get().eventListenerFactory())
+                    .retryOnConnectionFailure(false)
+                    .build());
+
+            Single<SignUpAPI> signUpApi = graph.component("signUpApi", () -> {
+                SignUpAPI api = buildGeneralApi(apiUrl, client.blockingGet(), SignUpAPI.class);
+                authenticator.blockingGet().setSignUpAPI(api);
+                return api;
+            }, client);
+
+            // components get apis before network stack is built, so cached content is available without waiting for it
+            GfycatAPI gfycatApi = DeferredApi.create(GfycatAPI.class,
+                    graph.component("gfycatApi", () -> buildGeneralApi(apiUrl, client.blockingGet(), GfycatAPI.class), client));
+            CreationAPI creationApi = DeferredApi.create(CreationAPI.class,
+                    graph.component("creationApi", () -> buildGeneralApi(apiUrl, client.blockingGet(), CreationAPI.class), client));
+            NoAuthAPI noAuthApi = DeferredApi.create(NoAuthAPI.class,
+                    graph.component("noAuthApi", () -> buildGeneralApi(apiUrl, noAuthClient.blockingGet(), NoAuthAPI.class), noAuthClient));
+
+            Single<FeedManagerImpl> feedManager = graph.component("feedManager", () -> {
+                FeedManagerImpl manager = new FeedManagerImpl(new CategoriesCache(context), gfycatApi, feedCache.blockingGet(), builder.getFeedFreshnessPolicies());
+                GfyCore.get().initFeedManager(manager);
+                return manager;
+            }, feedCache);
+
+            graph.component("mediaFilesManager", () -> {
+                CachedMediaFilesManager manager = new CachedMediaFilesManager(videoClient.blockingGet(), diskCache.blockingGet());
+                GfyCore.get().initMediaFilesManager(manager);
+                return manager;
+            }, videoClient, diskCache);
+
+            graph.component("nsfwContentManager", () -> {
+                NSFWContentManagerImpl manager = new NSFWContentManagerImpl(gfycatApi, feedCache.blockingGet());
+                GfyCore.get().initNsfwContentManager(manager);
+                return manager;
+            }, feedCache);
+
+            graph.component("userOwnedContentManager", () -> {
+                UserOwnedContentManagerImpl manager = new UserOwnedContentManagerImpl(gfycatApi, creationApi, feedCache.blockingGet());
+                GfyCore.get().initUserOwnedContentManager(manager);
+                return manager;
+            }, feedCache);
+
+            // eager, so sign in state is known as soon as possible, feeds that depend on it wait for the manager
+            Single<UserAccountManagerImpl> userAccountManager = graph.component("userAccountManager", () -> {
+                GfycatFeedDatabaseCache cache = feedCache.blockingGet();
+                UserAccountManagerImpl manager = new UserAccountManagerImpl(context, authenticator.blockingGet(), gfycatApi, noAuthApi, () -> {
+                    cache.delete(PublicFeedIdentifier.myGfycats());
+                    builder.getDropUserRelatedContent();
+                });
+                GfyCore.get().initUserAccountManager(manager);
+                return manager;
+            }, feedCache, authenticator, signUpApi);
+
+            GfyCore.get().initUploadManagerLazily(graph.lazyComponent("uploadManager", () -> {
+                FeedManagerImpl feeds = feedManager.blockingGet();
+                DefaultUploadManager manager = new DefaultUploadManager(creationApi, videoClient.blockingGet(), NetworkConfig.buildUploadUrl(appDomainName), gfyName -> feeds.getGfycat(gfyName).blockingGet());
+                manager.setChunkedUpload(builder.getChunkedUploadConfig());
+                GfyCore.get().initUploadManager(manager);
+                return manager;
+            }, videoClient, feedManager));
+
+            Single<Boolean> gfyPrivate = graph.component("gfyPrivate", () -> {
+                GfyPrivate.initialize(appDomainName, videoClient.blockingGet(), creationApi, userAccountManager.blockingGet(), feedManager.blockingGet());
+                return true;
+            }, videoClient, userAccountManager, feedManager);
+
+            Single<Boolean> analytics = graph.component("analytics", () -> {
+                GfycatImpression.initialize(context, builder.getGfycatApplicationInfo());
+                GfycatAnalytics.addEngine(new MetricsEngine(context, builder.getGfycatApplicationInfo()));
+                GfycatAnalytics.addLogger(CoreLogger.class, new CoreLoggerImpl());
+                return true;
+            });
 
-            subscriber.onComplete();
+            graph.component("plugins", () -> {
+                initializeAdsPlugin(context);
+                GfycatPluginInitializer.initialize(context);
+                return true;
+            }, gfyPrivate, analytics);
+
+            return graph.start()
+                    .doOnComplete(() -> {
+                        Logging.d(LOG_TAG, "initialization end");
+                        initializationCompleted = true;
+                    });
         });
     }
 
+    /**
+     * @return Returns build duration in milliseconds of every built GfyCore component, in order of completion,
+     * "total" is duration of initialization without lazy components. Empty if initialization was not started.
+     */
+    public static Map<String, Long> getInitializationTimings() {
+        InitializationGraph graph = initializationGraph;
+        return graph == null ? Collections.emptyMap() : graph.getTimings();
+    }
+
     private static void initializeAdsPlugin(Context context) {
         AdsManager.initialize(context);
     }
@@ -217,7 +292,7 @@ public class GfyCoreInitializer {
         return new Retrofit.Builder()
                 .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
                 .client(client)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(API_GSON))
                 .baseUrl(baseUrl)
                 .build()
                 .create(clazz);
@@ -231,5 +306,6 @@ public class GfyCoreInitializer {
         GfyPrivate.get().deInit();
         initializationPerformed = false;
         initializationCompleted = false;
+        initializationGraph = null;
     }
 }
\ No newline at end of file
@@ -35,6 +35,10 @@ public class GfyUtils {
         return gfycat == null || TextUtils.isEmpty(gfycat.getTitle()) || gfycat.getTitle().toLowerCase(Locale.US).equals("untitled");
     }
 
+    /**
+     * Deprecation reason: feed freshness is evaluated by {@link com.gfycat.core.downloading.FreshnessPolicy}, see {@link GfyCore#getFeedFreshnessPolicies()}.
+     */
+    @Deprecated
     public static boolean isFeedOutdated(Date date) {
         Calendar calendar = GregorianCalendar.getInstance();
         calendar.add(Calendar.HOUR, -2);
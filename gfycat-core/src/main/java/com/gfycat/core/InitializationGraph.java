@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core;
+
+import com.gfycat.common.utils.Logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Components of GfyCore with their dependencies.
+ * <p>
+ * Every component is built on io thread as soon as all its dependencies are built, so independent components are built in parallel.
+ * Lazy components are built on first subscription only.
+ * Factory of component could get its dependencies with {@link Single#blockingGet()}, they are already built at that moment.
+ * <p>
+ * Build duration of every component is recorded, see {@link #getTimings()}.
+ */
+class InitializationGraph {
+
+    private static final String LOG_TAG = "InitializationGraph";
+
+    private final List<Completable> eagerComponents = new ArrayList<>();
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Adds component that is built by {@link #start()}.
+     */
+    <T> Single<T> component(String name, Callable<T> factory, Single<?>... dependencies) {
+        Single<T> component = build(name, factory, dependencies);
+        eagerComponents.add(component.ignoreElement());
+        return component;
+    }
+
+    /**
+     * Adds component that is built on first subscription.
+     */
+    <T> Single<T> lazyComponent(String name, Callable<T> factory, Single<?>... dependencies) {
+        return build(name, factory, dependencies);
+    }
+
+    /**
+     * @return Returns completable that starts building of all non lazy components and completes when they are built.
+     */
+    Completable start() {
+        return Completable.merge(eagerComponents)
+                .doOnComplete(() -> {
+                    timings.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                    Logging.d(LOG_TAG, "initialization timings ", timings);
+                });
+    }
+
+    /**
+     * @return Returns build duration in milliseconds of every built component, in order of completion.
+     * "total" is time from graph creation till all non lazy components are built.
+     */
+    Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    private <T> Single<T> build(String name, Callable<T> factory, Single<?>[] dependencies) {
+        List<Completable> waitDependencies = new ArrayList<>(dependencies.length);
+        for (Single<?> dependency : dependencies) {
+            waitDependencies.add(dependency.ignoreElement());
+        }
+        return Completable.merge(waitDependencies)
+                // do not build siblings on thread of the last built dependency one by one
+                .observeOn(Schedulers.io())
+                .andThen(Single.fromCallable(() -> measure(name, factory)))
+                .subscribeOn(Schedulers.io())
+                .cache();
+    }
+
+    private <T> T measure(String name, Callable<T> factory) throws Exception {
+        long start = System.nanoTime();
+        T result = factory.call();
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        timings.put(name, duration);
+        Logging.d(LOG_TAG, name, " built in ", duration, "ms on ", Thread.currentThread().getName());
+        return result;
+    }
+}
@@ -18,138 +18,309 @@ package com.gfycat.core;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.AtomicFile;
 
 import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Logging;
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.annotations.NonNull;
-import io.reactivex.functions.Consumer;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 
 /**
- * Persistent storage in shared preferences for single object that supports jackson serialization.
+ * Persistent storage of single object that supports gson serialization, every key is stored in its own file.
+ * <p>
+ * Value is kept in memory as snapshot that is replaced on every change, so reads do not take locks.
+ * Stored objects should not be modified after {@link #put(Object)}.
+ * File is replaced atomically, asynchronous writes are coalesced, so only the latest value is written.
+ * Repositories with the same key share value.
+ * <p>
+ * Values that were stored by previous versions in shared preferences with name and key equal to repository key
+ * are moved to file on first access.
  * <p>
  * Created by dekalo on 01.02.16.
  */
 public class SingleObjectRepository<T> {
 
+    /**
+     * Encoding of value in file, file could be read regardless of encoding of repository.
+     */
+    public enum Encoding {
+        /**
+         * Gson json, the same as was stored in shared preferences.
+         */
+        JSON(1),
+        /**
+         * Deflated Gson json, for large objects.
+         */
+        DEFLATED_JSON(2);
+
+        private final int id;
+
+        Encoding(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final String DIRECTORY = "gfycat_objects";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Object NO_VALUE = new Object();
+
     private static final Gson gson = new Gson();
-    private final SharedPreferences preferences;
+    private static final ConcurrentHashMap<String, Store> stores = new ConcurrentHashMap<>();
+    private static final Executor writeExecutor = Executors.newSingleThreadExecutor();
+
+    private final Context context;
     private final String key;
     private final Class<? extends T> clazz;
     private final T defaultValue;
-
-    /**
-     * All preferences and lazyValue modification should be synchronized.
-     */
-    private static Map<String, AtomicReference<Object>> lazyValues = new HashMap<>();
+    private final Encoding encoding;
+    private final Store store;
 
     private final String logTag;
 
     public SingleObjectRepository(Context context, String key, Class<? extends T> clazz, @NonNull T defaultValue) {
-        this.preferences = context.getSharedPreferences(key, Context.MODE_PRIVATE);
+        this(context, key, clazz, defaultValue, Encoding.JSON);
+    }
+
+    public SingleObjectRepository(Context context, String key, Class<? extends T> clazz, @NonNull T defaultValue, Encoding encoding) {
+        this.context = context.getApplicationContext();
         this.key = key;
         this.clazz = clazz;
         this.defaultValue = defaultValue;
+        this.encoding = encoding;
+        this.store = storeFor(key);
         logTag = "SOR_" + key;
     }
 
-    public void putSync(@NonNull T value) {
-        basePut(value, SharedPreferences.Editor::commit);
+    private static Store storeFor(String key) {
+        Store store = stores.get(key);
+        if (store == null) {
+            Store created = new Store();
+            store = stores.putIfAbsent(key, created);
+            if (store == null) store = created;
+        }
+        return store;
     }
 
-    public void put(@NonNull T value) {
-        basePut(value, SharedPreferences.Editor::apply);
+    /**
+     * Drops values that are kept in memory, so they are read from files again.
+     */
+    @VisibleForTesting
+    static void clearMemoryCache() {
+        stores.clear();
     }
 
-    private void basePut(@NonNull T value, Consumer<SharedPreferences.Editor> applyOrCommit) {
+    public void putSync(@NonNull T value) {
+        Logging.d(logTag, "putSync(", value, ")");
+        change(value);
+        write();
+    }
+
+    public void put(@NonNull T value) {
         Logging.d(logTag, "put(", value, ")");
-        try {
-            synchronized (clazz) {
-                lazySet(value);
-                applyOrCommit.accept(preferences.edit().putString(key, gson.toJson(value)));
-            }
-        } catch (JsonIOException e) {
-            Assertions.fail(new Exception("Can not save value: " + value + " for class: " + clazz, e));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        change(value);
+        scheduleWrite();
     }
 
     public void remove() {
-        synchronized (clazz) {
-            lazyValues.remove(key);
-            preferences.edit().remove(key).apply();
-        }
+        change(NO_VALUE);
+        scheduleWrite();
     }
 
     public void removeSync() {
-        baseRemove(SharedPreferences.Editor::commit);
+        change(NO_VALUE);
+        write();
     }
 
-    private void baseRemove(Consumer<SharedPreferences.Editor> applyOrCommit) {
-        synchronized (clazz) {
-            lazyValues.remove(key);
-            try {
-                applyOrCommit.accept(preferences.edit().remove(key));
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object value = store.snapshot.get();
+        if (value == null) {
+            value = load();
         }
+        return value == NO_VALUE ? defaultValue : (T) value;
     }
 
-    @NonNull
-    public T get() {
+    /**
+     * @return Returns observable that emits current value and then value after every change,
+     * changes are delivered on main thread.
+     */
+    public Observable<T> observe() {
+        return store.changes
+                .observeOn(AndroidSchedulers.mainThread())
+                .map(ignored -> get())
+                .startWith(Observable.fromCallable(this::get));
+    }
 
-        T result = lazyGet();
+    private void change(Object value) {
+        // load first, so value from preferences is not moved over newer one later
+        if (store.snapshot.get() == null) load();
+        store.snapshot.set(value);
+        store.changes.onNext(value);
+    }
 
-        if (result == null) {
-            try {
-                synchronized (clazz) {
-                    if (preferences.contains(key)) {
-                        result = gson.fromJson(preferences.getString(key, null), clazz);
-                        lazySet(result);
-                    }
-                }
-            } catch (JsonIOException e) {
-                Assertions.fail(new Exception("Can not read value " + preferences.getString(key, null) + " for class: " + clazz, e));
-                remove();
+    private Object load() {
+        synchronized (store) {
+            Object value = store.snapshot.get();
+            if (value != null) return value;
+
+            value = read();
+            if (value == NO_VALUE) {
+                value = migrateFromPreferences();
             }
+            store.snapshot.set(value);
+            return value;
         }
+    }
 
-        return result == null ? defaultValue : result;
+    private void scheduleWrite() {
+        if (store.writeScheduled.compareAndSet(false, true)) {
+            writeExecutor.execute(() -> {
+                store.writeScheduled.set(false);
+                write();
+            });
+        }
     }
 
-    @NonNull
-    private T lazyGet() {
-        synchronized (clazz) {
-            AtomicReference<T> ref = (AtomicReference<T>) lazyValues.get(key);
-            return ref != null ? ref.get() : null;
+    /**
+     * Writes current value, so file ends up with the latest value regardless of order of concurrent writes.
+     *
+     * @return Returns true if value was written.
+     */
+    private boolean write() {
+        synchronized (store) {
+            Object value = store.snapshot.get();
+            AtomicFile file = store.file(context, key);
+            if (value == NO_VALUE) {
+                file.delete();
+                return true;
+            }
+            FileOutputStream os = null;
+            try {
+                byte[] data = encode(value);
+                os = file.startWrite();
+                os.write(data);
+                file.finishWrite(os);
+                return true;
+            } catch (IOException | JsonIOException e) {
+                if (os != null) file.failWrite(os);
+                Assertions.fail(new Exception("Can not save value: " + value + " for class: " + clazz, e));
+                return false;
+            }
         }
     }
 
-    private void lazySet(@NonNull T value) {
-        synchronized (clazz) {
-            lazyValues.put(key, new AtomicReference<>(value));
+    private Object read() {
+        AtomicFile file = store.file(context, key);
+        try {
+            return decode(file.readFully());
+        } catch (FileNotFoundException e) {
+            return NO_VALUE;
+        } catch (IOException | JsonParseException e) {
+            Assertions.fail(new Exception("Can not read value for class: " + clazz, e));
+            file.delete();
+            return NO_VALUE;
         }
     }
 
-    public Observable<T> observe() {
-        return Observable.create(subscriber -> {
+    private Object migrateFromPreferences() {
+        SharedPreferences preferences = context.getSharedPreferences(key, Context.MODE_PRIVATE);
+        if (!preferences.contains(key)) return NO_VALUE;
 
-            subscriber.onNext(get());
+        Object value = NO_VALUE;
+        String json = preferences.getString(key, null);
+        try {
+            T legacyValue = gson.fromJson(json, clazz);
+            if (legacyValue != null) {
+                value = legacyValue;
+                store.snapshot.set(value);
+                if (!write()) {
+                    // value is served from memory, moving is retried on next start
+                    return value;
+                }
+            }
+            Logging.d(logTag, "moved from preferences");
+        } catch (JsonParseException e) {
+            Assertions.fail(new Exception("Can not read value " + json + " for class: " + clazz, e));
+        }
+        preferences.edit().remove(key).commit();
+        return value;
+    }
 
-            SharedPreferences.OnSharedPreferenceChangeListener internalListener = (sharedPreferences, key1) -> subscriber.onNext(get());
+    private byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(encoding.id);
+        OutputStream os = encoding == Encoding.DEFLATED_JSON ? new DeflaterOutputStream(bytes) : bytes;
+        Writer writer = new OutputStreamWriter(os, UTF_8);
+        gson.toJson(value, writer);
+        writer.close();
+        return bytes.toByteArray();
+    }
 
-            preferences.registerOnSharedPreferenceChangeListener(internalListener);
+    private Object decode(byte[] data) throws IOException {
+        if (data.length == 0) throw new IOException("Empty file");
+        InputStream is = new ByteArrayInputStream(data, 1, data.length - 1);
+        if (data[0] == Encoding.DEFLATED_JSON.id) {
+            is = new InflaterInputStream(is);
+        } else if (data[0] != Encoding.JSON.id) {
+            throw new IOException("Unknown encoding " + data[0]);
+        }
+        Reader reader = new InputStreamReader(is, UTF_8);
+        try {
+            T value = gson.fromJson(reader, clazz);
+            return value != null ? value : NO_VALUE;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Value of key, it is shared by all repositories with the same key.
+     */
+    private static class Store {
+        /**
+         * Null till value is loaded, {@link #NO_VALUE} if there is no value.
+         */
+        final AtomicReference<Object> snapshot = new AtomicReference<>();
+        final AtomicBoolean writeScheduled = new AtomicBoolean();
+        final Subject<Object> changes = PublishSubject.<Object>create().toSerialized();
+        // guarded by this
+        private AtomicFile file;
 
-            subscriber.setCancellable(() -> preferences.unregisterOnSharedPreferenceChangeListener(internalListener));
-        });
+        synchronized AtomicFile file(Context context, String key) {
+            if (file == null) {
+                file = new AtomicFile(new File(new File(context.getFilesDir(), DIRECTORY), key));
+            }
+            return file;
+        }
     }
 }
@@ -30,12 +30,18 @@ public interface CoreLogger extends BILogger {
     String ACCOUNT_LOGGED_IN_EVENT = "account_logged_in";
     String FORBIDDEN_CONTENT = "forbidden_content";
     String BROKEN_CONTENT = "broken_content";
+    String MEDIA_TRANSFER = "media_transfer";
     String MEDIA_TYPE_KEY = "media_type";
     String MEDIA_URL_KEY = "media_url";
     String USERNAME_KEY = "username";
     String CHANNEL_KEY = "channel";
     String FBID_KEY = "fb_id";
     String EMAIL_KEY = "email";
+    String BYTES_KEY = "bytes";
+    String LATENCY_KEY = "latency_ms";
+    String DURATION_KEY = "duration_ms";
+    String THROUGHPUT_KEY = "throughput_bps";
+    String READERS_KEY = "readers";
 
     void logAccountCreated(BIContext context, String userName, String email, String fb_id);
 
@@ -44,4 +50,11 @@ public interface CoreLogger extends BILogger {
     void logBrokenContent(Gfycat gfycat, MediaType mediaType);
 
     void logForbidden(Gfycat gfycat, MediaType mediaType);
+
+    /**
+     * @param latencyMs  time till first byte of media, -1 if nothing was received.
+     * @param throughput bytes per second.
+     * @param readers    count of streams that shared transfer.
+     */
+    void logMediaTransfer(MediaType mediaType, long bytes, long latencyMs, long durationMs, long throughput, int readers);
 }
@@ -69,4 +69,17 @@ public class CoreLoggerImpl extends EngineBasedLogger implements CoreLogger {
 
         track(FORBIDDEN_CONTENT, params);
     }
+
+    @Override
+    public void logMediaTransfer(MediaType mediaType, long bytes, long latencyMs, long durationMs, long throughput, int readers) {
+        Map<String, String> params = new HashMap<>();
+        params.put(MEDIA_TYPE_KEY, mediaType.getName());
+        params.put(BYTES_KEY, String.valueOf(bytes));
+        params.put(LATENCY_KEY, String.valueOf(latencyMs));
+        params.put(DURATION_KEY, String.valueOf(durationMs));
+        params.put(THROUGHPUT_KEY, String.valueOf(throughput));
+        params.put(READERS_KEY, String.valueOf(readers));
+
+        track(MEDIA_TRANSFER, params);
+    }
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.creation;
+
+import com.gfycat.common.utils.Logging;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Uploads content with several PUT requests, every request contains one chunk of content
+ * and {@code Content-Range: bytes first-last/total} header, total is {@code *} till the last chunk.
+ * <p>
+ * Failed chunk is retried without uploading of already uploaded chunks.
+ * Chunks could be uploaded in parallel, the last chunk is uploaded after all others,
+ * so the server completes upload when all content is received.
+ * <p>
+ * Content is read by chunks, so length of content is not required and
+ * at most parallelism + 2 chunks are kept in memory.
+ */
+public class ChunkedUploader {
+
+    private static final String LOG_TAG = "ChunkedUploader";
+
+    static final String CONTENT_RANGE_HEADER = "Content-Range";
+    /**
+     * Server received chunk, but upload is not completed yet.
+     */
+    static final int HTTP_RESUME_INCOMPLETE = 308;
+
+    private final OkHttpClient client;
+    private final Config config;
+
+    public ChunkedUploader(OkHttpClient client, Config config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    /**
+     * @param contentLength length of content if known, -1 otherwise, it is used for progress reporting only.
+     * @throws ChunkUploadException if server rejected chunk or chunk was not uploaded after all retries.
+     */
+    public void upload(String url, MediaType mediaType, InputStream content, long contentLength, ProgressReportingSource.ProgressListener listener) throws IOException {
+        ProgressReportingSource.Aggregate progress = new ProgressReportingSource.Aggregate(contentLength, listener);
+        ExecutorService executor = config.parallelism > 1 ? Executors.newFixedThreadPool(config.parallelism) : null;
+        Semaphore inFlight = new Semaphore(config.parallelism);
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            Chunk chunk = readChunk(content, 0);
+            while (true) {
+                Chunk next = chunk.length == config.chunkSize ? readChunk(content, chunk.end()) : null;
+                if (next == null || next.length == 0) {
+                    awaitAll(pending);
+                    progress.setContentLength(chunk.end());
+                    uploadWithRetries(url, mediaType, chunk, chunk.end(), progress);
+                    return;
+                }
+
+                if (executor == null) {
+                    uploadWithRetries(url, mediaType, chunk, -1, progress);
+                } else {
+                    checkFailures(pending);
+                    acquire(inFlight);
+                    Chunk parallelChunk = chunk;
+                    pending.add(executor.submit(() -> {
+                        try {
+                            uploadWithRetries(url, mediaType, parallelChunk, -1, progress);
+                            return null;
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                chunk = next;
+            }
+        } finally {
+            if (executor != null) executor.shutdownNow();
+        }
+    }
+
+    private Chunk readChunk(InputStream content, long offset) throws IOException {
+        byte[] data = new byte[config.chunkSize];
+        int length = 0;
+        while (length < data.length) {
+            int read = content.read(data, length, data.length - length);
+            if (read == -1) break;
+            length += read;
+        }
+        return new Chunk(offset, data, length);
+    }
+
+    private void uploadWithRetries(String url, MediaType mediaType, Chunk chunk, long total, ProgressReportingSource.Aggregate progress) throws IOException {
+        ChunkRequestBody body = new ChunkRequestBody(mediaType, chunk, progress);
+        Request request = new Request.Builder()
+                .url(url)
+                .header(CONTENT_RANGE_HEADER, contentRange(chunk, total))
+                .put(body)
+                .build();
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Response response = client.newCall(request).execute();
+                try {
+                    if (response.isSuccessful() || response.code() == HTTP_RESUME_INCOMPLETE) {
+                        Logging.d(LOG_TAG, "uploaded ", request.header(CONTENT_RANGE_HEADER));
+                        return;
+                    }
+                    if (!isRetriable(response.code()) || attempt >= config.maxRetries) {
+                        throw new ChunkUploadException(chunk.offset, response.code(), response.message());
+                    }
+                } finally {
+                    response.close();
+                }
+            } catch (ChunkUploadException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= config.maxRetries) {
+                    throw new ChunkUploadException(chunk.offset, e);
+                }
+                Logging.d(LOG_TAG, "retry ", request.header(CONTENT_RANGE_HEADER), " after ", e);
+            }
+            body.rollback();
+            sleep(config.retryDelayMs << attempt);
+        }
+    }
+
+    static String contentRange(Chunk chunk, long total) {
+        String length = total < 0 ? "*" : String.valueOf(total);
+        if (chunk.length == 0) {
+            return "bytes */" + length;
+        }
+        return "bytes " + chunk.offset + "-" + (chunk.end() - 1) + "/" + length;
+    }
+
+    private static boolean isRetriable(int code) {
+        return code >= 500 || code == 408 || code == 429;
+    }
+
+    private static void checkFailures(List<Future<?>> pending) throws IOException {
+        Iterator<Future<?>> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Future<?> future = iterator.next();
+            if (future.isDone()) {
+                get(future);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> pending) throws IOException {
+        for (Future<?> future : pending) {
+            get(future);
+        }
+        pending.clear();
+    }
+
+    private static void get(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Upload interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Upload interrupted");
+        }
+    }
+
+    private static void sleep(long delayMs) throws IOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Upload interrupted");
+        }
+    }
+
+    static class Chunk {
+        final long offset;
+        final byte[] data;
+        final int length;
+
+        Chunk(long offset, byte[] data, int length) {
+            this.offset = offset;
+            this.data = data;
+            this.length = length;
+        }
+
+        long end() {
+            return offset + length;
+        }
+    }
+
+    private static class ChunkRequestBody extends RequestBody {
+        private final MediaType mediaType;
+        private final Chunk chunk;
+        private final ProgressReportingSource.Aggregate progress;
+        private ProgressReportingSource source;
+
+        ChunkRequestBody(MediaType mediaType, Chunk chunk, ProgressReportingSource.Aggregate progress) {
+            this.mediaType = mediaType;
+            this.chunk = chunk;
+            this.progress = progress;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public long contentLength() {
+            return chunk.length;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            // body could be written again by OkHttp retry
+            rollback();
+            source = progress.source(Okio.source(new ByteArrayInputStream(chunk.data, 0, chunk.length)));
+            sink.writeAll(source);
+        }
+
+        synchronized void rollback() {
+            if (source != null) source.rollback();
+            source = null;
+        }
+    }
+
+    /**
+     * Chunk was rejected by server or was not uploaded after all retries.
+     */
+    public static class ChunkUploadException extends IOException {
+        private final long offset;
+        private final int code;
+
+        ChunkUploadException(long offset, int code, String message) {
+            super("Chunk at " + offset + " was not uploaded. code = " + code + " message = " + message);
+            this.offset = offset;
+            this.code = code;
+        }
+
+        ChunkUploadException(long offset, IOException cause) {
+            super("Chunk at " + offset + " was not uploaded", cause);
+            this.offset = offset;
+            this.code = -1;
+        }
+
+        /**
+         * @return Returns offset of failed chunk, all content before it is uploaded when chunks are uploaded sequentially.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return Returns http code of the last response, -1 if request failed without response.
+         */
+        public int getCode() {
+            return code;
+        }
+    }
+
+    public static class Config {
+        public static final int DEFAULT_CHUNK_SIZE = 2 * 1024 * 1024;
+        public static final int DEFAULT_PARALLELISM = 1;
+        public static final int DEFAULT_MAX_RETRIES = 3;
+        public static final long DEFAULT_RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(1);
+
+        private final int chunkSize;
+        private final int parallelism;
+        private final int maxRetries;
+        private final long retryDelayMs;
+
+        private Config(Builder builder) {
+            chunkSize = builder.chunkSize;
+            parallelism = builder.parallelism;
+            maxRetries = builder.maxRetries;
+            retryDelayMs = builder.retryDelayMs;
+        }
+
+        public static class Builder {
+            private int chunkSize = DEFAULT_CHUNK_SIZE;
+            private int parallelism = DEFAULT_PARALLELISM;
+            private int maxRetries = DEFAULT_MAX_RETRIES;
+            private long retryDelayMs = DEFAULT_RETRY_DELAY_MS;
+
+            public Builder chunkSize(int chunkSize) {
+                if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize <= 0");
+                this.chunkSize = chunkSize;
+                return this;
+            }
+
+            /**
+             * @param parallelism count of chunks that are uploaded at the same time.
+             */
+            public Builder parallelism(int parallelism) {
+                if (parallelism <= 0) throw new IllegalArgumentException("parallelism <= 0");
+                this.parallelism = parallelism;
+                return this;
+            }
+
+            /**
+             * @param maxRetries count of retries of every chunk after IOException or 5xx, 408 and 429 responses.
+             */
+            public Builder maxRetries(int maxRetries) {
+                this.maxRetries = maxRetries;
+                return this;
+            }
+
+            /**
+             * @param retryDelayMs delay before first retry, it is doubled for every next retry of chunk.
+             */
+            public Builder retryDelay(long retryDelayMs) {
+                this.retryDelayMs = retryDelayMs;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.creation;
+
+import com.gfycat.common.utils.Assertions;
+import com.gfycat.common.utils.Logging;
+import com.gfycat.common.utils.Utils;
+import com.gfycat.core.creation.pojo.CreationStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Tracks server processing of uploaded gfycats with single timer and asynchronous status requests, no thread is blocked while waiting.
+ * <p>
+ * Statuses of all tracked gfycats that are due within {@link #COALESCE_WINDOW_MS} are requested on the same timer tick.
+ * Poll interval adapts to reported status: it follows estimated time reported by server,
+ * resets to minimal interval when status changes and grows while status stays the same.
+ * Every subscriber has its own timeout, status is requested no later than the earliest one.
+ */
+public class CreationStatusTracker {
+
+    private static final String LOG_TAG = "CreationStatusTracker";
+
+    static final String STATUS_COMPLETE = "complete";
+    static final String STATUS_ERROR = "error";
+
+    /**
+     * Polls that are due within this window are sent together with earlier ones.
+     */
+    static final long COALESCE_WINDOW_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final int BACKOFF_MULTIPLIER = 2;
+    private static final int MAX_DELAY_MULTIPLIER = 4;
+
+    private final CreationAPI creationAPI;
+    private final Scheduler scheduler;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+
+    private final Subject<StatusUpdate> updates = PublishSubject.<StatusUpdate>create().toSerialized();
+
+    // guarded by this
+    private final Map<String, Tracking> trackings = new HashMap<>();
+    private Disposable timer;
+    private long timerTime = Long.MAX_VALUE;
+
+    /**
+     * @param initialDelayMs delay of first status request.
+     * @param minDelayMs     delay of status request after status change.
+     */
+    public CreationStatusTracker(CreationAPI creationAPI, long initialDelayMs, long minDelayMs) {
+        this(creationAPI, Schedulers.computation(), initialDelayMs, minDelayMs);
+    }
+
+    CreationStatusTracker(CreationAPI creationAPI, Scheduler scheduler, long initialDelayMs, long minDelayMs) {
+        this.creationAPI = creationAPI;
+        this.scheduler = scheduler;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = minDelayMs * MAX_DELAY_MULTIPLIER;
+    }
+
+    /**
+     * @return Returns observable of status changes of all tracked gfycats.
+     */
+    public Observable<StatusUpdate> updates() {
+        return updates;
+    }
+
+    /**
+     * Starts tracking on subscription, all subscribers of the same gfycat share status requests.
+     *
+     * @param timeout time after which tracking for this subscriber ends with {@link UploadManager.CreationTimeoutException}, status is requested at least once.
+     * @return Returns observable that emits status on every change and completes after {@link #STATUS_COMPLETE} status.
+     * Fails with {@link UploadManager.FailedToCreateGfycatException}, {@link UploadManager.CanNotGetGfycatStatusException} or {@link UploadManager.InternalCreationException}.
+     */
+    public Observable<CreationStatus> track(String gfyName, long timeout) {
+        return Observable.create(source -> {
+            // status is emitted from network callbacks and on subscription
+            ObservableEmitter<CreationStatus> emitter = source.serialize();
+            synchronized (this) {
+                long now = scheduler.now(TimeUnit.MILLISECONDS);
+                Tracking tracking = trackings.get(gfyName);
+                if (tracking == null) {
+                    tracking = new Tracking(gfyName, now + initialDelayMs);
+                    trackings.put(gfyName, tracking);
+                    Logging.d(LOG_TAG, "track ", gfyName);
+                } else if (tracking.lastStatus != null) {
+                    emitter.onNext(tracking.lastStatus);
+                }
+                tracking.subscribers.add(new Subscriber(emitter, now + timeout));
+                if (!tracking.inFlight) tracking.nextPollTime = Math.min(tracking.nextPollTime, now + timeout);
+                reschedule();
+            }
+            source.setCancellable(() -> untrack(gfyName, emitter));
+        });
+    }
+
+    private synchronized void untrack(String gfyName, ObservableEmitter<CreationStatus> emitter) {
+        Tracking tracking = trackings.get(gfyName);
+        if (tracking == null) return;
+        Iterator<Subscriber> iterator = tracking.subscribers.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().emitter == emitter) iterator.remove();
+        }
+        if (tracking.subscribers.isEmpty()) {
+            Logging.d(LOG_TAG, "untrack ", gfyName);
+            trackings.remove(gfyName);
+            reschedule();
+        }
+    }
+
+    private synchronized void reschedule() {
+        long earliest = Long.MAX_VALUE;
+        for (Tracking tracking : trackings.values()) {
+            if (!tracking.inFlight) earliest = Math.min(earliest, tracking.nextPollTime);
+        }
+        if (earliest == timerTime) return;
+        if (timer != null) timer.dispose();
+        timer = null;
+        timerTime = earliest;
+        if (earliest == Long.MAX_VALUE) return;
+        long delay = Math.max(0, earliest - scheduler.now(TimeUnit.MILLISECONDS));
+        timer = scheduler.scheduleDirect(this::poll, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        List<Tracking> due = new ArrayList<>();
+        synchronized (this) {
+            timer = null;
+            timerTime = Long.MAX_VALUE;
+            long now = scheduler.now(TimeUnit.MILLISECONDS);
+            for (Tracking tracking : trackings.values()) {
+                if (!tracking.inFlight && tracking.nextPollTime <= now + COALESCE_WINDOW_MS) {
+                    tracking.inFlight = true;
+                    due.add(tracking);
+                }
+            }
+            reschedule();
+        }
+        Logging.d(LOG_TAG, "poll ", due.size(), " gfycats");
+        for (Tracking tracking : due) {
+            creationAPI.getCreationStatus(tracking.gfyName).enqueue(new Callback<CreationStatus>() {
+                @Override
+                public void onResponse(Call<CreationStatus> call, Response<CreationStatus> response) {
+                    CreationStatus status = response.body();
+                    if (!response.isSuccessful()) {
+                        fail(tracking, new UploadManager.CanNotGetGfycatStatusException(tracking.gfyName, "creationStatusResponse is not successful (" + tracking.gfyName + ") code = " + response.code() + " message = " + response.message()));
+                    } else if (status == null) {
+                        fail(tracking, new UploadManager.CanNotGetGfycatStatusException(tracking.gfyName, "creationStatusResponse has no body (" + tracking.gfyName + ") code = " + response.code()));
+                    } else {
+                        onStatus(tracking, status);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<CreationStatus> call, Throwable t) {
+                    if (t instanceof IOException) {
+                        fail(tracking, new UploadManager.CanNotGetGfycatStatusException(tracking.gfyName, "IOException while accessing CreationApi.getCreationStatus(" + tracking.gfyName + ")", t));
+                    } else {
+                        fail(tracking, t);
+                    }
+                }
+            });
+        }
+    }
+
+    private void onStatus(Tracking tracking, CreationStatus status) {
+        List<Subscriber> subscribers;
+        List<Subscriber> timedOut = new ArrayList<>();
+        Throwable error = null;
+        boolean changed;
+        boolean completed = false;
+        synchronized (this) {
+            if (trackings.get(tracking.gfyName) != tracking) return;
+
+            changed = tracking.lastStatus == null || !Utils.equals(tracking.lastStatus.getTask(), status.getTask());
+            tracking.lastStatus = status;
+            if (STATUS_ERROR.equals(status.getTask())) {
+                error = new UploadManager.FailedToCreateGfycatException(tracking.gfyName, status.getDescription());
+            } else if (STATUS_COMPLETE.equals(status.getTask())) {
+                if (!Utils.equals(tracking.gfyName, status.getGfyname())) {
+                    Assertions.fail(new IllegalStateException("Expected(" + tracking.gfyName + ") and actual(" + status.getGfyname() + ") gfyNames differ."));
+                    error = new UploadManager.InternalCreationException();
+                } else {
+                    completed = true;
+                }
+            } else {
+                long now = scheduler.now(TimeUnit.MILLISECONDS);
+                Iterator<Subscriber> iterator = tracking.subscribers.iterator();
+                while (iterator.hasNext()) {
+                    Subscriber subscriber = iterator.next();
+                    if (now >= subscriber.deadline) {
+                        timedOut.add(subscriber);
+                        iterator.remove();
+                    }
+                }
+            }
+
+            if (error != null || completed || tracking.subscribers.isEmpty()) {
+                trackings.remove(tracking.gfyName);
+            } else {
+                tracking.delayMs = nextDelay(tracking.delayMs, changed, status);
+                tracking.nextPollTime = Math.min(tracking.earliestDeadline(), scheduler.now(TimeUnit.MILLISECONDS) + tracking.delayMs);
+                tracking.inFlight = false;
+            }
+            subscribers = new ArrayList<>(tracking.subscribers);
+            reschedule();
+        }
+
+        if (changed) {
+            Logging.d(LOG_TAG, tracking.gfyName, " ", status);
+            updates.onNext(new StatusUpdate(tracking.gfyName, status));
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.onNext(status);
+            }
+            for (Subscriber subscriber : timedOut) {
+                subscriber.emitter.onNext(status);
+            }
+        }
+        for (Subscriber subscriber : timedOut) {
+            subscriber.emitter.tryOnError(new UploadManager.CreationTimeoutException(tracking.gfyName, "Status tracking ended by timeout"));
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (completed) {
+                subscriber.emitter.onComplete();
+            } else if (error != null) {
+                subscriber.emitter.tryOnError(error);
+            }
+        }
+    }
+
+    private void fail(Tracking tracking, Throwable error) {
+        List<Subscriber> subscribers;
+        synchronized (this) {
+            if (trackings.get(tracking.gfyName) != tracking) return;
+            trackings.remove(tracking.gfyName);
+            subscribers = new ArrayList<>(tracking.subscribers);
+            reschedule();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.tryOnError(error);
+        }
+    }
+
+    /**
+     * Server reports estimated processing time in seconds in {@link CreationStatus#getTime()} for some statuses,
+     * it is used as poll delay when present.
+     */
+    private long nextDelay(long delayMs, boolean changed, CreationStatus status) {
+        long estimatedMs = parseSeconds(status.getTime());
+        if (estimatedMs > 0) {
+            return Math.max(minDelayMs, Math.min(maxDelayMs, estimatedMs));
+        }
+        if (changed) {
+            return minDelayMs;
+        }
+        return Math.min(maxDelayMs, Math.max(minDelayMs, delayMs * BACKOFF_MULTIPLIER));
+    }
+
+    private static long parseSeconds(String time) {
+        if (time == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis((long) Double.parseDouble(time));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Status of gfycat reported by server, it is emitted only when status task differs from previous one.
+     */
+    public static class StatusUpdate {
+        private final String gfyName;
+        private final CreationStatus status;
+
+        StatusUpdate(String gfyName, CreationStatus status) {
+            this.gfyName = gfyName;
+            this.status = status;
+        }
+
+        public String getGfyName() {
+            return gfyName;
+        }
+
+        public CreationStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return "StatusUpdate{" +
+                    "gfyName='" + gfyName + '\'' +
+                    ", status=" + status +
+                    '}';
+        }
+    }
+
+    private static class Tracking {
+        final String gfyName;
+        final List<Subscriber> subscribers = new ArrayList<>();
+        long nextPollTime;
+        long delayMs;
+        boolean inFlight;
+        CreationStatus lastStatus;
+
+        Tracking(String gfyName, long nextPollTime) {
+            this.gfyName = gfyName;
+            this.nextPollTime = nextPollTime;
+        }
+
+        long earliestDeadline() {
+            long result = Long.MAX_VALUE;
+            for (Subscriber subscriber : subscribers) {
+                result = Math.min(result, subscriber.deadline);
+            }
+            return result;
+        }
+    }
+
+    private static class Subscriber {
+        final ObservableEmitter<CreationStatus> emitter;
+        final long deadline;
+
+        Subscriber(ObservableEmitter<CreationStatus> emitter, long deadline) {
+            this.emitter = emitter;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -20,7 +20,6 @@ import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
 import com.gfycat.common.utils.Assertions;
-import com.gfycat.common.utils.Utils;
 import com.gfycat.core.creation.pojo.CreateGfycatRequest;
 import com.gfycat.core.creation.pojo.CreatedGfycat;
 import com.gfycat.core.creation.pojo.CreationStatus;
@@ -30,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.TimeUnit;
 
+import io.reactivex.Observable;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -46,9 +46,6 @@ public class DefaultUploadManager implements UploadManager {
     };
     private static final int MAX_PROGRESS_VALUE = 100;
 
-    private static final String STATUS_COMPLETE = "complete";
-    private static final String STATUS_ERROR = "error";
-
     private final long DEFAULT_EXPECTED_CREATION_TIME_MS = TimeUnit.MINUTES.toMillis(3);
     private final long DEFAULT_INITIAL_TIMEOUT_TIME_MS = TimeUnit.SECONDS.toMillis(10);
     private final long DEFAULT_PING_TIMEOUT_TIME_MS = TimeUnit.SECONDS.toMillis(5);
@@ -60,7 +57,8 @@ public class DefaultUploadManager implements UploadManager {
     private final long expectedCreationTimeMs;
     private final long initialTimeoutMs;
     private final long pingTimeoutMs;
-
+    private final CreationStatusTracker statusTracker;
+    private volatile ChunkedUploader chunkedUploader;
 
     public DefaultUploadManager(@NonNull CreationAPI creationAPI, @NonNull OkHttpClient uploadClient, @NonNull String fileUploadEndpoint, @NonNull GetGfycatByName getGfycatByName) {
         this.creationAPI = creationAPI;
@@ -70,6 +68,7 @@ public class DefaultUploadManager implements UploadManager {
         expectedCreationTimeMs = DEFAULT_EXPECTED_CREATION_TIME_MS;
         initialTimeoutMs = DEFAULT_INITIAL_TIMEOUT_TIME_MS;
         pingTimeoutMs = DEFAULT_PING_TIMEOUT_TIME_MS;
+        statusTracker = new CreationStatusTracker(creationAPI, initialTimeoutMs, pingTimeoutMs);
     }
 
     public DefaultUploadManager(@NonNull CreationAPI creationAPI, @NonNull OkHttpClient uploadClient, @NonNull String fileUploadEndpoint, @NonNull GetGfycatByName getGfycatByName, long expected, long initial, long ping) {
@@ -80,6 +79,17 @@ public class DefaultUploadManager implements UploadManager {
         this.expectedCreationTimeMs = expected;
         this.initialTimeoutMs = initial;
         this.pingTimeoutMs = ping;
+        statusTracker = new CreationStatusTracker(creationAPI, initialTimeoutMs, pingTimeoutMs);
+    }
+
+    /**
+     * Enables upload of content by chunks, see {@link ChunkedUploader}.
+     * Upload server should support chunks with Content-Range header.
+     *
+     * @param config of chunked upload, null to upload content with single request.
+     */
+    public void setChunkedUpload(ChunkedUploader.Config config) {
+        chunkedUploader = config == null ? null : new ChunkedUploader(uploadClient, config);
     }
 
     @Override
@@ -115,6 +125,19 @@ public class DefaultUploadManager implements UploadManager {
         try {
             listener.onUpdate(UploadListener.Stage.UPLOADING, 0);
 
+            ChunkedUploader chunkedUploader = this.chunkedUploader;
+            if (chunkedUploader != null) {
+                int available = inputStream.available();
+                chunkedUploader.upload(
+                        fileUploadEndpoint + creationKey,
+                        MediaType.parse("filename=" + creationKey),
+                        inputStream,
+                        available > 0 ? available : -1,
+                        progress -> listener.onUpdate(UploadListener.Stage.UPLOADING, progress));
+                listener.onUpdate(UploadListener.Stage.UPLOADING, MAX_PROGRESS_VALUE);
+                return;
+            }
+
             Request uploadRequest = new Request.Builder()
                     .url(fileUploadEndpoint + creationKey)
                     .put(new InputStreamRequestBody(
@@ -146,50 +169,16 @@ public class DefaultUploadManager implements UploadManager {
             throw new IllegalArgumentException("Creation key is empty.");
         }
 
-        CreationStatus creationStatus = null;
-        long startTime = System.currentTimeMillis();
-
-        int tryCount = 0;
-
-        do {
-
-            try {
-                long timeTillTimeout = Math.max(0, System.currentTimeMillis() + timeout - startTime);
-                long defaultSleepTime = tryCount == 0 ? initialTimeoutMs : pingTimeoutMs;
-                Thread.sleep(Math.min(timeTillTimeout, defaultSleepTime));
-            } catch (InterruptedException e) {
-                throw new CanNotGetGfycatStatusException(creationKey, "InterruptedException happened", e);
-            }
-
-            try {
-                Response<CreationStatus> creationStatusResponse = creationAPI.getCreationStatus(creationKey).execute();
-
-                if (!creationStatusResponse.isSuccessful()) {
-                    throw new CanNotGetGfycatStatusException(creationKey, "creationStatusResponse is not successful (" + creationKey + ") code = " + creationStatusResponse.code() + " message = " + creationStatusResponse.message());
-                } else {
-                    CreationStatus localCreationStatus = creationStatusResponse.body();
-
-                    if (STATUS_ERROR.equals(localCreationStatus.getTask())) {
-                        throw new FailedToCreateGfycatException(creationKey, localCreationStatus.getDescription());
-                    }
-
-                    if (isCreationEnded(creationKey, localCreationStatus)) {
-                        // exit on successfully received gfycat here
-                        creationStatus = localCreationStatus;
-                        break;
-                    }
-                }
-
-            } catch (IOException e) {
-                throw new CanNotGetGfycatStatusException(creationKey, "IOException while accessing CreationApi.getCreationStatus(" + creationKey + ")", e);
-            }
-
-            tryCount++;
-
-        } while (startTime + expectedCreationTimeMs > System.currentTimeMillis());
-
-        if (creationStatus == null) {
-            throw new CreationTimeoutException(creationKey, "Status tracking ended by timeout");
+        CreationStatus creationStatus;
+        try {
+            creationStatus = statusTracker.track(creationKey, Math.min(timeout, expectedCreationTimeMs)).blockingLast();
+        } catch (RuntimeException e) {
+            // blocking calls wrap checked exceptions
+            Throwable cause = e.getCause();
+            if (cause instanceof CanNotGetGfycatStatusException) throw (CanNotGetGfycatStatusException) cause;
+            if (cause instanceof FailedToCreateGfycatException) throw (FailedToCreateGfycatException) cause;
+            if (cause instanceof InterruptedException) throw new CanNotGetGfycatStatusException(creationKey, "InterruptedException happened", cause);
+            throw e;
         }
 
         try {
@@ -212,6 +201,11 @@ public class DefaultUploadManager implements UploadManager {
         return (throwable instanceof HttpException && ((HttpException) throwable).code() == 404) || (throwable.getCause() != null && is404(throwable.getCause()));
     }
 
+    @Override
+    public Observable<CreationStatus> observeCreationStatus(@NonNull String creationKey, long timeout) {
+        return statusTracker.track(creationKey, timeout);
+    }
+
     @Override
     public Gfycat createGfycat(CreateGfycatRequest creationParams, InputStream inputStream) throws CanNotCreateKeyException, CanNotGetGfycatStatusException, CanNotUploadGfycatException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException {
         return createGfycat(creationParams, inputStream, DUMMY_LISTENER);
@@ -242,18 +236,6 @@ public class DefaultUploadManager implements UploadManager {
         return getGfycatIfReady(gfyName) != null;
     }
 
-    private boolean isCreationEnded(String gfyName, CreationStatus creationStatus) {
-        if (creationStatus != null && STATUS_COMPLETE.equals(creationStatus.getTask())) {
-            if (!Utils.equals(gfyName, creationStatus.getGfyname())) {
-                Assertions.fail(new IllegalStateException("Expected(" + gfyName + ") and actual(" + creationStatus.getGfyname() + ") gfyNames differ."));
-                throw new InternalCreationException();
-            }
-            return true;
-        } else {
-            return false;
-        }
-    }
-
     public interface GetGfycatByName {
         Gfycat getGfycat(String gfyName) throws IOException;
     }
@@ -51,7 +51,9 @@ public class InputStreamRequestBody extends RequestBody {
     public long contentLength() throws IOException {
         int result = Integer.MIN_VALUE;
         try {
-            return result = inputStream.available();
+            result = inputStream.available();
+            // available() == 0 does not mean that stream is empty
+            return result > 0 ? result : -1;
         } catch (IOException e) {
             Logging.d("GfycatCreationService", e, "InputStreamRequestBody::contentLength() = IOException");
             throw e;
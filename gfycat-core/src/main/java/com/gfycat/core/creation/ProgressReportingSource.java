@@ -25,20 +25,23 @@ import okio.ForwardingSource;
 import okio.Source;
 
 /**
+ * Reports percent of content that is read through this source.
+ * <p>
  * Created by dekalo on 28.03.17.
  */
 
 public class ProgressReportingSource extends ForwardingSource {
 
+    private final Aggregate aggregate;
     private long totalBytesRead;
-    private final long contentLength;
-    private final ProgressListener progressListener;
-    private int lastProgress = Integer.MAX_VALUE;
 
     public ProgressReportingSource(Source delegate, long contentLength, ProgressListener progressListener) {
+        this(delegate, new Aggregate(contentLength, progressListener));
+    }
+
+    private ProgressReportingSource(Source delegate, Aggregate aggregate) {
         super(delegate);
-        this.contentLength = contentLength;
-        this.progressListener = progressListener;
+        this.aggregate = aggregate;
     }
 
     @Override
@@ -46,24 +49,67 @@ public class ProgressReportingSource extends ForwardingSource {
         long bytesRead = super.read(sink, byteCount);
         if (bytesRead > 0) {
             totalBytesRead += bytesRead;
-            notifyIfChanged((int) (100 * totalBytesRead / contentLength));
+            aggregate.add(bytesRead);
         }
         return bytesRead;
     }
 
+    /**
+     * Excludes bytes read by this source from progress, for example when request with this source failed and is retried.
+     */
+    public void rollback() {
+        aggregate.add(-totalBytesRead);
+        totalBytesRead = 0;
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
         Logging.d("GfycatCreationService", "ProgressReportingSource::close()");
     }
 
-    private void notifyIfChanged(int progress) {
-        if (progress != lastProgress) {
-            progressListener.onProgress(lastProgress = progress);
-        }
-    }
-
     public interface ProgressListener {
         void onProgress(int progress);
     }
+
+    /**
+     * Progress of content that is read through several sources, for example chunks that are uploaded in parallel.
+     * Progress is -1 while content length is unknown.
+     */
+    public static class Aggregate {
+
+        private final ProgressListener progressListener;
+        private long contentLength;
+        private long totalBytesRead;
+        private int lastProgress = Integer.MAX_VALUE;
+
+        /**
+         * @param contentLength length of all content or -1 if unknown.
+         */
+        public Aggregate(long contentLength, ProgressListener progressListener) {
+            this.contentLength = contentLength;
+            this.progressListener = progressListener;
+        }
+
+        public ProgressReportingSource source(Source delegate) {
+            return new ProgressReportingSource(delegate, this);
+        }
+
+        public synchronized void setContentLength(long contentLength) {
+            this.contentLength = contentLength;
+            notifyIfChanged();
+        }
+
+        private synchronized void add(long bytesRead) {
+            totalBytesRead += bytesRead;
+            notifyIfChanged();
+        }
+
+        private void notifyIfChanged() {
+            int progress = contentLength > 0 ? (int) (100 * totalBytesRead / contentLength) : -1;
+            if (progress != lastProgress) {
+                progressListener.onProgress(lastProgress = progress);
+            }
+        }
+    }
 }
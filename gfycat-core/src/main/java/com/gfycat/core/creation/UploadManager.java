@@ -17,10 +17,15 @@
 package com.gfycat.core.creation;
 
 import com.gfycat.core.creation.pojo.CreateGfycatRequest;
+import com.gfycat.core.creation.pojo.CreationStatus;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.io.InputStream;
 
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+
 /**
  * Manages Gfycat uploading to Gfycat.com
  * <p>
@@ -76,6 +81,22 @@ public interface UploadManager {
      */
     Gfycat waitUntilReady(String creationKey) throws CanNotGetGfycatStatusException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException;
 
+    /**
+     * Asynchronous alternative of {@link #waitUntilReady(String, long)}, status requests of all observed gfycats share single timer.
+     * <p>
+     * Default implementation waits with {@link #waitUntilReady(String, long)} on io scheduler and does not emit intermediate statuses.
+     *
+     * @param creationKey unique key for this upload provided by {@link #requestCreationKey(CreateGfycatRequest)}
+     * @param timeout     wait timeout.
+     * @return Returns observable that emits every change of server processing status and completes when {@link Gfycat} is available on server.
+     * Fails with {@link CanNotGetGfycatStatusException} or {@link FailedToCreateGfycatException}.
+     */
+    default Observable<CreationStatus> observeCreationStatus(String creationKey, long timeout) {
+        return Completable.fromCallable(() -> waitUntilReady(creationKey, timeout))
+                .subscribeOn(Schedulers.io())
+                .toObservable();
+    }
+
     /**
      * @param gfyName of uploaded gfycat
      * @return Returns {@link Gfycat} if it exists, null otherwise.
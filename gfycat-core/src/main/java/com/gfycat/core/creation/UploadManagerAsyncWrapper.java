@@ -18,11 +18,17 @@ package com.gfycat.core.creation;
 
 import android.support.annotation.NonNull;
 
+import com.gfycat.common.ChainedException;
+import com.gfycat.common.utils.Assertions;
 import com.gfycat.core.creation.pojo.CreateGfycatRequest;
+import com.gfycat.core.creation.pojo.CreationStatus;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.reactivex.subjects.ReplaySubject;
 
 /**
@@ -32,6 +38,7 @@ import io.reactivex.subjects.ReplaySubject;
 public class UploadManagerAsyncWrapper implements UploadManager {
 
     private ReplaySubject<UploadManager> subject = ReplaySubject.create();
+    private final AtomicReference<Single<? extends UploadManager>> lazyManager = new AtomicReference<>();
 
     public void init(UploadManager uploadManager) {
         if (subject.hasComplete()) {
@@ -41,48 +48,70 @@ public class UploadManagerAsyncWrapper implements UploadManager {
         subject.onComplete();
     }
 
+    /**
+     * Initializes wrapper with manager that is built on first use of wrapper.
+     */
+    public void initLazily(Single<? extends UploadManager> lazyManager) {
+        this.lazyManager.set(lazyManager);
+        // somebody is already waiting for manager
+        if (subject.hasObservers()) subject();
+    }
+
+    private ReplaySubject<UploadManager> subject() {
+        Single<? extends UploadManager> manager = lazyManager.getAndSet(null);
+        if (manager != null) {
+            manager.subscribe(this::init, throwable -> Assertions.fail(new ChainedException(throwable)));
+        }
+        return subject;
+    }
+
     @Override
     public String requestCreationKey(CreateGfycatRequest creationParams) throws CanNotCreateKeyException {
-        return subject.blockingFirst().requestCreationKey(creationParams);
+        return subject().blockingFirst().requestCreationKey(creationParams);
     }
 
     @Override
     public void upload(String creationKey, InputStream inputStream) throws CanNotUploadGfycatException {
-        subject.blockingFirst().upload(creationKey, inputStream);
+        subject().blockingFirst().upload(creationKey, inputStream);
     }
 
     @Override
     public void upload(String creationKey, InputStream inputStream, UploadListener uploadListener) throws CanNotUploadGfycatException {
-        subject.blockingFirst().upload(creationKey, inputStream, uploadListener);
+        subject().blockingFirst().upload(creationKey, inputStream, uploadListener);
     }
 
     @Override
     public Gfycat waitUntilReady(@NonNull String creationKey, long timeout) throws CanNotGetGfycatStatusException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException {
-        return subject.blockingFirst().waitUntilReady(creationKey, timeout);
+        return subject().blockingFirst().waitUntilReady(creationKey, timeout);
     }
 
     @Override
     public Gfycat waitUntilReady(@NonNull String creationKey) throws CanNotGetGfycatStatusException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException {
-        return subject.blockingFirst().waitUntilReady(creationKey);
+        return subject().blockingFirst().waitUntilReady(creationKey);
+    }
+
+    @Override
+    public Observable<CreationStatus> observeCreationStatus(String creationKey, long timeout) {
+        return Observable.defer(() -> subject().flatMap(manager -> manager.observeCreationStatus(creationKey, timeout)));
     }
 
     @Override
     public Gfycat getGfycatIfReady(String gfyName) {
-        return subject.blockingFirst().getGfycatIfReady(gfyName);
+        return subject().blockingFirst().getGfycatIfReady(gfyName);
     }
 
     @Override
     public boolean isGfycatReady(String gfyName) {
-        return subject.blockingFirst().isGfycatReady(gfyName);
+        return subject().blockingFirst().isGfycatReady(gfyName);
     }
 
     @Override
     public Gfycat createGfycat(CreateGfycatRequest creationParams, InputStream inputStream) throws CanNotCreateKeyException, CanNotGetGfycatStatusException, CanNotUploadGfycatException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException {
-        return subject.blockingFirst().createGfycat(creationParams, inputStream);
+        return subject().blockingFirst().createGfycat(creationParams, inputStream);
     }
 
     @Override
     public Gfycat createGfycat(CreateGfycatRequest creationParams, InputStream inputStream, UploadListener uploadListener) throws CanNotCreateKeyException, CanNotGetGfycatStatusException, CanNotUploadGfycatException, FailedToCreateGfycatException, GfycatWasDeletedBeforeCompletionException {
-        return subject.blockingFirst().createGfycat(creationParams, inputStream, uploadListener);
+        return subject().blockingFirst().createGfycat(creationParams, inputStream, uploadListener);
     }
 }
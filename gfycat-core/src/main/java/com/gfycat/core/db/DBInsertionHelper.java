@@ -21,6 +21,7 @@ import android.content.ContentValues;
 import com.gfycat.common.Func1;
 import com.gfycat.common.utils.Sugar;
 import com.gfycat.common.utils.Utils;
+import com.gfycat.core.downloading.ResponseValidators;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.util.Date;
@@ -90,9 +91,22 @@ class DBInsertionHelper {
         return cv;
     }
 
+    static ContentValues feedCreateDateCV() {
+        ContentValues cv = new ContentValues();
+        cv.put(GfycatDatabaseContracts.FeedContract.CREATE_DATE_TIME, Utils.ISO8601.format(new Date()));
+        return cv;
+    }
+
+    static ContentValues feedValidatorsCV(ResponseValidators validators) {
+        ContentValues cv = new ContentValues();
+        cv.put(GfycatDatabaseContracts.FeedContract.ETAG, validators.getETag());
+        cv.put(GfycatDatabaseContracts.FeedContract.LAST_MODIFIED, validators.getLastModified());
+        return cv;
+    }
+
     static ContentValues feedCV(String uniqueName, String nextPartIdentifier, boolean isClosed) {
         ContentValues cv = feedDigestCV(nextPartIdentifier, isClosed);
-        cv.put(GfycatDatabaseContracts.FeedContract.CREATE_DATE_TIME, Utils.ISO8601.format(new Date()));
+        cv.putAll(feedCreateDateCV());
         cv.put(GfycatDatabaseContracts.FeedContract.FEED_UNIQUE_NAME, Utils.safeEncode(uniqueName));
         return cv;
     }
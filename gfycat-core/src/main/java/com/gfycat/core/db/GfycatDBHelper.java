@@ -31,7 +31,7 @@ public class GfycatDBHelper extends SQLiteOpenHelper implements SQLCreationScrip
 
     private static final String LOG_TAG = "GfyDB";
     private static String DB_NAME = "Gfycat.db";
-    private static int DB_VERSION = 31;
+    private static int DB_VERSION = 32;
 
     public GfycatDBHelper(Context context) {
         super(context, DB_NAME, null, DB_VERSION);
@@ -101,6 +101,8 @@ final class GfycatDatabaseContracts {
         static final String FEED_UNIQUE_NAME = "feedUniqueName"; // string unique "tag:<tagName>" for taf feeds or "trending" for trending feeds.
         static final String CREATE_DATE_TIME = "createDate"; // string
         static final String IS_CLOSED = "local_isClosed"; // boolean
+        static final String ETAG = "local_etag"; // string, ETag of first page response
+        static final String LAST_MODIFIED = "local_lastModified"; // string, Last-Modified of first page response
     }
 
     /**
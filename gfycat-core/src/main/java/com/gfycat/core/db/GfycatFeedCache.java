@@ -18,6 +18,7 @@ package com.gfycat.core.db;
 
 import com.gfycat.core.FeedIdentifier;
 import com.gfycat.core.downloading.FeedData;
+import com.gfycat.core.downloading.ResponseValidators;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.gfycatapi.pojo.GfycatList;
 
@@ -65,6 +66,21 @@ public interface GfycatFeedCache {
      */
     void updateFeed(FeedIdentifier identifier, String previousDigest, GfycatList data);
 
+    /**
+     * @return validators of last first page response for feed, {@link ResponseValidators#EMPTY} if feed or validators are absent.
+     */
+    ResponseValidators getFeedValidators(FeedIdentifier identifier);
+
+    /**
+     * Save validators of first page response, they are dropped every time feed is replaced.
+     */
+    void saveFeedValidators(FeedIdentifier identifier, ResponseValidators validators);
+
+    /**
+     * Server confirmed that cached first page is still actual, so feed creation time is updated without content change.
+     */
+    void markFeedNotModified(FeedIdentifier identifier);
+
     /**
      * @param identifier - see #FeedIdentifier class.
      */
@@ -29,18 +29,16 @@ import com.gfycat.common.utils.Sugar;
 import com.gfycat.common.utils.ThreadUtils;
 import com.gfycat.common.utils.Utils;
 import com.gfycat.core.FeedIdentifier;
-import com.gfycat.core.GfyUtils;
 import com.gfycat.core.PublicFeedIdentifier;
 import com.gfycat.core.RecentFeedIdentifier;
 import com.gfycat.core.downloading.FeedData;
 import com.gfycat.core.downloading.FeedDescription;
+import com.gfycat.core.downloading.ResponseValidators;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.gfycatapi.pojo.GfycatList;
 
 import org.apache.commons.io.IOUtils;
 
-import java.text.ParseException;
-import java.util.Date;
 import java.util.List;
 
 import io.reactivex.functions.Function;
@@ -150,6 +148,8 @@ public class GfycatFeedDatabaseCache implements GfycatFeedCache {
 
         if (isSameAsInDB(feedUniqueName, gfycatList)) {
             Logging.d(LOG_TAG, "Feed is same as DB, skip update.");
+            // content was revalidated, so it is fresh again
+            touchFeed(db, feedUniqueName);
             return;
         }
 
@@ -214,6 +214,43 @@ public class GfycatFeedDatabaseCache implements GfycatFeedCache {
         notifyIdentifierChange(identifier);
     }
 
+    @Override
+    public ResponseValidators getFeedValidators(FeedIdentifier identifier) {
+        guard();
+        Cursor cursor = getReadableDatabase().query(
+                GfycatDatabaseContracts.FeedContract.TABLE_NAME,
+                new String[]{GfycatDatabaseContracts.FeedContract.ETAG, GfycatDatabaseContracts.FeedContract.LAST_MODIFIED},
+                GfycatDatabaseContracts.FeedContract.FEED_UNIQUE_NAME + " = ?",
+                new String[]{Utils.safeEncode(identifier.toUniqueIdentifier())},
+                null,
+                null,
+                null);
+        try {
+            if (!cursor.moveToFirst()) return ResponseValidators.EMPTY;
+            return new ResponseValidators(cursor.getString(0), cursor.getString(1));
+        } finally {
+            IOUtils.closeQuietly(cursor);
+        }
+    }
+
+    @Override
+    public void saveFeedValidators(FeedIdentifier identifier, ResponseValidators validators) {
+        guard();
+        Logging.d(LOG_TAG, "saveFeedValidators(", identifier, ") ", validators);
+        getWritableDatabase().update(
+                GfycatDatabaseContracts.FeedContract.TABLE_NAME,
+                DBInsertionHelper.feedValidatorsCV(validators),
+                GfycatDatabaseContracts.FeedContract.FEED_UNIQUE_NAME + " = ?",
+                new String[]{Utils.safeEncode(identifier.toUniqueIdentifier())});
+    }
+
+    @Override
+    public void markFeedNotModified(FeedIdentifier identifier) {
+        guard();
+        Logging.d(LOG_TAG, "markFeedNotModified(", identifier, ")");
+        touchFeed(getWritableDatabase(), identifier.toUniqueIdentifier());
+    }
+
     @Override
     public void closeFeed(FeedIdentifier identifier, String previousDigest) {
         guard();
@@ -481,7 +518,6 @@ public class GfycatFeedDatabaseCache implements GfycatFeedCache {
             feedCursor = getFeedByUniqueName(feedUniqueName);
 
             if (!feedCursor.moveToFirst()) return false;
-            if (isFeedOutdated(feedCursor)) return false;
 
             gfycatsCursor = getGfycatsCursorForFeed(feedCursor.getLong(feedCursor.getColumnIndex(GfycatDatabaseContracts.FeedContract._ID)));
 
@@ -546,15 +582,6 @@ public class GfycatFeedDatabaseCache implements GfycatFeedCache {
         return sb.toString();
     }
 
-    private boolean isFeedOutdated(Cursor cursor) {
-        Date createDate = null;
-        try {
-            createDate = Utils.ISO8601.parse(cursor.getString(cursor.getColumnIndex(GfycatDatabaseContracts.FeedContract.CREATE_DATE_TIME)));
-        } catch (ParseException e) {/* skip */}
-
-        return GfyUtils.isFeedOutdated(createDate);
-    }
-
     private Cursor getFeedByUniqueName(String uniqueName) {
         return getReadableDatabase().query(
                 GfycatDatabaseContracts.FeedContract.TABLE_NAME,
@@ -649,6 +676,17 @@ public class GfycatFeedDatabaseCache implements GfycatFeedCache {
                 new String[]{Utils.safeEncode(feedUniqueName), previousDigest}) == 1;
     }
 
+    /**
+     * Update feed creation time, so freshness policies will treat it as just loaded.
+     */
+    private void touchFeed(SQLiteDatabase db, String feedUniqueName) {
+        db.update(
+                GfycatDatabaseContracts.FeedContract.TABLE_NAME,
+                DBInsertionHelper.feedCreateDateCV(),
+                GfycatDatabaseContracts.FeedContract.FEED_UNIQUE_NAME + " = ?",
+                new String[]{Utils.safeEncode(feedUniqueName)});
+    }
+
     private void removeSingleItemFeed(com.gfycat.core.gfycatapi.pojo.Gfycat item, boolean notify) {
         internalDelete(PublicFeedIdentifier.fromSingleItem(item.getGfyId()), notify);
     }
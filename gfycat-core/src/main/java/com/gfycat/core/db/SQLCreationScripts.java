@@ -84,7 +84,9 @@ public interface SQLCreationScripts {
             GfycatDatabaseContracts.FeedContract.FEED_NEXT_PART_IDENTIFIER + TEXT_TYPE + COMMA_SEP +
             GfycatDatabaseContracts.FeedContract.CREATE_DATE_TIME + TEXT_TYPE + NOT_NULL + COMMA_SEP +
             GfycatDatabaseContracts.FeedContract.FEED_UNIQUE_NAME + TEXT_TYPE + NOT_NULL_UNIQUE + COMMA_SEP +
-            GfycatDatabaseContracts.FeedContract.IS_CLOSED + INTEGER_TYPE + NOT_NULL + DEFAULT + "0" +
+            GfycatDatabaseContracts.FeedContract.IS_CLOSED + INTEGER_TYPE + NOT_NULL + DEFAULT + "0" + COMMA_SEP +
+            GfycatDatabaseContracts.FeedContract.ETAG + TEXT_TYPE + COMMA_SEP +
+            GfycatDatabaseContracts.FeedContract.LAST_MODIFIED + TEXT_TYPE +
             " );";
 
     String CREATE_FEED_ITEM_TABLE_SQL = CREATE_TABLE + GfycatDatabaseContracts.FeedToGfycatRelation.TABLE_NAME + " (" +
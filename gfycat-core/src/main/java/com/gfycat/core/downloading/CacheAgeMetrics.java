@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.downloading;
+
+import com.gfycat.common.utils.Utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects age of cached feeds and categories at the moment they were served.
+ * <p>
+ * Fresh hits are requests that were served from cache without any network request.
+ * Not modified hits are conditional requests answered with 304, so response was neither parsed nor saved.
+ */
+public class CacheAgeMetrics {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    void record(String key, long ageMs, FreshnessPolicy.State state) {
+        getOrCreate(key).record(ageMs, state);
+    }
+
+    void recordNotModified(String key) {
+        getOrCreate(key).notModified.incrementAndGet();
+    }
+
+    private Entry getOrCreate(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            Entry previous = entries.putIfAbsent(key, entry);
+            if (previous != null) entry = previous;
+        }
+        return entry;
+    }
+
+    /**
+     * @param key feed type name or {@link FeedFreshnessPolicies#CATEGORIES_KEY}.
+     * @return Returns collected metrics for key, or null if nothing was collected.
+     */
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * @return Returns count of network requests that were not performed because cached content was fresh.
+     */
+    public long getSuppressedRequestsCount() {
+        long result = 0;
+        for (Entry entry : entries.values()) {
+            result += entry.fresh.get();
+        }
+        return result;
+    }
+
+    /**
+     * @return Returns count of conditional requests that were answered with 304 Not Modified.
+     */
+    public long getNotModifiedCount() {
+        long result = 0;
+        for (Entry entry : entries.values()) {
+            result += entry.notModified.get();
+        }
+        return result;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static class Entry {
+        private final AtomicLong fresh = new AtomicLong();
+        private final AtomicLong stale = new AtomicLong();
+        private final AtomicLong expired = new AtomicLong();
+        private final AtomicLong notModified = new AtomicLong();
+        private final AtomicLong totalAgeMs = new AtomicLong();
+        private final AtomicLong maxAgeMs = new AtomicLong();
+        private volatile long lastAgeMs;
+
+        private void record(long ageMs, FreshnessPolicy.State state) {
+            switch (state) {
+                case FRESH:
+                    fresh.incrementAndGet();
+                    break;
+                case STALE:
+                    stale.incrementAndGet();
+                    break;
+                case EXPIRED:
+                    expired.incrementAndGet();
+                    break;
+            }
+            lastAgeMs = ageMs;
+            totalAgeMs.addAndGet(Math.max(0, ageMs));
+            long max;
+            while (ageMs > (max = maxAgeMs.get()) && !maxAgeMs.compareAndSet(max, ageMs)) ;
+        }
+
+        public long getFreshCount() {
+            return fresh.get();
+        }
+
+        public long getStaleCount() {
+            return stale.get();
+        }
+
+        public long getExpiredCount() {
+            return expired.get();
+        }
+
+        public long getNotModifiedCount() {
+            return notModified.get();
+        }
+
+        public long getLastAgeMs() {
+            return lastAgeMs;
+        }
+
+        public long getMaxAgeMs() {
+            return maxAgeMs.get();
+        }
+
+        public long getAverageAgeMs() {
+            long count = fresh.get() + stale.get() + expired.get();
+            return count == 0 ? 0 : totalAgeMs.get() / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "fresh = %d stale = %d expired = %d notModified = %d avgAge = %s maxAge = %s",
+                    getFreshCount(), getStaleCount(), getExpiredCount(), getNotModifiedCount(),
+                    Utils.humanReadableTimeInterval(getAverageAgeMs()), Utils.humanReadableTimeInterval(getMaxAgeMs()));
+        }
+    }
+}
@@ -34,35 +34,57 @@ public class CategoriesCache {
     private static final String LOG_TAG = "CategoriesCache";
 
     private static final String PREFERENCES_NAME = "gfycat_categories";
-    private final SingleObjectRepository<GfycatCategoriesData> categoriesCache;
-
-    private final static long CATEGORIES_EXPIRATION_TIME = 0;
+    private final Context context;
+    private volatile SingleObjectRepository<GfycatCategoriesData> categoriesCache;
 
+    /**
+     * Storage is not touched till first access, so cache is cheap to create on initialization.
+     */
     public CategoriesCache(Context context) {
-        this.categoriesCache = new SingleObjectRepository<>(context, PREFERENCES_NAME, GfycatCategoriesData.class, new GfycatCategoriesData());
+        this.context = context.getApplicationContext();
+    }
+
+    private SingleObjectRepository<GfycatCategoriesData> repository() {
+        if (categoriesCache == null) {
+            synchronized (this) {
+                if (categoriesCache == null) {
+                    categoriesCache = new SingleObjectRepository<>(context, PREFERENCES_NAME, GfycatCategoriesData.class, new GfycatCategoriesData(), SingleObjectRepository.Encoding.DEFLATED_JSON);
+                }
+            }
+        }
+        return categoriesCache;
     }
 
     private void guard() {
         Assertions.assertNotUIThread(IllegalAccessException::new);
     }
 
-    private boolean isCacheExpired(long lastUpdateTime) {
-        return lastUpdateTime + CATEGORIES_EXPIRATION_TIME < System.currentTimeMillis();
+    /**
+     * @return if item is cached - pair with first = GfycatCategoriesList, and second last update time in milliseconds, null otherwise.
+     */
+    public Pair<GfycatCategoriesList, Long> get() {
+        GfycatCategoriesData cachedData = getData();
+        return cachedData != null ? Pair.create(cachedData.categoriesList, cachedData.lastUpdateTime) : null;
     }
 
     /**
-     * @return if item is cached - pair with first = GfycatCategoriesList, and second  isCacheExpired boolean, null otherwise.
+     * @return validators of cached categories response, {@link ResponseValidators#EMPTY} if nothing is cached.
      */
-    public Pair<GfycatCategoriesList, Boolean> get() {
+    public ResponseValidators getValidators() {
+        GfycatCategoriesData cachedData = getData();
+        return cachedData != null ? new ResponseValidators(cachedData.eTag, cachedData.lastModified) : ResponseValidators.EMPTY;
+    }
+
+    private GfycatCategoriesData getData() {
         guard();
-        GfycatCategoriesData cachedData = categoriesCache.get();
+        GfycatCategoriesData cachedData = repository().get();
         if (cachedData != null && cachedData.version != GfycatCategoriesData.CURRENT_CATEGORIES_DATA_VERSION) {
             // data format changed
             Logging.d(LOG_TAG, "dropCategories cache");
             cachedData = null;
             drop();
         }
-        return cachedData != null ? Pair.create(cachedData.categoriesList, isCacheExpired(cachedData.lastUpdateTime)) : null;
+        return cachedData;
     }
 
     /**
@@ -70,14 +92,51 @@ public class CategoriesCache {
      * @return if data in db is changed.
      */
     public boolean update(GfycatCategoriesList newCategoriesList) {
+        return update(newCategoriesList, ResponseValidators.EMPTY);
+    }
+
+    /**
+     * @param newCategoriesList from server.
+     * @param validators        of server response.
+     * @return if data in db is changed.
+     */
+    public boolean update(GfycatCategoriesList newCategoriesList, ResponseValidators validators) {
+        return update(newCategoriesList, validators, System.currentTimeMillis());
+    }
+
+    boolean update(GfycatCategoriesList newCategoriesList, long updateTime) {
+        return update(newCategoriesList, ResponseValidators.EMPTY, updateTime);
+    }
+
+    private boolean update(GfycatCategoriesList newCategoriesList, ResponseValidators validators, long updateTime) {
         guard();
-        Pair<GfycatCategoriesList, Boolean> previousList = get();
-        categoriesCache.put(new GfycatCategoriesData(newCategoriesList, System.currentTimeMillis(), GfycatCategoriesData.CURRENT_CATEGORIES_DATA_VERSION));
+        Pair<GfycatCategoriesList, Long> previousList = get();
+        repository().put(new GfycatCategoriesData(
+                newCategoriesList,
+                updateTime,
+                GfycatCategoriesData.CURRENT_CATEGORIES_DATA_VERSION,
+                validators.getETag(),
+                validators.getLastModified()));
         return previousList == null || !newCategoriesList.equals(previousList.first);
     }
 
+    /**
+     * Server confirmed that cached categories are still actual, only update time is changed.
+     */
+    void markNotModified() {
+        guard();
+        GfycatCategoriesData cachedData = getData();
+        if (cachedData == null) return;
+        repository().put(new GfycatCategoriesData(
+                cachedData.categoriesList,
+                System.currentTimeMillis(),
+                cachedData.version,
+                cachedData.eTag,
+                cachedData.lastModified));
+    }
+
     void drop() {
         guard();
-        categoriesCache.remove();
+        repository().remove();
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.core.downloading;
+
+import com.gfycat.core.FeedIdentifier;
+import com.gfycat.core.FeedType;
+import com.gfycat.core.PublicFeedIdentifier;
+import com.gfycat.core.gfycatapi.GfycatAPI;
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.reactivex.Observable;
+import retrofit2.Response;
+
+/**
+ * Maps first page requests of feeds, that support conditional requests, to {@link GfycatAPI} endpoints.
+ */
+public class ConditionalGetGfycatsObservableFactoryMap {
+
+    private interface ConditionalGetGfycatsObservableFactory {
+        Observable<Response<GfycatList>> create(GfycatAPI api, FeedIdentifier feedIdentifier, int count, ResponseValidators validators);
+    }
+
+    private Map<FeedType, ConditionalGetGfycatsObservableFactory> prefixObservableMap = new HashMap<>();
+
+    public ConditionalGetGfycatsObservableFactoryMap() {
+        prefixObservableMap.put(PublicFeedIdentifier.Type.TRENDING,
+                (api, feedIdentifier, count, validators) -> api.getTrendingGfycatsConditionally(count, validators.getETag(), validators.getLastModified()));
+        prefixObservableMap.put(PublicFeedIdentifier.Type.TAG,
+                (api, feedIdentifier, count, validators) -> api.getListForTagConditionally(feedIdentifier.toName(), count, validators.getETag(), validators.getLastModified()));
+        prefixObservableMap.put(PublicFeedIdentifier.Type.REACTIONS,
+                (api, feedIdentifier, count, validators) -> api.getReactionsConditionally(feedIdentifier.toName(), count, validators.getETag(), validators.getLastModified()));
+    }
+
+    public boolean isSupported(FeedIdentifier feedIdentifier) {
+        return prefixObservableMap.containsKey(feedIdentifier.getType());
+    }
+
+    public Observable<Response<GfycatList>> create(GfycatAPI api, FeedIdentifier feedIdentifier, int count, ResponseValidators validators) {
+        return prefixObservableMap.get(feedIdentifier.getType()).create(api, feedIdentifier, count, validators);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.downloading;
+
+import com.gfycat.common.utils.Logging;
+import com.gfycat.core.FeedIdentifier;
+import com.gfycat.core.FeedType;
+import com.gfycat.core.RecentFeedIdentifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds {@link FreshnessPolicy} for every {@link FeedType} and for categories.
+ * <p>
+ * Every evaluation is reported to {@link CacheAgeMetrics}.
+ */
+public class FeedFreshnessPolicies {
+
+    private static final String LOG_TAG = "FeedFreshnessPolicies";
+
+    /**
+     * {@link CacheAgeMetrics} key for categories.
+     */
+    public static final String CATEGORIES_KEY = "categories";
+
+    /**
+     * Trending content changes fast, so serve it without revalidation only for a short period.
+     * After two hours trending content is considered expired.
+     */
+    public static final FreshnessPolicy DEFAULT_TRENDING_POLICY = new FreshnessPolicy(TimeUnit.MINUTES.toMillis(10), TimeUnit.MINUTES.toMillis(110));
+
+    public static final FreshnessPolicy DEFAULT_FEED_POLICY = new FreshnessPolicy(TimeUnit.MINUTES.toMillis(30), TimeUnit.DAYS.toMillis(1));
+
+    public static final FreshnessPolicy DEFAULT_CATEGORIES_POLICY = new FreshnessPolicy(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(7));
+
+    private final Map<String, FreshnessPolicy> feedPolicies = new ConcurrentHashMap<>();
+    private final CacheAgeMetrics metrics = new CacheAgeMetrics();
+    private volatile FreshnessPolicy defaultFeedPolicy = DEFAULT_FEED_POLICY;
+    private volatile FreshnessPolicy categoriesPolicy = DEFAULT_CATEGORIES_POLICY;
+
+    public FeedFreshnessPolicies() {
+        feedPolicies.put(FeedIdentifier.Type.TRENDING.getName(), DEFAULT_TRENDING_POLICY);
+        feedPolicies.put(FeedIdentifier.Type.SOUND_TRENDING.getName(), DEFAULT_TRENDING_POLICY);
+        feedPolicies.put(RecentFeedIdentifier.RECENT_FEED_TYPE.getName(), FreshnessPolicy.NEVER_EXPIRES);
+    }
+
+    public FeedFreshnessPolicies setPolicy(FeedType feedType, FreshnessPolicy policy) {
+        feedPolicies.put(feedType.getName(), policy);
+        return this;
+    }
+
+    public FeedFreshnessPolicies setDefaultFeedPolicy(FreshnessPolicy policy) {
+        defaultFeedPolicy = policy;
+        return this;
+    }
+
+    public FeedFreshnessPolicies setCategoriesPolicy(FreshnessPolicy policy) {
+        categoriesPolicy = policy;
+        return this;
+    }
+
+    public FreshnessPolicy getPolicy(FeedType feedType) {
+        FreshnessPolicy policy = feedPolicies.get(feedType.getName());
+        return policy != null ? policy : defaultFeedPolicy;
+    }
+
+    public FreshnessPolicy getCategoriesPolicy() {
+        return categoriesPolicy;
+    }
+
+    public CacheAgeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Evaluates cached {@link FeedData} freshness and records its age.
+     */
+    public FreshnessPolicy.State evaluate(FeedData feedData) {
+        FeedType feedType = feedData.getIdentifier().getType();
+        return evaluate(feedType.getName(), getPolicy(feedType), feedData.getFeedDescription().getCreationTime());
+    }
+
+    /**
+     * Evaluates cached categories freshness and records its age.
+     */
+    public FreshnessPolicy.State evaluateCategories(long lastUpdateTime) {
+        return evaluate(CATEGORIES_KEY, categoriesPolicy, lastUpdateTime);
+    }
+
+    void recordNotModified(FeedType feedType) {
+        metrics.recordNotModified(feedType.getName());
+    }
+
+    void recordCategoriesNotModified() {
+        metrics.recordNotModified(CATEGORIES_KEY);
+    }
+
+    private FreshnessPolicy.State evaluate(String key, FreshnessPolicy policy, long updateTime) {
+        long ageMs = System.currentTimeMillis() - updateTime;
+        FreshnessPolicy.State state = policy.evaluate(ageMs);
+        metrics.record(key, ageMs, state);
+        Logging.d(LOG_TAG, "evaluate(", key, ") age = ", ageMs, " state = ", state);
+        return state;
+    }
+}
@@ -74,6 +74,20 @@ public interface FeedManager {
      */
     Completable getGfycats(FeedIdentifier feedIdentifier);
 
+    /**
+     * Same as {@link #getGfycats(FeedIdentifier)}, but search feed goes through provided {@link SearchSession},
+     * so previous query of the session in flight is cancelled and recent queries are served from memory.
+     * Query superseded by another one fails with {@link SearchSession.QueryCancelledException}.
+     * <p>
+     * Default implementation ignores session and always performs network request.
+     *
+     * @param searchSession session of caller that types queries, null to perform network request without session.
+     * @param refresh       true to skip results cached by session, for example on explicit refresh or when feed content expired.
+     */
+    default Completable getGfycats(FeedIdentifier feedIdentifier, SearchSession searchSession, boolean refresh) {
+        return getGfycats(feedIdentifier);
+    }
+
     /**
      * Perform a network request of new Gfycats for a specified {@param feedDescription}.
      * {@link FeedData} containing this request result will be returned via {@link #observeGfycats(Context, FeedIdentifier)} observable.
@@ -27,6 +27,8 @@ import com.gfycat.common.utils.Logging;
 import com.gfycat.common.utils.Sugar;
 import com.gfycat.common.utils.Utils;
 import com.gfycat.core.FeedIdentifier;
+import com.gfycat.core.FeedIdentifierParameters;
+import com.gfycat.core.PublicFeedIdentifier;
 import com.gfycat.core.RecentFeedIdentifier;
 import com.gfycat.core.db.CloseMode;
 import com.gfycat.core.db.FeedCacheUriContract;
@@ -39,11 +41,13 @@ import com.gfycat.core.gfycatapi.pojo.GfycatList;
 import com.gfycat.core.gfycatapi.pojo.GfycatRecentCategory;
 import com.gfycat.core.gfycatapi.pojo.OneGfyItem;
 
+import java.net.HttpURLConnection;
 import java.nio.channels.IllegalSelectorException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
@@ -55,6 +59,8 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.BehaviorSubject;
+import retrofit2.HttpException;
+import retrofit2.Response;
 
 /**
  * Created by dekalo on 20.01.16.
@@ -69,19 +75,40 @@ public class FeedManagerImpl implements FeedManager {
 
     private static final int RECENT_GFYCATS_LIMIT = 100;
 
+    /**
+     * Parameters of search feed besides of search text, results are reused only between queries with equal parameters.
+     */
+    private static final String[] SEARCH_FILTER_PARAMETERS = {
+            FeedIdentifierParameters.MIN_LENGTH,
+            FeedIdentifierParameters.MAX_LENGTH,
+            FeedIdentifierParameters.MIN_ASPECT_RATIO,
+            FeedIdentifierParameters.MAX_ASPECT_RATIO,
+            FeedIdentifierParameters.CONTENT_RATING};
+
     private BehaviorSubject<GfycatCategoriesList> ongoingCategoriesRequest;
     private final CategoriesCache categoriesCache;
 
     private final GfycatFeedCache gfycatFeedCache;
     private final GfycatAPI gfycatApi;
+    private final FeedFreshnessPolicies freshnessPolicies;
 
     private GetGfycatsObservableFactory getGfycatsObservableFactory = new GetGfycatsObservableFactoryMap();
     private GetMoreGfycatsObservableFactory getMoreGfycatsObservableFactory = new GetMoreGfycatsObservableFactoryMap();
+    private ConditionalGetGfycatsObservableFactoryMap conditionalGetGfycatsObservableFactory = new ConditionalGetGfycatsObservableFactoryMap();
 
     public FeedManagerImpl(CategoriesCache categoriesCache, GfycatAPI gfycatApi, GfycatFeedCache gfycatFeedCache) {
+        this(categoriesCache, gfycatApi, gfycatFeedCache, new FeedFreshnessPolicies());
+    }
+
+    public FeedManagerImpl(CategoriesCache categoriesCache, GfycatAPI gfycatApi, GfycatFeedCache gfycatFeedCache, FeedFreshnessPolicies freshnessPolicies) {
         this.categoriesCache = categoriesCache;
         this.gfycatApi = gfycatApi;
         this.gfycatFeedCache = gfycatFeedCache;
+        this.freshnessPolicies = freshnessPolicies;
+    }
+
+    public FeedFreshnessPolicies getFreshnessPolicies() {
+        return freshnessPolicies;
     }
 
     @Override
@@ -129,27 +156,52 @@ public class FeedManagerImpl implements FeedManager {
 
     private Observable<GfycatCategoriesList> doLoadCategories() {
         return Observable.create(subscriber -> {
-            Pair<GfycatCategoriesList, Boolean> cacheEntry = categoriesCache.get();
-            if (cacheEntry != null) {
+            Pair<GfycatCategoriesList, Long> cacheEntry = categoriesCache.get();
+            FreshnessPolicy.State state = cacheEntry == null
+                    ? FreshnessPolicy.State.EXPIRED
+                    : freshnessPolicies.evaluateCategories(cacheEntry.second);
+
+            if (cacheEntry != null && state != FreshnessPolicy.State.EXPIRED) {
                 subscriber.onNext(cacheEntry.first);
             }
 
-            if (cacheEntry == null || cacheEntry.second) {
-                Disposable networkDisposable = gfycatApi.getCategories(Locale.getDefault().getLanguage())
-                        .map(this::filterInvalidCategories)
-                        .subscribe(
-                                categoriesList -> {
-                                    if (categoriesCache.update(categoriesList)) {
-                                        subscriber.onNext(categoriesList);
-                                    }
-                                    subscriber.onComplete();
-                                },
-                                subscriber::onError);
-
-                subscriber.setCancellable(networkDisposable::dispose);
-            } else {
+            if (state == FreshnessPolicy.State.FRESH) {
+                Logging.d(LOG_TAG, "categories are fresh, skip network request");
                 subscriber.onComplete();
+                return;
             }
+
+            ResponseValidators validators = cacheEntry != null ? categoriesCache.getValidators() : ResponseValidators.EMPTY;
+            Disposable networkDisposable = gfycatApi.getCategoriesConditionally(Locale.getDefault().getLanguage(), validators.getETag(), validators.getLastModified())
+                    .flatMap(response -> {
+                        if (cacheEntry != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                            Logging.d(LOG_TAG, "categories are not modified");
+                            categoriesCache.markNotModified();
+                            freshnessPolicies.recordCategoriesNotModified();
+                            // expired categories were not delivered yet
+                            return state == FreshnessPolicy.State.EXPIRED ? Observable.just(cacheEntry.first) : Observable.<GfycatCategoriesList>empty();
+                        }
+                        return bodyOrError(response)
+                                .map(this::filterInvalidCategories)
+                                .filter(categoriesList ->
+                                        // expired categories were not delivered yet, so deliver them even if nothing changed
+                                        categoriesCache.update(categoriesList, ResponseValidators.fromHeaders(response.headers()))
+                                                || state == FreshnessPolicy.State.EXPIRED);
+                    })
+                    .subscribe(
+                            subscriber::onNext,
+                            throwable -> {
+                                if (cacheEntry != null && state == FreshnessPolicy.State.EXPIRED) {
+                                    Logging.d(LOG_TAG, "categories network request failed, fallback to expired cache ", throwable);
+                                    subscriber.onNext(cacheEntry.first);
+                                    subscriber.onComplete();
+                                } else {
+                                    subscriber.onError(throwable);
+                                }
+                            },
+                            subscriber::onComplete);
+
+            subscriber.setCancellable(networkDisposable::dispose);
         });
     }
 
@@ -181,8 +233,19 @@ public class FeedManagerImpl implements FeedManager {
                 .map(feedIdentifier -> getFeedDataFromDB(gfycatFeedCache, feedIdentifier));
     }
 
+    @Override
+    public Completable getGfycats(FeedIdentifier feedIdentifier, SearchSession searchSession, boolean refresh) {
+        if (searchSession != null && feedIdentifier.getType() == FeedIdentifier.Type.SEARCH && feedIdentifier instanceof PublicFeedIdentifier) {
+            return searchGfycats((PublicFeedIdentifier) feedIdentifier, searchSession, refresh);
+        }
+        return getGfycats(feedIdentifier);
+    }
+
     @Override
     public Completable getGfycats(FeedIdentifier feedIdentifier) {
+        if (conditionalGetGfycatsObservableFactory.isSupported(feedIdentifier)) {
+            return getGfycatsConditionally(feedIdentifier);
+        }
         return getGfycatsObservableFactory
                 .create(gfycatApi, feedIdentifier, DEFAULT_GET_ITEMS_VALUE)
                 .flatMap(new GenericErrorCheck())
@@ -191,6 +254,65 @@ public class FeedManagerImpl implements FeedManager {
                 .subscribeOn(Schedulers.io());
     }
 
+    /**
+     * Same as {@link #getGfycats(FeedIdentifier)}, but sends validators of previous response,
+     * so unchanged feed is answered with 304 and neither parsed nor saved.
+     */
+    private Completable getGfycatsConditionally(FeedIdentifier feedIdentifier) {
+        return Observable.fromCallable(() -> gfycatFeedCache.getFeedValidators(feedIdentifier))
+                .flatMap(validators -> conditionalGetGfycatsObservableFactory.create(gfycatApi, feedIdentifier, DEFAULT_GET_ITEMS_VALUE, validators))
+                .flatMap(response -> {
+                    if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                        Logging.d(LOG_TAG, feedIdentifier, " is not modified");
+                        gfycatFeedCache.markFeedNotModified(feedIdentifier);
+                        freshnessPolicies.recordNotModified(feedIdentifier.getType());
+                        return Observable.<GfycatList>empty();
+                    }
+                    return bodyOrError(response)
+                            .flatMap(new GenericErrorCheck())
+                            .doOnNext(new InsertOrReplaceAction(gfycatFeedCache, feedIdentifier, CloseMode.Auto))
+                            .doOnNext(gfycatList -> gfycatFeedCache.saveFeedValidators(feedIdentifier, ResponseValidators.fromHeaders(response.headers())));
+                })
+                .ignoreElements()
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Same as {@link #getGfycats(FeedIdentifier)}, but goes through {@link SearchSession},
+     * so previous query of session in flight is cancelled and recent queries are served from memory unless refresh is requested.
+     * Provisional prefix result is deleted if actual result never arrives, so it is not served as feed content later.
+     */
+    private Completable searchGfycats(PublicFeedIdentifier feedIdentifier, SearchSession searchSession, boolean refresh) {
+        return Completable.defer(() -> {
+            AtomicBoolean provisional = new AtomicBoolean();
+            return searchSession.search(
+                    feedIdentifier.getParameter(FeedIdentifierParameters.SEARCH_TEXT_PARAMETER),
+                    getSearchFilter(feedIdentifier),
+                    getGfycatsObservableFactory
+                            .create(gfycatApi, feedIdentifier, DEFAULT_GET_ITEMS_VALUE)
+                            .flatMap(new GenericErrorCheck()),
+                    refresh)
+                    .doOnNext(new InsertOrReplaceAction(gfycatFeedCache, feedIdentifier, CloseMode.Auto))
+                    .doOnNext(gfycatList -> provisional.set(gfycatList instanceof SearchSession.PrefixResult))
+                    .doFinally(() -> {
+                        if (provisional.get()) {
+                            Logging.d(LOG_TAG, "actual result of ", feedIdentifier, " did not arrive, drop provisional one");
+                            // could be disposed on main thread
+                            Schedulers.io().scheduleDirect(() -> gfycatFeedCache.delete(feedIdentifier));
+                        }
+                    })
+                    .ignoreElements();
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private static String getSearchFilter(PublicFeedIdentifier feedIdentifier) {
+        StringBuilder sb = new StringBuilder();
+        for (String parameter : SEARCH_FILTER_PARAMETERS) {
+            sb.append(parameter).append('=').append(feedIdentifier.getParameter(parameter)).append('&');
+        }
+        return sb.toString();
+    }
+
     @Override
     public Completable getNewGfycats(FeedDescription feedDescription) {
         return getMoreGfycats(feedDescription, DEFAULT_GET_NEW_ITEMS_VALUE);
@@ -277,6 +399,12 @@ public class FeedManagerImpl implements FeedManager {
         return gfycatFeedCache.getFeedData(feedIdentifier);
     }
 
+    private static <T> Observable<T> bodyOrError(Response<T> response) {
+        T body = response.body();
+        if (!response.isSuccessful() || body == null) return Observable.error(new HttpException(response));
+        return Observable.just(body);
+    }
+
     public void dropFeed(FeedIdentifier feedIdentifier) {
         gfycatFeedCache.delete(feedIdentifier);
     }
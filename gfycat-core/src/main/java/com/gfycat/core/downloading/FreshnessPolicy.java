@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.downloading;
+
+/**
+ * Describes how long cached content stays usable.
+ * <p>
+ * Content younger than time to live is {@link State#FRESH} and should be served without any network request.
+ * Content older than that, but still inside stale-while-revalidate window is {@link State#STALE}, it should be served immediately and refreshed in background.
+ * Anything older is {@link State#EXPIRED} and should be served only if network is not available.
+ */
+public class FreshnessPolicy {
+
+    /**
+     * Cached content is always served, but network request is performed every time.
+     */
+    public static final FreshnessPolicy ALWAYS_REVALIDATE = new FreshnessPolicy(0, Long.MAX_VALUE);
+
+    /**
+     * Cached content never becomes outdated, useful for local only feeds.
+     */
+    public static final FreshnessPolicy NEVER_EXPIRES = new FreshnessPolicy(Long.MAX_VALUE, 0);
+
+    public enum State {
+        FRESH,
+        STALE,
+        EXPIRED
+    }
+
+    private final long timeToLiveMs;
+    private final long staleWhileRevalidateMs;
+
+    /**
+     * @param timeToLiveMs           time in milliseconds while cached content is fresh.
+     * @param staleWhileRevalidateMs time in milliseconds after timeToLiveMs while cached content could be served alongside with background refresh.
+     */
+    public FreshnessPolicy(long timeToLiveMs, long staleWhileRevalidateMs) {
+        if (timeToLiveMs < 0 || staleWhileRevalidateMs < 0)
+            throw new IllegalArgumentException("Negative windows are not allowed, ttl = " + timeToLiveMs + " swr = " + staleWhileRevalidateMs);
+        this.timeToLiveMs = timeToLiveMs;
+        this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+    }
+
+    public long getTimeToLiveMs() {
+        return timeToLiveMs;
+    }
+
+    public long getStaleWhileRevalidateMs() {
+        return staleWhileRevalidateMs;
+    }
+
+    /**
+     * @param ageMs of cached content.
+     * @return Returns {@link State} of content with provided age.
+     */
+    public State evaluate(long ageMs) {
+        if (ageMs < 0) {
+            // clock was changed, we can not trust cached timestamp
+            return State.STALE;
+        }
+        if (ageMs < timeToLiveMs) return State.FRESH;
+        if (ageMs - timeToLiveMs < staleWhileRevalidateMs) return State.STALE;
+        return State.EXPIRED;
+    }
+
+    @Override
+    public String toString() {
+        return "FreshnessPolicy{ttl=" + timeToLiveMs + ", swr=" + staleWhileRevalidateMs + "}";
+    }
+}
@@ -22,6 +22,7 @@ import com.gfycat.core.FeedType;
 import com.gfycat.core.GfyCore;
 import com.gfycat.core.PublicFeedIdentifier;
 import com.gfycat.core.RecentFeedIdentifier;
+import com.gfycat.core.authentication.UserAccountManager;
 import com.gfycat.core.FeedIdentifierParameters;
 import com.gfycat.core.gfycatapi.GfycatAPI;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
@@ -146,12 +147,22 @@ public class GetGfycatsObservableFactoryMap implements GetGfycatsObservableFacto
     private class MeObservableFactory implements GetGfycatsObservableFactory {
         @Override
         public Observable<GfycatList> create(GfycatAPI api, FeedIdentifier feedIdentifier, int count) {
-            return GfyCore.getUserAccountManager().isSignedIn()
-                    ? api.getMyGfycats(null, count)
-                    : Observable.empty();
+            return ifSignedIn(api.getMyGfycats(null, count));
         }
     }
 
+    /**
+     * User account manager is built in parallel with feed manager, so sign in state is checked once manager is available.
+     *
+     * @return Returns request if user is signed in, empty observable otherwise.
+     */
+    static Observable<GfycatList> ifSignedIn(Observable<GfycatList> request) {
+        UserAccountManager userAccountManager = GfyCore.getUserAccountManager();
+        return userAccountManager.observe()
+                .firstOrError()
+                .flatMapObservable(userInfo -> userAccountManager.isSignedIn() ? request : Observable.<GfycatList>empty());
+    }
+
     private class RecentObservableFactory implements GetGfycatsObservableFactory {
         @Override
         public Observable<GfycatList> create(GfycatAPI api, FeedIdentifier feedIdentifier, int count) {
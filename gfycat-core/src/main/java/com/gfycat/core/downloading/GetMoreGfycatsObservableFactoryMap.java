@@ -18,7 +18,6 @@ package com.gfycat.core.downloading;
 
 import com.gfycat.core.FeedIdentifier;
 import com.gfycat.core.FeedType;
-import com.gfycat.core.GfyCore;
 import com.gfycat.core.PublicFeedIdentifier;
 import com.gfycat.core.FeedIdentifierParameters;
 import com.gfycat.core.gfycatapi.GfycatAPI;
@@ -105,9 +104,7 @@ public class GetMoreGfycatsObservableFactoryMap implements GetMoreGfycatsObserva
     private class MeObservableFactory implements GetMoreGfycatsObservableFactory {
         @Override
         public Observable<GfycatList> create(GfycatAPI api, FeedIdentifier feedIdentifier, String digestOrCursor, int count) {
-            return GfyCore.getUserAccountManager().isSignedIn()
-                    ? api.getMyGfycats(digestOrCursor, count)
-                    : Observable.empty();
+            return GetGfycatsObservableFactoryMap.ifSignedIn(api.getMyGfycats(digestOrCursor, count));
         }
     }
 
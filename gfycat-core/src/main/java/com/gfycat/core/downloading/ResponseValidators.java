@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.core.downloading;
+
+import android.text.TextUtils;
+
+import okhttp3.Headers;
+
+/**
+ * HTTP cache validators of previously downloaded response.
+ * <p>
+ * Sent back as If-None-Match / If-Modified-Since, so server could answer 304 Not Modified without body.
+ */
+public class ResponseValidators {
+
+    public static final ResponseValidators EMPTY = new ResponseValidators(null, null);
+
+    private final String eTag;
+    private final String lastModified;
+
+    public ResponseValidators(String eTag, String lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    public static ResponseValidators fromHeaders(Headers headers) {
+        String eTag = headers.get("ETag");
+        String lastModified = headers.get("Last-Modified");
+        if (TextUtils.isEmpty(eTag) && TextUtils.isEmpty(lastModified)) return EMPTY;
+        return new ResponseValidators(eTag, lastModified);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public boolean isEmpty() {
+        return TextUtils.isEmpty(eTag) && TextUtils.isEmpty(lastModified);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseValidators{eTag=" + eTag + ", lastModified=" + lastModified + "}";
+    }
+}
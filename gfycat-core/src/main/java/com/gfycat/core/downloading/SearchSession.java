@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.downloading;
+
+import com.gfycat.common.utils.Logging;
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+
+/**
+ * Typeahead layer in front of search requests.
+ * <p>
+ * Only one search of session is in flight at a time, new query cancels network request of previous one, same as switchMap does.
+ * Cancelled query fails with {@link QueryCancelledException}, so it is not mistaken for successful one.
+ * Every caller that types queries should have its own session, so queries of one caller do not cancel queries of another.
+ * Same query that is already in flight joins it instead.
+ * Results of recent queries are kept in memory LRU, so query that was typed moments ago is served without network request.
+ * While network request is in flight, results of longest cached prefix of query that match query are served as {@link PrefixResult}.
+ * <p>
+ * Hit and cancellation counts are collected, see {@link #getHitRate()} and {@link #getCancellationRate()}.
+ */
+public class SearchSession {
+
+    private static final String LOG_TAG = "SearchSession";
+
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final long DEFAULT_TIME_TO_LIVE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Shorter prefixes match too much to be useful as provisional result.
+     */
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    /**
+     * Provisional result of query built from cached result of its prefix, it is replaced by result of query itself.
+     */
+    public static class PrefixResult extends GfycatList {
+
+        private final String prefix;
+
+        PrefixResult(List<Gfycat> gfycats, String prefix) {
+            // no digest, prefix pagination is not valid for query
+            super(gfycats, null);
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    /**
+     * Query was superseded by another query of the same session or cancelled by {@link #cancel()} before its result arrived.
+     */
+    public static class QueryCancelledException extends RuntimeException {
+        QueryCancelledException(String searchText) {
+            super("Search of \"" + searchText + "\" is cancelled");
+        }
+    }
+
+    private final Object lock = new Object();
+    private final Scheduler clock;
+    private final long timeToLiveMs;
+    private final LinkedHashMap<String, Entry> cache;
+
+    private Request inFlight;
+
+    private long requests;
+    private long hits;
+    private long prefixHits;
+    private long joined;
+    private long networkRequests;
+    private long cancelled;
+
+    public SearchSession() {
+        this(DEFAULT_CAPACITY, DEFAULT_TIME_TO_LIVE_MS, Schedulers.trampoline());
+    }
+
+    /**
+     * @param clock scheduler which {@link Scheduler#now(TimeUnit)} is used as time source.
+     */
+    SearchSession(int capacity, long timeToLiveMs, Scheduler clock) {
+        this.clock = clock;
+        this.timeToLiveMs = timeToLiveMs;
+        this.cache = new LinkedHashMap<String, Entry>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #search(String, String, Observable, boolean)} that may serve cached results.
+     */
+    public Observable<GfycatList> search(String searchText, String filter, Observable<GfycatList> network) {
+        return search(searchText, filter, network, false);
+    }
+
+    /**
+     * @param searchText text of query, case and surrounding whitespaces are ignored.
+     * @param filter     other parameters of query, only results with equal filter are reused.
+     * @param network    cold request of query, it is subscribed only if query is not cached and not in flight.
+     * @param refresh    true to skip cached results, query joins request in flight or makes new one, its result replaces cached one.
+     * @return Returns results of query, {@link PrefixResult} could be emitted before actual result.
+     * Fails with {@link QueryCancelledException} if query is superseded by another one.
+     */
+    public Observable<GfycatList> search(String searchText, String filter, Observable<GfycatList> network, boolean refresh) {
+        return Observable.defer(() -> {
+            String text = normalize(searchText);
+            String scope = filter == null ? "" : filter;
+            String key = key(text, scope);
+            synchronized (lock) {
+                requests++;
+
+                if (inFlight != null && inFlight.key.equals(key)) {
+                    joined++;
+                    Logging.d(LOG_TAG, "join in flight ", text);
+                    return inFlight.shared;
+                }
+                cancelInFlight();
+
+                Entry entry = refresh ? null : getFresh(key);
+                if (entry != null) {
+                    hits++;
+                    Logging.d(LOG_TAG, "hit ", text);
+                    return Observable.just(entry.result);
+                }
+
+                networkRequests++;
+                inFlight = new Request(key, text, scope, network);
+                PrefixResult prefixResult = refresh ? null : findPrefixResult(text, scope);
+                if (prefixResult != null) {
+                    prefixHits++;
+                    Logging.d(LOG_TAG, "serve ", prefixResult.getGfycats().size(), " results of ", prefixResult.getPrefix(), " for ", text);
+                    return inFlight.shared.startWith(prefixResult);
+                }
+                return inFlight.shared;
+            }
+        });
+    }
+
+    /**
+     * Cancels network request of query in flight, if any.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            cancelInFlight();
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return Returns count of {@link #search(String, String, Observable)} calls.
+     */
+    public long getRequestsCount() {
+        synchronized (lock) {
+            return requests;
+        }
+    }
+
+    /**
+     * @return Returns count of queries served from cache without network request.
+     */
+    public long getHitsCount() {
+        synchronized (lock) {
+            return hits;
+        }
+    }
+
+    /**
+     * @return Returns count of queries that were served with {@link PrefixResult} while network request was in flight.
+     */
+    public long getPrefixHitsCount() {
+        synchronized (lock) {
+            return prefixHits;
+        }
+    }
+
+    /**
+     * @return Returns count of queries that joined network request of the same query in flight.
+     */
+    public long getJoinedCount() {
+        synchronized (lock) {
+            return joined;
+        }
+    }
+
+    public long getNetworkRequestsCount() {
+        synchronized (lock) {
+            return networkRequests;
+        }
+    }
+
+    /**
+     * @return Returns count of network requests that were cancelled before response because query was superseded, {@link #cancel()} was called
+     * or all subscribers disposed it.
+     */
+    public long getCancelledCount() {
+        synchronized (lock) {
+            return cancelled;
+        }
+    }
+
+    /**
+     * @return Returns part of queries that did not start network request, either served from cache or joined one in flight.
+     */
+    public float getHitRate() {
+        synchronized (lock) {
+            return requests == 0 ? 0 : (float) (hits + joined) / requests;
+        }
+    }
+
+    /**
+     * @return Returns part of network requests that were cancelled.
+     */
+    public float getCancellationRate() {
+        synchronized (lock) {
+            return networkRequests == 0 ? 0 : (float) cancelled / networkRequests;
+        }
+    }
+
+    public void resetMetrics() {
+        synchronized (lock) {
+            requests = hits = prefixHits = joined = networkRequests = cancelled = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format(Locale.US, "requests = %d hits = %d prefixHits = %d joined = %d network = %d cancelled = %d cached = %d",
+                    requests, hits, prefixHits, joined, networkRequests, cancelled, cache.size());
+        }
+    }
+
+    private void cancelInFlight() {
+        Request request = inFlight;
+        if (request != null) {
+            cancelled++;
+            Logging.d(LOG_TAG, "cancel ", request.text);
+            // fails request and disposes its network call, it also clears inFlight
+            request.isCancelled = true;
+            request.cancel.onNext(Boolean.TRUE);
+            inFlight = null;
+        }
+    }
+
+    private Entry getFresh(String key) {
+        Entry entry = cache.get(key);
+        if (entry != null && !isFresh(entry)) {
+            cache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private boolean isFresh(Entry entry) {
+        long age = clock.now(TimeUnit.MILLISECONDS) - entry.timeMs;
+        return age >= 0 && age < timeToLiveMs;
+    }
+
+    private PrefixResult findPrefixResult(String text, String filter) {
+        Entry longest = null;
+        // iteration does not change access order
+        for (Entry entry : cache.values()) {
+            if (entry.text.length() >= MIN_PREFIX_LENGTH
+                    && entry.text.length() < text.length()
+                    && text.startsWith(entry.text)
+                    && entry.filter.equals(filter)
+                    && isFresh(entry)
+                    && (longest == null || entry.text.length() > longest.text.length())) {
+                longest = entry;
+            }
+        }
+        if (longest == null || longest.result.getGfycats() == null) return null;
+
+        List<Gfycat> matched = new ArrayList<>();
+        for (Gfycat gfycat : longest.result.getGfycats()) {
+            if (matches(gfycat, text)) matched.add(gfycat);
+        }
+        return matched.isEmpty() ? null : new PrefixResult(matched, longest.text);
+    }
+
+    private static boolean matches(Gfycat gfycat, String text) {
+        if (contains(gfycat.getTitle(), text)) return true;
+        if (gfycat.getTags() != null) {
+            for (String tag : gfycat.getTags()) {
+                if (contains(tag, text)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String value, String text) {
+        return value != null && value.toLowerCase(Locale.US).contains(text);
+    }
+
+    private void put(String key, String text, String filter, GfycatList result) {
+        synchronized (lock) {
+            cache.put(key, new Entry(text, filter, result, clock.now(TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    private void finished(Request request) {
+        synchronized (lock) {
+            if (inFlight == request) inFlight = null;
+        }
+    }
+
+    /**
+     * Request that is disposed by all its subscribers before response is cancelled too, superseded request is already counted by {@link #cancelInFlight()}.
+     */
+    private void disposed(Request request) {
+        synchronized (lock) {
+            if (inFlight != request) return;
+            inFlight = null;
+            if (!request.isResponded) {
+                cancelled++;
+                Logging.d(LOG_TAG, "disposed ", request.text);
+            }
+        }
+    }
+
+    private static String normalize(String searchText) {
+        return searchText == null ? "" : searchText.trim().toLowerCase(Locale.US);
+    }
+
+    private static String key(String text, String filter) {
+        return filter + "\n" + text;
+    }
+
+    private static class Entry {
+        private final String text;
+        private final String filter;
+        private final GfycatList result;
+        private final long timeMs;
+
+        private Entry(String text, String filter, GfycatList result, long timeMs) {
+            this.text = text;
+            this.filter = filter;
+            this.result = result;
+            this.timeMs = timeMs;
+        }
+    }
+
+    private class Request {
+        private final String key;
+        private final String text;
+        private final PublishSubject<Boolean> cancel = PublishSubject.create();
+        private final Observable<GfycatList> shared;
+        private volatile boolean isCancelled;
+        private volatile boolean isResponded;
+
+        private Request(String key, String text, String filter, Observable<GfycatList> network) {
+            this.key = key;
+            this.text = text;
+            this.shared = network
+                    .doOnNext(result -> {
+                        isResponded = true;
+                        put(key, text, filter, result);
+                    })
+                    .takeUntil(cancel)
+                    .concatWith(Observable.defer(() -> isCancelled ? Observable.error(new QueryCancelledException(text)) : Observable.empty()))
+                    // inFlight is cleared before subscribers are notified, so nobody joins finished request
+                    .doOnTerminate(() -> finished(this))
+                    .doOnDispose(() -> disposed(this))
+                    .share();
+        }
+    }
+}
@@ -31,6 +31,8 @@ public class GfycatCategoriesData {
     public long version;
     public long lastUpdateTime;
     public GfycatCategoriesList categoriesList;
+    public String eTag;
+    public String lastModified;
 
     public GfycatCategoriesData() {
         /**
@@ -44,6 +46,12 @@ public class GfycatCategoriesData {
         this.categoriesList = categoriesList;
     }
 
+    public GfycatCategoriesData(GfycatCategoriesList categoriesList, long updateTime, long version, String eTag, String lastModified) {
+        this(categoriesList, updateTime, version);
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
     public GfycatCategoriesList getCategoriesList() {
         return categoriesList;
     }
@@ -59,4 +67,20 @@ public class GfycatCategoriesData {
     public void setLastUpdateTime(long lastUpdateTime) {
         this.lastUpdateTime = lastUpdateTime;
     }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -37,6 +37,7 @@ import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
 import retrofit2.http.HEAD;
+import retrofit2.http.Header;
 import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
@@ -59,6 +60,9 @@ public interface GfycatAPI {
     String MAX_ASPECT = "maxAspectRatio";
     String CONTENT_RATING = "rating";
 
+    String IF_NONE_MATCH = "If-None-Match";
+    String IF_MODIFIED_SINCE = "If-Modified-Since";
+
     @GET(SEARCH)
     Observable<SearchResult> search(
             @Query(SEARCH_TEXT) String searchText,
@@ -79,6 +83,24 @@ public interface GfycatAPI {
     @GET("reactions/populated")
     Observable<GfycatList> getReactions(@Query("tagName") String tag, @Query("digest") String digest, @Query("gfyCount") int count);
 
+    /**
+     * Conditional version of {@link #getTrendingGfycats(String, int)} for first page, null validators are omitted.
+     */
+    @GET(TRENDING)
+    Observable<Response<GfycatList>> getTrendingGfycatsConditionally(@Query("count") int count, @Header(IF_NONE_MATCH) String eTag, @Header(IF_MODIFIED_SINCE) String lastModified);
+
+    /**
+     * Conditional version of {@link #getListForTag(String, String, int)} for first page, null validators are omitted.
+     */
+    @GET(TRENDING)
+    Observable<Response<GfycatList>> getListForTagConditionally(@Query("tagName") String tag, @Query("count") int count, @Header(IF_NONE_MATCH) String eTag, @Header(IF_MODIFIED_SINCE) String lastModified);
+
+    /**
+     * Conditional version of {@link #getReactions(String, String, int)} for first page, null validators are omitted.
+     */
+    @GET("reactions/populated")
+    Observable<Response<GfycatList>> getReactionsConditionally(@Query("tagName") String tag, @Query("gfyCount") int count, @Header(IF_NONE_MATCH) String eTag, @Header(IF_MODIFIED_SINCE) String lastModified);
+
     @GET("sound/search")
     Observable<SearchResult> soundSearch(
             @Query(SEARCH_TEXT) String searchText,
@@ -145,6 +167,12 @@ public interface GfycatAPI {
     @GET("reactions/populated?gfyCount=1")
     Observable<GfycatCategoriesList> getCategories(@Query("locale") String locale);
 
+    /**
+     * Conditional version of {@link #getCategories(String)}, null validators are omitted.
+     */
+    @GET("reactions/populated?gfyCount=1")
+    Observable<Response<GfycatCategoriesList>> getCategoriesConditionally(@Query("locale") String locale, @Header(IF_NONE_MATCH) String eTag, @Header(IF_MODIFIED_SINCE) String lastModified);
+
     @PATCH("me")
     Completable updateUserProfile(@Body UpdateUserInfo body);
 
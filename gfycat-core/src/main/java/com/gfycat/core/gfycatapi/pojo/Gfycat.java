@@ -90,47 +90,48 @@ public class Gfycat implements Serializable {
         }
     }
 
-    private String gfyId;
-    private String gfyName;
-    private String gfyNumber;
-    private int width;
-    private int height;
-    private String userName;
-    private String createDate;
-    private int views;
-    private String title;
-    private String description;
-    private String projectionType;
-    private int nsfw;
-    private int published;
-    private String avgColor;
-    private boolean hasTransparency;
-    private boolean hasAudio;
-    private List<String> tags = Collections.emptyList();
-    private float frameRate;
-    private int numFrames;
-    private String rating;
-
-    private int mp4Size;
-    private int webmSize;
-
-    private String posterUrl;
-    private String pngPosterUrl;
-    private String mobilePosterUrl;
-    private String miniPosterUrl;
-    private String thumb100PosterUrl;
-
-    private String mp4Url;
-    private String mobileUrl;
-    private String miniUrl;
-    private String gifUrl;
-    private String webmUrl;
-    private String webpUrl;
-
-    private String gif100px;
-    private String max1mbGif;
-    private String max2mbGif;
-    private String max5mbGif;
+    // fields are package private to be filled by GfycatTypeAdapterFactory without reflection
+    String gfyId;
+    String gfyName;
+    String gfyNumber;
+    int width;
+    int height;
+    String userName;
+    String createDate;
+    int views;
+    String title;
+    String description;
+    String projectionType;
+    int nsfw;
+    int published;
+    String avgColor;
+    boolean hasTransparency;
+    boolean hasAudio;
+    List<String> tags = Collections.emptyList();
+    float frameRate;
+    int numFrames;
+    String rating;
+
+    int mp4Size;
+    int webmSize;
+
+    String posterUrl;
+    String pngPosterUrl;
+    String mobilePosterUrl;
+    String miniPosterUrl;
+    String thumb100PosterUrl;
+
+    String mp4Url;
+    String mobileUrl;
+    String miniUrl;
+    String gifUrl;
+    String webmUrl;
+    String webpUrl;
+
+    String gif100px;
+    String max1mbGif;
+    String max2mbGif;
+    String max5mbGif;
 
     /**
      * Color of first frame.
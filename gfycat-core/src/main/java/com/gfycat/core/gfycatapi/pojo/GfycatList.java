@@ -25,11 +25,12 @@ import java.util.List;
  */
 public class GfycatList {
 
-    private String cursor; // user for search
-    private String digest; // used for tags and trending
-    private List<Gfycat> gfycats;
-    private List<Gfycat> newGfycats;
-    private String errorMessage;
+    // fields are package private to be filled by GfycatTypeAdapterFactory without reflection
+    String cursor; // user for search
+    String digest; // used for tags and trending
+    List<Gfycat> gfycats;
+    List<Gfycat> newGfycats;
+    String errorMessage;
 
     public GfycatList() {
     }
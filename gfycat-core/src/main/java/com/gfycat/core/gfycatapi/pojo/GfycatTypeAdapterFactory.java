@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.core.gfycatapi.pojo;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming {@link JsonReader} based adapters for {@link Gfycat}, {@link GfycatList} and {@link SearchResult}.
+ * <p>
+ * Feed responses contain up to hundred gfycats with ~40 fields each, reflective binding is noticeably slower and allocates more for such payloads.
+ * Serialization is delegated to default reflective adapters.
+ */
+public class GfycatTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Gfycat.class) {
+            return (TypeAdapter<T>) new GfycatAdapter(gson.getDelegateAdapter(this, TypeToken.get(Gfycat.class)));
+        } else if (rawType == SearchResult.class) {
+            return (TypeAdapter<T>) new GfycatListAdapter<>(gson.getDelegateAdapter(this, TypeToken.get(SearchResult.class)), gson.getAdapter(Gfycat.class), SearchResult::new);
+        } else if (rawType == GfycatList.class) {
+            return (TypeAdapter<T>) new GfycatListAdapter<>(gson.getDelegateAdapter(this, TypeToken.get(GfycatList.class)), gson.getAdapter(Gfycat.class), GfycatList::new);
+        }
+        return null;
+    }
+
+    private interface Factory<T> {
+        T create();
+    }
+
+    private static class GfycatListAdapter<T extends GfycatList> extends TypeAdapter<T> {
+
+        private final TypeAdapter<T> writeDelegate;
+        private final TypeAdapter<Gfycat> gfycatAdapter;
+        private final Factory<T> factory;
+
+        private GfycatListAdapter(TypeAdapter<T> writeDelegate, TypeAdapter<Gfycat> gfycatAdapter, Factory<T> factory) {
+            this.writeDelegate = writeDelegate;
+            this.gfycatAdapter = gfycatAdapter;
+            this.factory = factory;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            writeDelegate.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T result = factory.create();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "cursor":
+                        result.cursor = readString(in);
+                        break;
+                    case "digest":
+                        result.digest = readString(in);
+                        break;
+                    case "gfycats":
+                        result.gfycats = readGfycats(in);
+                        break;
+                    case "newGfycats":
+                        result.newGfycats = readGfycats(in);
+                        break;
+                    case "errorMessage":
+                        result.errorMessage = readString(in);
+                        break;
+                    case "found":
+                        if (result instanceof SearchResult) {
+                            ((SearchResult) result).found = readLong(in);
+                        } else {
+                            in.skipValue();
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return result;
+        }
+
+        private List<Gfycat> readGfycats(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<Gfycat> result = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                result.add(gfycatAdapter.read(in));
+            }
+            in.endArray();
+            return result;
+        }
+    }
+
+    private static class GfycatAdapter extends TypeAdapter<Gfycat> {
+
+        private final TypeAdapter<Gfycat> writeDelegate;
+
+        private GfycatAdapter(TypeAdapter<Gfycat> writeDelegate) {
+            this.writeDelegate = writeDelegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, Gfycat value) throws IOException {
+            writeDelegate.write(out, value);
+        }
+
+        @Override
+        public Gfycat read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Gfycat gfycat = new Gfycat();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "gfyId":
+                        gfycat.gfyId = readString(in);
+                        break;
+                    case "gfyName":
+                        gfycat.gfyName = readString(in);
+                        break;
+                    case "gfyNumber":
+                        gfycat.gfyNumber = readString(in);
+                        break;
+                    case "width":
+                        gfycat.width = readInt(in);
+                        break;
+                    case "height":
+                        gfycat.height = readInt(in);
+                        break;
+                    case "userName":
+                        gfycat.userName = readString(in);
+                        break;
+                    case "createDate":
+                        gfycat.createDate = readString(in);
+                        break;
+                    case "views":
+                        gfycat.views = readInt(in);
+                        break;
+                    case "title":
+                        gfycat.title = readString(in);
+                        break;
+                    case "description":
+                        gfycat.description = readString(in);
+                        break;
+                    case "projectionType":
+                        gfycat.projectionType = readString(in);
+                        break;
+                    case "nsfw":
+                        gfycat.nsfw = readInt(in);
+                        break;
+                    case "published":
+                        gfycat.published = readInt(in);
+                        break;
+                    case "avgColor":
+                        gfycat.avgColor = readString(in);
+                        break;
+                    case "hasTransparency":
+                        gfycat.hasTransparency = readBoolean(in);
+                        break;
+                    case "hasAudio":
+                        gfycat.hasAudio = readBoolean(in);
+                        break;
+                    case "tags":
+                        gfycat.setTags(readStrings(in));
+                        break;
+                    case "frameRate":
+                        gfycat.frameRate = (float) readDouble(in);
+                        break;
+                    case "numFrames":
+                        gfycat.numFrames = readInt(in);
+                        break;
+                    case "rating":
+                        gfycat.rating = readString(in);
+                        break;
+                    case "mp4Size":
+                        gfycat.mp4Size = readInt(in);
+                        break;
+                    case "webmSize":
+                        gfycat.webmSize = readInt(in);
+                        break;
+                    case "posterUrl":
+                        gfycat.posterUrl = readString(in);
+                        break;
+                    case "pngPosterUrl":
+                        gfycat.pngPosterUrl = readString(in);
+                        break;
+                    case "mobilePosterUrl":
+                        gfycat.mobilePosterUrl = readString(in);
+                        break;
+                    case "miniPosterUrl":
+                        gfycat.miniPosterUrl = readString(in);
+                        break;
+                    case "thumb100PosterUrl":
+                        gfycat.thumb100PosterUrl = readString(in);
+                        break;
+                    case "mp4Url":
+                        gfycat.mp4Url = readString(in);
+                        break;
+                    case "mobileUrl":
+                        gfycat.mobileUrl = readString(in);
+                        break;
+                    case "miniUrl":
+                        gfycat.miniUrl = readString(in);
+                        break;
+                    case "gifUrl":
+                        gfycat.gifUrl = readString(in);
+                        break;
+                    case "webmUrl":
+                        gfycat.webmUrl = readString(in);
+                        break;
+                    case "webpUrl":
+                        gfycat.webpUrl = readString(in);
+                        break;
+                    case "gif100px":
+                        gfycat.gif100px = readString(in);
+                        break;
+                    case "max1mbGif":
+                        gfycat.max1mbGif = readString(in);
+                        break;
+                    case "max2mbGif":
+                        gfycat.max2mbGif = readString(in);
+                        break;
+                    case "max5mbGif":
+                        gfycat.max5mbGif = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return gfycat;
+        }
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            result.add(readString(in));
+        }
+        in.endArray();
+        return result;
+    }
+
+    /**
+     * Same leniency as Gson default adapters: numbers and booleans are accepted as strings.
+     */
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        } else if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static int readInt(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextInt();
+    }
+
+    private static long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextLong();
+    }
+
+    private static double readDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextDouble();
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        } else if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
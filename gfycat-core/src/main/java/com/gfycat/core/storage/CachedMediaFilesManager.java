@@ -20,12 +20,17 @@ import com.gfycat.common.ChainedException;
 import com.gfycat.common.ContextDetails;
 import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Logging;
+import com.gfycat.core.bi.analytics.GfycatAnalytics;
+import com.gfycat.core.bi.corelogger.CoreLogger;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.disklrucache.DiskLruCache;
 
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,6 +42,7 @@ import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.subjects.BehaviorSubject;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import retrofit2.HttpException;
@@ -54,11 +60,14 @@ public class CachedMediaFilesManager implements MediaFilesManager {
     private static final int FOBIDDEN_CODE = 403;
 
     private final Map<String, BehaviorSubject<File>> ongoingDownloads = new HashMap<>();
+    private final Map<String, MediaTransfer> transfers = new HashMap<>();
     private final DiskCache diskCache;
     private final MediaApi mediaApi;
+    private final OkHttpClient videoClient;
 
     public CachedMediaFilesManager(OkHttpClient videoClient, DiskCache diskCache) {
         this.diskCache = diskCache;
+        this.videoClient = videoClient;
         this.mediaApi = new Retrofit.Builder()
                 .client(videoClient)
                 .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
@@ -99,6 +108,73 @@ public class CachedMediaFilesManager implements MediaFilesManager {
                         .put("gfyId", gfycat.getGfyId()));
     }
 
+    @Override
+    public InputStream openStream(Gfycat gfycat, MediaType mediaType) throws IOException {
+        String fileKey = mediaType.getVideoStorageId(gfycat);
+        String url = mediaType.getUrl(gfycat);
+
+        File file = diskCache.get(fileKey);
+        if (file != null) {
+            Logging.d(LOG_TAG, "openStream(", fileKey, ") cache hit");
+            return new FileInputStream(file);
+        }
+
+        MediaTransfer transfer;
+        synchronized (transfers) {
+            transfer = transfers.get(fileKey);
+            if (transfer == null) {
+                DiskLruCache.Editor editor = diskCache.isAvailable() ? diskCache.edit(fileKey) : null;
+                if (editor == null) {
+                    // cache is not available or file is being saved by loadAsFile(...)
+                    Logging.d(LOG_TAG, "openStream(", fileKey, ") can not edit cache, read from network");
+                    return openNetworkStream(url);
+                }
+                file = diskCache.get(fileKey);
+                if (file != null) {
+                    // saved between first check and edit
+                    editor.abortUnlessCommitted();
+                    return new FileInputStream(file);
+                }
+                try {
+                    transfer = new MediaTransfer(videoClient, diskCache, editor, url, fileKey, finished -> onTransferFinished(finished, mediaType));
+                } catch (IOException e) {
+                    editor.abortUnlessCommitted();
+                    throw e;
+                }
+                transfers.put(fileKey, transfer);
+                transfer.start();
+                Logging.d(LOG_TAG, "openStream(", fileKey, ") start transfer");
+            } else {
+                Logging.d(LOG_TAG, "openStream(", fileKey, ") join transfer");
+            }
+        }
+        return transfer.openStream();
+    }
+
+    private InputStream openNetworkStream(String url) throws IOException {
+        Response response = videoClient.newCall(new Request.Builder().url(url).build()).execute();
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new IOException("Resource " + url + " return " + response.code());
+        }
+        return response.body().byteStream();
+    }
+
+    private void onTransferFinished(MediaTransfer transfer, MediaType mediaType) {
+        synchronized (transfers) {
+            if (transfers.get(transfer.getFileKey()) == transfer) {
+                transfers.remove(transfer.getFileKey());
+            }
+        }
+        GfycatAnalytics.getLogger(CoreLogger.class).logMediaTransfer(
+                mediaType,
+                transfer.getBytesCount(),
+                transfer.getLatencyMs(),
+                transfer.getDurationMs(),
+                transfer.getThroughput(),
+                transfer.getReadersCount());
+    }
+
     private Single<File> loadAsFile(String resource, String fileKey, ContextDetails contextDetails) {
         return findFileInCacheObservable(fileKey, contextDetails)
                 .onErrorResumeNext(findFileInPendingDownloadsOrDownload(resource, fileKey, contextDetails));
@@ -207,6 +283,17 @@ public class CachedMediaFilesManager implements MediaFilesManager {
 
     private Single<File> downloadAndSaveToCacheObservable(DiskCache diskCache, String resource, String fileKey, ContextDetails contextDetails) {
 
+        MediaTransfer transfer;
+        synchronized (transfers) {
+            transfer = transfers.get(fileKey);
+        }
+        if (transfer != null) {
+            // file is already downloaded by openStream(...)
+            Logging.d(LOG_TAG, "wait for transfer of ", fileKey, " ", contextDetails);
+            return Single.fromCallable(transfer::awaitFile)
+                    .onErrorResumeNext(throwable -> processErrors(throwable, resource, contextDetails));
+        }
+
         return mediaApi.load(resource)
                 .map(response -> {
                     diskCache.put(fileKey, response.byteStream());
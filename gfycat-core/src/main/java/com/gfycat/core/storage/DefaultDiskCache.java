@@ -81,7 +81,7 @@ public class DefaultDiskCache implements DiskCache {
         if (cacheFolder == null) return null;
         try {
             Logging.d(LOG_TAG, "::DefaultDiskCache(...) try to construct cache on dir = ", cacheFolder);
-            return DiskLruCache.open(new File(cacheFolder, CACHE_FOLDER_RELATIVE_PATH), APP_VERSION, calculateOptimalCacheSize(cacheFolder, cacheSizeOptions));
+            return DiskLruCache.openAsync(new File(cacheFolder, CACHE_FOLDER_RELATIVE_PATH), APP_VERSION, calculateOptimalCacheSize(cacheFolder, cacheSizeOptions));
         } catch (IOException e) {
             Logging.c(LOG_TAG, "Unable to construct cache, IOException happened while constructing cache at = ", cacheFolder, ". ", e);
         } catch (NotEnoughSpace e) {
@@ -55,8 +55,12 @@ public interface DiskCache {
 
     /**
      * Open file asociated with key for editing.
+     *
+     * @return Returns editor or null if file can not be edited, default implementation does not support editing and media is read from network.
      */
-    DiskLruCache.Editor edit(String fileKey);
+    default DiskLruCache.Editor edit(String fileKey) {
+        return null;
+    }
 
     /**
      * Save InputStream asociated with fileKey as file.
@@ -20,6 +20,8 @@ import com.gfycat.common.ContextDetails;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
 import io.reactivex.Single;
 
@@ -63,4 +65,18 @@ public interface MediaFilesManager {
      * Same as {@link MediaFilesManager#loadAsFile(Gfycat, MediaType)}, but with {@link ContextDetails} for logging purposes.
      */
     Single<File> loadAsFile(Gfycat gfycat, MediaType mediaType, ContextDetails contextDetails);
+
+    /**
+     * Opens stream of Gfycat media file.
+     * <p>
+     * Reads file from cache if it exists, otherwise media is saved to cache while it is read from network.
+     * Concurrent streams of the same media share single download.
+     * Should not be called on main thread.
+     *
+     * @param gfycat    of media file to open.
+     * @param mediaType type of media file to open.
+     * @return stream of media file, caller should close it.
+     * @throws IOException if media can not be opened.
+     */
+    InputStream openStream(Gfycat gfycat, MediaType mediaType) throws IOException;
 }
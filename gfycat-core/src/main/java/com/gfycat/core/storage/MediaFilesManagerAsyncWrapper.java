@@ -20,6 +20,8 @@ import com.gfycat.common.ContextDetails;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
 import io.reactivex.Single;
 import io.reactivex.subjects.ReplaySubject;
@@ -58,4 +60,9 @@ public class MediaFilesManagerAsyncWrapper implements MediaFilesManager {
     public Single<File> loadAsFile(Gfycat gfycat, MediaType mediaType, ContextDetails contextDetails) {
         return subject.singleOrError().flatMap(manager -> manager.loadAsFile(gfycat, mediaType, contextDetails));
     }
+
+    @Override
+    public InputStream openStream(Gfycat gfycat, MediaType mediaType) throws IOException {
+        return subject.blockingFirst().openStream(gfycat, mediaType);
+    }
 }
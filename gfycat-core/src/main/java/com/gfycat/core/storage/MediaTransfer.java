@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.storage;
+
+import com.gfycat.common.utils.Logging;
+import com.gfycat.disklrucache.DiskLruCache;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.HttpException;
+
+/**
+ * Download of media file into disk cache that could be read while it is downloaded.
+ * <p>
+ * Every {@link #openStream()} reads file from its start and waits for bytes that are not downloaded yet,
+ * so concurrent readers of the same media share single network request.
+ */
+class MediaTransfer {
+
+    private static final String LOG_TAG = "MediaTransfer";
+    private static final int MAX_CONCURRENT_DOWNLOADS = 3;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ExecutorService DOWNLOAD_EXECUTOR = ParcelFileDescriptorUtil.newTransferExecutor(LOG_TAG, MAX_CONCURRENT_DOWNLOADS);
+
+    interface Listener {
+        void onFinished(MediaTransfer transfer);
+    }
+
+    private final OkHttpClient client;
+    private final DiskCache diskCache;
+    private final DiskLruCache.Editor editor;
+    private final OutputStream output;
+    private final File dirtyFile;
+    private final String url;
+    private final String fileKey;
+    private final Listener listener;
+
+    // guarded by this
+    private long written;
+    private boolean finished;
+    private Throwable failure;
+    private File committedFile;
+    private int readersCount;
+
+    private final long startTime = System.nanoTime();
+    private long firstByteTime;
+    private long endTime;
+
+    /**
+     * @param editor of cache entry that receives downloaded file, it is committed or aborted by transfer.
+     */
+    MediaTransfer(OkHttpClient client, DiskCache diskCache, DiskLruCache.Editor editor, String url, String fileKey, Listener listener) throws IOException {
+        this.client = client;
+        this.diskCache = diskCache;
+        this.editor = editor;
+        this.url = url;
+        this.fileKey = fileKey;
+        this.listener = listener;
+        // creates file, so readers could open it before first byte is downloaded
+        this.output = editor.newOutputStream();
+        this.dirtyFile = editor.getDirtyFile();
+    }
+
+    void start() {
+        DOWNLOAD_EXECUTOR.execute(this::download);
+    }
+
+    String getFileKey() {
+        return fileKey;
+    }
+
+    /**
+     * @return Returns stream of media file, read blocks till requested bytes are downloaded.
+     * @throws IOException if transfer failed.
+     */
+    synchronized InputStream openStream() throws IOException {
+        readersCount++;
+        if (committedFile != null) return new FileInputStream(committedFile);
+        if (failure != null) throw asIOException(failure);
+        return new TailingInputStream(new FileInputStream(dirtyFile));
+    }
+
+    /**
+     * Blocks till transfer ends.
+     *
+     * @return Returns cached file.
+     * @throws Exception with reason of transfer failure.
+     */
+    synchronized File awaitFile() throws Exception {
+        readersCount++;
+        while (!finished) {
+            wait();
+        }
+        if (failure instanceof Exception) throw (Exception) failure;
+        if (failure != null) throw new IllegalStateException(failure);
+        return committedFile;
+    }
+
+    synchronized long getBytesCount() {
+        return written;
+    }
+
+    synchronized int getReadersCount() {
+        return readersCount;
+    }
+
+    /**
+     * @return Returns time from start of transfer till first downloaded byte.
+     */
+    synchronized long getLatencyMs() {
+        return firstByteTime == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(firstByteTime - startTime);
+    }
+
+    synchronized long getDurationMs() {
+        return TimeUnit.NANOSECONDS.toMillis((finished ? endTime : System.nanoTime()) - startTime);
+    }
+
+    /**
+     * @return Returns average download speed in bytes per second.
+     */
+    synchronized long getThroughput() {
+        return written * 1000 / Math.max(1, getDurationMs());
+    }
+
+    private void download() {
+        Response response = null;
+        try {
+            response = client.newCall(new Request.Builder().url(url).build()).execute();
+            if (!response.isSuccessful()) {
+                throw new HttpException(retrofit2.Response.error(response.body(), response));
+            }
+            InputStream input = response.body().byteStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+                synchronized (this) {
+                    if (firstByteTime == 0) firstByteTime = System.nanoTime();
+                    written += read;
+                    notifyAll();
+                }
+            }
+            IOUtils.closeQuietly(output);
+            synchronized (this) {
+                // under lock, so dirty file is not renamed between check of committedFile and its opening
+                editor.commit();
+                committedFile = diskCache.get(fileKey);
+                if (committedFile == null) {
+                    throw new IOException("Can not get file from diskCache, fileKey = " + fileKey + ", " + url);
+                }
+            }
+            finish(null);
+        } catch (Throwable throwable) {
+            IOUtils.closeQuietly(output);
+            editor.abortUnlessCommitted();
+            finish(throwable);
+        } finally {
+            if (response != null) response.close();
+        }
+    }
+
+    private void finish(Throwable throwable) {
+        synchronized (this) {
+            finished = true;
+            failure = throwable;
+            endTime = System.nanoTime();
+            notifyAll();
+        }
+        if (throwable != null) {
+            Logging.d(LOG_TAG, throwable, "transfer of ", fileKey, " failed");
+        }
+        Logging.d(LOG_TAG, "transfer of ", fileKey, " bytes = ", getBytesCount(), " latency = ", getLatencyMs(), "ms",
+                " duration = ", getDurationMs(), "ms throughput = ", getThroughput(), "B/s readers = ", getReadersCount());
+        listener.onFinished(this);
+    }
+
+    /**
+     * @return Returns count of bytes that could be read from position, -1 if all content is read.
+     */
+    private synchronized long awaitBytes(long position) throws IOException {
+        while (position >= written && !finished) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while waiting for " + fileKey);
+            }
+        }
+        if (position < written) return written - position;
+        if (failure != null) throw asIOException(failure);
+        return -1;
+    }
+
+    private static IOException asIOException(Throwable throwable) {
+        return throwable instanceof IOException ? (IOException) throwable : new IOException(throwable);
+    }
+
+    private class TailingInputStream extends InputStream {
+        private final InputStream file;
+        private long position;
+
+        TailingInputStream(InputStream file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            long available = awaitBytes(position);
+            if (available == -1) return -1;
+            int read = file.read(buffer, offset, (int) Math.min(length, available));
+            if (read == -1) {
+                throw new IOException("Cache file of " + fileKey + " is shorter than downloaded content");
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
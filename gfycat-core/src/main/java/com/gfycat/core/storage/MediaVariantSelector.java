@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.storage;
+
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses which of media variants to load for view of some size.
+ * <p>
+ * Preferred variant is the smallest one that is not smaller than the view.
+ * If estimated throughput does not allow to load it within {@link #DEFAULT_LOAD_TIME_BUDGET_MS},
+ * the largest variant that fits into the budget is chosen. Selection is made on every load, so the next load gets better variant when throughput grows.
+ * Variant that is already in cache is used instead of network one when it is not worse.
+ * <p>
+ * Pixel sizes of size restricted GIFs are not reported by api, they are estimated from gfycat size and frames count.
+ * File size of variant that api does not report, like WEBP, is estimated the same way, or proportionally to MP4 size when frames count is unknown.
+ */
+public class MediaVariantSelector {
+
+    /**
+     * GIF variants from the smallest to the largest.
+     */
+    public static final List<MediaType> GIF_VARIANTS = Collections.unmodifiableList(Arrays.asList(MediaType.GIF1, MediaType.GIF2, MediaType.GIF5));
+
+    public static final long DEFAULT_LOAD_TIME_BUDGET_MS = TimeUnit.SECONDS.toMillis(2);
+
+    /**
+     * Average size of GIF frame pixel after compression, used to estimate size of full resolution GIF.
+     */
+    private static final double GIF_BYTES_PER_PIXEL = 0.5;
+    private static final double WEBP_BYTES_PER_PIXEL = 0.1;
+    private static final double VIDEO_BYTES_PER_PIXEL = 0.02;
+
+    private final ThroughputEstimator throughputEstimator;
+    private final DiskCache diskCache;
+    private final long loadTimeBudgetMs;
+
+    public MediaVariantSelector() {
+        this(ThroughputEstimator.get(), DefaultDiskCache.get(), DEFAULT_LOAD_TIME_BUDGET_MS);
+    }
+
+    /**
+     * @param diskCache to look for already loaded variants, could be null.
+     */
+    MediaVariantSelector(ThroughputEstimator throughputEstimator, DiskCache diskCache, long loadTimeBudgetMs) {
+        this.throughputEstimator = throughputEstimator;
+        this.diskCache = diskCache;
+        this.loadTimeBudgetMs = loadTimeBudgetMs;
+    }
+
+    /**
+     * Checks disk cache, should not be called on main thread.
+     *
+     * @param variants   that could be loaded by caller.
+     * @param viewWidth  rendered width in pixels.
+     * @param viewHeight rendered height in pixels.
+     * @return Returns variant to load now.
+     */
+    public MediaType select(Gfycat gfycat, List<MediaType> variants, int viewWidth, int viewHeight) {
+        return select(gfycat, variants(gfycat, variants), viewWidth, viewHeight).type;
+    }
+
+    private Variant select(Gfycat gfycat, List<Variant> variants, int viewWidth, int viewHeight) {
+        Variant chosen = preferred(variants, viewWidth, viewHeight);
+
+        long throughput = throughputEstimator.getEstimate();
+        if (throughput > 0) {
+            long budgetBytes = throughput * loadTimeBudgetMs / 1000;
+            if (chosen.bytes > budgetBytes) {
+                Variant fitting = null;
+                for (Variant variant : variants) {
+                    if (variant.bytes <= budgetBytes && !variant.isBetterThan(chosen) && (fitting == null || variant.isBetterThan(fitting))) {
+                        fitting = variant;
+                    }
+                }
+                chosen = fitting != null ? fitting : smallest(variants);
+            }
+        }
+
+        // cached variant is loaded without network, the closest to chosen one is used
+        Variant cached = null;
+        for (Variant variant : variants) {
+            if (!variant.isWorseThan(chosen) && (cached == null || cached.isBetterThan(variant)) && isCached(gfycat, variant.type)) {
+                cached = variant;
+            }
+        }
+        return cached != null ? cached : chosen;
+    }
+
+    /**
+     * @return Returns the smallest variant that covers view, or the best variant if none covers it.
+     */
+    private static Variant preferred(List<Variant> variants, int viewWidth, int viewHeight) {
+        Variant preferred = null;
+        Variant best = null;
+        for (Variant variant : variants) {
+            if (best == null || variant.isBetterThan(best)) best = variant;
+            if (variant.width >= viewWidth && variant.height >= viewHeight && (preferred == null || variant.bytes < preferred.bytes)) {
+                preferred = variant;
+            }
+        }
+        return preferred != null ? preferred : best;
+    }
+
+    private static Variant smallest(List<Variant> variants) {
+        Variant smallest = variants.get(0);
+        for (Variant variant : variants) {
+            if (variant.bytes < smallest.bytes) smallest = variant;
+        }
+        return smallest;
+    }
+
+    private boolean isCached(Gfycat gfycat, MediaType type) {
+        return diskCache != null && diskCache.isAvailable() && diskCache.get(type.getVideoStorageId(gfycat)) != null;
+    }
+
+    private static List<Variant> variants(Gfycat gfycat, List<MediaType> types) {
+        if (types.isEmpty()) throw new IllegalArgumentException("No variants to select from");
+        List<Variant> result = new ArrayList<>(types.size());
+        for (MediaType type : types) {
+            result.add(Variant.estimate(gfycat, type));
+        }
+        return result;
+    }
+
+    private static class Variant {
+        final MediaType type;
+        final int width;
+        final int height;
+        /**
+         * Long.MAX_VALUE if it can not be estimated.
+         */
+        final long bytes;
+
+        Variant(MediaType type, int width, int height, long bytes) {
+            this.type = type;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+        }
+
+        static Variant estimate(Gfycat gfycat, MediaType type) {
+            int width = gfycat.getWidth();
+            int height = gfycat.getHeight();
+            long sizeLimit = type.getSizeHint();
+            if (sizeLimit <= 0) {
+                if (type == MediaType.MP4 && gfycat.getMp4Size() > 0) {
+                    return new Variant(type, width, height, gfycat.getMp4Size());
+                }
+                return new Variant(type, width, height, estimateBytes(gfycat, bytesPerPixel(type)));
+            }
+
+            if (gfycat.getNumFrames() <= 0 || width <= 0 || height <= 0) {
+                return new Variant(type, width, height, sizeLimit);
+            }
+            // size restricted GIF is downscaled till it fits into limit
+            double fullBytes = (double) width * height * gfycat.getNumFrames() * GIF_BYTES_PER_PIXEL;
+            double scale = Math.sqrt(Math.min(1, sizeLimit / fullBytes));
+            return new Variant(type, (int) (width * scale), (int) (height * scale), (long) Math.min(sizeLimit, fullBytes));
+        }
+
+        /**
+         * @return Returns size of full resolution file from frames count, or proportionally to MP4 size if frames count is unknown.
+         */
+        private static long estimateBytes(Gfycat gfycat, double bytesPerPixel) {
+            if (gfycat.getNumFrames() > 0 && gfycat.getWidth() > 0 && gfycat.getHeight() > 0) {
+                return (long) ((double) gfycat.getWidth() * gfycat.getHeight() * gfycat.getNumFrames() * bytesPerPixel);
+            }
+            if (gfycat.getMp4Size() > 0) {
+                return (long) (gfycat.getMp4Size() * bytesPerPixel / VIDEO_BYTES_PER_PIXEL);
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private static double bytesPerPixel(MediaType type) {
+            if (type == MediaType.WEBP) return WEBP_BYTES_PER_PIXEL;
+            return type.isVideo() ? VIDEO_BYTES_PER_PIXEL : GIF_BYTES_PER_PIXEL;
+        }
+
+        /**
+         * Variant with more pixels is better, smaller one is better of variants with the same resolution.
+         */
+        boolean isBetterThan(Variant other) {
+            long pixels = (long) width * height;
+            long otherPixels = (long) other.width * other.height;
+            return pixels != otherPixels ? pixels > otherPixels : bytes < other.bytes;
+        }
+
+        boolean isWorseThan(Variant other) {
+            return other.isBetterThan(this);
+        }
+    }
+}
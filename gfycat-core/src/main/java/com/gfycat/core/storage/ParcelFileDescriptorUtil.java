@@ -25,24 +25,35 @@ import org.apache.commons.io.IOUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 
 /**
  * Utility class to send content via ContentProvider::openFile(...)
+ * <p>
+ * Content is copied to pipes on cached pool of transfer threads.
+ * Pool is not bounded, receiving side that never drains or closes pipe blocks only its own transfer.
  */
 public class ParcelFileDescriptorUtil {
 
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final ExecutorService TRANSFER_EXECUTOR = newCachedTransferExecutor("TransferThread");
+
     public static ParcelFileDescriptor pipeFrom(InputStream inputStream) throws IOException {
 
         ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
         ParcelFileDescriptor readSide = pipe[0];
         ParcelFileDescriptor writeSide = pipe[1];
 
-        // start the transfer thread
-        new TransferThread(inputStream, new ParcelFileDescriptor.AutoCloseOutputStream(writeSide))
-                .start();
+        TRANSFER_EXECUTOR.execute(new Transfer(inputStream, new ParcelFileDescriptor.AutoCloseOutputStream(writeSide)));
 
         return readSide;
     }
@@ -53,76 +64,105 @@ public class ParcelFileDescriptorUtil {
         ParcelFileDescriptor readSide = pipe[0];
         ParcelFileDescriptor writeSide = pipe[1];
 
-        new TransferThread(new ParcelFileDescriptor.AutoCloseInputStream(readSide), outputStream).start();
+        TRANSFER_EXECUTOR.execute(new Transfer(new ParcelFileDescriptor.AutoCloseInputStream(readSide), outputStream));
 
         return writeSide;
     }
 
+    /**
+     * Deprecation reason: remote media is downloaded and shared by {@link VideoFileProvider}, SDK does not use it anymore, use {@link #pipeFrom(InputStream)}.
+     */
+    @Deprecated
     public static ParcelFileDescriptor pipeFrom(OkHttpClient client, String url) throws IOException {
 
         ParcelFileDescriptor[] pipe = ParcelFileDescriptor.createPipe();
         ParcelFileDescriptor readSide = pipe[0];
         ParcelFileDescriptor writeSide = pipe[1];
 
-        // start the transfer thread
-        new UrlTransferThread(client, url, new ParcelFileDescriptor.AutoCloseOutputStream(writeSide))
-                .start();
+        TRANSFER_EXECUTOR.execute(new UrlTransfer(client, url, new ParcelFileDescriptor.AutoCloseOutputStream(writeSide)));
 
         return readSide;
     }
 
-    static class UrlTransferThread extends TransferThread {
+    /**
+     * @return Returns pool of daemon threads that are stopped when idle.
+     */
+    static ExecutorService newTransferExecutor(String name, int threadsCount) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadsCount, threadsCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-        final String url;
+    /**
+     * @return Returns pool of daemon threads that reuses idle threads and starts new one when there is none, task never waits in queue.
+     */
+    static ExecutorService newCachedTransferExecutor(String name) {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), newThreadFactory(name));
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static class UrlTransfer extends Transfer {
+
+        private final String url;
         private final OkHttpClient client;
 
-        UrlTransferThread(OkHttpClient client, String url, OutputStream out) {
+        UrlTransfer(OkHttpClient client, String url, OutputStream out) {
             super(null, out);
             this.url = url;
             this.client = client;
         }
 
         @Override
-        void prepareStreams() throws IOException {
-            mIn = client.newCall(new Request.Builder().url(url).build()).execute().body().byteStream();
+        InputStream openInput() throws IOException {
+            return client.newCall(new Request.Builder().url(url).build()).execute().body().byteStream();
         }
     }
 
-    static class TransferThread extends Thread {
+    static class Transfer implements Runnable {
 
-        private static final String LOG_TAG = TransferThread.class.getSimpleName();
+        private static final String LOG_TAG = "Transfer";
 
-        protected InputStream mIn;
-        protected OutputStream mOut;
+        private InputStream mIn;
+        private final OutputStream mOut;
 
-        TransferThread(InputStream in, OutputStream out) {
-            this();
+        Transfer(InputStream in, OutputStream out) {
             mIn = in;
             mOut = out;
         }
 
-        public TransferThread() {
-            super("TransferThread");
-            setDaemon(true);
-        }
-
         @Override
         public void run() {
             Logging.d(LOG_TAG, "run()");
+            long start = System.nanoTime();
+            long total = 0;
             try {
-                long total = 0;
-                prepareStreams();
-                IOUtils.copy(mIn, mOut);
+                if (mIn == null) mIn = openInput();
+                total = IOUtils.copyLarge(mIn, mOut);
                 Logging.d(LOG_TAG, "writing() end");
             } catch (IOException e) {
                 Logging.e(LOG_TAG, "writing failed");
             } finally {
                 IOUtils.closeQuietly(mIn);
                 IOUtils.closeQuietly(mOut);
+                Logging.d(LOG_TAG, "transferred ", total, " bytes in ", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), "ms");
             }
         }
 
-        void prepareStreams() throws IOException {
+        /**
+         * Opens input on transfer thread, when it was not provided to constructor.
+         */
+        InputStream openInput() throws IOException {
+            throw new IOException("input is not provided");
         }
     }
-}
\ No newline at end of file
+}
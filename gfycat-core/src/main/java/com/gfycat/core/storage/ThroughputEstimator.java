@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.storage;
+
+import com.gfycat.common.utils.Logging;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * Estimates network throughput from response bodies of media downloads.
+ * <p>
+ * Attach {@link #eventListenerFactory()} to {@link okhttp3.OkHttpClient} that downloads media.
+ * Every response body of at least {@link #MIN_SAMPLE_BYTES} is a sample, estimate is exponentially weighted average of samples.
+ */
+public class ThroughputEstimator {
+
+    private static final String LOG_TAG = "ThroughputEstimator";
+
+    /**
+     * Download time of smaller bodies is dominated by latency, not by throughput.
+     */
+    static final long MIN_SAMPLE_BYTES = 32 * 1024;
+    /**
+     * Weight of the latest sample in estimate.
+     */
+    private static final double SMOOTHING = 0.3;
+    private static final long NANOS_IN_SECOND = 1000000000L;
+
+    private static final ThroughputEstimator INSTANCE = new ThroughputEstimator();
+
+    public static ThroughputEstimator get() {
+        return INSTANCE;
+    }
+
+    // guarded by this
+    private long estimate = -1;
+
+    ThroughputEstimator() {
+    }
+
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener();
+    }
+
+    /**
+     * @return Returns estimated throughput in bytes per second, -1 if nothing is measured yet.
+     */
+    public synchronized long getEstimate() {
+        return estimate;
+    }
+
+    void addSample(long bytes, long durationNanos) {
+        if (bytes < MIN_SAMPLE_BYTES || durationNanos <= 0) return;
+        long throughput = bytes * NANOS_IN_SECOND / durationNanos;
+        long result;
+        synchronized (this) {
+            estimate = estimate < 0 ? throughput : (long) (SMOOTHING * throughput + (1 - SMOOTHING) * estimate);
+            result = estimate;
+        }
+        Logging.d(LOG_TAG, "sample ", throughput, "B/s estimate ", result, "B/s");
+    }
+
+    /**
+     * Listener of single call, its events are delivered sequentially.
+     */
+    private class CallListener extends EventListener {
+        private long bodyStart;
+
+        @Override
+        public void responseBodyStart(Call call) {
+            bodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            if (bodyStart != 0) addSample(byteCount, System.nanoTime() - bodyStart);
+        }
+    }
+}
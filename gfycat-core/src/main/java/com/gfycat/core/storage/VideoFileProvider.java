@@ -30,12 +30,11 @@ import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Logging;
 import com.gfycat.common.utils.ThreadUtils;
 import com.gfycat.core.GfyCore;
-import com.gfycat.core.GfyPrivate;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Implementation of {@link VideoProviderContract}
@@ -173,12 +172,20 @@ public class VideoFileProvider extends ContentProvider {
         Gfycat gfycat = getGfycatSync(params.gfyId);
 
         if (gfycat == null) throw new FileNotFoundException("Can not get gfycat item.");
-        String url = ThreadUtils.withClearIdentitySafe(() -> params.mediaType.getUrl(gfycat));
+
+        // repeated shares of the same media are served from cache without transfer
+        DiskCache diskCache = DefaultDiskCache.get();
+        File cachedFile = diskCache.isAvailable() ? diskCache.get(params.mediaType.getVideoStorageId(gfycat)) : null;
+        if (cachedFile != null) {
+            Logging.d(LOG_TAG, "::openFile(...) cache hit gfyId = ", params.gfyId, " file = ", cachedFile.getAbsolutePath());
+            return ParcelFileDescriptor.open(cachedFile, ParcelFileDescriptor.MODE_READ_ONLY);
+        }
 
         try {
-            return ParcelFileDescriptorUtil.pipeFrom(GfyPrivate.get().getVideoDownloadingClient(), url);
-        } catch (IOException e) {
-            logAndThrowFileNotFound("IOException occurred : " + e);
+            InputStream inputStream = ThreadUtils.withClearIdentity(() -> GfyCore.getMediaFilesManager().openStream(gfycat, params.mediaType));
+            return ParcelFileDescriptorUtil.pipeFrom(inputStream);
+        } catch (Exception e) {
+            logAndThrowFileNotFound("Exception occurred : " + e);
             return null;
         }
     }
@@ -19,9 +19,14 @@ package com.gfycat.disklrucache;
 import com.gfycat.common.Action1;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -33,12 +38,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -96,6 +106,8 @@ public final class DiskLruCache implements Closeable {
   static final String JOURNAL_FILE = "journal";
   static final String JOURNAL_FILE_TEMP = "journal.tmp";
   static final String JOURNAL_FILE_BACKUP = "journal.bkp";
+  static final String SNAPSHOT_FILE = "journal.snapshot";
+  static final String SNAPSHOT_FILE_TEMP = "journal.snapshot.tmp";
   static final String MAGIC = "libcore.io.DiskLruCache";
   static final String VERSION_1 = "1";
   static final long ANY_SEQUENCE_NUMBER = -1;
@@ -105,6 +117,10 @@ public final class DiskLruCache implements Closeable {
   private static final String DIRTY = "DIRTY";
   private static final String REMOVE = "REMOVE";
   private static final String READ = "READ";
+  private static final int SNAPSHOT_MAGIC = 0x47464443;
+  private static final int SNAPSHOT_VERSION = 1;
+  /** Count of journal records that are replayed under one lock by {@link #openAsync}. */
+  private static final int REPLAY_BATCH_SIZE = 100;
 
     /*
      * This cache uses a journal file named "journal". A typical journal file
@@ -144,12 +160,22 @@ public final class DiskLruCache implements Closeable {
      * occasionally be compacted by dropping redundant lines. A temporary file named
      * "journal.tmp" will be used during compaction; that file should be deleted if
      * it exists when the cache is opened.
+     *
+     * Every compaction also writes "journal.snapshot", a binary copy of the
+     * compacted journal: magic, snapshot version, the application's version,
+     * the journal length covered by the snapshot, the count of entries and
+     * the key and length of every clean entry in LRU order. When the cache
+     * is opened only records appended to the journal after that length are
+     * parsed. Snapshot is deleted before the journal it describes is replaced,
+     * so a missing or stale snapshot falls back to reading the whole journal.
      */
 
   private final File directory;
   private final File journalFile;
   private final File journalFileTmp;
   private final File journalFileBackup;
+  private final File snapshotFile;
+  private final File snapshotFileTmp;
   private final int appVersion;
   private long maxSize;
   private long size = 0;
@@ -165,6 +191,21 @@ public final class DiskLruCache implements Closeable {
    */
   private long nextSequenceNumber = 0;
 
+  /**
+   * Released when entries of the snapshot or of the whole journal are loaded.
+   * Till then the index is accessed only by the opening thread, all operations wait for it.
+   */
+  private final CountDownLatch indexLoaded = new CountDownLatch(1);
+
+  /**
+   * Keys edited or removed while journal is replayed by {@link #openAsync}, replayed records of them
+   * are outdated. Null when journal is replayed.
+   */
+  private Set<String> keysChangedDuringReplay;
+
+  /** Count of records that index was loaded from, used to count redundant records of the journal. */
+  private int loadedRecordsCount;
+
   /** This cache uses a single background thread to evict entries. */
   final ThreadPoolExecutor executorService =
       new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
@@ -174,6 +215,9 @@ public final class DiskLruCache implements Closeable {
         if (journalWriter == null) {
           return null; // Closed.
         }
+        if (keysChangedDuringReplay != null) {
+          return null; // Journal is not replayed yet, size is unknown.
+        }
         trimToSize();
         if (journalRebuildRequired()) {
           rebuildJournal();
@@ -198,6 +242,8 @@ public final class DiskLruCache implements Closeable {
     this.journalFile = new File(directory, JOURNAL_FILE);
     this.journalFileTmp = new File(directory, JOURNAL_FILE_TEMP);
     this.journalFileBackup = new File(directory, JOURNAL_FILE_BACKUP);
+    this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+    this.snapshotFileTmp = new File(directory, SNAPSHOT_FILE_TEMP);
     this.maxSize = maxSize;
   }
 
@@ -211,6 +257,55 @@ public final class DiskLruCache implements Closeable {
    */
   public static DiskLruCache open(File directory, int appVersion, long maxSize)
       throws IOException {
+    DiskLruCache cache = prepare(directory, appVersion, maxSize);
+
+    // Prefer to pick up where we left off.
+    if (cache.journalFile.exists()) {
+      try {
+        cache.readJournal();
+        cache.processJournal();
+        cache.cleanupDirectory();
+        cache.indexLoaded.countDown();
+        return cache;
+      } catch (IOException journalIsCorrupt) {
+        logCorrupted(directory, journalIsCorrupt);
+        cache.indexLoaded.countDown();
+        cache.delete();
+      }
+    }
+
+    return create(directory, appVersion, maxSize);
+  }
+
+  /**
+   * Opens the cache in {@code directory} like {@link #open}, but loads its
+   * index on the cache background thread.
+   *
+   * <p>Operations wait only till the snapshot of the index written by the last
+   * journal compaction is loaded. Journal records appended after it are
+   * replayed in small batches, so till then entries changed after the last
+   * compaction could be missed by {@link #get}. Entries edited or removed
+   * during replay are never overwritten by older journal records.
+   *
+   * @param directory a writable directory
+   * @param maxSize the maximum number of bytes this cache should use to store
+   * @throws IOException if the cache directory is not writable
+   */
+  public static DiskLruCache openAsync(File directory, int appVersion, long maxSize)
+      throws IOException {
+    DiskLruCache cache = prepare(directory, appVersion, maxSize);
+    if (!cache.journalFile.exists()) {
+      return create(directory, appVersion, maxSize);
+    }
+    if (!directory.canWrite()) {
+      throw new IOException("directory is not writable: " + directory);
+    }
+    cache.executorService.submit(cache.new LoadCallable());
+    return cache;
+  }
+
+  private static DiskLruCache prepare(File directory, int appVersion, long maxSize)
+      throws IOException {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize <= 0");
     }
@@ -226,54 +321,274 @@ public final class DiskLruCache implements Closeable {
         renameTo(backupFile, journalFile, false);
       }
     }
+    return new DiskLruCache(directory, appVersion, maxSize);
+  }
 
-    // Prefer to pick up where we left off.
+  /** Creates a new empty cache. */
+  private static DiskLruCache create(File directory, int appVersion, long maxSize)
+      throws IOException {
+    directory.mkdirs();
     DiskLruCache cache = new DiskLruCache(directory, appVersion, maxSize);
-    if (cache.journalFile.exists()) {
+    cache.rebuildJournal();
+    cache.indexLoaded.countDown();
+    return cache;
+  }
+
+  private static void logCorrupted(File directory, IOException journalIsCorrupt) {
+    logAssertion(new IllegalStateException("DiskLruCache "
+            + directory
+            + " is corrupt: "
+            + journalIsCorrupt.getMessage()
+            + ", removing"));
+  }
+
+  /**
+   * Loads index for {@link #openAsync}: snapshot, or whole journal if there is
+   * no snapshot, without lock and then journal tail in batches under lock.
+   */
+  private final class LoadCallable implements Callable<Void> {
+    public Void call() throws Exception {
+      long replayFrom;
+      long replayTo;
       try {
-        cache.readJournal();
-        cache.processJournal();
-        cache.cleanupDirectory();
-        return cache;
+        replayFrom = readSnapshot();
+        if (replayFrom < 0) {
+          replayFrom = journalFile.length();
+          readJournalTail(0, replayFrom, true);
+        }
+        replayTo = truncateUnterminatedLine();
+        replayFrom = Math.min(replayFrom, replayTo);
+        for (Entry entry : lruEntries.values()) {
+          if (entry.currentEditor == null) {
+            size += entry.length;
+          }
+        }
+        keysChangedDuringReplay = new HashSet<String>();
+        journalWriter = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(journalFile, true), Util.US_ASCII));
       } catch (IOException journalIsCorrupt) {
-        logAssertion(new IllegalStateException("DiskLruCache "
-                + directory
-                + " is corrupt: "
-                + journalIsCorrupt.getMessage()
-                + ", removing"));
-        cache.delete();
+        recreate(journalIsCorrupt);
+        return null;
+      } finally {
+        indexLoaded.countDown();
+      }
+
+      try {
+        if (replayTo > replayFrom && !readJournalTail(replayFrom, replayTo, false)) {
+          return null; // Closed.
+        }
+        synchronized (DiskLruCache.this) {
+          if (journalWriter == null) {
+            return null; // Closed.
+          }
+          processJournal();
+          keysChangedDuringReplay = null;
+          redundantOpCount += Math.max(0, loadedRecordsCount - lruEntries.size());
+          cleanupDirectory();
+          trimToSize();
+          if (journalRebuildRequired()) {
+            rebuildJournal();
+            redundantOpCount = 0;
+          }
+        }
+      } catch (IOException journalIsCorrupt) {
+        synchronized (DiskLruCache.this) {
+          recreate(journalIsCorrupt);
+        }
       }
+      return null;
     }
 
-    // Create a new empty cache.
-    directory.mkdirs();
-    cache = new DiskLruCache(directory, appVersion, maxSize);
-    cache.rebuildJournal();
-    return cache;
+    private void recreate(IOException journalIsCorrupt) throws IOException {
+      logCorrupted(directory, journalIsCorrupt);
+      keysChangedDuringReplay = null;
+      lruEntries.clear();
+      size = 0;
+      redundantOpCount = 0;
+      Util.deleteContents(directory);
+      rebuildJournal();
+    }
   }
 
   private void cleanupDirectory() {
     File[] files = directory.listFiles();
     if (files == null) return;
     for (File file : files) {
-      if (!lruEntries.containsValue(file.getName())) {
+      String name = file.getName();
+      if (name.equals(JOURNAL_FILE) || name.equals(JOURNAL_FILE_BACKUP) || name.equals(SNAPSHOT_FILE)) {
+        continue;
+      }
+      Entry entry = lruEntries.get(name.endsWith(".tmp") ? name.substring(0, name.length() - 4) : name);
+      if (entry == null || (name.endsWith(".tmp") && entry.currentEditor == null)) {
         file.delete();
       }
     }
   }
 
+  /**
+   * Reads snapshot of the index if it matches the journal.
+   *
+   * @return journal offset of records written after the snapshot, -1 if there is no valid snapshot.
+   */
+  private long readSnapshot() {
+    if (!snapshotFile.exists()) {
+      return -1;
+    }
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+      if (in.readInt() != SNAPSHOT_MAGIC
+          || in.readInt() != SNAPSHOT_VERSION
+          || in.readInt() != appVersion) {
+        return -1;
+      }
+      long journalOffset = in.readLong();
+      if (journalOffset > journalFile.length()) {
+        return -1;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        Entry entry = new Entry(in.readUTF());
+        entry.readable = true;
+        entry.length = in.readLong();
+        lruEntries.put(entry.key, entry);
+      }
+      loadedRecordsCount = count;
+      return journalOffset;
+    } catch (IOException snapshotIsCorrupt) {
+      lruEntries.clear();
+      return -1;
+    } finally {
+      Util.closeQuietly(in);
+    }
+  }
+
+  private void writeSnapshot(long journalLength) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFileTmp)));
+    try {
+      List<Entry> cleanEntries = new ArrayList<Entry>(lruEntries.size());
+      for (Entry entry : lruEntries.values()) {
+        if (entry.currentEditor == null) {
+          cleanEntries.add(entry);
+        }
+      }
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeInt(appVersion);
+      out.writeLong(journalLength);
+      out.writeInt(cleanEntries.size());
+      for (Entry entry : cleanEntries) {
+        out.writeUTF(entry.key);
+        out.writeLong(entry.length);
+      }
+    } finally {
+      out.close();
+    }
+    renameTo(snapshotFileTmp, snapshotFile, true);
+  }
+
+  private InputStream openJournal(long from, long to) throws IOException {
+    FileInputStream in = new FileInputStream(journalFile);
+    if (in.skip(from) != from) {
+      Util.closeQuietly(in);
+      throw new IOException("journal is shorter than its snapshot");
+    }
+    return new BoundedInputStream(in, to - from);
+  }
+
+  private static void readJournalHeader(StrictLineReader reader, int appVersion) throws IOException {
+    String magic = reader.readLine();
+    String version = reader.readLine();
+    String appVersionString = reader.readLine();
+    String blank = reader.readLine();
+    if (!MAGIC.equals(magic)
+        || !VERSION_1.equals(version)
+        || !Integer.toString(appVersion).equals(appVersionString)
+        || !"".equals(blank)) {
+      throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + blank + "]");
+    }
+  }
+
+  /**
+   * Removes unterminated record that is left by interrupted write, so appended records start from new line.
+   *
+   * @return length of the journal.
+   */
+  private long truncateUnterminatedLine() throws IOException {
+    RandomAccessFile file = new RandomAccessFile(journalFile, "rw");
+    try {
+      long length = file.length();
+      long end = length;
+      while (end > 0) {
+        file.seek(end - 1);
+        if (file.read() == '\n') {
+          break;
+        }
+        end--;
+      }
+      if (end != length) {
+        file.setLength(end);
+      }
+      return end;
+    } finally {
+      file.close();
+    }
+  }
+
+  /**
+   * Applies journal records between offsets in batches of {@link #REPLAY_BATCH_SIZE}.
+   *
+   * @param header true if records are preceded by journal header, index is not shared yet in this case.
+   * @return false if cache was closed during replay.
+   */
+  private boolean readJournalTail(long from, long to, boolean header) throws IOException {
+    StrictLineReader reader = new StrictLineReader(openJournal(from, to), Util.US_ASCII);
+    try {
+      if (header) {
+        readJournalHeader(reader, appVersion);
+      }
+      List<String> batch = new ArrayList<String>(REPLAY_BATCH_SIZE);
+      boolean endOfJournal = false;
+      while (!endOfJournal) {
+        try {
+          batch.add(reader.readLine());
+        } catch (EOFException e) {
+          endOfJournal = true;
+        }
+        if (batch.size() == REPLAY_BATCH_SIZE || endOfJournal) {
+          if (header) {
+            readJournalLines(batch);
+          } else {
+            synchronized (this) {
+              if (journalWriter == null) {
+                return false;
+              }
+              readJournalLines(batch);
+            }
+          }
+          batch.clear();
+        }
+      }
+      return true;
+    } finally {
+      Util.closeQuietly(reader);
+    }
+  }
+
+  private void readJournalLines(List<String> lines) throws IOException {
+    for (String line : lines) {
+      readJournalLine(line);
+    }
+    loadedRecordsCount += lines.size();
+  }
+
   private void readJournal() throws IOException {
-    StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), Util.US_ASCII);
+    long journalOffset = readSnapshot();
+    StrictLineReader reader = new StrictLineReader(
+        openJournal(Math.max(journalOffset, 0), journalFile.length()), Util.US_ASCII);
     try {
-      String magic = reader.readLine();
-      String version = reader.readLine();
-      String appVersionString = reader.readLine();
-      String blank = reader.readLine();
-      if (!MAGIC.equals(magic)
-          || !VERSION_1.equals(version)
-          || !Integer.toString(appVersion).equals(appVersionString)
-          || !"".equals(blank)) {
-        throw new IOException("unexpected journal header: [" + magic + ", " + version + ", " + blank + "]");
+      if (journalOffset < 0) {
+        readJournalHeader(reader, appVersion);
       }
 
       int lineCount = 0;
@@ -285,7 +600,7 @@ public final class DiskLruCache implements Closeable {
           break;
         }
       }
-      redundantOpCount = lineCount - lruEntries.size();
+      redundantOpCount = loadedRecordsCount + lineCount - lruEntries.size();
 
       // If we ended on a truncated line, rebuild the journal before appending to it.
       if (reader.hasUnterminatedLine()) {
@@ -310,13 +625,16 @@ public final class DiskLruCache implements Closeable {
     final String key;
     if (secondSpace == -1) {
       key = line.substring(keyBegin);
-      if (firstSpace == REMOVE.length() && line.startsWith(REMOVE)) {
-        lruEntries.remove(key);
-        return;
-      }
     } else {
       key = line.substring(keyBegin, secondSpace);
     }
+    if (keysChangedDuringReplay != null && keysChangedDuringReplay.contains(key)) {
+      return;
+    }
+    if (secondSpace == -1 && firstSpace == REMOVE.length() && line.startsWith(REMOVE)) {
+      lruEntries.remove(key);
+      return;
+    }
 
     Entry entry = lruEntries.get(key);
     if (entry == null) {
@@ -344,10 +662,14 @@ public final class DiskLruCache implements Closeable {
    */
   private void processJournal() throws IOException {
     deleteIfExists(journalFileTmp);
+    size = 0;
     for (Iterator<Entry> i = lruEntries.values().iterator(); i.hasNext(); ) {
       Entry entry = i.next();
       if (entry.currentEditor == null) {
-        size = entry.length;
+        size += entry.length;
+      } else if (keysChangedDuringReplay != null && keysChangedDuringReplay.contains(entry.key)) {
+        // Edited by client during replay.
+        size += entry.length;
       } else {
         entry.currentEditor = null;
         deleteIfExists(entry.getCleanFile());
@@ -359,9 +681,10 @@ public final class DiskLruCache implements Closeable {
 
   /**
    * Creates a new journal that omits redundant information. This replaces the
-   * current journal if it exists.
+   * current journal if it exists. Callers hold the lock or are the only users
+   * of the index while it is loaded.
    */
-  private synchronized void rebuildJournal() throws IOException {
+  private void rebuildJournal() throws IOException {
     if (journalWriter != null) {
       journalWriter.close();
     }
@@ -388,11 +711,20 @@ public final class DiskLruCache implements Closeable {
       writer.close();
     }
 
+    // Snapshot must not describe the new journal till it is rewritten.
+    long journalLength = journalFileTmp.length();
+    deleteIfExists(snapshotFile);
     if (journalFile.exists()) {
       renameTo(journalFile, journalFileBackup, true);
     }
     renameTo(journalFileTmp, journalFile, false);
     journalFileBackup.delete();
+    try {
+      writeSnapshot(journalLength);
+    } catch (IOException e) {
+      // Journal is complete without snapshot, it is only read slower.
+      snapshotFileTmp.delete();
+    }
 
     journalWriter = new BufferedWriter(
         new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII));
@@ -464,12 +796,17 @@ public final class DiskLruCache implements Closeable {
         || entry.sequenceNumber != expectedSequenceNumber)) {
       return null; // Snapshot is stale.
     }
+    if (entry != null && entry.currentEditor != null && keysChangedDuringReplay != null
+        && !keysChangedDuringReplay.contains(key)) {
+      entry.currentEditor = null; // Replayed edit that was interrupted by process death.
+    }
     if (entry == null) {
       entry = new Entry(key);
       lruEntries.put(key, entry);
     } else if (entry.currentEditor != null) {
       return null; // Another edit is in progress.
     }
+    markChangedDuringReplay(key);
 
     Editor editor = new Editor(entry);
     entry.currentEditor = editor;
@@ -508,6 +845,7 @@ public final class DiskLruCache implements Closeable {
    * deletion is pending.
    */
   public synchronized long size() {
+    awaitIndexLoaded();
     return size;
   }
 
@@ -581,6 +919,7 @@ public final class DiskLruCache implements Closeable {
   public synchronized boolean remove(String key) throws IOException {
     checkNotClosed();
     validateKey(key);
+    markChangedDuringReplay(key);
     Entry entry = lruEntries.get(key);
     if (entry == null || entry.currentEditor != null) {
       return false;
@@ -604,12 +943,39 @@ public final class DiskLruCache implements Closeable {
     return true;
   }
 
+  private void markChangedDuringReplay(String key) {
+    if (keysChangedDuringReplay != null) {
+      keysChangedDuringReplay.add(key);
+    }
+  }
+
   /** Returns true if this cache has been closed. */
   public synchronized boolean isClosed() {
+    awaitIndexLoaded();
     return journalWriter == null;
   }
 
+  /**
+   * Waits till the index is loaded by {@link #openAsync}. It is safe to wait
+   * holding the lock, loading of the index does not take it.
+   */
+  private void awaitIndexLoaded() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        indexLoaded.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private void checkNotClosed() {
+    awaitIndexLoaded();
     if (journalWriter == null) {
       throw new IllegalStateException("cache is closed");
     }
@@ -618,12 +984,15 @@ public final class DiskLruCache implements Closeable {
   /** Force buffered operations to the filesystem. */
   public synchronized void flush() throws IOException {
     checkNotClosed();
-    trimToSize();
+    if (keysChangedDuringReplay == null) {
+      trimToSize();
+    }
     journalWriter.flush();
   }
 
   /** Closes this cache. Stored values will remain on the filesystem. */
   public synchronized void close() throws IOException {
+    awaitIndexLoaded();
     if (journalWriter == null) {
       return; // Already closed.
     }
@@ -632,7 +1001,9 @@ public final class DiskLruCache implements Closeable {
         entry.currentEditor.abort();
       }
     }
-    trimToSize();
+    if (keysChangedDuringReplay == null) {
+      trimToSize();
+    }
     journalWriter.close();
     journalWriter = null;
   }
@@ -828,6 +1199,14 @@ public final class DiskLruCache implements Closeable {
       }
     }
 
+    /**
+     * Returns file that receives writes of this edit, it becomes the entry
+     * file on {@link #commit}. Streams opened before commit stay valid.
+     */
+    public File getDirtyFile() {
+      return entry.getDirtyFile();
+    }
+
     private class FaultHidingOutputStream extends FilterOutputStream {
       private FaultHidingOutputStream(OutputStream out) {
         super(out);
@@ -946,7 +1325,7 @@ public final class DiskLruCache implements Closeable {
 
     public String getLengths() throws IOException {
       StringBuilder result = new StringBuilder();
-      result.append(' ').append(size);
+      result.append(' ').append(length);
       return result.toString();
     }
 
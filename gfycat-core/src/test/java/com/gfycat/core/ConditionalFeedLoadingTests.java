@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core;
+
+import com.gfycat.common.utils.Utils;
+import com.gfycat.core.downloading.CategoriesTestHelper;
+import com.gfycat.core.downloading.FeedData;
+import com.gfycat.core.downloading.FreshnessPolicy;
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.core.gfycatapi.pojo.GfycatCategoriesList;
+import com.gfycat.core.gfycatapi.pojo.GfycatCategory;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+/**
+ * Checks that feed and categories validators are sent back and 304 responses keep cached content.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ConditionalFeedLoadingTests {
+
+    private static final int TIMEOUT_SECONDS = 4;
+
+    private static final String TRENDING_PATH = "/v1/gfycats/trending?count=100";
+    private static final String CATEGORIES_PATH = "/v1/reactions/populated?gfyCount=1&locale=en";
+    private static final String TRENDING_ETAG = "\"trending_etag\"";
+    private static final String CATEGORIES_ETAG = "\"categories_etag\"";
+
+    private static final String TRENDING_RESPONSE = "{\"gfycats\":[{\"tags\":[],\"views\":977325,\"userName\":\"panstanislav\",\"gfyNumber\":\"1\",\"gfyId\":\"gfycatnumber1\",\"gfyName\":\"GfycatNumber1\",\"createDate\":1549224774}],\"digest\":\"first_digest\"}";
+    private static final String CATEGORIES_RESPONSE = new Gson().toJson(new GfycatCategoriesList(
+            "first_cursor",
+            new GfycatCategory("first_cursor", "first_tag", "first_tag_text", new Gson().fromJson(FeedLoadingTests.GFYCAT_JSON_MODEL, Gfycat.class))));
+
+    private MockWebServer server;
+
+    @Before
+    public void prepare() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (TRENDING_PATH.equals(request.getPath())) {
+                    return conditionalResponse(request, TRENDING_ETAG, TRENDING_RESPONSE);
+                } else if (CATEGORIES_PATH.equals(request.getPath())) {
+                    return conditionalResponse(request, CATEGORIES_ETAG, CATEGORIES_RESPONSE);
+                }
+                return new MockResponse().setResponseCode(HTTP_BAD_REQUEST);
+            }
+        });
+        server.start();
+
+        CoreTestHelper.initializeCore(chain -> {
+            HttpUrl redirectedUrl = chain.request().url().newBuilder()
+                    .scheme("http")
+                    .host(server.getHostName())
+                    .port(server.getPort())
+                    .build();
+            return chain.proceed(chain.request().newBuilder().url(redirectedUrl).build());
+        });
+        CategoriesTestHelper.dropCategoriesCache(RuntimeEnvironment.application.getApplicationContext());
+    }
+
+    @After
+    public void tearDownTest() throws IOException {
+        CategoriesTestHelper.dropCategoriesCache(RuntimeEnvironment.application.getApplicationContext());
+        CoreTestHelper.tearDownCore();
+        server.shutdown();
+    }
+
+    private static MockResponse conditionalResponse(RecordedRequest request, String eTag, String body) {
+        if (eTag.equals(request.getHeader("If-None-Match"))) {
+            return new MockResponse().setResponseCode(HTTP_NOT_MODIFIED).setHeader("ETag", eTag);
+        }
+        return new MockResponse().setHeader("ETag", eTag).setBody(body);
+    }
+
+    private RecordedRequest takeRequest(String path) throws InterruptedException {
+        RecordedRequest request;
+        do {
+            request = server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.assertNotNull("Request to " + path + " was not performed", request);
+        } while (!path.equals(request.getPath()));
+        return request;
+    }
+
+    private static FeedData getFeedData(FeedIdentifier identifier) {
+        return GfyCore.getFeedManager()
+                .observeGfycats(identifier)
+                .skipWhile(feedData -> feedData.getGfycats().isEmpty())
+                .timeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .blockingFirst();
+    }
+
+    @Test
+    public void testNotModifiedFeedKeepsCachedContent() throws Throwable {
+        FeedIdentifier identifier = PublicFeedIdentifier.trending();
+
+        Assert.assertNull(GfyCore.getFeedManager().getGfycats(identifier).blockingGet(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertNull(takeRequest(TRENDING_PATH).getHeader("If-None-Match"));
+        FeedData firstFeedData = getFeedData(identifier);
+        Assert.assertEquals(1, firstFeedData.getCount());
+
+        Assert.assertNull(GfyCore.getFeedManager().getGfycats(identifier).blockingGet(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(TRENDING_ETAG, takeRequest(TRENDING_PATH).getHeader("If-None-Match"));
+
+        FeedData secondFeedData = getFeedData(identifier);
+        Assert.assertEquals(1, secondFeedData.getCount());
+        Assert.assertEquals("gfycatnumber1", secondFeedData.getGfycats().get(0).getGfyId());
+        Assert.assertEquals("first_digest", secondFeedData.getFeedDescription().getDigest());
+        Assert.assertTrue(secondFeedData.getFeedDescription().getCreationTime() >= firstFeedData.getFeedDescription().getCreationTime());
+        Assert.assertEquals(1, GfyCore.getFeedFreshnessPolicies().getMetrics().get(identifier.getType().getName()).getNotModifiedCount());
+    }
+
+    @Test
+    public void testNotModifiedCategoriesAreNotDeliveredTwice() throws Throwable {
+        GfyCore.getFeedFreshnessPolicies().setCategoriesPolicy(FreshnessPolicy.ALWAYS_REVALIDATE);
+
+        List<GfycatCategoriesList> firstResponses = Utils.collect(GfyCore.getFeedManager().getCategories().blockingIterable().iterator());
+        Assert.assertEquals(1, firstResponses.size());
+        Assert.assertNull(takeRequest(CATEGORIES_PATH).getHeader("If-None-Match"));
+
+        List<GfycatCategoriesList> secondResponses = Utils.collect(GfyCore.getFeedManager().getCategories().blockingIterable().iterator());
+        Assert.assertEquals(CATEGORIES_ETAG, takeRequest(CATEGORIES_PATH).getHeader("If-None-Match"));
+
+        // only cached categories are delivered, 304 does not produce new notification
+        Assert.assertEquals(1, secondResponses.size());
+        Assert.assertEquals("first_cursor", secondResponses.get(0).getCursor());
+        Assert.assertEquals(1, GfyCore.getFeedFreshnessPolicies().getMetrics().getNotModifiedCount());
+    }
+}
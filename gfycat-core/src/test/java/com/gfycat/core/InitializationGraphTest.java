@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+
+/**
+ * Checks order, parallelism and laziness of GfyCore initialization graph.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InitializationGraphTest {
+
+    private static final int TIMEOUT_SECONDS = 4;
+
+    @Test
+    public void testDependencyIsBuiltBeforeDependent() throws Exception {
+        InitializationGraph graph = new InitializationGraph();
+        Single<String> dependency = graph.component("dependency", () -> "value");
+        Single<String> dependent = graph.component("dependent", () -> dependency.blockingGet() + "!", dependency);
+
+        Assert.assertTrue(graph.start().blockingAwait(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals("value!", dependent.blockingGet());
+    }
+
+    @Test
+    public void testIndependentComponentsAreBuiltInParallel() throws Exception {
+        InitializationGraph graph = new InitializationGraph();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        graph.component("first", () -> awaitEachOther(bothStarted));
+        graph.component("second", () -> awaitEachOther(bothStarted));
+
+        Assert.assertTrue("Components were built one by one", graph.start().blockingAwait(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLazyComponentIsBuiltOnceOnFirstSubscription() throws Exception {
+        InitializationGraph graph = new InitializationGraph();
+        AtomicInteger builds = new AtomicInteger();
+        Single<Integer> lazy = graph.lazyComponent("lazy", builds::incrementAndGet);
+
+        Assert.assertTrue(graph.start().blockingAwait(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(0, builds.get());
+        Assert.assertEquals(1, (int) lazy.blockingGet());
+        Assert.assertEquals(1, (int) lazy.blockingGet());
+    }
+
+    @Test
+    public void testTimingsAreRecorded() throws Exception {
+        InitializationGraph graph = new InitializationGraph();
+        AtomicBoolean built = new AtomicBoolean();
+        graph.component("component", () -> built.getAndSet(true));
+
+        Assert.assertTrue(graph.start().blockingAwait(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Map<String, Long> timings = graph.getTimings();
+        Assert.assertTrue(timings.containsKey("component"));
+        Assert.assertTrue(timings.containsKey("total"));
+    }
+
+    private static boolean awaitEachOther(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        return latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
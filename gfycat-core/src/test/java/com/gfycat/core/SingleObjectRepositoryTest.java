@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core;
+
+import android.content.Context;
+
+import com.gfycat.core.gfycatapi.pojo.UserInfo;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Checks persistence of {@link SingleObjectRepository} and moving of values from shared preferences.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SingleObjectRepositoryTest {
+
+    private static final String KEY = "test_object";
+    private static final UserInfo NO_USER = new UserInfo();
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        SingleObjectRepository.clearMemoryCache();
+    }
+
+    @After
+    public void tearDown() {
+        repository(SingleObjectRepository.Encoding.JSON).removeSync();
+        SingleObjectRepository.clearMemoryCache();
+    }
+
+    @Test
+    public void testDefaultValue() {
+        Assert.assertSame(NO_USER, repository(SingleObjectRepository.Encoding.JSON).get());
+    }
+
+    @Test
+    public void testValueIsSharedByKey() {
+        UserInfo userInfo = UserInfo.from("user");
+        repository(SingleObjectRepository.Encoding.JSON).put(userInfo);
+        Assert.assertSame(userInfo, repository(SingleObjectRepository.Encoding.JSON).get());
+    }
+
+    @Test
+    public void testValueIsPersisted() {
+        repository(SingleObjectRepository.Encoding.JSON).putSync(UserInfo.from("user"));
+        SingleObjectRepository.clearMemoryCache();
+        Assert.assertEquals("user", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+    }
+
+    @Test
+    public void testDeflatedValueIsPersisted() {
+        repository(SingleObjectRepository.Encoding.DEFLATED_JSON).putSync(UserInfo.from("user"));
+        SingleObjectRepository.clearMemoryCache();
+        Assert.assertEquals("user", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+    }
+
+    @Test
+    public void testRemovedValueIsNotPersisted() {
+        repository(SingleObjectRepository.Encoding.JSON).putSync(UserInfo.from("user"));
+        repository(SingleObjectRepository.Encoding.JSON).removeSync();
+        SingleObjectRepository.clearMemoryCache();
+        Assert.assertSame(NO_USER, repository(SingleObjectRepository.Encoding.JSON).get());
+    }
+
+    @Test
+    public void testValueIsMovedFromPreferences() {
+        context.getSharedPreferences(KEY, Context.MODE_PRIVATE).edit()
+                .putString(KEY, "{\"userid\":\"legacy\"}")
+                .commit();
+
+        Assert.assertEquals("legacy", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+        Assert.assertFalse(context.getSharedPreferences(KEY, Context.MODE_PRIVATE).contains(KEY));
+
+        SingleObjectRepository.clearMemoryCache();
+        Assert.assertEquals("legacy", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+    }
+
+    @Test
+    public void testValueIsKeptInPreferencesWhenWriteFails() throws IOException {
+        context.getSharedPreferences(KEY, Context.MODE_PRIVATE).edit()
+                .putString(KEY, "{\"userid\":\"legacy\"}")
+                .commit();
+        // regular file in place of directory of repositories fails every write
+        File directory = new File(context.getFilesDir(), "gfycat_objects");
+        FileUtils.deleteDirectory(directory);
+        Assert.assertTrue(directory.createNewFile());
+        try {
+            Assert.assertEquals("legacy", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+            Assert.assertTrue(context.getSharedPreferences(KEY, Context.MODE_PRIVATE).contains(KEY));
+        } finally {
+            Assert.assertTrue(directory.delete());
+        }
+
+        SingleObjectRepository.clearMemoryCache();
+        Assert.assertEquals("legacy", repository(SingleObjectRepository.Encoding.JSON).get().getUserid());
+        Assert.assertFalse(context.getSharedPreferences(KEY, Context.MODE_PRIVATE).contains(KEY));
+    }
+
+    private SingleObjectRepository<UserInfo> repository(SingleObjectRepository.Encoding encoding) {
+        return new SingleObjectRepository<>(context, KEY, UserInfo.class, NO_USER, encoding);
+    }
+}
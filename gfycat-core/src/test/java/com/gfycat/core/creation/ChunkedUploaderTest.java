@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core.creation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class ChunkedUploaderTest {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final MediaType MEDIA_TYPE = MediaType.parse("filename=test");
+
+    private MockWebServer server;
+    private UploadStub stub;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        stub = new UploadStub();
+        server = new MockWebServer();
+        server.setDispatcher(stub);
+        server.start();
+        client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testSequentialUpload() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 3 + 100);
+        List<Integer> progress = new ArrayList<>();
+
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress::add);
+
+        assertArrayEquals(content, stub.assembled());
+        assertEquals(4, stub.ranges.size());
+        assertEquals("bytes 0-1023/*", stub.ranges.get(0));
+        assertEquals("bytes 3072-3171/3172", stub.ranges.get(3));
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testContentOfExactChunksSize() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 2);
+
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), -1, progress -> {
+        });
+
+        assertArrayEquals(content, stub.assembled());
+        assertEquals("bytes 1024-2047/2048", stub.ranges.get(stub.ranges.size() - 1));
+    }
+
+    @Test
+    public void testEmptyContent() throws IOException {
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(new byte[0]), -1, progress -> {
+        });
+
+        assertEquals(Collections.singletonList("bytes */0"), stub.ranges);
+    }
+
+    @Test
+    public void testParallelUploadSendsLastChunkAfterOthers() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 8 + 1);
+
+        uploader(4).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress -> {
+        });
+
+        assertArrayEquals(content, stub.assembled());
+        assertEquals(9, stub.ranges.size());
+        assertEquals("bytes 8192-8192/8193", stub.ranges.get(8));
+    }
+
+    @Test
+    public void testFailedChunkIsRetriedAlone() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 3);
+        stub.failures.add("bytes 1024-2047/*");
+
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress -> {
+        });
+
+        assertArrayEquals(content, stub.assembled());
+        // second chunk is sent twice, others once
+        assertEquals(4, stub.ranges.size());
+        assertEquals(stub.ranges.get(1), stub.ranges.get(2));
+    }
+
+    @Test
+    public void testDisconnectIsRetried() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 2);
+        stub.disconnects.add("bytes 0-1023/*");
+
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress -> {
+        });
+
+        assertArrayEquals(content, stub.assembled());
+    }
+
+    @Test
+    public void testRejectedChunkIsNotRetried() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 2);
+        stub.rejections.add("bytes 0-1023/*");
+
+        try {
+            uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress -> {
+            });
+            fail("ChunkUploadException expected");
+        } catch (ChunkedUploader.ChunkUploadException e) {
+            assertEquals(0, e.getOffset());
+            assertEquals(400, e.getCode());
+        }
+        assertEquals(1, stub.ranges.size());
+    }
+
+    @Test
+    public void testProgressIsNotIncreasedByRetries() throws IOException {
+        byte[] content = content(CHUNK_SIZE * 2);
+        stub.failures.add("bytes 0-1023/*");
+        List<Integer> progress = new ArrayList<>();
+
+        uploader(1).upload(url(), MEDIA_TYPE, new ByteArrayInputStream(content), content.length, progress::add);
+
+        for (int value : progress) {
+            assertTrue("progress = " + value, value <= 100);
+        }
+        assertEquals(100, (int) progress.get(progress.size() - 1));
+    }
+
+    private ChunkedUploader uploader(int parallelism) {
+        return new ChunkedUploader(client, new ChunkedUploader.Config.Builder()
+                .chunkSize(CHUNK_SIZE)
+                .parallelism(parallelism)
+                .maxRetries(2)
+                .retryDelay(0)
+                .build());
+    }
+
+    private String url() {
+        return server.url("/upload/test").toString();
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    /**
+     * Upload server that stores chunks by offsets and fails chunks with provided ranges once.
+     */
+    private static class UploadStub extends Dispatcher {
+        final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> failures = Collections.synchronizedSet(new HashSet<>());
+        final Set<String> disconnects = Collections.synchronizedSet(new HashSet<>());
+        final Set<String> rejections = Collections.synchronizedSet(new HashSet<>());
+        private final byte[] received = new byte[CHUNK_SIZE * 16];
+        private int length;
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String range = request.getHeader(ChunkedUploader.CONTENT_RANGE_HEADER);
+            ranges.add(range);
+            if (disconnects.remove(range)) {
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            }
+            if (failures.remove(range)) {
+                return new MockResponse().setResponseCode(503);
+            }
+            if (rejections.remove(range)) {
+                return new MockResponse().setResponseCode(400);
+            }
+
+            if (!range.startsWith("bytes */")) {
+                int offset = Integer.parseInt(range.substring("bytes ".length(), range.indexOf('-')));
+                byte[] chunk = request.getBody().readByteArray();
+                synchronized (this) {
+                    System.arraycopy(chunk, 0, received, offset, chunk.length);
+                    length = Math.max(length, offset + chunk.length);
+                }
+            }
+            return range.endsWith("/*")
+                    ? new MockResponse().setResponseCode(ChunkedUploader.HTTP_RESUME_INCOMPLETE)
+                    : new MockResponse().setResponseCode(200);
+        }
+
+        synchronized byte[] assembled() {
+            byte[] result = new byte[length];
+            System.arraycopy(received, 0, result, 0, length);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core.creation;
+
+import com.gfycat.core.creation.pojo.CreationStatus;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.http.Path;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class CreationStatusTrackerTest {
+
+    private static final long INITIAL_DELAY_MS = 10000;
+    private static final long MIN_DELAY_MS = 5000;
+    private static final long TIMEOUT_MS = TimeUnit.MINUTES.toMillis(3);
+
+    private TestScheduler scheduler;
+    private ScriptedCreationAPI api;
+    private CreationStatusTracker tracker;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        api = new ScriptedCreationAPI();
+        tracker = new CreationStatusTracker(api, scheduler, INITIAL_DELAY_MS, MIN_DELAY_MS);
+    }
+
+    @Test
+    public void testStatusChangesAreEmittedUntilComplete() {
+        api.script("a", encoding(""), encoding(""), complete("a"));
+        TestObserver<CreationStatus> observer = tracker.track("a", TIMEOUT_MS).test();
+        TestObserver<CreationStatusTracker.StatusUpdate> updates = tracker.updates().test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        observer.assertComplete();
+        observer.assertValueCount(2);
+        assertEquals("encoding", observer.values().get(0).getTask());
+        assertEquals("complete", observer.values().get(1).getTask());
+        updates.assertValueCount(2);
+        assertEquals(3, api.requests.size());
+    }
+
+    @Test
+    public void testCloseRequestsAreCoalesced() {
+        api.script("a", encoding(""), complete("a"));
+        api.script("b", encoding(""), complete("b"));
+        tracker.track("a", TIMEOUT_MS).test();
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        tracker.track("b", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeTo(INITIAL_DELAY_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList("a@10000", "b@10000"), sorted(api.requests));
+    }
+
+    @Test
+    public void testSameGfycatSharesRequests() {
+        api.script("a", encoding(""), complete("a"));
+        TestObserver<CreationStatus> first = tracker.track("a", TIMEOUT_MS).test();
+        TestObserver<CreationStatus> second = tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        first.assertComplete();
+        second.assertComplete();
+        assertEquals(2, api.requests.size());
+    }
+
+    @Test
+    public void testDelayGrowsWhileStatusIsSame() {
+        api.script("a", encoding(""), encoding(""), encoding(""), encoding(""), encoding(""), complete("a"));
+        tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(Arrays.asList("a@10000", "a@15000", "a@25000", "a@45000", "a@65000", "a@85000"), api.requests);
+    }
+
+    @Test
+    public void testEstimatedTimeIsUsedAsDelay() {
+        api.script("a", encoding("12"), complete("a"));
+        tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(Arrays.asList("a@10000", "a@22000"), api.requests);
+    }
+
+    @Test
+    public void testErrorStatus() {
+        api.script("a", new CreationStatus("error", "", ""));
+        TestObserver<CreationStatus> observer = tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        observer.assertError(UploadManager.FailedToCreateGfycatException.class);
+    }
+
+    @Test
+    public void testTimeout() {
+        api.script("a", encoding(""), encoding(""), encoding(""), encoding(""));
+        TestObserver<CreationStatus> observer = tracker.track("a", 20000).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        observer.assertError(UploadManager.CreationTimeoutException.class);
+        assertEquals(Arrays.asList("a@10000", "a@15000", "a@20000"), api.requests);
+    }
+
+    @Test
+    public void testTimeoutIsTrackedPerSubscriber() {
+        api.script("a", encoding(""), encoding(""), encoding(""), complete("a"));
+        TestObserver<CreationStatus> longer = tracker.track("a", TIMEOUT_MS).test();
+        TestObserver<CreationStatus> shorter = tracker.track("a", 12000).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        shorter.assertError(UploadManager.CreationTimeoutException.class);
+        longer.assertComplete();
+        assertEquals("a@12000", api.requests.get(1));
+        assertEquals(4, api.requests.size());
+    }
+
+    @Test
+    public void testShorterTimeoutOfLaterSubscriberIsRespected() {
+        api.script("a", encoding(""), complete("a"));
+        TestObserver<CreationStatus> longer = tracker.track("a", TIMEOUT_MS).test();
+        TestObserver<CreationStatus> shorter = tracker.track("a", 3000).test();
+
+        scheduler.advanceTimeTo(3000, TimeUnit.MILLISECONDS);
+
+        shorter.assertError(UploadManager.CreationTimeoutException.class);
+        longer.assertNotTerminated();
+        assertEquals(Collections.singletonList("a@3000"), api.requests);
+    }
+
+    @Test
+    public void testEmptyBody() {
+        api.script("a");
+        TestObserver<CreationStatus> observer = tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        observer.assertError(UploadManager.CanNotGetGfycatStatusException.class);
+    }
+
+    @Test
+    public void testDisposeStopsPolling() {
+        api.script("a", encoding(""), encoding(""), complete("a"));
+        TestObserver<CreationStatus> observer = tracker.track("a", TIMEOUT_MS).test();
+
+        scheduler.advanceTimeTo(INITIAL_DELAY_MS, TimeUnit.MILLISECONDS);
+        observer.dispose();
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+
+        assertEquals(1, api.requests.size());
+    }
+
+    private static CreationStatus encoding(String time) {
+        return new CreationStatus("encoding", "", time);
+    }
+
+    private static CreationStatus complete(String gfyName) {
+        return new CreationStatus("complete", gfyName, "");
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> result = new ArrayList<>(list);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Responds synchronously with scripted statuses and records time of every request.
+     */
+    private class ScriptedCreationAPI extends CreationAPIMock {
+        final List<String> requests = new ArrayList<>();
+        private final Map<String, Queue<CreationStatus>> scripts = new HashMap<>();
+
+        void script(String gfyName, CreationStatus... statuses) {
+            scripts.put(gfyName, new ArrayDeque<>(Arrays.asList(statuses)));
+        }
+
+        @Override
+        public Call<CreationStatus> getCreationStatus(@Path("gfyName") String gfyName) {
+            return new TestCall<CreationStatus>() {
+                @Override
+                public void enqueue(Callback<CreationStatus> callback) {
+                    requests.add(gfyName + "@" + scheduler.now(TimeUnit.MILLISECONDS));
+                    callback.onResponse(this, Response.success(scripts.get(gfyName).poll()));
+                }
+            };
+        }
+    }
+}
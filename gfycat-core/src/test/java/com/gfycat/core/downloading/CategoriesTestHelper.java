@@ -37,7 +37,14 @@ public class CategoriesTestHelper {
         new CategoriesCache(context).drop();
     }
 
+    /**
+     * Put categories that are already stale, so they are served from cache and revalidated with network request.
+     */
     public static void putCategoriesToCache(Context context, GfycatCategoriesList newCategoriesList) {
+        new CategoriesCache(context).update(newCategoriesList, System.currentTimeMillis() - FeedFreshnessPolicies.DEFAULT_CATEGORIES_POLICY.getTimeToLiveMs());
+    }
+
+    public static void putFreshCategoriesToCache(Context context, GfycatCategoriesList newCategoriesList) {
         new CategoriesCache(context).update(newCategoriesList);
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core.downloading;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FreshnessPolicyTest {
+
+    private static final FreshnessPolicy POLICY = new FreshnessPolicy(100, 1000);
+
+    @Test
+    public void testFreshInsideTimeToLive() {
+        Assert.assertEquals(FreshnessPolicy.State.FRESH, POLICY.evaluate(0));
+        Assert.assertEquals(FreshnessPolicy.State.FRESH, POLICY.evaluate(99));
+    }
+
+    @Test
+    public void testStaleInsideRevalidateWindow() {
+        Assert.assertEquals(FreshnessPolicy.State.STALE, POLICY.evaluate(100));
+        Assert.assertEquals(FreshnessPolicy.State.STALE, POLICY.evaluate(1099));
+    }
+
+    @Test
+    public void testExpiredAfterRevalidateWindow() {
+        Assert.assertEquals(FreshnessPolicy.State.EXPIRED, POLICY.evaluate(1100));
+        Assert.assertEquals(FreshnessPolicy.State.EXPIRED, POLICY.evaluate(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testClockChangedIsStale() {
+        Assert.assertEquals(FreshnessPolicy.State.STALE, POLICY.evaluate(-1));
+    }
+
+    @Test
+    public void testPredefinedPolicies() {
+        Assert.assertEquals(FreshnessPolicy.State.STALE, FreshnessPolicy.ALWAYS_REVALIDATE.evaluate(0));
+        Assert.assertEquals(FreshnessPolicy.State.STALE, FreshnessPolicy.ALWAYS_REVALIDATE.evaluate(Long.MAX_VALUE - 1));
+        Assert.assertEquals(FreshnessPolicy.State.FRESH, FreshnessPolicy.NEVER_EXPIRES.evaluate(Long.MAX_VALUE - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWindowsNotAllowed() {
+        new FreshnessPolicy(-1, 0);
+    }
+}
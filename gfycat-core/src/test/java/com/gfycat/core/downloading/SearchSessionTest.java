@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core.downloading;
+
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.core.gfycatapi.pojo.GfycatList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+
+public class SearchSessionTest {
+
+    private static final long TIME_TO_LIVE_MS = 1000;
+
+    private TestScheduler clock;
+    private SearchSession session;
+    private final List<FakeRequest> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        clock = new TestScheduler();
+        session = new SearchSession(2, TIME_TO_LIVE_MS, clock);
+    }
+
+    @Test
+    public void testRecentQueryIsServedFromCache() {
+        GfycatList result = list("cat");
+        TestObserver<GfycatList> first = search("cat").test();
+        requests.get(0).respond(result);
+        first.assertValues(result).assertComplete();
+
+        search(" CAT ").test().assertValues(result).assertComplete();
+
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(1, session.getHitsCount());
+        Assert.assertEquals(0.5f, session.getHitRate(), 0.001f);
+    }
+
+    @Test
+    public void testExpiredQueryIsRequestedAgain() {
+        search("cat").test();
+        requests.get(0).respond(list("cat"));
+
+        clock.advanceTimeBy(TIME_TO_LIVE_MS, TimeUnit.MILLISECONDS);
+        search("cat").test();
+
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals(0, session.getHitsCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueryIsEvicted() {
+        for (String query : Arrays.asList("cat", "dog", "cat", "fox", "cat", "dog")) {
+            search(query).test();
+            if (requests.get(requests.size() - 1).isPending()) {
+                requests.get(requests.size() - 1).respond(list(query));
+            }
+        }
+        // dog is evicted by fox, cat is used more recently
+        Assert.assertEquals(4, requests.size());
+        Assert.assertEquals(2, session.getHitsCount());
+    }
+
+    @Test
+    public void testNewQueryCancelsQueryInFlight() {
+        TestObserver<GfycatList> first = search("c").test();
+        TestObserver<GfycatList> second = search("ca").test();
+        TestObserver<GfycatList> third = search("cat").test();
+
+        first.assertNoValues().assertError(SearchSession.QueryCancelledException.class);
+        second.assertNoValues().assertError(SearchSession.QueryCancelledException.class);
+        Assert.assertTrue(requests.get(0).isCancelled());
+        Assert.assertTrue(requests.get(1).isCancelled());
+
+        GfycatList result = list("cat");
+        requests.get(2).respond(result);
+        third.assertValues(result).assertComplete();
+
+        Assert.assertEquals(3, session.getNetworkRequestsCount());
+        Assert.assertEquals(2, session.getCancelledCount());
+        Assert.assertEquals(2f / 3, session.getCancellationRate(), 0.001f);
+    }
+
+    @Test
+    public void testCancelFailsQueryInFlight() {
+        TestObserver<GfycatList> observer = search("cat").test();
+
+        session.cancel();
+
+        observer.assertNoValues().assertError(SearchSession.QueryCancelledException.class);
+        Assert.assertTrue(requests.get(0).isCancelled());
+        Assert.assertEquals(1, session.getCancelledCount());
+    }
+
+    @Test
+    public void testRefreshSkipsCache() {
+        search("cat").test();
+        requests.get(0).respond(list("cat"));
+
+        GfycatList refreshed = list("cat", "cats");
+        TestObserver<GfycatList> observer = session.search("cat", "", request(), true).test();
+        Assert.assertEquals(2, requests.size());
+        requests.get(1).respond(refreshed);
+        observer.assertValues(refreshed).assertComplete();
+
+        search("cat").test().assertValues(refreshed).assertComplete();
+        Assert.assertEquals(1, session.getHitsCount());
+    }
+
+    @Test
+    public void testRefreshSkipsPrefixResult() {
+        search("cat").test();
+        requests.get(0).respond(list("cats"));
+
+        session.search("cats", "", request(), true).test().assertNoValues();
+        Assert.assertEquals(0, session.getPrefixHitsCount());
+    }
+
+    @Test
+    public void testRefreshJoinsQueryInFlight() {
+        TestObserver<GfycatList> first = search("cat").test();
+        TestObserver<GfycatList> second = session.search("cat", "", request(), true).test();
+
+        GfycatList result = list("cat");
+        requests.get(0).respond(result);
+
+        first.assertValues(result).assertComplete();
+        second.assertValues(result).assertComplete();
+        Assert.assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testCancelledQueryIsNotCached() {
+        search("cat").test();
+        search("dog").test();
+        search("cat").test();
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(0, session.getHitsCount());
+    }
+
+    @Test
+    public void testSameQueryJoinsQueryInFlight() {
+        TestObserver<GfycatList> first = search("cat").test();
+        TestObserver<GfycatList> second = search("cat").test();
+
+        GfycatList result = list("cat");
+        requests.get(0).respond(result);
+
+        first.assertValues(result).assertComplete();
+        second.assertValues(result).assertComplete();
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(1, session.getJoinedCount());
+        Assert.assertEquals(0, session.getCancelledCount());
+    }
+
+    @Test
+    public void testPrefixResultIsServedWhileQueryInFlight() {
+        search("ca").test();
+        requests.get(0).respond(list("cat", "cats", "car"));
+
+        TestObserver<GfycatList> observer = search("cat").test();
+        observer.assertValueCount(1).assertNotComplete();
+        Assert.assertTrue(observer.values().get(0) instanceof SearchSession.PrefixResult);
+        Assert.assertEquals("ca", ((SearchSession.PrefixResult) observer.values().get(0)).getPrefix());
+        Assert.assertEquals(2, observer.values().get(0).getGfycats().size());
+        Assert.assertNull(observer.values().get(0).getNextDataPartIdentifier());
+
+        GfycatList result = list("cat");
+        requests.get(1).respond(result);
+        observer.assertValueCount(2).assertComplete();
+        Assert.assertSame(result, observer.values().get(1));
+        Assert.assertEquals(1, session.getPrefixHitsCount());
+    }
+
+    @Test
+    public void testLongestPrefixIsUsed() {
+        search("ca").test();
+        requests.get(0).respond(list("cat", "catalog"));
+        search("cata").test();
+        requests.get(1).respond(list("catalog", "catamaran"));
+
+        TestObserver<GfycatList> observer = search("catam").test();
+        Assert.assertEquals("cata", ((SearchSession.PrefixResult) observer.values().get(0)).getPrefix());
+        Assert.assertEquals("catamaran", observer.values().get(0).getGfycats().get(0).getTitle());
+    }
+
+    @Test
+    public void testPrefixWithoutMatchesIsNotServed() {
+        search("ca").test();
+        requests.get(0).respond(list("car"));
+
+        search("cat").test().assertNoValues();
+        Assert.assertEquals(0, session.getPrefixHitsCount());
+    }
+
+    @Test
+    public void testShortPrefixIsNotServed() {
+        search("c").test();
+        requests.get(0).respond(list("cat"));
+
+        search("ca").test().assertNoValues();
+        Assert.assertEquals(0, session.getPrefixHitsCount());
+    }
+
+    @Test
+    public void testResultsAreNotSharedBetweenFilters() {
+        session.search("cat", "rating=g", request()).test();
+        requests.get(0).respond(list("cat"));
+
+        session.search("cat", "rating=r", request()).test().assertNoValues();
+        session.search("cats", "rating=pg", request()).test().assertNoValues();
+
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(0, session.getHitsCount());
+        Assert.assertEquals(0, session.getPrefixHitsCount());
+    }
+
+    @Test
+    public void testErrorIsNotCached() {
+        TestObserver<GfycatList> observer = search("cat").test();
+        requests.get(0).fail(new FeedManager.NoSearchResultException());
+        observer.assertError(FeedManager.NoSearchResultException.class);
+
+        search("cat").test();
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals(0, session.getCancelledCount());
+    }
+
+    @Test
+    public void testDisposedQueryIsNotJoined() {
+        search("cat").test().dispose();
+        Assert.assertTrue(requests.get(0).isCancelled());
+        Assert.assertEquals(1, session.getCancelledCount());
+
+        search("cat").test();
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals(0, session.getJoinedCount());
+    }
+
+    /**
+     * Feed loading scenario, subscription of previous query is disposed before next query is searched.
+     */
+    @Test
+    public void testDisposedQueryIsCountedAsCancelled() {
+        search("c").test().dispose();
+        TestObserver<GfycatList> observer = search("ca").test();
+        GfycatList result = list("cat");
+        requests.get(1).respond(result);
+        observer.assertValues(result).assertComplete();
+
+        Assert.assertTrue(requests.get(0).isCancelled());
+        Assert.assertEquals(2, session.getNetworkRequestsCount());
+        Assert.assertEquals(1, session.getCancelledCount());
+        Assert.assertEquals(0.5f, session.getCancellationRate(), 0.001f);
+    }
+
+    @Test
+    public void testDisposedPrefixQueryIsCountedAsCancelled() {
+        search("cat").test();
+        requests.get(0).respond(list("cat", "catty"));
+
+        TestObserver<GfycatList> observer = search("catt").test();
+        observer.assertValueCount(1);
+        observer.dispose();
+
+        Assert.assertTrue(requests.get(1).isCancelled());
+        Assert.assertEquals(1, session.getCancelledCount());
+    }
+
+    /**
+     * Fast typist scenario, keystrokes supersede previous queries, then query is edited back and forth.
+     */
+    @Test
+    public void testTypeahead() {
+        for (String query : Arrays.asList("f", "fu", "fun")) {
+            search(query).test();
+        }
+        requests.get(2).respond(list("fun", "funny"));
+        for (String query : Arrays.asList("funn", "funny")) {
+            search(query).test();
+        }
+        requests.get(4).respond(list("funny"));
+        for (String query : Arrays.asList("fun", "funny")) {
+            search(query).test();
+        }
+
+        Assert.assertEquals(7, session.getRequestsCount());
+        Assert.assertEquals(5, session.getNetworkRequestsCount());
+        Assert.assertEquals(3, session.getCancelledCount());
+        Assert.assertEquals(2, session.getHitsCount());
+        Assert.assertEquals(2, session.getPrefixHitsCount());
+        Assert.assertEquals(5, requests.size());
+        for (int i : new int[]{0, 1, 3}) {
+            Assert.assertTrue(requests.get(i).isCancelled());
+        }
+        Assert.assertEquals(2f / 7, session.getHitRate(), 0.001f);
+        Assert.assertEquals(3f / 5, session.getCancellationRate(), 0.001f);
+    }
+
+    private Observable<GfycatList> search(String query) {
+        return session.search(query, "", request());
+    }
+
+    /**
+     * @return Returns request that is registered in {@link #requests} when it is actually sent.
+     */
+    private Observable<GfycatList> request() {
+        return Observable.defer(() -> {
+            FakeRequest request = new FakeRequest();
+            requests.add(request);
+            return request.observable;
+        });
+    }
+
+    private static GfycatList list(String... titles) {
+        List<Gfycat> gfycats = new ArrayList<>();
+        for (String title : titles) {
+            Gfycat gfycat = new Gfycat();
+            gfycat.setGfyId(title);
+            gfycat.setTitle(title);
+            gfycats.add(gfycat);
+        }
+        return new GfycatList(gfycats, "digest");
+    }
+
+    private static class FakeRequest {
+        private final PublishSubject<GfycatList> response = PublishSubject.create();
+        private final AtomicInteger subscriptions = new AtomicInteger();
+        private final AtomicInteger disposals = new AtomicInteger();
+        private final Observable<GfycatList> observable = response
+                .doOnSubscribe(disposable -> subscriptions.incrementAndGet())
+                .doOnDispose(disposals::incrementAndGet);
+
+        private boolean isPending() {
+            return response.hasObservers();
+        }
+
+        private boolean isCancelled() {
+            return subscriptions.get() > 0 && disposals.get() > 0 && !response.hasObservers();
+        }
+
+        private void respond(GfycatList result) {
+            Assert.assertTrue("request is not in flight", isPending());
+            response.onNext(result);
+            response.onComplete();
+        }
+
+        private void fail(Throwable throwable) {
+            Assert.assertTrue("request is not in flight", isPending());
+            response.onError(throwable);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.gfycat.core.CoreTestHelper;
 import com.gfycat.core.FeedLoadingTests;
 import com.gfycat.core.GfyCore;
 import com.gfycat.core.downloading.CategoriesTestHelper;
+import com.gfycat.core.downloading.FeedFreshnessPolicies;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.gfycatapi.pojo.GfycatCategoriesList;
 import com.gfycat.core.gfycatapi.pojo.GfycatCategory;
@@ -172,4 +173,23 @@ public class FeedManagerCategoriesTest {
         Assert.assertEquals(GFYCAT_MODEL, categoriesResponses.get(1).getTags().get(1).getGfycat());
 
     }
+
+    @Test
+    public void testFreshCategoriesServedWithoutNetwork() throws Throwable {
+
+        CategoriesTestHelper.putFreshCategoriesToCache(
+                RuntimeEnvironment.application.getApplicationContext(),
+                new Gson().fromJson(FIRST_CATEGORIES_RESPONSE, GfycatCategoriesList.class));
+
+        // if network request happens second categories list would be delivered
+        CoreTestHelper.expectNextRequestAndResponse(CATEGORIES_REQUEST, SECOND_CATEGORIES_RESPONSE);
+
+        Iterable<GfycatCategoriesList> categoriesIterable = GfyCore.getFeedManager().getCategories().blockingIterable();
+        List<GfycatCategoriesList> categoriesResponses = Utils.collect(categoriesIterable.iterator());
+
+        Assert.assertEquals(1, categoriesResponses.size());
+        Assert.assertEquals("first_cursor", categoriesResponses.get(0).getCursor());
+        Assert.assertEquals(1, GfyCore.getFeedFreshnessPolicies().getMetrics().get(FeedFreshnessPolicies.CATEGORIES_KEY).getFreshCount());
+        Assert.assertEquals(1, GfyCore.getFeedFreshnessPolicies().getMetrics().getSuppressedRequestsCount());
+    }
 }
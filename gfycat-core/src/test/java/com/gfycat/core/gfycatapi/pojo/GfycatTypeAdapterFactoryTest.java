@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * You are hereby granted a non-exclusive, worldwide, royalty-free license to use,
+ * copy, modify, and distribute this software in source code or binary form for use
+ * in connection with the web services and APIs provided by Gfycat.
+ *
+ * As with any software that integrates with the Gfycat platform, your use of
+ * this software is subject to the Gfycat Terms of Service [https://gfycat.com/terms]
+ * and Partner Terms of Service [https://gfycat.com/partners/terms]. This copyright
+ * notice shall be included in all copies or substantial portions of the software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gfycat.core.gfycatapi.pojo;
+
+import com.gfycat.core.FeedLoadingTests;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that streaming adapters produce the same result as reflective binding.
+ * Parsing performance is measured by GfycatListParsingBenchmark of gfycat-benchmark.
+ */
+public class GfycatTypeAdapterFactoryTest {
+
+    private static final int FIXTURE_SIZE = 100;
+
+    private static final Gson REFLECTIVE_GSON = new Gson();
+    private static final Gson STREAMING_GSON = new GsonBuilder().registerTypeAdapterFactory(new GfycatTypeAdapterFactory()).create();
+
+    private static String buildFixture(int count) {
+        StringBuilder sb = new StringBuilder("{\"cursor\":\"next_cursor\",\"digest\":\"next_digest\",\"found\":12345,\"unknownField\":{\"nested\":[1,2,3]},\"gfycats\":[");
+        for (int i = 0; i < count; i++) {
+            if (i != 0) sb.append(',');
+            sb.append(FeedLoadingTests.GFYCAT_JSON_MODEL
+                    .replace("\"gfyId\":\"chillyflashyleonberger\"", "\"gfyId\":\"gfycat" + i + "\",\"tags\":[\"tag" + i + "\",\"common\"]"));
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void assertSameAsReflective(String json, Class<? extends GfycatList> clazz) {
+        GfycatList reflective = REFLECTIVE_GSON.fromJson(json, clazz);
+        GfycatList streaming = STREAMING_GSON.fromJson(json, clazz);
+        Assert.assertEquals(clazz, streaming.getClass());
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(reflective), REFLECTIVE_GSON.toJson(streaming));
+    }
+
+    @Test
+    public void testGfycatListSameAsReflective() {
+        assertSameAsReflective(buildFixture(FIXTURE_SIZE), GfycatList.class);
+    }
+
+    @Test
+    public void testSearchResultSameAsReflective() {
+        String json = buildFixture(3);
+        assertSameAsReflective(json, SearchResult.class);
+        Assert.assertEquals(12345, STREAMING_GSON.fromJson(json, SearchResult.class).found);
+    }
+
+    @Test
+    public void testLenientValues() {
+        String json = "{\"gfycats\":[{\"gfyId\":\"id\",\"nsfw\":\"1\",\"hasAudio\":\"true\",\"createDate\":1549224774,\"title\":null}],\"errorMessage\":null}";
+        assertSameAsReflective(json, GfycatList.class);
+        Gfycat gfycat = STREAMING_GSON.fromJson(json, GfycatList.class).getGfycats().get(0);
+        Assert.assertTrue(gfycat.hasAudio());
+        Assert.assertEquals("1549224774", gfycat.getCreateDate());
+    }
+
+    /**
+     * Adapters bind fields by hand, so field added to pojo without adapter case would be silently dropped.
+     */
+    @Test
+    public void testEveryDeclaredFieldIsRead() throws Exception {
+        assertEveryFieldIsRead(Gfycat.class);
+        assertEveryFieldIsRead(GfycatList.class);
+        assertEveryFieldIsRead(SearchResult.class);
+    }
+
+    private static void assertEveryFieldIsRead(Class<?> clazz) throws Exception {
+        Object expected = populate(clazz);
+        Object actual = STREAMING_GSON.fromJson(REFLECTIVE_GSON.toJson(expected), clazz);
+        for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : serializableFields(c)) {
+                Assert.assertEquals("Field " + c.getSimpleName() + "." + field.getName() + " is not read by GfycatTypeAdapterFactory",
+                        REFLECTIVE_GSON.toJson(field.get(expected)),
+                        REFLECTIVE_GSON.toJson(field.get(actual)));
+            }
+        }
+    }
+
+    /**
+     * @return Returns instance with non default value in every field that Gson serializes.
+     */
+    private static Object populate(Class<?> clazz) throws Exception {
+        Object result = clazz.newInstance();
+        for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : serializableFields(c)) {
+                field.set(result, sampleValue(field));
+            }
+        }
+        return result;
+    }
+
+    private static List<Field> serializableFields(Class<?> clazz) {
+        List<Field> result = new ArrayList<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+            field.setAccessible(true);
+            result.add(field);
+        }
+        return result;
+    }
+
+    private static Object sampleValue(Field field) throws Exception {
+        Class<?> type = field.getType();
+        if (type == String.class) {
+            return field.getName() + "_value";
+        } else if (type == int.class) {
+            return field.getName().length();
+        } else if (type == long.class) {
+            return (long) field.getName().length();
+        } else if (type == float.class) {
+            return 1.5f;
+        } else if (type == double.class) {
+            return 2.5;
+        } else if (type == boolean.class) {
+            return true;
+        } else if (type == List.class) {
+            Type elementType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+            if (elementType == String.class) {
+                return Collections.singletonList(field.getName() + "_item");
+            } else if (elementType == Gfycat.class) {
+                return Collections.singletonList(populate(Gfycat.class));
+            }
+        }
+        throw new AssertionError("No sample value for " + field + ", add it to test");
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.storage;
+
+import com.gfycat.disklrucache.DiskLruCache;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class MediaTransferTest {
+
+    private static final String FILE_KEY = "gfycat_mp4.mp4";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private DiskLruCache diskLruCache;
+    private DiskCache diskCache;
+    private CountDownLatch finished;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        diskLruCache = DiskLruCache.open(folder.newFolder("cache"), 1, 10 * 1024 * 1024);
+        diskCache = new LruDiskCache(diskLruCache);
+        finished = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        diskLruCache.close();
+    }
+
+    @Test
+    public void testConcurrentStreamsShareDownload() throws Exception {
+        byte[] content = content(64 * 1024);
+        server.enqueue(new MockResponse()
+                .setBody(new Buffer().write(content))
+                .throttleBody(8 * 1024, 20, TimeUnit.MILLISECONDS));
+
+        MediaTransfer transfer = start();
+        InputStream first = transfer.openStream();
+        InputStream second = transfer.openStream();
+
+        assertArrayEquals(content, IOUtils.toByteArray(first));
+        assertArrayEquals(content, IOUtils.toByteArray(second));
+        first.close();
+        second.close();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(2, transfer.getReadersCount());
+        assertEquals(content.length, transfer.getBytesCount());
+        assertTrue(transfer.getLatencyMs() >= 0);
+    }
+
+    @Test
+    public void testDownloadIsSavedToCache() throws Exception {
+        byte[] content = content(10 * 1024);
+        server.enqueue(new MockResponse().setBody(new Buffer().write(content)));
+
+        MediaTransfer transfer = start();
+        File file = transfer.awaitFile();
+
+        assertNotNull(diskCache.get(FILE_KEY));
+        assertEquals(diskCache.get(FILE_KEY), file);
+        // streams opened after completion read cached file
+        try (InputStream stream = transfer.openStream()) {
+            assertArrayEquals(content, IOUtils.toByteArray(stream));
+        }
+    }
+
+    @Test
+    public void testFailedDownloadIsNotCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        MediaTransfer transfer = start();
+        // stream fails on open or on read, depending on time of response
+        try (InputStream stream = transfer.openStream()) {
+            IOUtils.toByteArray(stream);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertNull(diskCache.get(FILE_KEY));
+        // entry is not locked by failed transfer
+        assertNotNull(diskCache.edit(FILE_KEY));
+    }
+
+    private MediaTransfer start() throws IOException {
+        MediaTransfer transfer = new MediaTransfer(
+                new OkHttpClient(),
+                diskCache,
+                diskCache.edit(FILE_KEY),
+                server.url("/" + FILE_KEY).toString(),
+                FILE_KEY,
+                ignored -> finished.countDown());
+        transfer.start();
+        return transfer;
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    private static class LruDiskCache implements DiskCache {
+        private final DiskLruCache cache;
+
+        LruDiskCache(DiskLruCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public boolean isAvailable(String fileKey) {
+            return get(fileKey) != null;
+        }
+
+        @Override
+        public File get(String fileKey) {
+            try {
+                DiskLruCache.Snapshot snapshot = cache.get(fileKey);
+                return snapshot == null ? null : snapshot.getFile();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Observable<File> loadFile(String fileKey) {
+            return Observable.fromCallable(() -> get(fileKey));
+        }
+
+        @Override
+        public DiskLruCache.Editor edit(String fileKey) {
+            try {
+                return cache.edit(fileKey);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void put(String fileKey, InputStream is) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
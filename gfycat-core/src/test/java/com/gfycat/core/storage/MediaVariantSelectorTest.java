@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.core.storage;
+
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.disklrucache.DiskLruCache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Gfycat of 480x270 with 100 frames is estimated as 193x108 GIF1, 273x153 GIF2, 431x242 GIF5 and 1.24 MB WEBP.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MediaVariantSelectorTest {
+
+    private static final long SLOW_THROUGHPUT = 600 * 1024;
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private Gfycat gfycat;
+    private ThroughputEstimator estimator;
+    private Set<String> cachedKeys;
+    private MediaVariantSelector selector;
+
+    @Before
+    public void setUp() {
+        gfycat = new Gfycat();
+        gfycat.setGfyId("gfycat");
+        gfycat.setWidth(480);
+        gfycat.setHeight(270);
+        gfycat.setNumFrames(100);
+        estimator = new ThroughputEstimator();
+        cachedKeys = new HashSet<>();
+        selector = new MediaVariantSelector(estimator, new KeysDiskCache(cachedKeys), MediaVariantSelector.DEFAULT_LOAD_TIME_BUDGET_MS);
+    }
+
+    @Test
+    public void testSmallestVariantThatCoversView() {
+        assertEquals(MediaType.GIF1, select(150, 80));
+        assertEquals(MediaType.GIF2, select(250, 140));
+        assertEquals(MediaType.GIF5, select(400, 200));
+    }
+
+    @Test
+    public void testBestVariantForLargeView() {
+        assertEquals(MediaType.GIF5, select(1000, 600));
+    }
+
+    @Test
+    public void testSlowNetworkDowngrades() {
+        estimator.addSample(SLOW_THROUGHPUT, SECOND_NANOS);
+
+        assertEquals(MediaType.GIF1, select(400, 200));
+    }
+
+    @Test
+    public void testSmallSamplesAreIgnored() {
+        estimator.addSample(ThroughputEstimator.MIN_SAMPLE_BYTES - 1, SECOND_NANOS);
+
+        assertEquals(-1, estimator.getEstimate());
+        assertEquals(MediaType.GIF5, select(400, 200));
+    }
+
+    @Test
+    public void testCachedVariantIsPreferredOverDowngrade() {
+        estimator.addSample(SLOW_THROUGHPUT, SECOND_NANOS);
+        cachedKeys.add(MediaType.GIF2.getVideoStorageId(gfycat));
+
+        assertEquals(MediaType.GIF2, select(400, 200));
+    }
+
+    @Test
+    public void testCachedWorseVariantIsNotUsed() {
+        cachedKeys.add(MediaType.GIF1.getVideoStorageId(gfycat));
+
+        assertEquals(MediaType.GIF5, select(400, 200));
+    }
+
+    @Test
+    public void testWebpIsSelectedWhenItCoversView() {
+        assertEquals(MediaType.WEBP, select(Arrays.asList(MediaType.GIF1, MediaType.GIF5, MediaType.WEBP), 450, 250));
+    }
+
+    @Test
+    public void testWebpSizeIsEstimatedFromMp4SizeWithoutFramesCount() {
+        gfycat.setNumFrames(0);
+        gfycat.setMp4Size(100 * 1024);
+        estimator.addSample(SLOW_THROUGHPUT, SECOND_NANOS);
+
+        // 500 KB WEBP and 5 MB GIF5 have the same resolution
+        assertEquals(MediaType.WEBP, select(Arrays.asList(MediaType.GIF5, MediaType.WEBP), 450, 250));
+    }
+
+    @Test
+    public void testSlowNetworkDowngradesWebp() {
+        estimator.addSample(SLOW_THROUGHPUT, SECOND_NANOS);
+
+        assertEquals(MediaType.GIF1, select(Arrays.asList(MediaType.GIF1, MediaType.GIF5, MediaType.WEBP), 450, 250));
+    }
+
+    @Test
+    public void testNextLoadSelectsPreferredWhenThroughputGrows() {
+        estimator.addSample(SLOW_THROUGHPUT, SECOND_NANOS);
+        assertEquals(MediaType.GIF1, select(400, 200));
+
+        estimator.addSample(10 * 1024 * 1024, SECOND_NANOS);
+
+        assertEquals(MediaType.GIF5, select(400, 200));
+    }
+
+    private MediaType select(int width, int height) {
+        return select(MediaVariantSelector.GIF_VARIANTS, width, height);
+    }
+
+    private MediaType select(List<MediaType> variants, int width, int height) {
+        return selector.select(gfycat, variants, width, height);
+    }
+
+    private static class KeysDiskCache implements DiskCache {
+        private final Set<String> keys;
+
+        KeysDiskCache(Set<String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public boolean isAvailable(String fileKey) {
+            return !keys.contains(fileKey);
+        }
+
+        @Override
+        public File get(String fileKey) {
+            return keys.contains(fileKey) ? new File(fileKey) : null;
+        }
+
+        @Override
+        public Observable<File> loadFile(String fileKey) {
+            return Observable.empty();
+        }
+
+        @Override
+        public DiskLruCache.Editor edit(String fileKey) {
+            return null;
+        }
+
+        @Override
+        public void put(String fileKey, InputStream is) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.disklrucache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Checks that index is restored from journal snapshot and journal records written after it.
+ */
+public class DiskLruCacheSnapshotTest {
+
+    private static final int APP_VERSION = 1;
+    private static final long MAX_SIZE = 1024 * 1024;
+    private static final int ENTRIES_COUNT = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private DiskLruCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("cache");
+        cache = DiskLruCache.open(directory, APP_VERSION, MAX_SIZE);
+        for (int i = 0; i < ENTRIES_COUNT; i++) {
+            put("key" + i, 10);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    public void testReopenKeepsEntries() throws IOException {
+        cache.remove("key0");
+        put("key1", 5);
+        cache.close();
+
+        cache = DiskLruCache.open(directory, APP_VERSION, MAX_SIZE);
+        assertRestored();
+    }
+
+    @Test
+    public void testAsyncReopenKeepsEntries() throws Exception {
+        cache.remove("key0");
+        put("key1", 5);
+        cache.close();
+
+        cache = DiskLruCache.openAsync(directory, APP_VERSION, MAX_SIZE);
+        awaitJournalReplayed();
+        assertRestored();
+    }
+
+    @Test
+    public void testSnapshotIsWrittenOnRebuild() throws IOException {
+        cache.close();
+        Assert.assertTrue(new File(directory, DiskLruCache.SNAPSHOT_FILE).exists());
+    }
+
+    @Test
+    public void testCorruptedSnapshotFallsBackToJournal() throws Exception {
+        cache.remove("key0");
+        put("key1", 5);
+        cache.close();
+        try (Writer writer = new FileWriter(new File(directory, DiskLruCache.SNAPSHOT_FILE))) {
+            writer.write("corrupted");
+        }
+
+        cache = DiskLruCache.openAsync(directory, APP_VERSION, MAX_SIZE);
+        awaitJournalReplayed();
+        assertRestored();
+    }
+
+    @Test
+    public void testChangesDuringAsyncOpenAreNotOverwrittenByJournal() throws IOException {
+        put("key2", 3);
+        cache.close();
+
+        cache = DiskLruCache.openAsync(directory, APP_VERSION, MAX_SIZE);
+        put("key2", 7);
+        cache.remove("key3");
+        cache.close();
+
+        cache = DiskLruCache.open(directory, APP_VERSION, MAX_SIZE);
+        Assert.assertEquals(7, cache.get("key2").getLength());
+        Assert.assertNull(cache.get("key3"));
+        Assert.assertEquals((ENTRIES_COUNT - 2) * 10 + 7, cache.size());
+    }
+
+    private void assertRestored() throws IOException {
+        Assert.assertNull(cache.get("key0"));
+        Assert.assertEquals(5, cache.get("key1").getLength());
+        Assert.assertEquals(10, cache.get("key2").getLength());
+        Assert.assertEquals((ENTRIES_COUNT - 2) * 10 + 5, cache.size());
+    }
+
+    private void awaitJournalReplayed() throws Exception {
+        cache.executorService.submit(() -> null).get();
+    }
+
+    private void put(String key, int length) throws IOException {
+        DiskLruCache.Editor editor = cache.edit(key);
+        Assert.assertNotNull(editor);
+        try (OutputStream os = editor.newOutputStream()) {
+            os.write(new byte[length]);
+        }
+        editor.commit();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.util.Log;
+
+import com.gfycat.common.utils.Utils;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Locale;
+
+/**
+ * {@link FrameSequenceDrawable.BitmapProvider} that keeps released bitmaps for future drawables.
+ * <p>
+ * Bitmaps with exactly requested size and config are reused on all platforms, starting from KITKAT any bitmap with enough allocation is reconfigured.
+ * Least recently released bitmaps are dropped first when pool exceeds its max size.
+ */
+public class BitmapPool implements FrameSequenceDrawable.BitmapProvider {
+
+    private static final String LOG_TAG = "BitmapPool";
+
+    private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+    private final long maxSizeBytes;
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param maxSizeBytes max total size of kept bitmaps.
+     */
+    public BitmapPool(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @Override
+    public Bitmap acquireBitmap(int minWidth, int minHeight, Bitmap.Config config) {
+        Bitmap bitmap;
+        synchronized (this) {
+            bitmap = pollLocked(minWidth, minHeight, config);
+            if (bitmap != null) {
+                hits++;
+                sizeBytes -= getSize(bitmap);
+            } else {
+                misses++;
+            }
+        }
+        if (bitmap == null) {
+            return Bitmap.createBitmap(minWidth, minHeight, config);
+        }
+        if (bitmap.getWidth() != minWidth || bitmap.getHeight() != minHeight || bitmap.getConfig() != config) {
+            reconfigure(bitmap, minWidth, minHeight, config);
+        }
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    @Override
+    public void releaseBitmap(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable())
+            return;
+
+        int size = getSize(bitmap);
+        if (size > maxSizeBytes) return;
+
+        synchronized (this) {
+            bitmaps.addLast(bitmap);
+            sizeBytes += size;
+            trimToSizeLocked(maxSizeBytes);
+        }
+    }
+
+    /**
+     * Drops least recently released bitmaps until pool fits in provided size.
+     */
+    public synchronized void trimToSize(long size) {
+        trimToSizeLocked(size);
+    }
+
+    public void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    public synchronized String dump() {
+        return String.format(Locale.US, "BitmapPool %d bitmaps for %s of %s, hits = %d misses = %d",
+                bitmaps.size(), Utils.humanReadableByteCount(sizeBytes), Utils.humanReadableByteCount(maxSizeBytes), hits, misses);
+    }
+
+    private Bitmap pollLocked(int width, int height, Bitmap.Config config) {
+        Bitmap bestFit = null;
+        int required = width * height * (config == Bitmap.Config.RGB_565 ? 2 : 4);
+        Iterator<Bitmap> iterator = bitmaps.iterator();
+        while (iterator.hasNext()) {
+            Bitmap candidate = iterator.next();
+            if (candidate.getWidth() == width && candidate.getHeight() == height && candidate.getConfig() == config) {
+                iterator.remove();
+                return candidate;
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                int allocation = candidate.getAllocationByteCount();
+                if (allocation >= required && (bestFit == null || allocation < bestFit.getAllocationByteCount())) {
+                    bestFit = candidate;
+                }
+            }
+        }
+        if (bestFit != null) bitmaps.remove(bestFit);
+        return bestFit;
+    }
+
+    private void trimToSizeLocked(long size) {
+        while (sizeBytes > size && !bitmaps.isEmpty()) {
+            Bitmap bitmap = bitmaps.removeFirst();
+            sizeBytes -= getSize(bitmap);
+            bitmap.recycle();
+        }
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "trimToSize(" + size + ") " + bitmaps.size() + " bitmaps left for " + sizeBytes + " bytes");
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static void reconfigure(Bitmap bitmap, int width, int height, Bitmap.Config config) {
+        bitmap.reconfigure(width, height, config);
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+}
@@ -39,7 +39,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * but constrains the number of concurrently executing tasks to a pre-configured value.
  *
  * Copy of ConstrainedExecutorService from com.facebook.fresco:fresco:0.8.1.
+ * <p>
+ * Deprecation reason: frame sequences are decoded by {@link DecodeScheduler}, SDK does not use it anymore.
  */
+@Deprecated
 public class ConstrainedExecutorService extends AbstractExecutorService {
 
     private static final Class<?> TAG = ConstrainedExecutorService.class;
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+/**
+ * Measured decode cost of one frame sequence on this device.
+ * <p>
+ * Keeps exponentially weighted moving average of decode time for every frame and for whole sequence.
+ * Frame estimate is used when frame was already decoded at least once, sequence estimate otherwise.
+ * Until anything is measured {@link FrameSequenceConfiguration#getMinTimeToRenderNextFrame()} is used.
+ * <p>
+ * Updated only from decoding thread of the drawable, so it is not synchronized.
+ */
+class DecodeCostModel {
+
+    /**
+     * Weight of the newest sample.
+     */
+    private static final float ALPHA = 0.25f;
+
+    /**
+     * Predicted cost is multiplied by this factor, to cover scheduling delay and cost variance.
+     */
+    private static final float SAFETY_FACTOR = 1.5f;
+    private static final long MIN_PREDICTED_COST_MS = 4;
+
+    private final float[] frameCostMs;
+    private volatile float sequenceCostMs = -1;
+
+    DecodeCostModel(int frameCount) {
+        frameCostMs = new float[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frameCostMs[i] = -1;
+        }
+    }
+
+    /**
+     * @param frame      that was decoded.
+     * @param sequential true if frame was decoded right after previous one, without dropping.
+     * @param costMs     time spent to decode frame.
+     */
+    void record(int frame, boolean sequential, long costMs) {
+        sequenceCostMs = ewma(sequenceCostMs, costMs);
+        // cost of frame after drop includes catching up from keyframe, it should not affect sequential estimate
+        if (sequential && frame >= 0 && frame < frameCostMs.length) {
+            frameCostMs[frame] = ewma(frameCostMs[frame], costMs);
+        }
+    }
+
+    /**
+     * @return Returns time in milliseconds that should be left till frame swap to decode it in time.
+     */
+    long predictTimeToDecode(int frame) {
+        float cost = frame >= 0 && frame < frameCostMs.length && frameCostMs[frame] >= 0 ? frameCostMs[frame] : sequenceCostMs;
+        if (cost < 0) return FrameSequenceConfiguration.get().getMinTimeToRenderNextFrame();
+        return Math.max(MIN_PREDICTED_COST_MS, (long) Math.ceil(cost * SAFETY_FACTOR));
+    }
+
+    float getSequenceCostMs() {
+        return sequenceCostMs;
+    }
+
+    private static float ewma(float average, long sample) {
+        return average < 0 ? sample : average + ALPHA * (sample - average);
+    }
+}
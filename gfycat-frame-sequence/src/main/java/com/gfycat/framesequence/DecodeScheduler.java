@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+import android.os.SystemClock;
+
+import com.gfycat.common.utils.Utils;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Earliest deadline first scheduler for frame decoding.
+ * <p>
+ * Every {@link FrameSequenceDrawable} owns one {@link Task}, task is never executed concurrently with itself.
+ * Worker runnables are submitted to delegate executor, each of them takes task with earliest effective deadline at the moment of execution.
+ * Effective deadline is swap time of decoded frame shifted by task priority, so frames of high priority drawables are decoded first.
+ */
+public class DecodeScheduler {
+
+    public static final int PRIORITY_LOW = -1;
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_HIGH = 1;
+
+    /**
+     * Each priority level moves task deadline by this value.
+     */
+    private static final long PRIORITY_STEP_MS = 100;
+
+    private static final Comparator<Task> EARLIEST_DEADLINE_FIRST = (lhs, rhs) -> {
+        int result = Long.compare(lhs.effectiveDeadline, rhs.effectiveDeadline);
+        return result != 0 ? result : Long.compare(lhs.order, rhs.order);
+    };
+
+    private final Executor executor;
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>(16, EARLIEST_DEADLINE_FIRST);
+    private final AtomicLong order = new AtomicLong();
+    private final Metrics metrics = new Metrics();
+    private final Runnable worker = () -> {
+        Task task = queue.poll();
+        if (task != null) task.run();
+    };
+
+    public DecodeScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Task newTask(Runnable runnable) {
+        return new Task(runnable);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public class Task {
+
+        private final Runnable runnable;
+
+        // guarded by this
+        private int priority = PRIORITY_NORMAL;
+        private boolean queued;
+        private boolean running;
+        private boolean rescheduleRequested;
+        private long deadline;
+        private long enqueueTime;
+
+        // written only while task is not in queue
+        private volatile long effectiveDeadline;
+        private volatile long order;
+
+        private Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        /**
+         * Schedules task execution, if task is already queued its deadline is updated.
+         *
+         * @param deadlineUptimeMs {@link SystemClock#uptimeMillis()} time when result is needed.
+         */
+        public void schedule(long deadlineUptimeMs) {
+            synchronized (this) {
+                deadline = deadlineUptimeMs;
+                if (running) {
+                    rescheduleRequested = true;
+                    return;
+                }
+                enqueueLocked();
+            }
+            metrics.scheduled.incrementAndGet();
+            executor.execute(worker);
+        }
+
+        /**
+         * Removes task from queue, task that is already running is not interrupted.
+         */
+        public void cancel() {
+            synchronized (this) {
+                rescheduleRequested = false;
+                if (!queued) return;
+                queued = false;
+                queue.remove(this);
+            }
+            metrics.cancelled.incrementAndGet();
+        }
+
+        /**
+         * @param priority one of {@link #PRIORITY_LOW}, {@link #PRIORITY_NORMAL}, {@link #PRIORITY_HIGH}.
+         */
+        public synchronized void setPriority(int priority) {
+            if (this.priority == priority) return;
+            this.priority = priority;
+            if (queued) enqueueLocked();
+        }
+
+        private void enqueueLocked() {
+            if (queued) queue.remove(this);
+            queued = true;
+            enqueueTime = SystemClock.uptimeMillis();
+            effectiveDeadline = deadline - priority * PRIORITY_STEP_MS;
+            order = DecodeScheduler.this.order.incrementAndGet();
+            queue.offer(this);
+        }
+
+        private void run() {
+            long deadline;
+            synchronized (this) {
+                if (!queued) return;
+                queued = false;
+                running = true;
+                deadline = this.deadline;
+                metrics.onStarted(SystemClock.uptimeMillis() - enqueueTime);
+            }
+            boolean reschedule;
+            try {
+                runnable.run();
+            } finally {
+                metrics.onFinished(SystemClock.uptimeMillis() > deadline);
+                synchronized (this) {
+                    running = false;
+                    reschedule = rescheduleRequested;
+                    rescheduleRequested = false;
+                }
+            }
+            if (reschedule) schedule(this.deadline);
+        }
+    }
+
+    /**
+     * Queue latency is time from scheduling till start of decoding.
+     * Missed deadline means that frame was decoded after the time it should be displayed.
+     */
+    public static class Metrics {
+        private final AtomicLong scheduled = new AtomicLong();
+        private final AtomicLong executed = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong missedDeadlines = new AtomicLong();
+        private final AtomicLong totalQueueLatencyMs = new AtomicLong();
+        private final AtomicLong maxQueueLatencyMs = new AtomicLong();
+
+        private void onStarted(long queueLatencyMs) {
+            totalQueueLatencyMs.addAndGet(queueLatencyMs);
+            long max;
+            while (queueLatencyMs > (max = maxQueueLatencyMs.get()) && !maxQueueLatencyMs.compareAndSet(max, queueLatencyMs)) ;
+        }
+
+        private void onFinished(boolean missedDeadline) {
+            executed.incrementAndGet();
+            if (missedDeadline) missedDeadlines.incrementAndGet();
+        }
+
+        public long getScheduledCount() {
+            return scheduled.get();
+        }
+
+        public long getExecutedCount() {
+            return executed.get();
+        }
+
+        public long getCancelledCount() {
+            return cancelled.get();
+        }
+
+        public long getMissedDeadlinesCount() {
+            return missedDeadlines.get();
+        }
+
+        public long getAverageQueueLatencyMs() {
+            long count = executed.get();
+            return count == 0 ? 0 : totalQueueLatencyMs.get() / count;
+        }
+
+        public long getMaxQueueLatencyMs() {
+            return maxQueueLatencyMs.get();
+        }
+
+        public void reset() {
+            scheduled.set(0);
+            executed.set(0);
+            cancelled.set(0);
+            missedDeadlines.set(0);
+            totalQueueLatencyMs.set(0);
+            maxQueueLatencyMs.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "scheduled = %d executed = %d cancelled = %d missed = %d avgLatency = %s maxLatency = %s",
+                    getScheduledCount(), getExecutedCount(), getCancelledCount(), getMissedDeadlinesCount(),
+                    Utils.humanReadableTimeInterval(getAverageQueueLatencyMs()), Utils.humanReadableTimeInterval(getMaxQueueLatencyMs()));
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives frame swaps of all {@link FrameSequenceDrawable} from single {@link Choreographer.FrameCallback}.
+ * <p>
+ * Drawables request swap at some uptime, at every vsync all due swaps are invalidated in one pass,
+ * before view traversal of the same frame. Callback is posted only for vsync of earliest pending swap.
+ * <p>
+ * Vsync interval is derived from refresh rate of default display once {@link #attach(Context)} is called, 60Hz is assumed till then.
+ */
+public class FrameClock implements Choreographer.FrameCallback {
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    /**
+     * Lower rates are not real display refresh rates, some devices report 0.
+     */
+    private static final float MIN_REFRESH_RATE = 20;
+
+    private static FrameClock instance;
+
+    public static synchronized FrameClock get() {
+        if (instance == null) instance = new FrameClock();
+        return instance;
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable rescheduleRunnable = this::reschedule;
+    private final Metrics metrics = new Metrics();
+
+    // guarded by pendingSwaps
+    private final Map<FrameSequenceDrawable, Long> pendingSwaps = new HashMap<>();
+    private boolean rescheduleRequested;
+
+    // accessed only on main thread
+    private Choreographer choreographer;
+    private final List<FrameSequenceDrawable> dueDrawables = new ArrayList<>();
+    private long postedFrameTime = -1;
+    private boolean displayObserved;
+    private volatile long lastFrameTimeMs;
+    private volatile long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    private FrameClock() {
+    }
+
+    /**
+     * Reads refresh rate of default display and follows its changes, could be called many times.
+     */
+    public void attach(Context context) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> attach(context));
+            return;
+        }
+        if (displayObserved) return;
+        displayObserved = true;
+        Context applicationContext = context.getApplicationContext();
+        WindowManager windowManager = (WindowManager) applicationContext.getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager != null) updateRefreshRate(windowManager.getDefaultDisplay());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            observeDisplayChanges(applicationContext);
+        }
+    }
+
+    /**
+     * Requests {@link FrameSequenceDrawable#requestInvalidate()} at vsync closest to provided time, could be called from any thread.
+     *
+     * @param swapTime {@link SystemClock#uptimeMillis()} time of swap.
+     */
+    public void scheduleSwap(FrameSequenceDrawable drawable, long swapTime) {
+        synchronized (pendingSwaps) {
+            pendingSwaps.put(drawable, swapTime);
+            if (rescheduleRequested) return;
+            rescheduleRequested = true;
+        }
+        mainHandler.post(rescheduleRunnable);
+    }
+
+    public void cancel(FrameSequenceDrawable drawable) {
+        synchronized (pendingSwaps) {
+            pendingSwaps.remove(drawable);
+        }
+    }
+
+    /**
+     * @return Returns time of current vsync if called during its processing on main thread, current uptime otherwise.
+     */
+    public long getFrameTimeMs() {
+        long now = SystemClock.uptimeMillis();
+        long frameTime = lastFrameTimeMs;
+        return now - frameTime < getFrameIntervalMs() ? frameTime : now;
+    }
+
+    /**
+     * @return Returns time between vsyncs of default display.
+     */
+    public long getFrameIntervalMs() {
+        return TimeUnit.NANOSECONDS.toMillis(frameIntervalNanos);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        long frameTime = TimeUnit.NANOSECONDS.toMillis(frameTimeNanos);
+        long frameInterval = getFrameIntervalMs();
+        lastFrameTimeMs = frameTime;
+        postedFrameTime = -1;
+
+        synchronized (pendingSwaps) {
+            Iterator<Map.Entry<FrameSequenceDrawable, Long>> iterator = pendingSwaps.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<FrameSequenceDrawable, Long> entry = iterator.next();
+                // swap is shown at closest vsync
+                if (entry.getValue() <= frameTime + frameInterval / 2) {
+                    metrics.onSwap(frameTime - entry.getValue(), frameInterval);
+                    dueDrawables.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        for (FrameSequenceDrawable drawable : dueDrawables) {
+            drawable.requestInvalidate();
+        }
+        metrics.onFrame(dueDrawables.size());
+        dueDrawables.clear();
+        reschedule();
+    }
+
+    private void reschedule() {
+        long earliest = Long.MAX_VALUE;
+        synchronized (pendingSwaps) {
+            rescheduleRequested = false;
+            for (Long swapTime : pendingSwaps.values()) {
+                earliest = Math.min(earliest, swapTime);
+            }
+        }
+        if (choreographer == null) choreographer = Choreographer.getInstance();
+        if (earliest == Long.MAX_VALUE) {
+            if (postedFrameTime != -1) {
+                choreographer.removeFrameCallback(this);
+                postedFrameTime = -1;
+            }
+            return;
+        }
+        if (postedFrameTime != -1 && postedFrameTime <= earliest) return;
+        choreographer.removeFrameCallback(this);
+        postedFrameTime = earliest;
+        long delay = earliest - SystemClock.uptimeMillis() - getFrameIntervalMs();
+        if (delay > 0) {
+            choreographer.postFrameCallbackDelayed(this, delay);
+        } else {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void observeDisplayChanges(Context context) {
+        DisplayManager displayManager = (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+        if (displayManager == null) return;
+        displayManager.registerDisplayListener(new DisplayManager.DisplayListener() {
+            @Override
+            public void onDisplayAdded(int displayId) {
+            }
+
+            @Override
+            public void onDisplayRemoved(int displayId) {
+            }
+
+            @Override
+            public void onDisplayChanged(int displayId) {
+                // refresh rate could be switched by system, for example to save power
+                if (displayId == Display.DEFAULT_DISPLAY) updateRefreshRate(displayManager.getDisplay(displayId));
+            }
+        }, mainHandler);
+    }
+
+    private void updateRefreshRate(Display display) {
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        if (refreshRate < MIN_REFRESH_RATE) return;
+        frameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refreshRate);
+    }
+
+    /**
+     * Lateness is time between vsync that shown frame and requested swap time, negative if frame was shown up to half of vsync earlier.
+     * Frame is late if it was shown at least one vsync after requested time.
+     */
+    public static class Metrics {
+        private final AtomicLong frames = new AtomicLong();
+        private final AtomicLong swaps = new AtomicLong();
+        private final AtomicLong lateSwaps = new AtomicLong();
+        private final AtomicLong totalAbsLatenessMs = new AtomicLong();
+        private final AtomicLong maxLatenessMs = new AtomicLong();
+
+        private void onSwap(long latenessMs, long frameIntervalMs) {
+            swaps.incrementAndGet();
+            totalAbsLatenessMs.addAndGet(Math.abs(latenessMs));
+            if (latenessMs >= frameIntervalMs) lateSwaps.incrementAndGet();
+            long max;
+            while (latenessMs > (max = maxLatenessMs.get()) && !maxLatenessMs.compareAndSet(max, latenessMs)) ;
+        }
+
+        private void onFrame(int swapsCount) {
+            if (swapsCount > 0) frames.incrementAndGet();
+        }
+
+        /**
+         * @return Returns count of vsyncs that swapped at least one drawable.
+         */
+        public long getFramesCount() {
+            return frames.get();
+        }
+
+        public long getSwapsCount() {
+            return swaps.get();
+        }
+
+        public long getLateSwapsCount() {
+            return lateSwaps.get();
+        }
+
+        /**
+         * @return Returns average absolute difference between vsync and requested swap time.
+         */
+        public long getAverageJitterMs() {
+            long count = swaps.get();
+            return count == 0 ? 0 : totalAbsLatenessMs.get() / count;
+        }
+
+        public long getMaxLatenessMs() {
+            return maxLatenessMs.get();
+        }
+
+        public void reset() {
+            frames.set(0);
+            swaps.set(0);
+            lateSwaps.set(0);
+            totalAbsLatenessMs.set(0);
+            maxLatenessMs.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "frames = %d swaps = %d late = %d avgJitter = %dms maxLateness = %dms",
+                    getFramesCount(), getSwapsCount(), getLateSwapsCount(), getAverageJitterMs(), getMaxLatenessMs());
+        }
+    }
+}
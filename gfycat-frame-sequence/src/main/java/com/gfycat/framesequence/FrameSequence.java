@@ -17,6 +17,7 @@
 package com.gfycat.framesequence;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 
 /**
  * Provider for frames for FrameSequenceDrawable.
@@ -41,6 +42,20 @@ public interface FrameSequence {
      */
     void drawFrame(int frame, Bitmap bitmap);
 
+    /**
+     * @return Returns true if {@link #drawFrame(int, Bitmap)} could draw to bitmap of provided config directly,
+     * otherwise frames are drawn to ARGB_8888 bitmap and converted. Native decoders render only to ARGB_8888.
+     */
+    default boolean canDrawTo(Bitmap.Config config) {
+        return config == Bitmap.Config.ARGB_8888;
+    }
+
+    /**
+     * @param frame   - that is drawn right after previous one.
+     * @param outRect - receives area of canvas, in sequence coordinates, that could be changed by drawing of frame.
+     */
+    void getDirtyRect(int frame, Rect outRect);
+
     /**
      * @return with of frame sequence.
      */
@@ -63,6 +78,7 @@ public interface FrameSequence {
 
     /**
      * @return true if is opaque, false otherwise.
+     * Sequence could turn from opaque to translucent when translucent frame is found during decoding, but never back.
      */
     boolean isOpaque();
 
@@ -38,16 +38,32 @@ public class FrameSequenceConfiguration {
     }
 
     private static final long DEFAULT_MIN_TIME_TO_RENDER_NEXT_FRAME = 40; //ms
+    private static final int DEFAULT_BITMAP_POOL_MEMORY_FRACTION = 16;
+    private static final int DEFAULT_MEMORY_BUDGET_FRACTION = 4;
     private static FrameSequenceConfiguration INSTANCE;
 
     private final LogLevel logLevel;
     private final long minTimeToRenderNextFrame;
     private final ExecutorService decodingExecutorService;
-
-    private FrameSequenceConfiguration(long minTimeToRenderNextFrame, ExecutorService decodingExecutor, LogLevel logLevel) {
+    private final DecodeScheduler decodeScheduler;
+    private final FrameSequenceDrawable.BitmapProvider bitmapProvider;
+    private final BitmapPool bitmapPool;
+    private final FrameSequenceRegistry frameSequenceRegistry = new FrameSequenceRegistry();
+    private final FrameSequenceMemoryGovernor memoryGovernor;
+    private final float maxRenderDensity;
+    private final boolean opaqueFramesInRgb565;
+
+    private FrameSequenceConfiguration(long minTimeToRenderNextFrame, ExecutorService decodingExecutor, LogLevel logLevel, long bitmapPoolSize, float maxRenderDensity, boolean opaqueFramesInRgb565, long memoryBudget) {
         this.minTimeToRenderNextFrame = ((minTimeToRenderNextFrame == -1) ? DEFAULT_MIN_TIME_TO_RENDER_NEXT_FRAME : minTimeToRenderNextFrame);
         this.decodingExecutorService = ((decodingExecutor != null) ? decodingExecutor : getDefaultDecodingExecutor());
+        this.decodeScheduler = new DecodeScheduler(decodingExecutorService);
         this.logLevel = ((logLevel != null) ? logLevel : LogLevel.NONE);
+        long poolSize = ((bitmapPoolSize == -1) ? Runtime.getRuntime().maxMemory() / DEFAULT_BITMAP_POOL_MEMORY_FRACTION : bitmapPoolSize);
+        this.bitmapPool = poolSize > 0 ? new BitmapPool(poolSize) : null;
+        this.bitmapProvider = bitmapPool != null ? bitmapPool : FrameSequenceDrawable.sAllocatingBitmapProvider;
+        this.maxRenderDensity = maxRenderDensity;
+        this.opaqueFramesInRgb565 = opaqueFramesInRgb565;
+        this.memoryGovernor = new FrameSequenceMemoryGovernor((memoryBudget == -1) ? Runtime.getRuntime().maxMemory() / DEFAULT_MEMORY_BUDGET_FRACTION : memoryBudget);
     }
 
     public static synchronized void init(FrameSequenceConfiguration configuration) {
@@ -79,10 +95,59 @@ public class FrameSequenceConfiguration {
         return decodingExecutorService;
     }
 
+    /**
+     * @return Returns scheduler that orders decoding of all drawables on decoding executor.
+     */
+    public DecodeScheduler getDecodeScheduler() {
+        return decodeScheduler;
+    }
+
     public long getMinTimeToRenderNextFrame() {
         return minTimeToRenderNextFrame;
     }
 
+    /**
+     * @return Returns {@link FrameSequenceDrawable.BitmapProvider} shared by all drawables that were created without explicit provider.
+     */
+    public FrameSequenceDrawable.BitmapProvider getBitmapProvider() {
+        return bitmapProvider;
+    }
+
+    /**
+     * @return Returns max density of rendered frames relative to mdpi, 0 if frames are rendered with display density.
+     */
+    public float getMaxRenderDensity() {
+        return maxRenderDensity;
+    }
+
+    /**
+     * @return Returns true if frames of opaque sequences are presented in {@link android.graphics.Bitmap.Config#RGB_565}.
+     */
+    public boolean isOpaqueFramesInRgb565() {
+        return opaqueFramesInRgb565;
+    }
+
+    /**
+     * @return Returns governor that keeps memory of all drawables in budget.
+     */
+    public FrameSequenceMemoryGovernor getMemoryGovernor() {
+        return memoryGovernor;
+    }
+
+    /**
+     * @return Returns registry to share loaded frame sequences between drawables.
+     */
+    public FrameSequenceRegistry getFrameSequenceRegistry() {
+        return frameSequenceRegistry;
+    }
+
+    /**
+     * @return Returns shared {@link BitmapPool} or null if pooling is disabled.
+     */
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
     private static ExecutorService getDefaultDecodingExecutor() {
         int threadsCount = getDecodingExecutorThreadsCount();
         return newFixedThreadPool(threadsCount, new ThreadFactory() {
@@ -120,6 +185,10 @@ public class FrameSequenceConfiguration {
         private LogLevel logLevel;
         private long minTimeToRenderNextFrame = -1;
         private ExecutorService decodingExecutor;
+        private long bitmapPoolSize = -1;
+        private float maxRenderDensity;
+        private boolean opaqueFramesInRgb565 = true;
+        private long memoryBudget = -1;
 
         public Builder setLogLevel(LogLevel logLevel) {
             this.logLevel = logLevel;
@@ -136,8 +205,44 @@ public class FrameSequenceConfiguration {
             return this;
         }
 
+        /**
+         * Max size in bytes of bitmaps kept for reuse between drawables, 0 disables pooling.
+         * By default 1/16 of max heap size is used.
+         */
+        public Builder setBitmapPoolSize(long bitmapPoolSize) {
+            this.bitmapPoolSize = bitmapPoolSize;
+            return this;
+        }
+
+        /**
+         * Caps quality of frames rendered by FrameSequenceView, for example 2 means that on xxhdpi display frames are decoded at xhdpi size and scaled up.
+         * By default frames are decoded at display density.
+         */
+        public Builder setMaxRenderDensity(float maxRenderDensity) {
+            this.maxRenderDensity = maxRenderDensity;
+            return this;
+        }
+
+        /**
+         * Frames of opaque sequences are presented in RGB_565 bitmaps by default, that halves memory of frame buffers.
+         * Pass false to always present frames in ARGB_8888.
+         */
+        public Builder setOpaqueFramesInRgb565(boolean opaqueFramesInRgb565) {
+            this.opaqueFramesInRgb565 = opaqueFramesInRgb565;
+            return this;
+        }
+
+        /**
+         * Max size in bytes of encoded sequences and decoded bitmaps of all live drawables, 0 disables limit.
+         * By default 1/4 of max heap size is used.
+         */
+        public Builder setMemoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
         public FrameSequenceConfiguration build() {
-            return new FrameSequenceConfiguration(minTimeToRenderNextFrame, decodingExecutor, logLevel);
+            return new FrameSequenceConfiguration(minTimeToRenderNextFrame, decodingExecutor, logLevel, bitmapPoolSize, maxRenderDensity, opaqueFramesInRgb565, memoryBudget);
         }
 
     }
@@ -21,14 +21,16 @@ import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.graphics.Shader;
 import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
-import android.os.Handler;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -37,7 +39,6 @@ import com.gfycat.common.EPS;
 import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Utils;
 
-import java.nio.ByteBuffer;
 
 public class FrameSequenceDrawable extends Drawable implements Animatable {
 
@@ -52,21 +53,36 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     private static final long MIN_DELAY_MS = 16;
     private static final long DEFAULT_DELAY_MS = 100;
 
-    private static Handler uiHandler;
 
-
-    private SerialExecutorService decodingExecutor;
+    private DecodeScheduler.Task decodeTask;
+    private int decodePriority = DecodeScheduler.PRIORITY_NORMAL;
     private LoopListener loopListener;
+    private MemoryPressureListener memoryPressureListener;
+    private volatile float mRenderScaleLimit = 1f;
+    private volatile float mRequestedRenderScale = 1f;
+    /**
+     * Frames that would be displayed sooner than this interval after previous one are dropped, if strategy allows dropping.
+     */
+    private volatile long mMinFrameIntervalMs;
 
     public interface LoopListener {
         void onLoop(int count);
     }
 
-    interface BitmapProvider {
+    /**
+     * Called on main thread by {@link FrameSequenceMemoryGovernor} when drawable should be destroyed to keep memory budget,
+     * for example replaced by poster until playback is requested again.
+     */
+    public interface MemoryPressureListener {
+        void onMemoryReleaseRequested(FrameSequenceDrawable drawable);
+    }
+
+    public interface BitmapProvider {
         /**
-         * Called by FrameSequenceDrawable to aquire an 8888 Bitmap with minimum dimensions.
+         * Called by FrameSequenceDrawable to aquire a Bitmap with minimum dimensions and provided config,
+         * {@link Bitmap.Config#ARGB_8888} or {@link Bitmap.Config#RGB_565} for opaque sequences.
          */
-        Bitmap acquireBitmap(int minWidth, int minHeight);
+        Bitmap acquireBitmap(int minWidth, int minHeight, Bitmap.Config config);
 
         /**
          * Called by FrameSequenceDrawable to release a Bitmap it no longer needs. The Bitmap
@@ -77,10 +93,10 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         void releaseBitmap(Bitmap bitmap);
     }
 
-    private static BitmapProvider sAllocatingBitmapProvider = new BitmapProvider() {
+    static final BitmapProvider sAllocatingBitmapProvider = new BitmapProvider() {
         @Override
-        public Bitmap acquireBitmap(int minWidth, int minHeight) {
-            return Bitmap.createBitmap(minWidth, minHeight, Bitmap.Config.ARGB_8888);
+        public Bitmap acquireBitmap(int minWidth, int minHeight, Bitmap.Config config) {
+            return Bitmap.createBitmap(minWidth, minHeight, config);
         }
 
         @Override
@@ -91,6 +107,7 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     private Paint debugPaint;
 
     private final FrameSequence mFrameSequence;
+    private final DecodeCostModel mDecodeCostModel;
     private final DropFramesStrategy mDropFramesStrategy;
 
     private final Paint mPaint;
@@ -107,7 +124,29 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     private volatile boolean mDestroyed = false;
     private Bitmap mFrontBitmap;
     private Bitmap mBackBitmap;
-    private ByteBuffer bitmapBuffer;
+    /**
+     * Used only for sequences that may have blending or can not draw to presentation config, and is touched only on decoding thread.
+     * Keeps decoder canvas state between frames in ARGB_8888, every decoded frame is copied to mBackBitmap,
+     * so front and back bitmaps could be just exchanged on UI thread.
+     */
+    private Bitmap mCompositeBitmap;
+    private Canvas mCompositeCopyCanvas;
+    private Paint mCompositeCopyPaint;
+    /**
+     * Dirty rect tracking, touched only on decoding thread.
+     * mUpToDateBitmap has the same content as mCompositeBitmap,
+     * mStaleBitmap differs from mCompositeBitmap only in mStaleRect, any other bitmap is copied fully.
+     */
+    private int mLastCompositeFrame = -1;
+    private Bitmap mUpToDateBitmap;
+    private Bitmap mStaleBitmap;
+    private final Rect mStaleRect = new Rect();
+    private final Rect mDirtyRect = new Rect();
+    private final Rect mCopyRect = new Rect();
+    /**
+     * Config of front and back bitmaps, RGB_565 for opaque sequences if enabled in {@link FrameSequenceConfiguration}.
+     */
+    private volatile Bitmap.Config mPresentationConfig;
 
     private static final int STATE_SCHEDULED = 1;
     private static final int STATE_DECODING = 2;
@@ -123,7 +162,13 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     private int mPreviousRenderedFrame;
     private int mNextFrameToDecode;
 
-    private Runnable invalidateRequest;
+    /**
+     * Size of bitmaps that decoding thread should produce, bitmaps are resized by decoding thread before next frame.
+     */
+    private volatile int mRenderWidth;
+    private volatile int mRenderHeight;
+    private final Matrix mShaderMatrix = new Matrix();
+
     /**
      * Runs on decoding thread, only modifies mBackBitmap's pixels
      */
@@ -145,6 +190,7 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
 
 
             long timeToNextFrame = 0;
+            int requestedFrame = nextFrame;
 
             /**
              * Check do we need to skip some frames.
@@ -159,7 +205,23 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
                 nextFrame = newNextFrame;
             }
 
-            mFrameSequence.drawFrame(nextFrame, bitmap);
+            int renderWidth = mRenderWidth;
+            int renderHeight = mRenderHeight;
+            if (bitmap.getWidth() != renderWidth || bitmap.getHeight() != renderHeight || bitmap.getConfig() != mPresentationConfig) {
+                bitmap = resizeBitmaps(renderWidth, renderHeight, mPresentationConfig, nextFrame);
+            }
+
+            long decodeStart = SystemClock.uptimeMillis();
+            drawFrame(nextFrame, bitmap);
+            if (fallbackToTranslucentIfNeeded(bitmap)) {
+                bitmap = resizeBitmaps(renderWidth, renderHeight, mPresentationConfig, nextFrame);
+                if (mCompositeBitmap != null) {
+                    copyComposite(bitmap);
+                } else {
+                    mFrameSequence.drawFrame(nextFrame, bitmap);
+                }
+            }
+            mDecodeCostModel.record(nextFrame, nextFrame == requestedFrame, SystemClock.uptimeMillis() - decodeStart);
 
             if (timeToNextFrame < MIN_DELAY_MS) {
                 timeToNextFrame = DEFAULT_DELAY_MS;
@@ -167,10 +229,13 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
 
             boolean schedule = false;
             Bitmap bitmapToRelease = null;
+            Bitmap compositeToRelease = null;
             synchronized (mLock) {
                 if (mDestroyed) {
                     bitmapToRelease = mBackBitmap;
                     mBackBitmap = null;
+                    compositeToRelease = mCompositeBitmap;
+                    mCompositeBitmap = null;
                 } else if (mNextFrameToDecode >= 0 && mState == STATE_DECODING) {
                     schedule = true;
 
@@ -198,9 +263,213 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
                 // drawable thread - drawable is likely detached, so schedule is noop.
                 mBitmapProvider.releaseBitmap(bitmapToRelease);
             }
+            if (compositeToRelease != null) {
+                mBitmapProvider.releaseBitmap(compositeToRelease);
+            }
         }
     };
 
+    /**
+     * Draws frame to provided bitmap, through composite bitmap if sequence may have blending.
+     * Only area changed since provided bitmap was last updated is copied from composite.
+     * Should be called only on decoding thread or in constructor.
+     */
+    private void drawFrame(int frame, Bitmap bitmap) {
+        if (mCompositeBitmap == null) {
+            mFrameSequence.drawFrame(frame, bitmap);
+            return;
+        }
+        mFrameSequence.drawFrame(frame, mCompositeBitmap);
+
+        int width = mCompositeBitmap.getWidth();
+        int height = mCompositeBitmap.getHeight();
+        boolean sequential = mLastCompositeFrame >= 0 && frame == (mLastCompositeFrame + 1) % mFrameSequence.getFrameCount();
+        mLastCompositeFrame = frame;
+        if (sequential) {
+            mFrameSequence.getDirtyRect(frame, mDirtyRect);
+            toCompositeCoordinates(mDirtyRect, width, height);
+        } else {
+            mDirtyRect.set(0, 0, width, height);
+        }
+
+        if (bitmap == mUpToDateBitmap) {
+            mCopyRect.set(mDirtyRect);
+            mStaleRect.union(mDirtyRect);
+        } else if (bitmap == mStaleBitmap) {
+            mCopyRect.set(mStaleRect);
+            mCopyRect.union(mDirtyRect);
+            mStaleBitmap = mUpToDateBitmap;
+            mStaleRect.set(mDirtyRect);
+        } else {
+            mCopyRect.set(0, 0, width, height);
+            mStaleBitmap = mUpToDateBitmap;
+            mStaleRect.set(mDirtyRect);
+        }
+        mUpToDateBitmap = bitmap;
+
+        if (mCopyRect.isEmpty()) return;
+        mCompositeCopyCanvas.setBitmap(bitmap);
+        mCompositeCopyCanvas.drawBitmap(mCompositeBitmap, mCopyRect, mCopyRect, mCompositeCopyPaint);
+        mCompositeCopyCanvas.setBitmap(null);
+    }
+
+    /**
+     * Copies whole composite to provided bitmap, that is the only up to date bitmap after that.
+     */
+    private void copyComposite(Bitmap bitmap) {
+        mCompositeCopyCanvas.setBitmap(bitmap);
+        mCompositeCopyCanvas.drawBitmap(mCompositeBitmap, 0, 0, mCompositeCopyPaint);
+        mCompositeCopyCanvas.setBitmap(null);
+        mUpToDateBitmap = bitmap;
+        mStaleBitmap = null;
+    }
+
+    /**
+     * Scales rect from sequence to composite coordinates, rounding outwards as decoder could be off by one pixel when scaling.
+     */
+    private void toCompositeCoordinates(Rect rect, int width, int height) {
+        int sequenceWidth = mFrameSequence.getWidth();
+        int sequenceHeight = mFrameSequence.getHeight();
+        if (width != sequenceWidth || height != sequenceHeight) {
+            rect.set(rect.left * width / sequenceWidth - 1,
+                    rect.top * height / sequenceHeight - 1,
+                    (rect.right * width + sequenceWidth - 1) / sequenceWidth + 1,
+                    (rect.bottom * height + sequenceHeight - 1) / sequenceHeight + 1);
+        }
+        if (!rect.intersect(0, 0, width, height)) rect.setEmpty();
+    }
+
+    /**
+     * Sequence could report alpha only after some frames were decoded, in such case we should stop using RGB_565.
+     *
+     * @return Returns true if presentation config was changed to ARGB_8888.
+     */
+    private boolean fallbackToTranslucentIfNeeded(Bitmap bitmap) {
+        if (bitmap.getConfig() == Bitmap.Config.ARGB_8888 || mFrameSequence.isOpaque()) return false;
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "alpha detected, fallback to ARGB_8888 " + contextDetails);
+        mPresentationConfig = Bitmap.Config.ARGB_8888;
+        return true;
+    }
+
+    /**
+     * Replaces back and composite bitmaps with bitmaps of provided size and config.
+     * Front bitmap is replaced on next swap, and old one is resized on next decode.
+     * Should be called only on decoding thread.
+     *
+     * @return Returns new back bitmap.
+     */
+    private Bitmap resizeBitmaps(int width, int height, Bitmap.Config config, int nextFrame) {
+        Bitmap resized = acquireAndValidateBitmap(mBitmapProvider, width, height, config);
+        BitmapShader resizedShader = new BitmapShader(resized, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        Bitmap resizedComposite = null;
+        if (mCompositeBitmap != null && (mCompositeBitmap.getWidth() != width || mCompositeBitmap.getHeight() != height)) {
+            resizedComposite = acquireAndValidateBitmap(mBitmapProvider, width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        Bitmap bitmapToRelease;
+        Bitmap compositeToRelease = null;
+        synchronized (mLock) {
+            // if drawable was destroyed meanwhile, new bitmaps are released by decoding runnable
+            bitmapToRelease = mBackBitmap;
+            mBackBitmap = resized;
+            mBackBitmapShader = resizedShader;
+            if (resizedComposite != null) {
+                compositeToRelease = mCompositeBitmap;
+                mCompositeBitmap = resizedComposite;
+            }
+        }
+        // released bitmaps could be acquired again from pool, so stop tracking them
+        mUpToDateBitmap = null;
+        mStaleBitmap = null;
+        if (bitmapToRelease != null) mBitmapProvider.releaseBitmap(bitmapToRelease);
+        if (compositeToRelease != null) {
+            mBitmapProvider.releaseBitmap(compositeToRelease);
+            mLastCompositeFrame = -1;
+            // new composite has no canvas state, restore it starting from last keyframe
+            int keyFrame = Math.max(0, mFrameSequence.lastKeyFrameInRange(0, nextFrame));
+            for (int frame = keyFrame; frame < nextFrame; frame++) {
+                mFrameSequence.drawFrame(frame, mCompositeBitmap);
+            }
+        }
+
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "resizeBitmaps(" + width + ", " + height + ", " + config + ") " + contextDetails);
+        return resized;
+    }
+
+    /**
+     * Changes size of decoded frames without reloading of frame sequence, aspect ratio of sequence is preserved.
+     * New size is applied by decoding thread starting from next frame.
+     *
+     * @param scale of frame sequence size, in range (0, 1].
+     */
+    public void setRenderScale(float scale) {
+        mRequestedRenderScale = scale;
+        applyRenderScale();
+        FrameSequenceConfiguration.get().getMemoryGovernor().requestEnforce();
+    }
+
+    /**
+     * Caps render scale, used by {@link FrameSequenceMemoryGovernor} to lower resolution of off-focus drawables.
+     */
+    void setRenderScaleLimit(float limit) {
+        mRenderScaleLimit = Math.max(0, Math.min(1f, limit));
+        applyRenderScale();
+    }
+
+    float getRenderScaleLimit() {
+        return mRenderScaleLimit;
+    }
+
+    private void applyRenderScale() {
+        float scale = Math.max(0, Math.min(mRenderScaleLimit, Math.min(1f, mRequestedRenderScale)));
+        mRenderWidth = Math.max(1, Math.round(mFrameSequence.getWidth() * scale));
+        mRenderHeight = Math.max(1, Math.round(mFrameSequence.getHeight() * scale));
+    }
+
+    /**
+     * @return Returns size in bytes of front, back and composite bitmaps at current render size.
+     * Bitmaps are resized lazily by decoding thread, so actual size could differ till next decode.
+     */
+    public long getBufferBytes() {
+        if (mDestroyed) return 0;
+        long pixels = (long) mRenderWidth * mRenderHeight;
+        long result = 2 * pixels * (mPresentationConfig == Bitmap.Config.RGB_565 ? 2 : 4);
+        if (mCompositeCopyCanvas != null) result += pixels * 4;
+        return result;
+    }
+
+    public void setMemoryPressureListener(MemoryPressureListener memoryPressureListener) {
+        this.memoryPressureListener = memoryPressureListener;
+    }
+
+    /**
+     * @return Returns true if release was requested from {@link MemoryPressureListener}.
+     */
+    boolean requestMemoryRelease() {
+        MemoryPressureListener listener = memoryPressureListener;
+        if (listener == null) return false;
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "requestMemoryRelease() " + contextDetails);
+        listener.onMemoryReleaseRequested(this);
+        return true;
+    }
+
+    /**
+     * @return Returns width of decoded frames, could be smaller than {@link #getIntrinsicWidth()}.
+     */
+    public int getRenderWidth() {
+        return mRenderWidth;
+    }
+
+    /**
+     * @return Returns height of decoded frames, could be smaller than {@link #getIntrinsicHeight()}.
+     */
+    public int getRenderHeight() {
+        return mRenderHeight;
+    }
+
     /**
      * Returns nextFrame
      */
@@ -265,7 +534,9 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         long predictedNextFrameTime = mLastSwap + nextFrameDuration - SystemClock.uptimeMillis();
         int droppedFrames = 0;
 
-        while ((nextFrame != 0 || canDropFirstFrame()) && predictedNextFrameTime < FrameSequenceConfiguration.get().getMinTimeToRenderNextFrame()) {
+        long minFrameInterval = mMinFrameIntervalMs;
+        while ((nextFrame != 0 || canDropFirstFrame()) && droppedFrames < mFrameSequence.getFrameCount()
+                && (predictedNextFrameTime < mDecodeCostModel.predictTimeToDecode(nextFrame) || nextFrameDuration < minFrameInterval)) {
             // drop one frame
             droppedFrames++;
             nextFrame = (nextFrame + 1) % mFrameSequence.getFrameCount();
@@ -283,25 +554,18 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         return false;
     }
 
-    private void initUIHandler() {
-        if (uiHandler == null) {
-            uiHandler = new Handler();
-        }
-    }
-
     private void requestInvalidateThreadSafe() {
-        Runnable runnable = () -> scheduleSelf(invalidateRequest = this::requestInvalidate, mNextSwap);
-        if (uiHandler == null) runnable.run();
-        else uiHandler.post(runnable);
+        // swaps of all drawables are aligned to the same vsync
+        FrameClock.get().scheduleSwap(this, mNextSwap);
     }
 
     private static Bitmap acquireAndValidateBitmap(BitmapProvider bitmapProvider,
-                                                   int minWidth, int minHeight) {
-        Bitmap bitmap = bitmapProvider.acquireBitmap(minWidth, minHeight);
+                                                   int minWidth, int minHeight, Bitmap.Config config) {
+        Bitmap bitmap = bitmapProvider.acquireBitmap(minWidth, minHeight, config);
 
         if (bitmap.getWidth() < minWidth
                 || bitmap.getHeight() < minHeight
-                || bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+                || bitmap.getConfig() != config) {
             throw new IllegalArgumentException("Invalid bitmap provided");
         }
 
@@ -309,11 +573,11 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     }
 
     public FrameSequenceDrawable(FrameSequence frameSequence, DropFramesStrategy dropFramesStrategy, ContextDetails contextDetails) {
-        this(frameSequence, dropFramesStrategy, sAllocatingBitmapProvider, new Point(Integer.MAX_VALUE, Integer.MAX_VALUE), contextDetails);
+        this(frameSequence, dropFramesStrategy, FrameSequenceConfiguration.get().getBitmapProvider(), new Point(Integer.MAX_VALUE, Integer.MAX_VALUE), contextDetails);
     }
 
     public FrameSequenceDrawable(FrameSequence frameSequence, DropFramesStrategy dropFramesStrategy, Point renderSize, ContextDetails contextDetails) {
-        this(frameSequence, dropFramesStrategy, sAllocatingBitmapProvider, renderSize, contextDetails);
+        this(frameSequence, dropFramesStrategy, FrameSequenceConfiguration.get().getBitmapProvider(), renderSize, contextDetails);
     }
 
     public FrameSequenceDrawable(FrameSequence frameSequence, DropFramesStrategy dropFramesStrategy, BitmapProvider bitmapProvider, Point renderSize, ContextDetails contextDetails) {
@@ -324,6 +588,7 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
 
         this.contextDetails = contextDetails;
         mFrameSequence = frameSequence;
+        mDecodeCostModel = new DecodeCostModel(frameSequence.getFrameCount());
         mDropFramesStrategy = dropFramesStrategy;
         normalizeRendererSize(renderSize, frameSequence.getWidth(), frameSequence.getHeight());
 
@@ -331,13 +596,22 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         final int height = Math.min(frameSequence.getHeight(), renderSize.y);
 
         mBitmapProvider = bitmapProvider;
-        mFrontBitmap = acquireAndValidateBitmap(bitmapProvider, width, height);
-        mBackBitmap = acquireAndValidateBitmap(bitmapProvider, width, height);
-
-        if (frameSequence.mayHaveBlending())
-            bitmapBuffer = ByteBuffer.allocate(mFrontBitmap.getHeight() * mFrontBitmap.getRowBytes());
+        mPresentationConfig = FrameSequenceConfiguration.get().isOpaqueFramesInRgb565() && frameSequence.isOpaque() ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        mFrontBitmap = acquireAndValidateBitmap(bitmapProvider, width, height, mPresentationConfig);
+        mBackBitmap = acquireAndValidateBitmap(bitmapProvider, width, height, mPresentationConfig);
+
+        // native decoders render only to ARGB_8888, so their RGB_565 frames are converted from composite too
+        if (frameSequence.mayHaveBlending() || !frameSequence.canDrawTo(mPresentationConfig)) {
+            mCompositeBitmap = acquireAndValidateBitmap(bitmapProvider, width, height, Bitmap.Config.ARGB_8888);
+            mCompositeCopyCanvas = new Canvas();
+            mCompositeCopyPaint = new Paint();
+            mCompositeCopyPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+            mCompositeCopyPaint.setDither(mPresentationConfig == Bitmap.Config.RGB_565);
+        }
 
         mSrcRect = new Rect(0, 0, width, height);
+        mRenderWidth = width;
+        mRenderHeight = height;
         mPaint = new Paint();
         mPaint.setFilterBitmap(true);
 
@@ -349,8 +623,22 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         mLastSwap = 0;
 
         mNextFrameToDecode = -1;
-        mFrameSequence.drawFrame(0, mFrontBitmap);
+        drawFrame(0, mFrontBitmap);
+        if (fallbackToTranslucentIfNeeded(mFrontBitmap)) {
+            bitmapProvider.releaseBitmap(mFrontBitmap);
+            bitmapProvider.releaseBitmap(mBackBitmap);
+            mFrontBitmap = acquireAndValidateBitmap(bitmapProvider, width, height, mPresentationConfig);
+            mBackBitmap = acquireAndValidateBitmap(bitmapProvider, width, height, mPresentationConfig);
+            mFrontBitmapShader = new BitmapShader(mFrontBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            mBackBitmapShader = new BitmapShader(mBackBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            if (mCompositeBitmap != null) {
+                copyComposite(mFrontBitmap);
+            } else {
+                mFrameSequence.drawFrame(0, mFrontBitmap);
+            }
+        }
         initializeDecodingThread();
+        FrameSequenceConfiguration.get().getMemoryGovernor().register(this);
     }
 
     private void normalizeRendererSize(Point renderSize, int frameWidth, int frameHeight) {
@@ -371,7 +659,32 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     }
 
     private void initializeDecodingThread() {
-        decodingExecutor = new SerialExecutorService(FrameSequenceConfiguration.get().getDecodingExecutor());
+        decodeTask = FrameSequenceConfiguration.get().getDecodeScheduler().newTask(mDecodeRunnable);
+    }
+
+    /**
+     * @param priority one of {@link DecodeScheduler#PRIORITY_LOW}, {@link DecodeScheduler#PRIORITY_NORMAL}, {@link DecodeScheduler#PRIORITY_HIGH}.
+     *                 Frames of drawables with higher priority are decoded first, use it for focused or largest on-screen item.
+     */
+    public void setDecodePriority(int priority) {
+        if (decodePriority == priority) return;
+        decodePriority = priority;
+        decodeTask.setPriority(priority);
+        // resolution limit depends on priority
+        FrameSequenceConfiguration.get().getMemoryGovernor().requestEnforce();
+    }
+
+    public int getDecodePriority() {
+        return decodePriority;
+    }
+
+    /**
+     * Limits frame rate by dropping frames according to {@link DropFramesStrategy}, playback speed is not changed.
+     *
+     * @param maxFrameRate frames per second, 0 for no limit.
+     */
+    public void setMaxFrameRate(float maxFrameRate) {
+        mMinFrameIntervalMs = maxFrameRate > 0 ? (long) (1000 / maxFrameRate) : 0;
     }
 
     public void setLoopListener(LoopListener loopListener) {
@@ -415,6 +728,7 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
 
         Bitmap bitmapToReleaseA;
         Bitmap bitmapToReleaseB = null;
+        Bitmap compositeToRelease = null;
         synchronized (mLock) {
             checkDestroyedLocked();
 
@@ -424,18 +738,27 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
             if (mState != STATE_DECODING) {
                 bitmapToReleaseB = mBackBitmap;
                 mBackBitmap = null;
+                compositeToRelease = mCompositeBitmap;
+                mCompositeBitmap = null;
             }
 
             mDestroyed = true;
         }
+        decodeTask.cancel();
+        FrameClock.get().cancel(this);
 
         // For simplicity and safety, we don't destroy the state object here
         mBitmapProvider.releaseBitmap(bitmapToReleaseA);
         if (bitmapToReleaseB != null) {
             mBitmapProvider.releaseBitmap(bitmapToReleaseB);
         }
+        if (compositeToRelease != null) {
+            mBitmapProvider.releaseBitmap(compositeToRelease);
+        }
         mFrameSequence.release();
+        FrameSequenceConfiguration.get().getMemoryGovernor().unregister(this);
         loopListener = null;
+        memoryPressureListener = null;
     }
 
     @Override
@@ -452,8 +775,6 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     @Override
     public void draw(Canvas canvas) {
 
-        initUIHandler();
-
         synchronized (mLock) {
 
             if (FrameSequenceConfiguration.loggingEnabled())
@@ -470,31 +791,24 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
 
             if (isRunning() && mState == STATE_READY_TO_SWAP) {
                 // Because draw has occurred, the view system is guaranteed to no longer hold a
-                // reference to the old mFrontBitmap, so we now use it to produce the next frame
-                if (mFrameSequence.mayHaveBlending()) {
-                    // as we have 2 bitmaps one for presentation and one for decoding in background
-                    // they may have different content and to blend content properly
-                    // we should sync theirs content before sending to renderer
-                    mBackBitmap.copyPixelsToBuffer(bitmapBuffer);
-                    bitmapBuffer.rewind();
-                    mFrontBitmap.copyPixelsFromBuffer(bitmapBuffer);
-                    bitmapBuffer.rewind();
-                } else {
-                    Bitmap tmp = mBackBitmap;
-                    mBackBitmap = mFrontBitmap;
-                    mFrontBitmap = tmp;
-                }
+                // reference to the old mFrontBitmap, so we now use it to produce the next frame.
+                // Blending state is kept in mCompositeBitmap on decoding thread, so just exchange bitmaps.
+                Bitmap tmp = mBackBitmap;
+                mBackBitmap = mFrontBitmap;
+                mFrontBitmap = tmp;
 
                 BitmapShader tmpShader = mBackBitmapShader;
                 mBackBitmapShader = mFrontBitmapShader;
                 mFrontBitmapShader = tmpShader;
 
+                // vsync time instead of draw time, so next frames are not shifted by traversal duration
+                long swapTime = FrameClock.get().getFrameTimeMs();
                 if (mLastSwap > 0 && mNextSwap > 0) {
-                    mSwapDelay = SystemClock.uptimeMillis() - mNextSwap;
+                    mSwapDelay = swapTime - mNextSwap;
                     if (fpsDebugger != null) fpsDebugger.addFrame(mSwapDelay);
                 }
 
-                mLastSwap = SystemClock.uptimeMillis();
+                mLastSwap = swapTime;
 
                 if (FrameSequenceConfiguration.loggingEnabled()) {
                     Log.d(LOG_TAG, "    swap at " + Utils.humanReadableTimeSmall(mLastSwap) + " " +
@@ -519,11 +833,16 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
             }
         }
 
+        // front bitmap could be smaller or bigger than previous one after render size change
+        mSrcRect.set(0, 0, mFrontBitmap.getWidth(), mFrontBitmap.getHeight());
+
         if (mCircleMaskEnabled) {
             Rect bounds = getBounds();
-            mPaint.setShader(mFrontBitmapShader);
             float width = bounds.width();
             float height = bounds.height();
+            mShaderMatrix.setScale(width / mSrcRect.width(), height / mSrcRect.height());
+            mFrontBitmapShader.setLocalMatrix(mShaderMatrix);
+            mPaint.setShader(mFrontBitmapShader);
             float circleRadius = (Math.min(width, height)) / 2f;
             canvas.drawCircle(width / 2f, height / 2f, circleRadius, mPaint);
         } else {
@@ -556,7 +875,9 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     private void scheduleDecodeLocked() {
         mState = STATE_SCHEDULED;
         mNextFrameToDecode = (mNextFrameToDecode + 1) % mFrameSequence.getFrameCount();
-        decodingExecutor.submit(mDecodeRunnable);
+        // same as mNextSwap computed by decoding, first frame is needed as soon as possible
+        long deadline = mLastSwap > 0 ? mLastSwap + mFrameSequence.getFrameDuration(mNextFrameToDecode) : SystemClock.uptimeMillis();
+        decodeTask.schedule(deadline);
     }
 
     public void requestInvalidate() {
@@ -595,7 +916,7 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
     public void stop() {
         if (FrameSequenceConfiguration.loggingEnabled()) Log.d(LOG_TAG, "stop() " + contextDetails);
         if (isRunning()) {
-            unscheduleSelf(invalidateRequest);
+            unscheduleSelf(null);
         }
     }
 
@@ -612,6 +933,8 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
             mNextFrameToDecode = -1;
             mState = 0;
         }
+        decodeTask.cancel();
+        FrameClock.get().cancel(this);
         super.unscheduleSelf(what);
     }
 
@@ -633,6 +956,13 @@ public class FrameSequenceDrawable extends Drawable implements Animatable {
         return mCurrentLoop;
     }
 
+    /**
+     * @return Returns measured average time in milliseconds to decode one frame of this sequence, -1 if nothing was decoded yet.
+     */
+    public float getAverageDecodeCostMs() {
+        return mDecodeCostModel.getSequenceCostMs();
+    }
+
     // drawing properties
 
     @Override
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.gfycat.common.utils.Utils;
+import com.gfycat.framesequence.view.FrameSequenceMemoryUsage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps memory of animated content in configured budget.
+ * <p>
+ * Memory is encoded sequences plus front, back and composite bitmaps of every live {@link FrameSequenceDrawable}.
+ * When budget is exceeded, off-focus drawables are downgraded on main thread, less important first:
+ * running drawables decode at lower resolution, stopped ones and ones that are already at min resolution are asked to fall back to poster
+ * through {@link FrameSequenceDrawable.MemoryPressureListener}.
+ * Drawables with {@link DecodeScheduler#PRIORITY_HIGH} are never downgraded, and their resolution is restored as soon as they get such priority.
+ * <p>
+ * While usage is under budget, resolution of downgraded drawables is restored step by step, more important first,
+ * for example when other drawables are released or memory pressure expires.
+ * <p>
+ * Budget is temporarily reduced on {@link ComponentCallbacks2#onTrimMemory(int)}.
+ */
+public class FrameSequenceMemoryGovernor implements ComponentCallbacks2 {
+
+    private static final String LOG_TAG = "FrameSequenceMemoryGovernor";
+
+    private static final float RENDER_SCALE_STEP = 0.5f;
+    private static final float MIN_RENDER_SCALE_LIMIT = 0.25f;
+    private static final long PRESSURE_DURATION_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final long budgetBytes;
+    private final Set<FrameSequenceDrawable> drawables = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable enforceRunnable = this::enforce;
+    private final Runnable pressureEndRunnable = this::requestEnforce;
+
+    // accessed only on main thread
+    private boolean callbacksRegistered;
+    private boolean enforceScheduled;
+
+    private volatile int budgetDivider = 1;
+    private volatile long pressureEndTime;
+    private volatile long resolutionDowngrades;
+    private volatile long resolutionRestores;
+    private volatile long posterDowngrades;
+    private volatile int lastTrimLevel;
+
+    /**
+     * @param budgetBytes max size of encoded sequences and decoded buffers, 0 means no limit.
+     */
+    public FrameSequenceMemoryGovernor(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Subscribes to {@link ComponentCallbacks2} of application, could be called many times.
+     */
+    public void attach(Context context) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> attach(context));
+            return;
+        }
+        if (callbacksRegistered) return;
+        callbacksRegistered = true;
+        context.getApplicationContext().registerComponentCallbacks(this);
+    }
+
+    void register(FrameSequenceDrawable drawable) {
+        synchronized (drawables) {
+            drawables.add(drawable);
+        }
+        requestEnforce();
+    }
+
+    void unregister(FrameSequenceDrawable drawable) {
+        synchronized (drawables) {
+            drawables.remove(drawable);
+        }
+        // released memory could be enough to restore others
+        requestEnforce();
+    }
+
+    /**
+     * Schedules budget check on main thread.
+     */
+    public void requestEnforce() {
+        if (budgetBytes <= 0) return;
+        mainHandler.post(() -> {
+            if (enforceScheduled) return;
+            enforceScheduled = true;
+            mainHandler.post(enforceRunnable);
+        });
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        lastTrimLevel = level;
+        BitmapPool pool = FrameSequenceConfiguration.get().getBitmapPool();
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            if (pool != null) pool.clear();
+            applyPressure(4);
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // nothing is visible, pooled bitmaps are useless till user returns
+            if (pool != null) pool.clear();
+        } else if (level == TRIM_MEMORY_RUNNING_LOW) {
+            if (pool != null) pool.trimToSize(pool.getMaxSizeBytes() / 2);
+            applyPressure(2);
+        } else if (level == TRIM_MEMORY_RUNNING_MODERATE) {
+            if (pool != null) pool.trimToSize(pool.getMaxSizeBytes() / 2);
+        }
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "onTrimMemory(" + level + ") " + dump());
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * @return Returns budget with applied memory pressure.
+     */
+    public long getEffectiveBudgetBytes() {
+        return SystemClock.uptimeMillis() > pressureEndTime ? budgetBytes : budgetBytes / budgetDivider;
+    }
+
+    public long getEncodedBytes() {
+        return FrameSequenceMemoryUsage.totalSize.get();
+    }
+
+    /**
+     * @return Returns size of bitmaps of live drawables at their current render size.
+     */
+    public long getBufferBytes() {
+        long result = 0;
+        for (FrameSequenceDrawable drawable : snapshot()) {
+            result += drawable.getBufferBytes();
+        }
+        return result;
+    }
+
+    public int getDrawablesCount() {
+        synchronized (drawables) {
+            return drawables.size();
+        }
+    }
+
+    public long getResolutionDowngradesCount() {
+        return resolutionDowngrades;
+    }
+
+    public long getPosterDowngradesCount() {
+        return posterDowngrades;
+    }
+
+    public long getResolutionRestoresCount() {
+        return resolutionRestores;
+    }
+
+    public String dump() {
+        return String.format(Locale.US, "FrameSequenceMemoryGovernor %d drawables, encoded = %s buffers = %s budget = %s of %s, downgrades resolution = %d poster = %d, restores = %d, last trim level = %d",
+                getDrawablesCount(), Utils.humanReadableByteCount(getEncodedBytes()), Utils.humanReadableByteCount(getBufferBytes()),
+                Utils.humanReadableByteCount(getEffectiveBudgetBytes()), Utils.humanReadableByteCount(budgetBytes),
+                resolutionDowngrades, posterDowngrades, resolutionRestores, lastTrimLevel);
+    }
+
+    private void applyPressure(int divider) {
+        if (budgetBytes <= 0) return;
+        budgetDivider = Math.max(divider, SystemClock.uptimeMillis() > pressureEndTime ? 1 : budgetDivider);
+        pressureEndTime = SystemClock.uptimeMillis() + PRESSURE_DURATION_MS;
+        requestEnforce();
+        // full budget is available again after pressure ends
+        mainHandler.removeCallbacks(pressureEndRunnable);
+        mainHandler.postDelayed(pressureEndRunnable, PRESSURE_DURATION_MS + 1);
+    }
+
+    private List<FrameSequenceDrawable> snapshot() {
+        synchronized (drawables) {
+            return new ArrayList<>(drawables);
+        }
+    }
+
+    private void enforce() {
+        enforceScheduled = false;
+        long budget = getEffectiveBudgetBytes();
+        if (budget <= 0) return;
+
+        List<FrameSequenceDrawable> candidates = snapshot();
+        // stopped first, then lower priority, then bigger buffers
+        Collections.sort(candidates, (lhs, rhs) -> {
+            if (lhs.isRunning() != rhs.isRunning()) return lhs.isRunning() ? 1 : -1;
+            if (lhs.getDecodePriority() != rhs.getDecodePriority())
+                return Integer.compare(lhs.getDecodePriority(), rhs.getDecodePriority());
+            return Long.compare(rhs.getBufferBytes(), lhs.getBufferBytes());
+        });
+
+        for (FrameSequenceDrawable drawable : candidates) {
+            if (drawable.getDecodePriority() >= DecodeScheduler.PRIORITY_HIGH && drawable.getRenderScaleLimit() < 1f) {
+                drawable.setRenderScaleLimit(1f);
+                resolutionRestores++;
+            }
+        }
+
+        long used = getEncodedBytes() + getBufferBytes();
+        if (used > budget) {
+            downgrade(candidates, budget, used);
+        } else {
+            restore(candidates, budget, used);
+        }
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "enforce() " + dump());
+    }
+
+    private void downgrade(List<FrameSequenceDrawable> candidates, long budget, long used) {
+        for (FrameSequenceDrawable drawable : candidates) {
+            if (used <= budget) break;
+            if (drawable.isDestroyed() || drawable.getDecodePriority() >= DecodeScheduler.PRIORITY_HIGH) continue;
+            long bytes = drawable.getBufferBytes();
+            float scale = drawable.getRenderWidth() / (float) drawable.getIntrinsicWidth();
+            if (drawable.isRunning() && scale > MIN_RENDER_SCALE_LIMIT) {
+                // buffers are resized on next decode
+                drawable.setRenderScaleLimit(Math.max(MIN_RENDER_SCALE_LIMIT, scale * RENDER_SCALE_STEP));
+                resolutionDowngrades++;
+                used -= bytes - drawable.getBufferBytes();
+            } else if (drawable.requestMemoryRelease()) {
+                posterDowngrades++;
+                used -= bytes;
+            }
+        }
+    }
+
+    /**
+     * Raises limits of downgraded drawables, more important first, while their buffers fit in budget.
+     */
+    private void restore(List<FrameSequenceDrawable> candidates, long budget, long used) {
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            FrameSequenceDrawable drawable = candidates.get(i);
+            if (drawable.isDestroyed()) continue;
+            float limit = drawable.getRenderScaleLimit();
+            while (limit < 1f) {
+                long bytes = drawable.getBufferBytes();
+                float raised = Math.min(1f, limit / RENDER_SCALE_STEP);
+                drawable.setRenderScaleLimit(raised);
+                long grown = drawable.getBufferBytes() - bytes;
+                if (used + grown > budget) {
+                    // less important drawables should not take memory that is not enough for this one
+                    drawable.setRenderScaleLimit(limit);
+                    return;
+                }
+                used += grown;
+                limit = raised;
+                resolutionRestores++;
+            }
+        }
+    }
+}
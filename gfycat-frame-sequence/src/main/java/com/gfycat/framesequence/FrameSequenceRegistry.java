@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.framesequence;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Single;
+
+/**
+ * Reference counted registry of loaded {@link FrameSequence}, so the same content shown in several places is loaded and kept in memory once.
+ * <p>
+ * Every subscriber to {@link #acquire(String, Single)} gets its own {@link FrameSequence} handle,
+ * underlying sequence is released when all handles are released and nobody waits for it.
+ * Decoded frames are not shared, every {@link FrameSequenceDrawable} decodes at its own size and pace.
+ */
+public class FrameSequenceRegistry {
+
+    private static final String LOG_TAG = "FrameSequenceRegistry";
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * @param key    unique content identifier, for example gfyId with media type.
+     * @param loader to load sequence if there is no loaded or loading sequence for provided key.
+     * @return Returns {@link Single} of shared sequence handle, {@link FrameSequence#release()} of the handle should be called when it is no longer needed.
+     */
+    public Single<FrameSequence> acquire(String key, Single<FrameSequence> loader) {
+        return Single.defer(() -> {
+            Entry entry = retain(key, loader);
+            AtomicBoolean leaseReleased = new AtomicBoolean();
+            AtomicBoolean handedOver = new AtomicBoolean();
+            return entry.sequence
+                    .map(sequence -> {
+                        handedOver.set(true);
+                        return (FrameSequence) new SharedFrameSequence(entry, sequence, leaseReleased);
+                    })
+                    .doOnError(throwable -> {
+                        if (leaseReleased.compareAndSet(false, true)) release(entry);
+                    })
+                    .doOnDispose(() -> {
+                        if (!handedOver.get() && leaseReleased.compareAndSet(false, true)) release(entry);
+                    });
+        });
+    }
+
+    /**
+     * @return Returns count of sequences that are loaded or being loaded.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry retain(String key, Single<FrameSequence> loader) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, loader);
+            entries.put(key, entry);
+        }
+        entry.references++;
+        if (FrameSequenceConfiguration.loggingEnabled())
+            Log.d(LOG_TAG, "retain(" + key + ") references = " + entry.references);
+        return entry;
+    }
+
+    private void release(Entry entry) {
+        FrameSequence toRelease = null;
+        synchronized (this) {
+            entry.references--;
+            if (FrameSequenceConfiguration.loggingEnabled())
+                Log.d(LOG_TAG, "release(" + entry.key + ") references = " + entry.references);
+            if (entry.references > 0) return;
+            if (entries.get(entry.key) == entry) entries.remove(entry.key);
+            toRelease = entry.loaded;
+            entry.loaded = null;
+        }
+        if (toRelease != null) toRelease.release();
+    }
+
+    private synchronized void onLoaded(Entry entry, FrameSequence sequence) {
+        if (entry.references > 0) {
+            entry.loaded = sequence;
+            return;
+        }
+        // every subscriber is gone while loading
+        sequence.release();
+    }
+
+    private synchronized void onFailed(Entry entry) {
+        // next subscriber should try to load again instead of receiving cached error
+        if (entries.get(entry.key) == entry) entries.remove(entry.key);
+    }
+
+    private class Entry {
+        private final String key;
+        private final Single<FrameSequence> sequence;
+
+        // guarded by FrameSequenceRegistry.this
+        private int references;
+        private FrameSequence loaded;
+
+        private Entry(String key, Single<FrameSequence> loader) {
+            this.key = key;
+            this.sequence = loader
+                    .doOnSuccess(loadedSequence -> onLoaded(this, loadedSequence))
+                    .doOnError(throwable -> onFailed(this))
+                    .cache();
+        }
+    }
+
+    /**
+     * Handle of shared sequence, releases only its own reference.
+     */
+    private class SharedFrameSequence implements FrameSequence {
+
+        private final Entry entry;
+        private final FrameSequence delegate;
+        private final AtomicBoolean released;
+
+        private SharedFrameSequence(Entry entry, FrameSequence delegate, AtomicBoolean released) {
+            this.entry = entry;
+            this.delegate = delegate;
+            this.released = released;
+        }
+
+        @Override
+        public boolean mayHaveBlending() {
+            return delegate.mayHaveBlending();
+        }
+
+        @Override
+        public long getFrameDuration(int frame) {
+            return delegate.getFrameDuration(frame);
+        }
+
+        @Override
+        public void drawFrame(int frame, Bitmap bitmap) {
+            delegate.drawFrame(frame, bitmap);
+        }
+
+        @Override
+        public boolean canDrawTo(Bitmap.Config config) {
+            return delegate.canDrawTo(config);
+        }
+
+        @Override
+        public void getDirtyRect(int frame, Rect outRect) {
+            delegate.getDirtyRect(frame, outRect);
+        }
+
+        @Override
+        public int getWidth() {
+            return delegate.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return delegate.getHeight();
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) FrameSequenceRegistry.this.release(entry);
+        }
+
+        @Override
+        protected void finalize() throws Throwable {
+            try {
+                release();
+            } finally {
+                super.finalize();
+            }
+        }
+
+        @Override
+        public int getFrameCount() {
+            return delegate.getFrameCount();
+        }
+
+        @Override
+        public boolean isOpaque() {
+            return delegate.isOpaque();
+        }
+
+        @Override
+        public int lastKeyFrameInRange(int start, int end) {
+            return delegate.lastKeyFrameInRange(start, end);
+        }
+    }
+}
@@ -21,7 +21,10 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Created by dekalo on 06.11.15.
+ * <p>
+ * Deprecation reason: frame sequences are decoded by {@link DecodeScheduler}, SDK does not use it anymore.
  */
+@Deprecated
 public class SerialExecutorService extends ConstrainedExecutorService {
 
     public SerialExecutorService(Executor executor) {
@@ -19,6 +19,7 @@ package com.gfycat.framesequence.view;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
+import android.graphics.Point;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
@@ -27,6 +28,9 @@ import com.gfycat.common.ContextDetails;
 import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Logging;
 import com.gfycat.common.utils.Sugar;
+import com.gfycat.framesequence.DecodeScheduler;
+import com.gfycat.framesequence.FrameClock;
+import com.gfycat.framesequence.FrameSequenceConfiguration;
 import com.gfycat.framesequence.FrameSequenceDrawable;
 import com.gfycat.framesequence.R;
 
@@ -52,6 +56,10 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
     private static final int MAX_START_LOADING_DELAY = 200;
     private static final int MIN_START_LOADING_DELAY = 50;
     private static final int MAX_COLOR_CHANNEL_VALUE = 255;
+    /**
+     * Render size is changed on re-layout only if scale differs more than this fraction.
+     */
+    private static final float RENDER_SCALE_THRESHOLD = 0.1f;
 
     private static final Random random = new Random();
 
@@ -73,6 +81,9 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
 
     private boolean shouldLoadPreview;
 
+    private int decodePriority = DecodeScheduler.PRIORITY_NORMAL;
+    private float maxFrameRate;
+
     private Disposable previewSubscription;
     private boolean attached;
 
@@ -102,6 +113,24 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         this.shouldLoadPreview = shouldLoadPreview;
     }
 
+    /**
+     * Frames of views with higher priority are decoded first, use {@link DecodeScheduler#PRIORITY_HIGH} for focused or largest on-screen item.
+     */
+    public void setDecodePriority(int decodePriority) {
+        this.decodePriority = decodePriority;
+        Sugar.doIfNotNull(frameSequenceDrawable, drawable -> drawable.setDecodePriority(decodePriority));
+    }
+
+    /**
+     * Limits frame rate of playback without changing its speed, use it for items out of focus.
+     *
+     * @param maxFrameRate frames per second, 0 for no limit.
+     */
+    public void setMaxFrameRate(float maxFrameRate) {
+        this.maxFrameRate = maxFrameRate;
+        Sugar.doIfNotNull(frameSequenceDrawable, drawable -> drawable.setMaxFrameRate(maxFrameRate));
+    }
+
     /**
      * Set a {@link FrameSequenceSource} object to display by {@link FrameSequenceView}.
      */
@@ -121,6 +150,10 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
     }
 
     private void startDataLoading() {
+        startDataLoading(shouldLoadPreview, shouldPlay);
+    }
+
+    private void startDataLoading(boolean loadPreview, boolean play) {
 
         Logging.d(LOG_TAG, "startDataLoading() ", contextDetails);
 
@@ -129,7 +162,7 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
 
         FrameSequenceSource source = currentSource;
 
-        if (shouldLoadPreview) {
+        if (loadPreview) {
             previewSubscription = source.loadPoster()
                     .delaySubscription(randomDelayTime(), TimeUnit.MILLISECONDS)
                     .subscribeOn(Schedulers.io())
@@ -139,7 +172,7 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
                             source::failedToGetPoster);
         }
 
-        if (shouldPlay) {
+        if (play) {
             playInternal();
         }
     }
@@ -156,6 +189,8 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         Logging.d(LOG_TAG, "onAttachedToWindow() ", contextDetails);
         attached = true;
         super.onAttachedToWindow();
+        FrameSequenceConfiguration.get().getMemoryGovernor().attach(getContext());
+        FrameClock.get().attach(getContext());
         restartIfPossible();
     }
 
@@ -219,17 +254,33 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
 
         releasePreview();
         frameSequenceDrawable = loadedFrameSequence;
+        frameSequenceDrawable.setDecodePriority(decodePriority);
+        frameSequenceDrawable.setMaxFrameRate(maxFrameRate);
+        updateRenderScale();
 
         boolean animate = !hasTransparency();
         changeDrawable(frameSequenceDrawable, animate);
 
         frameSequenceDrawable.setLoopListener(FrameSequenceView.this::onLoop);
+        frameSequenceDrawable.setMemoryPressureListener(this::onMemoryReleaseRequested);
         if (shouldPlay()) {
             frameSequenceDrawable.start();
             onStartAnimationListener.onStart();
         }
     }
 
+    /**
+     * Falls back to poster to keep memory budget, animation is loaded again on next {@link #play()}.
+     */
+    private void onMemoryReleaseRequested(FrameSequenceDrawable drawable) {
+        if (drawable != frameSequenceDrawable) return;
+        Logging.d(LOG_TAG, "onMemoryReleaseRequested() ", contextDetails);
+        internalRelease();
+        if (attached && currentSource != null) {
+            startDataLoading(true, false);
+        }
+    }
+
     private void onPreviewReceived(Drawable preview, boolean animation) {
         Logging.d(LOG_TAG, "onPreviewReceived() ", animation, " frameSequenceDrawable = ", frameSequenceDrawable, " ", contextDetails);
         if (frameSequenceDrawable == null) {
@@ -276,6 +327,20 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         pauseInternal();
     }
 
+    /**
+     * Pause animation playback and cancel loading of frame sequence if it is not loaded yet.
+     * <p>
+     * Use it when view is likely to leave screen soon, for example during fast fling. Poster stays on screen, next {@link #play()} loads frame sequence again.
+     */
+    public void suspend() {
+        Logging.d(LOG_TAG, "suspend() ", contextDetails);
+        pause();
+        if (frameSequenceDrawable == null) {
+            Sugar.doIfNotNull(frameSequenceDisposable, Disposable::dispose);
+            frameSequenceDisposable = null;
+        }
+    }
+
     private void pauseInternal() {
         Sugar.doIfNotNull(frameSequenceDrawable, FrameSequenceDrawable::stop);
     }
@@ -290,9 +355,13 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         FrameSequenceSource source = currentSource;
 
         if (frameSequenceDisposable == null && currentSource != null) {
+            // loaded sequence could be smaller than source, for example size restricted variant, so scale is computed from its own size
+            RenderArea renderArea = getRenderArea();
             frameSequenceDisposable = source.loadFrameSequence()
                     .delay(randomDelayTime(), TimeUnit.MILLISECONDS)
-                    .map(sequence -> new FrameSequenceDrawable(sequence, source.getDropFramesStrategy(), source.getContextDetails()))
+                    .map(sequence -> new FrameSequenceDrawable(sequence, source.getDropFramesStrategy(),
+                            getRenderSize(sequence.getWidth(), sequence.getHeight(), renderArea.computeRenderScale(sequence.getWidth(), sequence.getHeight())),
+                            source.getContextDetails()))
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
                     .retry((integer, throwable) -> throwable instanceof InterruptedIOException && frameSequenceDisposable != null && !frameSequenceDisposable.isDisposed())
@@ -302,6 +371,55 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         }
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateRenderScale();
+    }
+
+    /**
+     * Follows view size without reloading of frame sequence.
+     */
+    private void updateRenderScale() {
+        if (frameSequenceDrawable == null || frameSequenceDrawable.isDestroyed()) return;
+        int sequenceWidth = frameSequenceDrawable.getIntrinsicWidth();
+        float scale = computeRenderScale(sequenceWidth, frameSequenceDrawable.getIntrinsicHeight());
+        float currentScale = frameSequenceDrawable.getRenderWidth() / (float) sequenceWidth;
+        if (Math.abs(scale - currentScale) > currentScale * RENDER_SCALE_THRESHOLD) {
+            Logging.d(LOG_TAG, "updateRenderScale() ", currentScale, " -> ", scale, " ", contextDetails);
+            frameSequenceDrawable.setRenderScale(scale);
+        }
+    }
+
+    /**
+     * @return Returns scale of frame sequence that is enough to display it in current view size with current scale type, 1 if view is not measured yet.
+     */
+    private float computeRenderScale(int sequenceWidth, int sequenceHeight) {
+        return getRenderArea().computeRenderScale(sequenceWidth, sequenceHeight);
+    }
+
+    /**
+     * @return Returns snapshot of current view size and scale type, it could be used off main thread.
+     */
+    private RenderArea getRenderArea() {
+        float densityFactor = 1f;
+        float maxRenderDensity = FrameSequenceConfiguration.get().getMaxRenderDensity();
+        float density = getResources().getDisplayMetrics().density;
+        if (maxRenderDensity > 0 && density > maxRenderDensity) {
+            densityFactor = maxRenderDensity / density;
+        }
+        return new RenderArea(
+                getWidth() - getPaddingLeft() - getPaddingRight(),
+                getHeight() - getPaddingTop() - getPaddingBottom(),
+                getScaleType(),
+                densityFactor);
+    }
+
+    private static Point getRenderSize(int sequenceWidth, int sequenceHeight, float scale) {
+        if (scale >= 1f) return new Point(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        return new Point(Math.max(1, Math.round(sequenceWidth * scale)), Math.max(1, Math.round(sequenceHeight * scale)));
+    }
+
     private boolean hasTransparency() {
         return Color.alpha(currentSource.getAverageColorInt()) < MAX_COLOR_CHANNEL_VALUE;
     }
@@ -310,6 +428,45 @@ public class FrameSequenceView extends android.support.v7.widget.AppCompatImageV
         return MIN_START_LOADING_DELAY + random.nextInt(MAX_START_LOADING_DELAY);
     }
 
+    private static class RenderArea {
+
+        private final int width;
+        private final int height;
+        private final ScaleType scaleType;
+        private final float densityFactor;
+
+        private RenderArea(int width, int height, ScaleType scaleType, float densityFactor) {
+            this.width = width;
+            this.height = height;
+            this.scaleType = scaleType;
+            this.densityFactor = densityFactor;
+        }
+
+        private float computeRenderScale(int sequenceWidth, int sequenceHeight) {
+            if (width <= 0 || height <= 0 || sequenceWidth <= 0 || sequenceHeight <= 0) return 1f;
+
+            float scaleX = width / (float) sequenceWidth;
+            float scaleY = height / (float) sequenceHeight;
+            float scale;
+            switch (scaleType) {
+                case CENTER:
+                case MATRIX:
+                    // drawable is displayed in its intrinsic size
+                    return 1f;
+                case FIT_CENTER:
+                case FIT_START:
+                case FIT_END:
+                case CENTER_INSIDE:
+                    scale = Math.min(scaleX, scaleY);
+                    break;
+                default:
+                    scale = Math.max(scaleX, scaleY);
+                    break;
+            }
+            return Math.min(1f, scale * densityFactor);
+        }
+    }
+
     private class SingleNotificationListener implements OnStartAnimationListener {
 
         private OnStartAnimationListener real;
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import android.graphics.Bitmap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BitmapPoolTest {
+
+    private static final int SIZE = 10;
+    private static final int SIZE_BYTES = SIZE * SIZE * 4;
+
+    @Test
+    public void testReleasedBitmapIsReused() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 4);
+        Bitmap bitmap = newBitmap();
+
+        pool.releaseBitmap(bitmap);
+        Assert.assertEquals(SIZE_BYTES, pool.getSizeBytes());
+
+        Assert.assertSame(bitmap, pool.acquireBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+        Assert.assertEquals(0, pool.getSizeBytes());
+        Assert.assertTrue(pool.dump(), pool.dump().contains("hits = 1 misses = 0"));
+    }
+
+    @Test
+    public void testBitmapIsCreatedWhenPoolIsEmpty() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 4);
+
+        Bitmap bitmap = pool.acquireBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+
+        Assert.assertEquals(SIZE, bitmap.getWidth());
+        Assert.assertEquals(SIZE, bitmap.getHeight());
+        Assert.assertTrue(pool.dump(), pool.dump().contains("hits = 0 misses = 1"));
+    }
+
+    @Test
+    public void testExactMatchIsPreferred() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 16);
+        Bitmap larger = Bitmap.createBitmap(SIZE * 2, SIZE * 2, Bitmap.Config.ARGB_8888);
+        Bitmap exact = newBitmap();
+
+        pool.releaseBitmap(larger);
+        pool.releaseBitmap(exact);
+
+        Assert.assertSame(exact, pool.acquireBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+        Assert.assertFalse(larger.isRecycled());
+    }
+
+    @Test
+    public void testLeastRecentlyReleasedIsEvicted() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 2);
+        Bitmap first = newBitmap();
+        Bitmap second = newBitmap();
+        Bitmap third = newBitmap();
+
+        pool.releaseBitmap(first);
+        pool.releaseBitmap(second);
+        pool.releaseBitmap(third);
+
+        Assert.assertTrue(first.isRecycled());
+        Assert.assertFalse(second.isRecycled());
+        Assert.assertFalse(third.isRecycled());
+        Assert.assertEquals(SIZE_BYTES * 2, pool.getSizeBytes());
+    }
+
+    @Test
+    public void testBitmapLargerThanPoolIsNotKept() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES - 1);
+        Bitmap bitmap = newBitmap();
+
+        pool.releaseBitmap(bitmap);
+
+        Assert.assertEquals(0, pool.getSizeBytes());
+        Assert.assertFalse(bitmap.isRecycled());
+    }
+
+    @Test
+    public void testRecycledBitmapIsNotKept() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 4);
+        Bitmap bitmap = newBitmap();
+        bitmap.recycle();
+
+        pool.releaseBitmap(bitmap);
+        pool.releaseBitmap(null);
+
+        Assert.assertEquals(0, pool.getSizeBytes());
+    }
+
+    @Test
+    public void testTrimToSize() {
+        BitmapPool pool = new BitmapPool(SIZE_BYTES * 4);
+        Bitmap first = newBitmap();
+        Bitmap second = newBitmap();
+        pool.releaseBitmap(first);
+        pool.releaseBitmap(second);
+
+        pool.trimToSize(SIZE_BYTES);
+        Assert.assertTrue(first.isRecycled());
+        Assert.assertEquals(SIZE_BYTES, pool.getSizeBytes());
+
+        pool.clear();
+        Assert.assertTrue(second.isRecycled());
+        Assert.assertEquals(0, pool.getSizeBytes());
+    }
+
+    private static Bitmap newBitmap() {
+        return Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    }
+}
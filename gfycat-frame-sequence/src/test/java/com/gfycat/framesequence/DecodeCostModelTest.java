@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class DecodeCostModelTest {
+
+    @Test
+    public void testConfiguredMinimumUntilMeasured() {
+        DecodeCostModel model = new DecodeCostModel(3);
+
+        Assert.assertEquals(FrameSequenceConfiguration.get().getMinTimeToRenderNextFrame(), model.predictTimeToDecode(0));
+        Assert.assertTrue(model.getSequenceCostMs() < 0);
+    }
+
+    @Test
+    public void testFirstSampleWithSafetyFactor() {
+        DecodeCostModel model = new DecodeCostModel(3);
+
+        model.record(0, true, 10);
+
+        Assert.assertEquals(15, model.predictTimeToDecode(0));
+        // frames that were never decoded use sequence estimate
+        Assert.assertEquals(15, model.predictTimeToDecode(1));
+    }
+
+    @Test
+    public void testMovingAverage() {
+        DecodeCostModel model = new DecodeCostModel(1);
+
+        model.record(0, true, 10);
+        model.record(0, true, 50);
+
+        Assert.assertEquals(20f, model.getSequenceCostMs(), 0.001f);
+        Assert.assertEquals(30, model.predictTimeToDecode(0));
+    }
+
+    @Test
+    public void testFrameEstimateIsPreferred() {
+        DecodeCostModel model = new DecodeCostModel(3);
+
+        model.record(0, true, 20);
+        model.record(1, true, 8);
+
+        Assert.assertEquals(30, model.predictTimeToDecode(0));
+        Assert.assertEquals(12, model.predictTimeToDecode(1));
+        // sequence estimate is 20 + 0.25 * (8 - 20) = 17
+        Assert.assertEquals(26, model.predictTimeToDecode(2));
+    }
+
+    @Test
+    public void testFrameAfterDropAffectsOnlySequenceEstimate() {
+        DecodeCostModel model = new DecodeCostModel(2);
+
+        model.record(0, true, 10);
+        model.record(1, false, 100);
+
+        Assert.assertEquals(15, model.predictTimeToDecode(0));
+        // sequence estimate is 10 + 0.25 * (100 - 10) = 32.5
+        Assert.assertEquals(49, model.predictTimeToDecode(1));
+    }
+
+    @Test
+    public void testPredictionIsNotBelowMinimum() {
+        DecodeCostModel model = new DecodeCostModel(1);
+
+        model.record(0, true, 0);
+
+        Assert.assertEquals(4, model.predictTimeToDecode(0));
+    }
+
+    @Test
+    public void testFramesOutOfRangeUseSequenceEstimate() {
+        DecodeCostModel model = new DecodeCostModel(1);
+
+        model.record(5, true, 10);
+        model.record(-1, true, 10);
+
+        Assert.assertEquals(15, model.predictTimeToDecode(0));
+        Assert.assertEquals(15, model.predictTimeToDecode(5));
+    }
+}
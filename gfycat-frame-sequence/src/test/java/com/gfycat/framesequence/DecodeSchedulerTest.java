@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class DecodeSchedulerTest {
+
+    private final List<Runnable> workers = new ArrayList<>();
+    private final List<String> executed = new ArrayList<>();
+    private DecodeScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new DecodeScheduler(workers::add);
+    }
+
+    @Test
+    public void testEarliestDeadlineFirst() {
+        task("late").schedule(300);
+        task("early").schedule(100);
+        task("middle").schedule(200);
+
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("early", "middle", "late"), executed);
+    }
+
+    @Test
+    public void testEqualDeadlinesKeepSchedulingOrder() {
+        task("first").schedule(100);
+        task("second").schedule(100);
+
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("first", "second"), executed);
+    }
+
+    @Test
+    public void testPriorityMovesDeadline() {
+        DecodeScheduler.Task low = task("low");
+        low.setPriority(DecodeScheduler.PRIORITY_LOW);
+        low.schedule(100);
+        task("normal").schedule(150);
+        DecodeScheduler.Task high = task("high");
+        high.setPriority(DecodeScheduler.PRIORITY_HIGH);
+        high.schedule(200);
+
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("high", "normal", "low"), executed);
+    }
+
+    @Test
+    public void testPriorityChangeReordersQueuedTask() {
+        DecodeScheduler.Task background = task("background");
+        background.schedule(100);
+        task("foreground").schedule(150);
+
+        background.setPriority(DecodeScheduler.PRIORITY_LOW);
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("foreground", "background"), executed);
+    }
+
+    @Test
+    public void testRescheduleUpdatesDeadline() {
+        DecodeScheduler.Task moved = task("moved");
+        moved.schedule(100);
+        task("other").schedule(200);
+
+        moved.schedule(300);
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("other", "moved"), executed);
+        Assert.assertEquals(2, scheduler.getMetrics().getExecutedCount());
+    }
+
+    @Test
+    public void testCancelledTaskIsNotExecuted() {
+        DecodeScheduler.Task cancelled = task("cancelled");
+        cancelled.schedule(100);
+        task("kept").schedule(200);
+
+        cancelled.cancel();
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("kept"), executed);
+        Assert.assertEquals(1, scheduler.getMetrics().getCancelledCount());
+        Assert.assertEquals(1, scheduler.getMetrics().getExecutedCount());
+    }
+
+    @Test
+    public void testCancelOfIdleTaskIsNoop() {
+        task("idle").cancel();
+
+        Assert.assertEquals(0, scheduler.getMetrics().getCancelledCount());
+    }
+
+    @Test
+    public void testScheduleWhileRunningExecutesAgain() {
+        DecodeScheduler.Task[] self = new DecodeScheduler.Task[1];
+        self[0] = scheduler.newTask(() -> {
+            executed.add("self");
+            if (executed.size() == 1) self[0].schedule(200);
+        });
+        self[0].schedule(100);
+
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("self", "self"), executed);
+    }
+
+    @Test
+    public void testCancelWhileRunningDropsReschedule() {
+        DecodeScheduler.Task[] self = new DecodeScheduler.Task[1];
+        self[0] = scheduler.newTask(() -> {
+            executed.add("self");
+            self[0].schedule(200);
+            self[0].cancel();
+        });
+        self[0].schedule(100);
+
+        runWorkers();
+
+        Assert.assertEquals(Arrays.asList("self"), executed);
+    }
+
+    private DecodeScheduler.Task task(String name) {
+        return scheduler.newTask(() -> executed.add(name));
+    }
+
+    /**
+     * Runs submitted workers, including ones submitted while running, each worker takes earliest task from queue.
+     */
+    private void runWorkers() {
+        while (!workers.isEmpty()) {
+            workers.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.gfycat.common.ContextDetails;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class FrameSequenceDrawableTest {
+
+    private static final int SIZE = 100;
+
+    @Test
+    public void testOpaqueSequenceDrawsToRgb565Directly() {
+        OpaqueFrameSequence sequence = new OpaqueFrameSequence(true);
+        FrameSequenceDrawable drawable = new FrameSequenceDrawable(sequence, DropFramesStrategy.DropAllowed, new ContextDetails());
+
+        Assert.assertEquals(Bitmap.Config.RGB_565, sequence.drawnConfigs.get(0));
+        // front and back RGB_565 bitmaps without composite
+        Assert.assertEquals(2 * SIZE * SIZE * 2, drawable.getBufferBytes());
+        drawable.destroy();
+    }
+
+    @Test
+    public void testOpaqueSequenceIsConvertedFromComposite() {
+        OpaqueFrameSequence sequence = new OpaqueFrameSequence(false);
+        FrameSequenceDrawable drawable = new FrameSequenceDrawable(sequence, DropFramesStrategy.DropAllowed, new ContextDetails());
+
+        Assert.assertEquals(Bitmap.Config.ARGB_8888, sequence.drawnConfigs.get(0));
+        // front and back RGB_565 bitmaps and ARGB_8888 composite
+        Assert.assertEquals(2 * SIZE * SIZE * 2 + SIZE * SIZE * 4, drawable.getBufferBytes());
+        drawable.destroy();
+    }
+
+    private static class OpaqueFrameSequence implements FrameSequence {
+
+        private final boolean drawsToAnyConfig;
+        private final List<Bitmap.Config> drawnConfigs = new ArrayList<>();
+
+        private OpaqueFrameSequence(boolean drawsToAnyConfig) {
+            this.drawsToAnyConfig = drawsToAnyConfig;
+        }
+
+        @Override
+        public boolean mayHaveBlending() {
+            return false;
+        }
+
+        @Override
+        public long getFrameDuration(int frame) {
+            return 40;
+        }
+
+        @Override
+        public void drawFrame(int frame, Bitmap bitmap) {
+            drawnConfigs.add(bitmap.getConfig());
+        }
+
+        @Override
+        public boolean canDrawTo(Bitmap.Config config) {
+            return drawsToAnyConfig || config == Bitmap.Config.ARGB_8888;
+        }
+
+        @Override
+        public void getDirtyRect(int frame, Rect outRect) {
+            outRect.set(0, 0, SIZE, SIZE);
+        }
+
+        @Override
+        public int getWidth() {
+            return SIZE;
+        }
+
+        @Override
+        public int getHeight() {
+            return SIZE;
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public int getFrameCount() {
+            return 2;
+        }
+
+        @Override
+        public boolean isOpaque() {
+            return true;
+        }
+
+        @Override
+        public int lastKeyFrameInRange(int start, int end) {
+            return start;
+        }
+    }
+}
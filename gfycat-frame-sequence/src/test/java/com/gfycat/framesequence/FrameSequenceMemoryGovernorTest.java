@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.gfycat.common.ContextDetails;
+import com.gfycat.framesequence.view.FrameSequenceMemoryUsage;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class FrameSequenceMemoryGovernorTest {
+
+    private static final int SIZE = 100;
+    /**
+     * Front and back ARGB_8888 bitmaps, translucent sequence without blending has no composite.
+     */
+    private static final long BUFFER_BYTES = 2 * SIZE * SIZE * 4;
+
+    @Test
+    public void testLessImportantIsDowngradedFirst() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES * 3 / 2);
+        FrameSequenceDrawable low = drawable("low", DecodeScheduler.PRIORITY_LOW);
+        FrameSequenceDrawable normal = drawable("normal", DecodeScheduler.PRIORITY_NORMAL);
+
+        register(governor, low, normal);
+
+        Assert.assertEquals(SIZE / 2, low.getRenderWidth());
+        Assert.assertEquals(SIZE, normal.getRenderWidth());
+        Assert.assertEquals(1, governor.getResolutionDowngradesCount());
+    }
+
+    @Test
+    public void testHighPriorityIsNotDowngraded() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES / 2);
+        FrameSequenceDrawable high = drawable("high", DecodeScheduler.PRIORITY_HIGH);
+
+        register(governor, high);
+
+        Assert.assertEquals(SIZE, high.getRenderWidth());
+        Assert.assertEquals(0, governor.getResolutionDowngradesCount());
+    }
+
+    @Test
+    public void testRestoredWhenOtherIsUnregistered() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES * 3 / 2);
+        FrameSequenceDrawable low = drawable("low", DecodeScheduler.PRIORITY_LOW);
+        FrameSequenceDrawable normal = drawable("normal", DecodeScheduler.PRIORITY_NORMAL);
+        register(governor, low, normal);
+
+        governor.unregister(normal);
+        ShadowLooper.runUiThreadTasks();
+
+        Assert.assertEquals(SIZE, low.getRenderWidth());
+        Assert.assertEquals(1f, low.getRenderScaleLimit(), 0f);
+        Assert.assertEquals(1, governor.getResolutionRestoresCount());
+    }
+
+    @Test
+    public void testNotRestoredOverBudget() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES * 3 / 2);
+        FrameSequenceDrawable low = drawable("low", DecodeScheduler.PRIORITY_LOW);
+        FrameSequenceDrawable normal = drawable("normal", DecodeScheduler.PRIORITY_NORMAL);
+        register(governor, low, normal);
+
+        governor.requestEnforce();
+        ShadowLooper.runUiThreadTasks();
+
+        Assert.assertEquals(SIZE / 2, low.getRenderWidth());
+        Assert.assertEquals(0, governor.getResolutionRestoresCount());
+    }
+
+    @Test
+    public void testRestoredWhenPriorityIsRaisedToHigh() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES * 3 / 2);
+        FrameSequenceDrawable low = drawable("low", DecodeScheduler.PRIORITY_LOW);
+        FrameSequenceDrawable normal = drawable("normal", DecodeScheduler.PRIORITY_NORMAL);
+        register(governor, low, normal);
+
+        low.setDecodePriority(DecodeScheduler.PRIORITY_HIGH);
+        governor.requestEnforce();
+        ShadowLooper.runUiThreadTasks();
+
+        Assert.assertEquals(SIZE, low.getRenderWidth());
+        // memory is taken from the other one instead
+        Assert.assertEquals(SIZE / 2, normal.getRenderWidth());
+    }
+
+    @Test
+    public void testRestoredWhenPressureExpires() {
+        FrameSequenceMemoryGovernor governor = governor(BUFFER_BYTES * 5 / 2);
+        FrameSequenceDrawable first = drawable("first", DecodeScheduler.PRIORITY_NORMAL);
+        FrameSequenceDrawable second = drawable("second", DecodeScheduler.PRIORITY_NORMAL);
+        register(governor, first, second);
+        Assert.assertEquals(0, governor.getResolutionDowngradesCount());
+
+        governor.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        ShadowLooper.runUiThreadTasks();
+        Assert.assertEquals(1, governor.getResolutionDowngradesCount());
+        Assert.assertEquals(SIZE * 3 / 2, first.getRenderWidth() + second.getRenderWidth());
+
+        ShadowLooper.idleMainLooper(TimeUnit.SECONDS.toMillis(31));
+
+        Assert.assertEquals(SIZE, first.getRenderWidth());
+        Assert.assertEquals(SIZE, second.getRenderWidth());
+        Assert.assertEquals(1, governor.getResolutionRestoresCount());
+    }
+
+    private static FrameSequenceMemoryGovernor governor(long bufferBudgetBytes) {
+        // encoded sequences of other tests are counted too
+        return new FrameSequenceMemoryGovernor(FrameSequenceMemoryUsage.totalSize.get() + bufferBudgetBytes);
+    }
+
+    private static void register(FrameSequenceMemoryGovernor governor, FrameSequenceDrawable... drawables) {
+        for (FrameSequenceDrawable drawable : drawables) {
+            governor.register(drawable);
+        }
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private static FrameSequenceDrawable drawable(String name, int priority) {
+        FrameSequenceDrawable drawable = new RunningDrawable(new ContextDetails("name", name));
+        drawable.setDecodePriority(priority);
+        return drawable;
+    }
+
+    /**
+     * Pretends to be running without decoding frames.
+     */
+    private static class RunningDrawable extends FrameSequenceDrawable {
+
+        private RunningDrawable(ContextDetails contextDetails) {
+            super(new TranslucentFrameSequence(), DropFramesStrategy.DropAllowed, contextDetails);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return !isDestroyed();
+        }
+    }
+
+    private static class TranslucentFrameSequence implements FrameSequence {
+
+        @Override
+        public boolean mayHaveBlending() {
+            return false;
+        }
+
+        @Override
+        public long getFrameDuration(int frame) {
+            return 40;
+        }
+
+        @Override
+        public void drawFrame(int frame, Bitmap bitmap) {
+        }
+
+        @Override
+        public void getDirtyRect(int frame, Rect outRect) {
+            outRect.set(0, 0, SIZE, SIZE);
+        }
+
+        @Override
+        public int getWidth() {
+            return SIZE;
+        }
+
+        @Override
+        public int getHeight() {
+            return SIZE;
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public int getFrameCount() {
+            return 2;
+        }
+
+        @Override
+        public boolean isOpaque() {
+            return false;
+        }
+
+        @Override
+        public int lastKeyFrameInRange(int start, int end) {
+            return start;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.framesequence;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.SingleSubject;
+
+@RunWith(RobolectricTestRunner.class)
+public class FrameSequenceRegistryTest {
+
+    private final FrameSequenceRegistry registry = new FrameSequenceRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testSameKeyIsLoadedOnce() {
+        FakeFrameSequence loaded = new FakeFrameSequence();
+
+        FrameSequence first = registry.acquire("a", loader(loaded)).blockingGet();
+        FrameSequence second = registry.acquire("a", loader(new FakeFrameSequence())).blockingGet();
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, registry.size());
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(loaded.getFrameCount(), second.getFrameCount());
+    }
+
+    @Test
+    public void testSequenceIsReleasedWithLastHandle() {
+        FakeFrameSequence loaded = new FakeFrameSequence();
+        FrameSequence first = registry.acquire("a", loader(loaded)).blockingGet();
+        FrameSequence second = registry.acquire("a", loader(loaded)).blockingGet();
+
+        first.release();
+        // repeated release of the same handle does not release reference of another one
+        first.release();
+        Assert.assertEquals(0, loaded.releases);
+        Assert.assertEquals(1, registry.size());
+
+        second.release();
+        Assert.assertEquals(1, loaded.releases);
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testReleasedKeyIsLoadedAgain() {
+        registry.acquire("a", loader(new FakeFrameSequence())).blockingGet().release();
+        registry.acquire("a", loader(new FakeFrameSequence())).blockingGet().release();
+
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testDifferentKeysAreNotShared() {
+        FakeFrameSequence a = new FakeFrameSequence();
+        FakeFrameSequence b = new FakeFrameSequence();
+
+        registry.acquire("a", loader(a)).blockingGet();
+        registry.acquire("b", loader(b)).blockingGet().release();
+
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(0, a.releases);
+        Assert.assertEquals(1, b.releases);
+        Assert.assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        registry.acquire("a", Single.<FrameSequence>error(new IOException()))
+                .test()
+                .assertError(IOException.class);
+        Assert.assertEquals(0, registry.size());
+
+        FakeFrameSequence loaded = new FakeFrameSequence();
+        registry.acquire("a", loader(loaded)).blockingGet().release();
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, loaded.releases);
+    }
+
+    @Test
+    public void testSequenceLoadedAfterDisposeIsReleased() {
+        SingleSubject<FrameSequence> loader = SingleSubject.create();
+        Disposable disposable = registry.acquire("a", loader).subscribe(sequence -> Assert.fail());
+
+        disposable.dispose();
+        Assert.assertEquals(0, registry.size());
+
+        FakeFrameSequence loaded = new FakeFrameSequence();
+        loader.onSuccess(loaded);
+        Assert.assertEquals(1, loaded.releases);
+    }
+
+    @Test
+    public void testDisposeOfOneWaiterKeepsLoadForAnother() {
+        SingleSubject<FrameSequence> loader = SingleSubject.create();
+        Disposable disposed = registry.acquire("a", loader).subscribe();
+        FrameSequence[] received = new FrameSequence[1];
+        registry.acquire("a", loader).subscribe(sequence -> received[0] = sequence);
+
+        disposed.dispose();
+        FakeFrameSequence loaded = new FakeFrameSequence();
+        loader.onSuccess(loaded);
+
+        Assert.assertNotNull(received[0]);
+        Assert.assertEquals(0, loaded.releases);
+        received[0].release();
+        Assert.assertEquals(1, loaded.releases);
+    }
+
+    private Single<FrameSequence> loader(FrameSequence sequence) {
+        return Single.fromCallable(() -> {
+            loads.incrementAndGet();
+            return sequence;
+        });
+    }
+
+    private static class FakeFrameSequence implements FrameSequence {
+
+        private int releases;
+
+        @Override
+        public boolean mayHaveBlending() {
+            return false;
+        }
+
+        @Override
+        public long getFrameDuration(int frame) {
+            return 40;
+        }
+
+        @Override
+        public void drawFrame(int frame, Bitmap bitmap) {
+        }
+
+        @Override
+        public void getDirtyRect(int frame, Rect outRect) {
+            outRect.set(0, 0, getWidth(), getHeight());
+        }
+
+        @Override
+        public int getWidth() {
+            return 10;
+        }
+
+        @Override
+        public int getHeight() {
+            return 10;
+        }
+
+        @Override
+        public void release() {
+            releases++;
+        }
+
+        @Override
+        public int getFrameCount() {
+            return 3;
+        }
+
+        @Override
+        public boolean isOpaque() {
+            return true;
+        }
+
+        @Override
+        public int lastKeyFrameInRange(int start, int end) {
+            return start;
+        }
+    }
+}
@@ -17,11 +17,13 @@
 package com.gfycat.gif;
 
 import android.content.Context;
+import android.view.View;
 
 import com.gfycat.common.ContextDetails;
 import com.gfycat.core.GfyCore;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.storage.MediaType;
+import com.gfycat.core.storage.MediaVariantSelector;
 import com.gfycat.framesequence.DropFramesStrategy;
 import com.gfycat.framesequence.FrameSequence;
 import com.gfycat.gif.view.GfycatGifView;
@@ -30,18 +32,39 @@ import com.gfycat.player.framesequence.GfycatFrameSequenceSource;
 import io.reactivex.Single;
 
 /**
- * {@link GfycatGifFrameSequenceSource} for {@link com.gfycat.framesequence.view.FrameSequenceView} to display 1MB GIF image from gfycat.com.
+ * {@link GfycatGifFrameSequenceSource} for {@link com.gfycat.framesequence.view.FrameSequenceView} to display GIF image from gfycat.com.
+ * <p>
+ * Size restricted GIF variant is chosen by {@link MediaVariantSelector} on every load, from size of render target, network throughput and disk cache.
+ * 1MB GIF is loaded when render target is not provided or not measured yet.
  * <p>
  * Used in {@link GfycatGifView}.
  */
 public class GfycatGifFrameSequenceSource extends GfycatFrameSequenceSource {
 
+    private final View renderTarget;
+
     public GfycatGifFrameSequenceSource(Context context, Gfycat gfycat, ContextDetails details) {
-        super(context, gfycat, details);
+        this(context, gfycat, details, null);
     }
 
     public GfycatGifFrameSequenceSource(Context context, Gfycat gfycat) {
+        this(context, gfycat, (View) null);
+    }
+
+    /**
+     * @param renderTarget view that displays GIF, its size is used to choose GIF variant, could be null.
+     */
+    public GfycatGifFrameSequenceSource(Context context, Gfycat gfycat, ContextDetails details, View renderTarget) {
+        super(context, gfycat, details);
+        this.renderTarget = renderTarget;
+    }
+
+    /**
+     * @param renderTarget view that displays GIF, its size is used to choose GIF variant, could be null.
+     */
+    public GfycatGifFrameSequenceSource(Context context, Gfycat gfycat, View renderTarget) {
         super(context, gfycat);
+        this.renderTarget = renderTarget;
     }
 
     @Override
@@ -49,17 +72,27 @@ public class GfycatGifFrameSequenceSource extends GfycatFrameSequenceSource {
         return MediaType.GIF1;
     }
 
+    /**
+     * Selection checks disk cache, so returned {@link Single} should be subscribed off main thread.
+     */
     @Override
     public Single<FrameSequence> loadFrameSequence() {
-        return GfyCore.getMediaFilesManager().loadAsByteArray(getGfycat(), getPlayerType())
-                .flatMap(this::safeCreateFrameSequence);
+        return Single.fromCallable(this::selectMediaType)
+                .flatMap(mediaType -> shareFrameSequence(mediaType, GfyCore.getMediaFilesManager().loadAsByteArray(getGfycat(), mediaType)
+                        .flatMap(data -> safeCreateFrameSequence(mediaType, data))));
+    }
+
+    private MediaType selectMediaType() {
+        int width = renderTarget == null ? 0 : renderTarget.getWidth() - renderTarget.getPaddingLeft() - renderTarget.getPaddingRight();
+        int height = renderTarget == null ? 0 : renderTarget.getHeight() - renderTarget.getPaddingTop() - renderTarget.getPaddingBottom();
+        return new MediaVariantSelector().select(getGfycat(), MediaVariantSelector.GIF_VARIANTS, width, height);
     }
 
-    private Single<FrameSequence> safeCreateFrameSequence(byte[] data) {
+    private Single<FrameSequence> safeCreateFrameSequence(MediaType mediaType, byte[] data) {
         try {
             return Single.just(new GifFrameSequence(data));
         } catch (Exception e) {
-            String message = "gfyId = " + getId() + " gifSource(" + getPlayerType().getName() + ") = " + getPlayerType().getUrl(getGfycat());
+            String message = "gfyId = " + getId() + " gifSource(" + mediaType.getName() + ") = " + mediaType.getUrl(getGfycat());
             return Single.error(new BrokenGifException(message, e));
         }
     }
@@ -20,6 +20,7 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Movie;
+import android.graphics.Rect;
 
 import com.gfycat.framesequence.FrameSequence;
 
@@ -46,11 +47,36 @@ public class GifFrameSequence implements FrameSequence {
         return DEFAULT_FRAME_DURATION;
     }
 
+    /**
+     * Movie keeps current time, so drawing is synchronized for drawables that share this sequence.
+     * Frame is scaled to bitmap size, bitmap is smaller than sequence when it is rendered in reduced scale.
+     */
     @Override
-    public void drawFrame(int frame, Bitmap bitmap) {
+    public synchronized void drawFrame(int frame, Bitmap bitmap) {
         movie.setTime(Math.min(frame * DEFAULT_FRAME_DURATION, movie.duration()));
         bitmap.eraseColor(Color.TRANSPARENT);
-        movie.draw(new Canvas(bitmap), 0, 0);
+        Canvas canvas = new Canvas(bitmap);
+        scaleToBitmap(canvas, getWidth(), getHeight(), bitmap.getWidth(), bitmap.getHeight());
+        movie.draw(canvas, 0, 0);
+    }
+
+    static void scaleToBitmap(Canvas canvas, int sequenceWidth, int sequenceHeight, int bitmapWidth, int bitmapHeight) {
+        if (sequenceWidth <= 0 || sequenceHeight <= 0) return;
+        if (bitmapWidth == sequenceWidth && bitmapHeight == sequenceHeight) return;
+        canvas.scale(bitmapWidth / (float) sequenceWidth, bitmapHeight / (float) sequenceHeight);
+    }
+
+    /**
+     * Movie is drawn through Canvas, that supports any bitmap config.
+     */
+    @Override
+    public boolean canDrawTo(Bitmap.Config config) {
+        return true;
+    }
+
+    @Override
+    public void getDirtyRect(int frame, Rect outRect) {
+        outRect.set(0, 0, getWidth(), getHeight());
     }
 
     @Override
@@ -74,7 +100,7 @@ public class GifFrameSequence implements FrameSequence {
 
     @Override
     public boolean isOpaque() {
-        return true;
+        return movie.isOpaque();
     }
 
     @Override
@@ -28,7 +28,7 @@ import com.gfycat.gif.GfycatGifFrameSequenceSource;
 import com.gfycat.player.GfycatPlayer;
 
 /**
- * Displays a Gfycat using animated 2MB GIF image from gfycat.
+ * Displays a Gfycat using animated GIF image from gfycat, size restricted variant is chosen from view size.
  */
 public class GfycatGifView extends FrameSequenceView implements GfycatPlayer {
 
@@ -49,7 +49,7 @@ public class GfycatGifView extends FrameSequenceView implements GfycatPlayer {
      */
     @Override
     public void setupGfycat(Gfycat gfycat, ContextDetails contextDetails) {
-        setup(new GfycatGifFrameSequenceSource(getContext(), gfycat, contextDetails));
+        setup(new GfycatGifFrameSequenceSource(getContext(), gfycat, contextDetails, this));
     }
 
     /**
@@ -57,7 +57,7 @@ public class GfycatGifView extends FrameSequenceView implements GfycatPlayer {
      */
     @Override
     public void setupGfycat(Gfycat gfycat) {
-        setup(new GfycatGifFrameSequenceSource(getContext(), gfycat));
+        setup(new GfycatGifFrameSequenceSource(getContext(), gfycat, this));
     }
 
     @Override
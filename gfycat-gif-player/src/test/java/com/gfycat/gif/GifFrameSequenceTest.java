@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.gif;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class GifFrameSequenceTest {
+
+    @Test
+    public void testFrameIsScaledToHalfSizeBitmap() {
+        Bitmap bitmap = Bitmap.createBitmap(50, 30, Bitmap.Config.RGB_565);
+        RecordingCanvas canvas = new RecordingCanvas(bitmap);
+
+        GifFrameSequence.scaleToBitmap(canvas, 100, 60, bitmap.getWidth(), bitmap.getHeight());
+
+        Assert.assertEquals(1, canvas.scaleCalls);
+        Assert.assertEquals(0.5f, canvas.scaleX, 0.0001f);
+        Assert.assertEquals(0.5f, canvas.scaleY, 0.0001f);
+    }
+
+    @Test
+    public void testFrameIsNotScaledToFullSizeBitmap() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 60, Bitmap.Config.RGB_565);
+        RecordingCanvas canvas = new RecordingCanvas(bitmap);
+
+        GifFrameSequence.scaleToBitmap(canvas, 100, 60, bitmap.getWidth(), bitmap.getHeight());
+
+        Assert.assertEquals(0, canvas.scaleCalls);
+    }
+
+    @Test
+    public void testEachAxisIsScaledSeparately() {
+        Bitmap bitmap = Bitmap.createBitmap(25, 30, Bitmap.Config.RGB_565);
+        RecordingCanvas canvas = new RecordingCanvas(bitmap);
+
+        GifFrameSequence.scaleToBitmap(canvas, 100, 60, bitmap.getWidth(), bitmap.getHeight());
+
+        Assert.assertEquals(0.25f, canvas.scaleX, 0.0001f);
+        Assert.assertEquals(0.5f, canvas.scaleY, 0.0001f);
+    }
+
+    private static class RecordingCanvas extends Canvas {
+        private int scaleCalls;
+        private float scaleX = 1f;
+        private float scaleY = 1f;
+
+        private RecordingCanvas(Bitmap bitmap) {
+            super(bitmap);
+        }
+
+        @Override
+        public void scale(float sx, float sy) {
+            super.scale(sx, sy);
+            scaleCalls++;
+            scaleX *= sx;
+            scaleY *= sy;
+        }
+    }
+}
@@ -52,6 +52,7 @@ import com.gfycat.picker.bi.KeyboardLogger;
 import com.gfycat.picker.bi.KeyboardLogger.SendGfycatSource;
 import com.gfycat.picker.bi.LazyLogger;
 import com.gfycat.picker.category.GfycatCategoriesFragment;
+import com.gfycat.picker.feed.FeedViewPool;
 import com.gfycat.picker.onecategory.OneCategoryFeedFragment;
 import com.gfycat.picker.photomoments.IPhotoMomentsFragment;
 import com.gfycat.picker.photomoments.PhotoMomentsUiFactory;
@@ -82,7 +83,7 @@ import java.util.concurrent.TimeUnit;
  * See <a href="http://developers.gfycat.com/androidsdk/#gfycat-picker-fragment">http://developers.gfycat.com/androidsdk/#gfycat-picker-fragment</a> for more integration details.
  */
 
-public class GfycatPickerFragment extends Fragment implements CategoriesFragmentController {
+public class GfycatPickerFragment extends Fragment implements CategoriesFragmentController, FeedViewPool.Provider {
     public static final float DEFAULT_CATEGORY_ASPECT_RATIO = 1.0f;
     public static final int DEFAULT_ORIENTATION = OrientationHelper.VERTICAL;
 
@@ -106,6 +107,7 @@ public class GfycatPickerFragment extends Fragment implements CategoriesFragment
     private ProgressBarController progressBarController;
 
     private CategoriesFragment currentCategoriesFragment;
+    private FeedViewPool feedViewPool;
     private RecyclerView.OnScrollListener scrollListener;
 
     private DataLoadProgressListener dataLoadProgressListener;
@@ -419,6 +421,25 @@ public class GfycatPickerFragment extends Fragment implements CategoriesFragment
         return root;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // child feeds have already returned their cells, pooled views should not outlive picker views
+        if (feedViewPool != null) {
+            feedViewPool.release();
+            feedViewPool = null;
+        }
+    }
+
+    /**
+     * @return Returns pool shared by all feeds displayed inside this picker.
+     */
+    @Override
+    public FeedViewPool getFeedViewPool() {
+        if (feedViewPool == null) feedViewPool = new FeedViewPool();
+        return feedViewPool;
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -32,6 +32,7 @@ import com.gfycat.common.lifecycledelegates.BaseFragment;
 import com.gfycat.common.lifecycledelegates.FragmentContextResolver;
 import com.gfycat.common.recycler.AutoPlayController;
 import com.gfycat.common.recycler.EndlessScrollListener;
+import com.gfycat.common.recycler.GroupAdapter;
 import com.gfycat.common.recycler.PlaybackManager;
 import com.gfycat.common.recycler.decorations.OffsetPaddingItemDecoration;
 import com.gfycat.common.utils.Assertions;
@@ -64,17 +65,20 @@ public abstract class BaseColumnFeedFragment extends BaseFragment {
     private static final String FEED_IDENTIFIER_KEY = "FEED_IDENTIFIER_KEY";
     private static final long TIME_TO_NOT_RELOAD_SINCE_ON_CREATE = TimeUnit.SECONDS.toMillis(15);
     private static final long TIME_TO_RELOAD_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final int PRE_INFLATED_ROWS_COUNT = 4;
 
     private FeedIdentifier targetIdentifier;
     private final IFeedLoader feedLoader;
 
     private RecyclerView recyclerView;
     private GfycatDataAdapter adapter;
+    private FeedViewPool feedViewPool;
 
     private DataLoadProgressListener dataLoadProgressListener;
 
     private AutoPlayController autoPlayController = new AutoPlayController();
     private PlaybackManager playbackManager = new PlaybackManager(autoPlayController);
+    private final RecyclerView.AdapterDataObserver autoPlayUpdater = new AutoPlayUpdater();
 
     private LoadMoreListener loadMoreController;
     private boolean feedReloadingNeeded = false;
@@ -231,7 +235,23 @@ public abstract class BaseColumnFeedFragment extends BaseFragment {
         playbackManager.setRecyclerView(recyclerView);
 
         customizeRecycler(recyclerView);
-        recyclerView.setAdapter(customizeAdapter(adapter));
+        feedViewPool = FeedViewPool.find(this);
+        if (feedViewPool != null) recyclerView.setRecycledViewPool(feedViewPool);
+        RecyclerView.Adapter rootAdapter = customizeAdapter(adapter);
+        recyclerView.setAdapter(rootAdapter);
+        if (feedViewPool != null) preInflateCells(rootAdapter);
+        adapter.registerAdapterDataObserver(autoPlayUpdater);
+    }
+
+    private void preInflateCells(RecyclerView.Adapter rootAdapter) {
+        int viewType = GfycatDataAdapter.GFYCAT_VIEW_TYPE;
+        if (rootAdapter instanceof GroupAdapter) {
+            viewType = ((GroupAdapter) rootAdapter).getAbsoluteViewType(adapter, GfycatDataAdapter.GFYCAT_VIEW_TYPE);
+        } else if (rootAdapter != adapter) {
+            // unknown wrapper, we can not resolve view type of gfycat cells
+            return;
+        }
+        if (viewType != -1) feedViewPool.preInflate(recyclerView, viewType, getColumnCount() * PRE_INFLATED_ROWS_COUNT);
     }
 
     @Override
@@ -263,6 +283,12 @@ public abstract class BaseColumnFeedFragment extends BaseFragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        adapter.unregisterAdapterDataObserver(autoPlayUpdater);
+        if (feedViewPool != null) {
+            // move cells to shared pool, it is not cleared when next feed sets its adapter, so next feed will reuse them
+            recyclerView.swapAdapter(null, true);
+            feedViewPool = null;
+        }
         for (Recyclable recyclable : weakRecyclableItemsForRelease) {
             if (recyclable != null) {
                 recyclable.recycle();
@@ -374,6 +400,42 @@ public abstract class BaseColumnFeedFragment extends BaseFragment {
         }
     }
 
+    /**
+     * Rebound holders are paused, so playback should be recalculated after each adapter update,
+     * diff of feed is dispatched asynchronously, without any scroll event.
+     */
+    private class AutoPlayUpdater extends RecyclerView.AdapterDataObserver {
+
+        @Override
+        public void onChanged() {
+            update();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            update();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            update();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            update();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            update();
+        }
+
+        private void update() {
+            if (recyclerView != null) autoPlayController.forceUpdate(recyclerView);
+        }
+    }
+
     private class LoadMoreListener extends EndlessScrollListener {
         @Override
         public void onLoadMore(int page) {
@@ -24,11 +24,11 @@ import com.gfycat.common.utils.Logging;
 import com.gfycat.common.utils.Sugar;
 import com.gfycat.core.FeedIdentifier;
 import com.gfycat.core.GfyCore;
-import com.gfycat.core.GfyUtils;
 import com.gfycat.core.downloading.FeedData;
+import com.gfycat.core.downloading.FreshnessPolicy;
+import com.gfycat.core.downloading.SearchSession;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import io.reactivex.Flowable;
@@ -46,6 +46,10 @@ public class FeedLoadingDelegate extends ContextBaseDelegate implements IFeedLoa
 
     private FeedIdentifier targetFeedIdentifier;
     private FeedData feedData;
+    /**
+     * Expired feed data that is held until initial reload finishes.
+     */
+    private FeedData expiredFeedData;
 
     private boolean isFirstLoad = true;
 
@@ -61,6 +65,11 @@ public class FeedLoadingDelegate extends ContextBaseDelegate implements IFeedLoa
 
     private boolean feedForceReloadingNeeded;
 
+    /**
+     * Search queries of this feed supersede each other and reuse recent results.
+     */
+    private final SearchSession searchSession = new SearchSession();
+
     public FeedLoadingDelegate(ContextResolver contextResolver) {
         super(contextResolver);
     }
@@ -83,7 +92,7 @@ public class FeedLoadingDelegate extends ContextBaseDelegate implements IFeedLoa
     @Override
     public void reLoad() {
         Logging.d(LOG_TAG, "reLoad()");
-        loadInitialFeed();
+        loadInitialFeed(true);
     }
 
     @Override
@@ -158,14 +167,30 @@ public class FeedLoadingDelegate extends ContextBaseDelegate implements IFeedLoa
         Logging.d(LOG_TAG, "onLoadSuccess(" + targetFeedIdentifier.toUniqueIdentifier() + ") " + feedData);
         lastSuccessRequestMs = System.currentTimeMillis();
         hasError = false;
+        // server returned same content, so held expired feed data is actual
+        deliverExpiredFeedData();
     }
 
     private void onLoadError(Throwable throwable) {
         Logging.d(LOG_TAG, "onLoadError(", throwable, ") ", targetFeedIdentifier.toUniqueIdentifier());
+        if (throwable instanceof SearchSession.QueryCancelledException) {
+            // superseded by newer query, which delivers its own result
+            return;
+        }
         hasError = true;
+        // expired content is better than nothing
+        deliverExpiredFeedData();
         notifyOnError(throwable);
     }
 
+    private void deliverExpiredFeedData() {
+        if (expiredFeedData != null) {
+            FeedData expired = expiredFeedData;
+            expiredFeedData = null;
+            notifyFeedLoaded(expired);
+        }
+    }
+
     private void onLoadMoreSuccess() {
         Logging.d(LOG_TAG, "onLoadMoreSuccess() ", targetFeedIdentifier.toUniqueIdentifier());
         lastSuccessRequestMs = System.currentTimeMillis();
@@ -230,32 +255,49 @@ public class FeedLoadingDelegate extends ContextBaseDelegate implements IFeedLoa
 
         feedDataUpdated = true;
         this.feedData = newFeedData;
+        expiredFeedData = null;
 
         if (feedForceReloadingNeeded) {
             Logging.d(LOG_TAG, "feedForceReloadingNeeded = true, loadInitialFeed.");
-            loadInitialFeed();
+            loadInitialFeed(true);
             feedForceReloadingNeeded = false;
         } else if (feedData.getCount() == 0 && !feedData.isClosed()) {
             // this is first load of content for this identifier
             Logging.d(LOG_TAG, "No content make initial load.");
-            loadInitialFeed();
-        } else if (isFirstLoad && feedData.getCount() > 0 && GfyUtils.isFeedOutdated(new Date(feedData.getFeedDescription().getCreationTime()))) {
-            // this is first load of content on screen, it may be outdated, if so lets refresh initial content.
-            Logging.d(LOG_TAG, "Content is outdated, do load content");
-            loadInitialFeed();
+            loadInitialFeed(false);
+        } else if (isFirstLoad && feedData.getCount() > 0) {
+            // this is first load of content on screen, serve or refresh it according to freshness policy.
+            FreshnessPolicy.State state = GfyCore.getFeedFreshnessPolicies().evaluate(feedData);
+            if (state == FreshnessPolicy.State.EXPIRED) {
+                Logging.d(LOG_TAG, "Content is expired, hold it until reload finishes");
+                expiredFeedData = feedData;
+                isFirstLoad = false;
+                loadInitialFeed(true);
+                return;
+            } else if (state == FreshnessPolicy.State.STALE) {
+                Logging.d(LOG_TAG, "Content is stale, serve it and revalidate");
+                loadInitialFeed(true);
+            }
         }
 
+        notifyFeedLoaded(feedData);
+
+        isFirstLoad = false;
+    }
+
+    private void notifyFeedLoaded(FeedData feedData) {
         if (ensureIsInCorrectStateForNotification()) {
             for (FeedLoadingListener onFeedLoadedListener : onFeedLoadedListeners)
                 onFeedLoadedListener.onFeedLoaded(feedData);
         }
-
-        isFirstLoad = false;
     }
 
-    private void loadInitialFeed() {
+    /**
+     * @param refresh true to skip recent search results, so refresh and revalidation always reach server.
+     */
+    private void loadInitialFeed(boolean refresh) {
         Sugar.doIfNotNull(initialLoadSubscription, Disposable::dispose);
-        initialLoadSubscription = GfyCore.getFeedManager().getGfycats(targetFeedIdentifier).observeOn(AndroidSchedulers.mainThread()).subscribe(this::onLoadSuccess, this::onLoadError);
+        initialLoadSubscription = GfyCore.getFeedManager().getGfycats(targetFeedIdentifier, searchSession, refresh).observeOn(AndroidSchedulers.mainThread()).subscribe(this::onLoadSuccess, this::onLoadError);
     }
 
     @Override
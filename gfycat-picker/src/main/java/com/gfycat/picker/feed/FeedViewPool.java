@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.picker.feed;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v4.app.Fragment;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+
+import com.gfycat.common.utils.Assertions;
+import com.gfycat.common.utils.Logging;
+
+/**
+ * {@link RecyclerView.RecycledViewPool} shared between all feeds of one picker.
+ * <p>
+ * Only cells of {@link GfycatDataAdapter#GFYCAT_VIEW_TYPE} are kept, it does not depend on layout of feed adapter.
+ * Other view types are numbered per adapter layout, so they could mean different holders in different feeds and are dropped.
+ * Cells of previous feed are reused by the next one, so their {@link com.gfycat.framesequence.view.FrameSequenceView} are not inflated again.
+ * Missing cells are pre-inflated one per main thread idle pass.
+ */
+public class FeedViewPool extends RecyclerView.RecycledViewPool {
+
+    private static final String LOG_TAG = "FeedViewPool";
+    private static final int DEFAULT_MAX_SCRAP = 5; // same as in RecycledViewPool
+
+    /**
+     * Implemented by picker host to share its pool with feed fragments.
+     */
+    public interface Provider {
+        FeedViewPool getFeedViewPool();
+    }
+
+    /**
+     * @return Returns pool from closest parent fragment or activity that implements {@link Provider}, null if there is no such.
+     */
+    public static FeedViewPool find(Fragment fragment) {
+        for (Fragment parent = fragment.getParentFragment(); parent != null; parent = parent.getParentFragment()) {
+            if (parent instanceof Provider) return ((Provider) parent).getFeedViewPool();
+        }
+        if (fragment.getActivity() instanceof Provider) {
+            return ((Provider) fragment.getActivity()).getFeedViewPool();
+        }
+        return null;
+    }
+
+    private final SparseIntArray pooledCount = new SparseIntArray();
+    private final SparseIntArray maxScrap = new SparseIntArray();
+    private PreInflater preInflater;
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        if (!isPooled(scrap.getItemViewType())) return;
+        super.putRecycledView(scrap);
+        int viewType = scrap.getItemViewType();
+        pooledCount.put(viewType, Math.min(maxScrap.get(viewType, DEFAULT_MAX_SCRAP), pooledCount.get(viewType) + 1));
+    }
+
+    static boolean isPooled(int viewType) {
+        return viewType == GfycatDataAdapter.GFYCAT_VIEW_TYPE;
+    }
+
+    /**
+     * @return Returns count of cells of provided view type that are in pool now.
+     */
+    public int getPooledCount(int viewType) {
+        return pooledCount.get(viewType);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        RecyclerView.ViewHolder result = super.getRecycledView(viewType);
+        if (result != null) {
+            pooledCount.put(viewType, Math.max(0, pooledCount.get(viewType) - 1));
+        }
+        return result;
+    }
+
+    @Override
+    public void setMaxRecycledViews(int viewType, int max) {
+        super.setMaxRecycledViews(viewType, max);
+        maxScrap.put(viewType, max);
+        pooledCount.put(viewType, Math.min(max, pooledCount.get(viewType)));
+    }
+
+    /**
+     * Does nothing, pool is emptied only by {@link #release()}.
+     * <p>
+     * RecyclerView clears pool when adapter is set while no other adapter is attached to it,
+     * that is exactly what happens when feed is replaced: previous feed detaches its adapter before next one sets its own.
+     */
+    @Override
+    public void clear() {
+    }
+
+    /**
+     * Cancels pre-inflation and drops all pooled cells, should be called by owner of the pool when feeds are not displayed anymore.
+     */
+    public void release() {
+        cancelPreInflation();
+        super.clear();
+        pooledCount.clear();
+    }
+
+    /**
+     * Schedules creation of cells for provided view type while main thread is idle, until pool contains count of them.
+     *
+     * @param recyclerView that will be used as parent of created cells.
+     * @param viewType     of cells in recyclerView adapter.
+     * @param count        of cells to keep in pool.
+     */
+    public void preInflate(RecyclerView recyclerView, int viewType, int count) {
+        Assertions.assertUIThread(IllegalAccessException::new);
+        cancelPreInflation();
+        if (!isPooled(viewType)) {
+            Assertions.fail(new IllegalArgumentException("View type " + viewType + " is not pooled"));
+            return;
+        }
+        setMaxRecycledViews(viewType, count);
+        if (pooledCount.get(viewType) >= count) return;
+        preInflater = new PreInflater(recyclerView, viewType, count);
+        Looper.myQueue().addIdleHandler(preInflater);
+    }
+
+    /**
+     * Pre-inflates one cell of scheduled pre-inflation, it is what every main thread idle pass does.
+     *
+     * @return Returns true if more cells are needed.
+     */
+    boolean preInflateNext() {
+        return preInflater != null && preInflater.queueIdle();
+    }
+
+    public void cancelPreInflation() {
+        if (preInflater != null) {
+            Looper.myQueue().removeIdleHandler(preInflater);
+            preInflater = null;
+        }
+    }
+
+    private class PreInflater implements MessageQueue.IdleHandler {
+
+        private final RecyclerView recyclerView;
+        private final int viewType;
+        private final int count;
+
+        private PreInflater(RecyclerView recyclerView, int viewType, int count) {
+            this.recyclerView = recyclerView;
+            this.viewType = viewType;
+            this.count = count;
+        }
+
+        @Override
+        public boolean queueIdle() {
+            RecyclerView.Adapter adapter = recyclerView.getAdapter();
+            if (preInflater != this || adapter == null || recyclerView.getRecycledViewPool() != FeedViewPool.this) {
+                return false;
+            }
+            if (pooledCount.get(viewType) >= count) {
+                preInflater = null;
+                return false;
+            }
+            RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, viewType);
+            Logging.d(LOG_TAG, "preInflate(", viewType, ") ", holder.hashCode(), " pooled = ", pooledCount.get(viewType));
+            putRecycledView(holder);
+            return true;
+        }
+    }
+}
@@ -20,25 +20,37 @@ import android.content.Context;
 import android.support.v7.widget.OrientationHelper;
 import android.view.MotionEvent;
 
+import com.gfycat.common.recycler.SuspendableAutoPlayable;
+import com.gfycat.common.recycler.ThrottlingAutoPlayable;
 import com.gfycat.core.FeedIdentifier;
 import com.gfycat.core.bi.impression.GfycatImpression;
 import com.gfycat.core.bi.impression.ImpressionInfo;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
+import com.gfycat.framesequence.DecodeScheduler;
 
 /**
  * Created by dekalo on 10.03.17.
  */
 
-public class GfyWebpViewHolder extends GfyViewHolder {
+public class GfyWebpViewHolder extends GfyViewHolder implements ThrottlingAutoPlayable, SuspendableAutoPlayable {
 
-    private final CellController cellController;
-    private final int orientation;
+    private static final float THROTTLED_FRAME_RATE = 8;
+
+    private CellController cellController;
+    private int orientation;
 
     public GfyWebpViewHolder(Context context, CellController cellController, int orientation, float cornerRadius) {
         super(new WebpCellView(context));
+        configure(cellController, orientation, cornerRadius);
+    }
+
+    /**
+     * Holders are shared between feeds via {@link FeedViewPool}, so adapter should configure holder before every bind.
+     */
+    public void configure(CellController cellController, int orientation, float cornerRadius) {
         this.cellController = cellController;
         this.orientation = orientation;
-        getItemView().setRadius(cornerRadius);
+        if (getItemView().getRadius() != cornerRadius) getItemView().setRadius(cornerRadius);
     }
 
     WebpCellView getItemView() {
@@ -52,6 +64,8 @@ public class GfyWebpViewHolder extends GfyViewHolder {
         getItemView().setFlattenByWidth(orientation == OrientationHelper.VERTICAL);
         getItemView().setAspectRatioFromGfycat(gfycat);
         getItemView().gfycatWebpView().setShouldLoadPreview(true);
+        // holder could be bound during fling or rebound on screen by feed update, playback is started only by AutoPlayController
+        getItemView().gfycatWebpView().pause();
         getItemView().gfycatWebpView().setupGfycat(gfycat, getContextDetails());
         getItemView().setOnClickListener(view -> cellController.onClick(gfycat, getLayoutPosition()));
         getItemView().gfycatWebpView().setOnStartAnimationListener(() -> GfycatImpression.logImpression(prepareImpressionInfo(gfycat, identifier, ImpressionInfo.HALF_SCREEN_FLOW)));
@@ -60,6 +74,16 @@ public class GfyWebpViewHolder extends GfyViewHolder {
     @Override
     public void autoPlay() {
         super.autoPlay();
+        getItemView().gfycatWebpView().setMaxFrameRate(0);
+        getItemView().gfycatWebpView().setDecodePriority(DecodeScheduler.PRIORITY_NORMAL);
+        getItemView().gfycatWebpView().play();
+    }
+
+    @Override
+    public void autoPlayThrottled() {
+        super.autoPlay();
+        getItemView().gfycatWebpView().setMaxFrameRate(THROTTLED_FRAME_RATE);
+        getItemView().gfycatWebpView().setDecodePriority(DecodeScheduler.PRIORITY_LOW);
         getItemView().gfycatWebpView().play();
     }
 
@@ -68,4 +92,10 @@ public class GfyWebpViewHolder extends GfyViewHolder {
         super.autoPause();
         getItemView().gfycatWebpView().pause();
     }
+
+    @Override
+    public void autoSuspend() {
+        super.autoPause();
+        getItemView().gfycatWebpView().suspend();
+    }
 }
@@ -19,6 +19,7 @@ package com.gfycat.picker.feed;
 import android.view.ViewGroup;
 
 import com.gfycat.common.Recyclable;
+import com.gfycat.common.recycler.GroupAdapter;
 import com.gfycat.common.utils.Logging;
 import com.gfycat.core.FeedIdentifier;
 import com.gfycat.core.bi.BIContext;
@@ -34,6 +35,13 @@ import java.util.Set;
  */
 public class GfycatDataAdapter extends GfycatDiffSupportAdapter<GfyWebpViewHolder> {
     private static final String LOG_TAG = GfycatDataAdapter.class.getSimpleName();
+
+    /**
+     * View type of all {@link GfyWebpViewHolder} created by this adapter.
+     * It is shared view type of {@link GroupAdapter}, so it is the same in feeds of any layout and cells could be pooled by {@link FeedViewPool}.
+     */
+    public static final int GFYCAT_VIEW_TYPE = GroupAdapter.FIRST_SHARED_VIEW_TYPE;
+
     private final Set<Recyclable> weakRecyclableItemsForRelease;
     private FeedIdentifier feedIdentifier;
     private int orientation;
@@ -51,9 +59,16 @@ public class GfycatDataAdapter extends GfycatDiffSupportAdapter<GfyWebpViewHolde
         this.weakRecyclableItemsForRelease = weakRecyclableItemsForRelease;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        return GFYCAT_VIEW_TYPE;
+    }
+
     @Override
     public void onBindViewHolder(GfyWebpViewHolder holder, Gfycat gfycat) {
         Logging.d(LOG_TAG, "onBindViewHolder(", holder.hashCode(), ", ", gfycat, ") ");
+        holder.configure(cellController, orientation, cornerRadius);
+        weakRecyclableItemsForRelease.add(holder);
         holder.bind(gfycat, feedIdentifier);
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.gfycat.picker.feed;
+
+import android.support.v7.util.DiffUtil;
+
+import com.gfycat.common.utils.Utils;
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+
+import java.util.List;
+
+/**
+ * {@link DiffUtil} callback for gfycat feeds, items are identified by gfyId.
+ * <p>
+ * Contents are compared only by fields that are visible in feed cell, so unrelated changes (views count for example) do not rebind cells.
+ */
+class GfycatDiffCallback extends DiffUtil.Callback {
+
+    private final List<Gfycat> oldGfycats;
+    private final List<Gfycat> newGfycats;
+
+    GfycatDiffCallback(List<Gfycat> oldGfycats, List<Gfycat> newGfycats) {
+        this.oldGfycats = oldGfycats;
+        this.newGfycats = newGfycats;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldGfycats.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newGfycats.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return Utils.equals(oldGfycats.get(oldItemPosition).getGfyId(), newGfycats.get(newItemPosition).getGfyId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        Gfycat oldGfycat = oldGfycats.get(oldItemPosition);
+        Gfycat newGfycat = newGfycats.get(newItemPosition);
+        return oldGfycat.getWidth() == newGfycat.getWidth()
+                && oldGfycat.getHeight() == newGfycat.getHeight()
+                && oldGfycat.getNsfw() == newGfycat.getNsfw()
+                && oldGfycat.getPublished() == newGfycat.getPublished()
+                && Utils.equals(oldGfycat.getGfyName(), newGfycat.getGfyName())
+                && Utils.equals(oldGfycat.getTitle(), newGfycat.getTitle())
+                && Utils.equals(oldGfycat.getWebPUrl(), newGfycat.getWebPUrl())
+                && Utils.equals(oldGfycat.getPosterUrl(), newGfycat.getPosterUrl());
+    }
+}
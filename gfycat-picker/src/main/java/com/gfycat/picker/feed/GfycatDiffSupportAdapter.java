@@ -16,6 +16,7 @@
 
 package com.gfycat.picker.feed;
 
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
 import android.text.TextUtils;
 import android.util.Log;
@@ -25,7 +26,14 @@ import com.gfycat.common.utils.Assertions;
 import com.gfycat.common.utils.Logging;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
 /**
  * Created by dekalo on 09.02.17.
@@ -36,25 +44,37 @@ public abstract class GfycatDiffSupportAdapter<T extends RecyclerView.ViewHolder
     private static final String LOG_TAG = "GfycatDSAdapter";
     private List<Gfycat> gfycats;
 
+    /**
+     * Stable ids of current gfycats, they are derived from gfyId so the same gfycat has the same id in any list.
+     */
+    private long[] itemIds;
+    private Disposable pendingDiff;
+    private List<Gfycat> pendingGfycats;
+
     public GfycatDiffSupportAdapter(List<Gfycat> gfycats) {
         Assertions.assertNotNull(gfycats, NullPointerException::new);
-        this.gfycats = gfycats;
+        setGfycats(gfycats);
+        setHasStableIds(true);
     }
 
     /**
+     * Prefix and suffix inserts are applied immediately.
+     * Any other change is diffed on computation thread and dispatched as fine grained notifications when ready.
+     *
      * @return Returns true if range change happens, false otherwise.
      */
     public boolean changeGfycats(List<Gfycat> newGfycats) {
         Log.d(LOG_TAG, "changeGfycats(" + newGfycats.size() + ")");
+        cancelPendingDiff();
         Algorithms.IsOrderedSubsetResult result = Algorithms.isOrderedSubset(gfycats, newGfycats);
 
         int countAtStart = result.subsetStartIndex;
         int countAtEnd = newGfycats.size() - result.subsetEndIndex;
 
         List<Gfycat> oldGfycats = gfycats;
-        gfycats = newGfycats;
 
         if (result.isSubset) {
+            setGfycats(newGfycats);
             if (countAtStart > 0) {
                 Logging.d(LOG_TAG, "changeGfycats() ", oldGfycats.size(), " ", newGfycats.size(), " notifyItemRangeInserted(", 0, ", ", countAtStart, ")");
                 notifyItemRangeInserted(0, countAtStart);
@@ -70,8 +90,26 @@ public abstract class GfycatDiffSupportAdapter<T extends RecyclerView.ViewHolder
                 return false;
             }
         } else {
-            Logging.d(LOG_TAG, "changeGfycats() ", oldGfycats.size(), " ", newGfycats.size(), " notifyDataSetChanged()");
-            notifyDataSetChanged();
+            // displayed list stays unchanged until diff is dispatched
+            Logging.d(LOG_TAG, "changeGfycats() ", oldGfycats.size(), " ", newGfycats.size(), " calculate diff");
+            pendingGfycats = newGfycats;
+            pendingDiff = Single.fromCallable(() -> DiffUtil.calculateDiff(new GfycatDiffCallback(oldGfycats, newGfycats), true))
+                    .subscribeOn(Schedulers.computation())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(
+                            diffResult -> {
+                                pendingDiff = null;
+                                pendingGfycats = null;
+                                setGfycats(newGfycats);
+                                diffResult.dispatchUpdatesTo(this);
+                            },
+                            throwable -> {
+                                pendingDiff = null;
+                                pendingGfycats = null;
+                                Assertions.fail(throwable);
+                                setGfycats(newGfycats);
+                                notifyDataSetChanged();
+                            });
             return false;
         }
 
@@ -79,6 +117,65 @@ public abstract class GfycatDiffSupportAdapter<T extends RecyclerView.ViewHolder
         return false;
     }
 
+    private void cancelPendingDiff() {
+        if (pendingDiff != null) {
+            pendingDiff.dispose();
+            pendingDiff = null;
+        }
+        pendingGfycats = null;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (pendingGfycats != null) {
+            // nothing is displayed, so latest list could be applied without diff
+            setGfycats(pendingGfycats);
+            cancelPendingDiff();
+            notifyDataSetChanged();
+        }
+    }
+
+    private void setGfycats(List<Gfycat> gfycats) {
+        this.gfycats = gfycats;
+        this.itemIds = calculateItemIds(gfycats);
+    }
+
+    /**
+     * Repeated gfyId gets id of its occurrence, so duplicates in feed have different ids.
+     */
+    static long[] calculateItemIds(List<Gfycat> gfycats) {
+        long[] result = new long[gfycats.size()];
+        Set<Long> used = new HashSet<>(result.length * 2);
+        for (int i = 0; i < result.length; i++) {
+            String gfyId = gfycats.get(i).getGfyId();
+            if (gfyId == null) gfyId = "";
+            long id = hash(gfyId);
+            for (int occurrence = 1; !used.add(id); occurrence++) {
+                id = hash(gfyId + "#" + occurrence);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    /**
+     * 64 bit FNV-1a hash, {@link RecyclerView#NO_ID} is never returned.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == RecyclerView.NO_ID ? 0 : hash;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return itemIds[position];
+    }
+
     public Gfycat getItem(int position) {
         return gfycats.get(position);
     }
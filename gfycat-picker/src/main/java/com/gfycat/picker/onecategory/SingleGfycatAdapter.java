@@ -52,6 +52,7 @@ public class SingleGfycatAdapter extends RecyclerView.Adapter<GfyWebpViewHolder>
 
     @Override
     public void onBindViewHolder(GfyWebpViewHolder holder, int position) {
+        holder.configure(cellController, orientation, cornerRadius);
         holder.bind(gfycat, feedidentifier);
     }
 
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.picker.feed;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.gfycat.common.recycler.GroupAdapter;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class FeedViewPoolTest {
+
+    private static final int CELL = GfycatDataAdapter.GFYCAT_VIEW_TYPE;
+    private static final int HEADER = 0;
+
+    private FeedViewPool pool;
+    private FakeAdapter header;
+    private FakeAdapter cells;
+
+    @Before
+    public void setUp() {
+        pool = new FeedViewPool();
+        header = new FakeAdapter(HEADER, 1);
+        cells = new FakeAdapter(CELL, 10);
+    }
+
+    @Test
+    public void testCellViewTypeDoesNotDependOnLayout() {
+        GroupAdapter withHeader = new GroupAdapter(header, cells);
+        GroupAdapter withoutHeader = new GroupAdapter(new FakeAdapter(CELL, 10));
+
+        Assert.assertEquals(CELL, withHeader.getAbsoluteViewType(cells, CELL));
+        Assert.assertEquals(CELL, withHeader.getItemViewType(1));
+        Assert.assertEquals(CELL, withoutHeader.getItemViewType(0));
+        Assert.assertNotEquals(CELL, withHeader.getItemViewType(0));
+    }
+
+    @Test
+    public void testCellIsCreatedByItsAdapter() {
+        GroupAdapter group = new GroupAdapter(header, cells);
+        RecyclerView recyclerView = recyclerView(group);
+
+        RecyclerView.ViewHolder holder = group.createViewHolder(recyclerView, group.getItemViewType(1));
+
+        Assert.assertEquals(1, cells.created);
+        Assert.assertEquals(0, header.created);
+        Assert.assertEquals(CELL, holder.getItemViewType());
+    }
+
+    @Test
+    public void testOnlyCellsArePooled() {
+        GroupAdapter group = new GroupAdapter(header, cells);
+        RecyclerView recyclerView = recyclerView(group);
+
+        pool.putRecycledView(group.createViewHolder(recyclerView, group.getItemViewType(0)));
+        pool.putRecycledView(group.createViewHolder(recyclerView, group.getItemViewType(1)));
+
+        Assert.assertEquals(0, pool.getPooledCount(HEADER));
+        Assert.assertNull(pool.getRecycledView(HEADER));
+        Assert.assertEquals(1, pool.getPooledCount(CELL));
+        Assert.assertNotNull(pool.getRecycledView(CELL));
+        Assert.assertEquals(0, pool.getPooledCount(CELL));
+    }
+
+    @Test
+    public void testCellsAreSharedBetweenLayouts() {
+        GroupAdapter withHeader = new GroupAdapter(header, cells);
+        FakeAdapter otherCells = new FakeAdapter(CELL, 10);
+        GroupAdapter withoutHeader = new GroupAdapter(otherCells);
+        recyclerView(withoutHeader);
+
+        RecyclerView.ViewHolder holder = withHeader.createViewHolder(recyclerView(withHeader), withHeader.getItemViewType(1));
+        pool.putRecycledView(holder);
+
+        Assert.assertSame(holder, pool.getRecycledView(withoutHeader.getItemViewType(0)));
+    }
+
+    @Test
+    public void testPooledCountIsLimitedByMax() {
+        RecyclerView recyclerView = recyclerView(cells);
+        pool.setMaxRecycledViews(CELL, 2);
+
+        for (int i = 0; i < 4; i++) {
+            pool.putRecycledView(cells.createViewHolder(recyclerView, CELL));
+        }
+
+        Assert.assertEquals(2, pool.getPooledCount(CELL));
+        pool.setMaxRecycledViews(CELL, 1);
+        Assert.assertEquals(1, pool.getPooledCount(CELL));
+    }
+
+    @Test
+    public void testPreInflationFillsPool() {
+        GroupAdapter group = new GroupAdapter(header, cells);
+        RecyclerView recyclerView = recyclerView(group);
+
+        pool.preInflate(recyclerView, group.getAbsoluteViewType(cells, CELL), 3);
+        int passes = 0;
+        while (pool.preInflateNext()) passes++;
+
+        Assert.assertEquals(3, passes);
+        Assert.assertEquals(3, cells.created);
+        Assert.assertEquals(0, header.created);
+        Assert.assertEquals(3, pool.getPooledCount(CELL));
+    }
+
+    @Test
+    public void testPreInflationCreatesOnlyMissingCells() {
+        RecyclerView recyclerView = recyclerView(cells);
+        pool.putRecycledView(cells.createViewHolder(recyclerView, CELL));
+        pool.putRecycledView(cells.createViewHolder(recyclerView, CELL));
+
+        pool.preInflate(recyclerView, CELL, 3);
+        while (pool.preInflateNext()) ;
+
+        Assert.assertEquals(3, cells.created);
+        Assert.assertEquals(3, pool.getPooledCount(CELL));
+    }
+
+    @Test
+    public void testPreInflationStopsWhenPoolIsReplaced() {
+        RecyclerView recyclerView = recyclerView(cells);
+
+        pool.preInflate(recyclerView, CELL, 3);
+        recyclerView.setRecycledViewPool(new RecyclerView.RecycledViewPool());
+
+        Assert.assertFalse(pool.preInflateNext());
+        Assert.assertEquals(0, cells.created);
+    }
+
+    @Test
+    public void testCancelledPreInflationDoesNothing() {
+        RecyclerView recyclerView = recyclerView(cells);
+
+        pool.preInflate(recyclerView, CELL, 3);
+        pool.cancelPreInflation();
+
+        Assert.assertFalse(pool.preInflateNext());
+        Assert.assertEquals(0, cells.created);
+    }
+
+    @Test
+    public void testCellsSurviveFeedReplacement() {
+        RecyclerView previous = recyclerView(cells);
+        pool.putRecycledView(cells.createViewHolder(previous, CELL));
+        pool.putRecycledView(cells.createViewHolder(previous, CELL));
+
+        // previous feed returns its cells and detaches adapter, next feed attaches its own
+        previous.swapAdapter(null, true);
+        FakeAdapter nextCells = new FakeAdapter(CELL, 10);
+        RecyclerView next = recyclerView(nextCells);
+
+        Assert.assertEquals(2, pool.getPooledCount(CELL));
+        Assert.assertNotNull(pool.getRecycledView(CELL));
+        Assert.assertNotNull(pool.getRecycledView(CELL));
+        Assert.assertSame(pool, next.getRecycledViewPool());
+        Assert.assertEquals(0, nextCells.created);
+    }
+
+    @Test
+    public void testReleaseDropsCellsAndPreInflation() {
+        RecyclerView recyclerView = recyclerView(cells);
+        pool.putRecycledView(cells.createViewHolder(recyclerView, CELL));
+        pool.preInflate(recyclerView, CELL, 3);
+
+        pool.release();
+
+        Assert.assertEquals(0, pool.getPooledCount(CELL));
+        Assert.assertNull(pool.getRecycledView(CELL));
+        Assert.assertFalse(pool.preInflateNext());
+    }
+
+    private RecyclerView recyclerView(RecyclerView.Adapter adapter) {
+        RecyclerView recyclerView = new RecyclerView(RuntimeEnvironment.application);
+        recyclerView.setRecycledViewPool(pool);
+        recyclerView.setAdapter(adapter);
+        return recyclerView;
+    }
+
+    private static class FakeAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private final int viewType;
+        private final int count;
+        private int created;
+
+        private FakeAdapter(int viewType, int count) {
+            this.viewType = viewType;
+            this.count = count;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return viewType;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            Assert.assertEquals(this.viewType, viewType);
+            created++;
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2015-present, Gfycat, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gfycat.picker.feed;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.gfycat.core.gfycatapi.pojo.Gfycat;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.reactivex.android.plugins.RxAndroidPlugins;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+@RunWith(RobolectricTestRunner.class)
+public class GfycatDiffSupportAdapterTest {
+
+    private RecordingObserver observer;
+
+    @Before
+    public void setUp() {
+        // diff is calculated and dispatched synchronously
+        RxJavaPlugins.setComputationSchedulerHandler(scheduler -> Schedulers.trampoline());
+        RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> Schedulers.trampoline());
+        observer = new RecordingObserver();
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+    }
+
+    @Test
+    public void testAppendIsNotifiedWithoutDiff() {
+        TestAdapter adapter = adapter("a", "b");
+
+        Assert.assertTrue(adapter.changeGfycats(gfycats("a", "b", "c", "d")));
+
+        Assert.assertEquals(Collections.singletonList("inserted 2 2"), observer.events);
+        assertItems(adapter, "a", "b", "c", "d");
+    }
+
+    @Test
+    public void testPrependIsNotifiedWithoutDiff() {
+        TestAdapter adapter = adapter("b", "c");
+
+        Assert.assertTrue(adapter.changeGfycats(gfycats("a", "b", "c")));
+
+        Assert.assertEquals(Collections.singletonList("inserted 0 1"), observer.events);
+    }
+
+    @Test
+    public void testSameListIsNotNotified() {
+        TestAdapter adapter = adapter("a", "b");
+
+        Assert.assertFalse(adapter.changeGfycats(gfycats("a", "b")));
+
+        Assert.assertTrue(observer.events.isEmpty());
+    }
+
+    @Test
+    public void testRemovalIsDispatchedFromDiff() {
+        TestAdapter adapter = adapter("a", "b", "c", "d");
+
+        adapter.changeGfycats(gfycats("a", "c", "d"));
+
+        Assert.assertEquals(Collections.singletonList("removed 1 1"), observer.events);
+        assertItems(adapter, "a", "c", "d");
+    }
+
+    @Test
+    public void testContentChangeIsDispatchedFromDiff() {
+        TestAdapter adapter = adapter("a", "b", "c", "d");
+        List<Gfycat> changed = gfycats("a", "b", "d");
+        changed.get(1).setTitle("new title");
+
+        adapter.changeGfycats(changed);
+
+        Assert.assertEquals(2, observer.events.size());
+        Assert.assertTrue(observer.events.contains("removed 2 1"));
+        Assert.assertTrue(observer.events.contains("changed 1 1"));
+        assertItems(adapter, "a", "b", "d");
+    }
+
+    @Test
+    public void testMoveIsDispatchedFromDiff() {
+        TestAdapter adapter = adapter("a", "b", "c");
+
+        adapter.changeGfycats(gfycats("c", "a", "b"));
+
+        Assert.assertEquals(1, observer.events.size());
+        Assert.assertTrue(observer.events.get(0).startsWith("moved"));
+        assertItems(adapter, "c", "a", "b");
+    }
+
+    @Test
+    public void testIdsFollowGfycats() {
+        TestAdapter adapter = adapter("a", "b", "c");
+        long a = adapter.getItemId(0);
+        long c = adapter.getItemId(2);
+
+        adapter.changeGfycats(gfycats("c", "x", "a"));
+
+        Assert.assertTrue(adapter.hasStableIds());
+        Assert.assertEquals(c, adapter.getItemId(0));
+        Assert.assertEquals(a, adapter.getItemId(2));
+        Assert.assertNotEquals(a, adapter.getItemId(1));
+        Assert.assertNotEquals(c, adapter.getItemId(1));
+    }
+
+    @Test
+    public void testIdsDoNotDependOnHistory() {
+        TestAdapter adapter = adapter("a", "b");
+        adapter.changeGfycats(gfycats("c", "d", "e"));
+        adapter.changeGfycats(gfycats("a", "e"));
+
+        TestAdapter fresh = adapter("a", "e");
+        Assert.assertEquals(fresh.getItemId(0), adapter.getItemId(0));
+        Assert.assertEquals(fresh.getItemId(1), adapter.getItemId(1));
+    }
+
+    @Test
+    public void testDuplicatesHaveDifferentIds() {
+        long[] ids = GfycatDiffSupportAdapter.calculateItemIds(gfycats("a", "b", "a", "a", "b"));
+
+        Set<Long> unique = new HashSet<>();
+        for (long id : ids) {
+            Assert.assertNotEquals(RecyclerView.NO_ID, id);
+            unique.add(id);
+        }
+        Assert.assertEquals(ids.length, unique.size());
+        // first occurrence keeps id of gfyId
+        Assert.assertEquals(GfycatDiffSupportAdapter.calculateItemIds(gfycats("a"))[0], ids[0]);
+    }
+
+    private TestAdapter adapter(String... gfyIds) {
+        TestAdapter adapter = new TestAdapter(gfycats(gfyIds));
+        adapter.registerAdapterDataObserver(observer);
+        return adapter;
+    }
+
+    private static void assertItems(TestAdapter adapter, String... gfyIds) {
+        Assert.assertEquals(gfyIds.length, adapter.getItemCount());
+        for (int i = 0; i < gfyIds.length; i++) {
+            Assert.assertEquals(gfyIds[i], adapter.getItem(i).getGfyId());
+        }
+    }
+
+    private static List<Gfycat> gfycats(String... gfyIds) {
+        List<Gfycat> result = new ArrayList<>();
+        for (String gfyId : Arrays.asList(gfyIds)) {
+            result.add(gfycat(gfyId));
+        }
+        return result;
+    }
+
+    private static Gfycat gfycat(String gfyId) {
+        Gfycat gfycat = new Gfycat();
+        gfycat.setGfyId(gfyId);
+        gfycat.setGfyName(gfyId);
+        return gfycat;
+    }
+
+    private static class TestAdapter extends GfycatDiffSupportAdapter<RecyclerView.ViewHolder> {
+
+        private TestAdapter(List<Gfycat> gfycats) {
+            super(gfycats);
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, Gfycat gfycat) {
+        }
+    }
+
+    private static class RecordingObserver extends RecyclerView.AdapterDataObserver {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onChanged() {
+            events.add("changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            events.add("changed " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            events.add("inserted " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            events.add("removed " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            events.add("moved " + fromPosition + " " + toPosition);
+        }
+    }
+}
@@ -34,6 +34,8 @@ import com.gfycat.core.bi.corelogger.CoreLogger;
 import com.gfycat.core.gfycatapi.pojo.Gfycat;
 import com.gfycat.core.storage.CachedMediaFilesManager;
 import com.gfycat.core.storage.MediaType;
+import com.gfycat.framesequence.FrameSequence;
+import com.gfycat.framesequence.FrameSequenceConfiguration;
 import com.gfycat.framesequence.view.FrameSequenceSource;
 
 import java.io.InterruptedIOException;
@@ -106,6 +108,21 @@ public abstract class GfycatFrameSequenceSource implements FrameSequenceSource {
         return gfycat.getHeight();
     }
 
+    /**
+     * @return Returns {@link Single} of sequence that is shared with all sources of the same gfycat and player type,
+     * so the same gfycat visible in several places is loaded once.
+     */
+    protected Single<FrameSequence> shareFrameSequence(Single<FrameSequence> loader) {
+        return shareFrameSequence(getPlayerType(), loader);
+    }
+
+    /**
+     * Same as {@link #shareFrameSequence(Single)} for sources that choose media type on load.
+     */
+    protected Single<FrameSequence> shareFrameSequence(MediaType mediaType, Single<FrameSequence> loader) {
+        return FrameSequenceConfiguration.get().getFrameSequenceRegistry().acquire(mediaType.getName() + "/" + getId(), loader);
+    }
+
     @Override
     public Single<Drawable> loadPoster() {
         return GfyCore.getMediaFilesManager().loadAsFile(gfycat, MediaType.posterType(gfycat))
@@ -52,8 +52,8 @@ public class GfycatWebpFrameSequenceSource extends GfycatFrameSequenceSource {
 
     @Override
     public Single<FrameSequence> loadFrameSequence() {
-        return GfyCore.getMediaFilesManager().loadAsByteArray(getGfycat(), getPlayerType(), getContextDetails())
-                .flatMap(this::safeCreateFrameSequence);
+        return shareFrameSequence(GfyCore.getMediaFilesManager().loadAsByteArray(getGfycat(), getPlayerType(), getContextDetails())
+                .flatMap(this::safeCreateFrameSequence));
     }
 
     private Single<FrameSequence> safeCreateFrameSequence(byte[] bytes) {
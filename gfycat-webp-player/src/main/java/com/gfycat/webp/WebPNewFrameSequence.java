@@ -17,6 +17,7 @@
 package com.gfycat.webp;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 
 import com.gfycat.framesequence.FrameSequence;
 import com.gfycat.framesequence.view.FrameSequenceMemoryUsage;
@@ -28,12 +29,16 @@ public class WebPNewFrameSequence implements FrameSequence {
 
     private final WebPImage image;
     private int[] durations;
+    private final Rect[] dirtyRects;
     private final int size;
     private boolean released;
+    private volatile boolean opaque;
 
     public WebPNewFrameSequence(byte[] source) {
         FrameSequenceMemoryUsage.add(size = source.length);
         image = WebPImage.create(source);
+        opaque = isOpaque(image.getFrame(0));
+        dirtyRects = new Rect[image.getFrameCount()];
     }
 
     @Override
@@ -57,9 +62,47 @@ public class WebPNewFrameSequence implements FrameSequence {
     @Override
     public void drawFrame(int nextFrame, Bitmap bitmap) {
         WebPFrame frame = image.getFrame(nextFrame);
+        if (opaque && frame.hasAlpha()) opaque = false;
         frame.renderFrame(bitmap);
     }
 
+    /**
+     * Shared sequence could be decoded by several drawables, so dirty rects cache is guarded by this.
+     */
+    @Override
+    public synchronized void getDirtyRect(int frame, Rect outRect) {
+        if (dirtyRects[frame] == null) {
+            dirtyRects[frame] = computeDirtyRect(frame);
+        }
+        outRect.set(dirtyRects[frame]);
+    }
+
+    /**
+     * Frame changes its own bounds and bounds of previous frame if previous one is disposed to background.
+     */
+    private Rect computeDirtyRect(int index) {
+        if (index == 0) return new Rect(0, 0, getWidth(), getHeight());
+        WebPFrame frame = image.getFrame(index);
+        try {
+            Rect rect = getBounds(frame);
+            if (frame.shouldDisposeToBackgroundColor()) {
+                WebPFrame previous = image.getFrame(index - 1);
+                try {
+                    rect.union(getBounds(previous));
+                } finally {
+                    previous.dispose();
+                }
+            }
+            return rect;
+        } finally {
+            frame.dispose();
+        }
+    }
+
+    private static Rect getBounds(WebPFrame frame) {
+        return new Rect(frame.getXOffset(), frame.getYOffset(), frame.getXOffset() + frame.getWidth(), frame.getYOffset() + frame.getHeight());
+    }
+
     @Override
     public int getWidth() {
         return image.getWidth();
@@ -93,7 +136,15 @@ public class WebPNewFrameSequence implements FrameSequence {
 
     @Override
     public boolean isOpaque() {
-        return true;
+        return opaque;
+    }
+
+    private static boolean isOpaque(WebPFrame firstFrame) {
+        try {
+            return !firstFrame.hasAlpha() && !firstFrame.hasOffsets();
+        } finally {
+            firstFrame.dispose();
+        }
     }
 
     @Override
@@ -17,6 +17,7 @@
 package com.gfycat.webp;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 
 import com.gfycat.framesequence.FrameSequence;
 import com.gfycat.framesequence.view.FrameSequenceMemoryUsage;
@@ -30,10 +31,12 @@ public class WebPOldFrameSequence implements FrameSequence {
     private int[] durations;
     private final int size;
     private boolean released;
+    private volatile boolean opaque;
 
     public WebPOldFrameSequence(byte[] source) {
         FrameSequenceMemoryUsage.add(size = source.length);
         image = WebPImage.create(source);
+        opaque = isOpaque(image.getFrame(0));
     }
 
     @Override
@@ -52,9 +55,16 @@ public class WebPOldFrameSequence implements FrameSequence {
     @Override
     public void drawFrame(int nextFrame, Bitmap bitmap) {
         WebPFrame frame = image.getFrame(nextFrame);
+        if (opaque && frame.hasAlpha()) opaque = false;
         frame.renderFrame(bitmap, true);
     }
 
+    @Override
+    public void getDirtyRect(int frame, Rect outRect) {
+        // every frame is rendered with clearing of whole canvas
+        outRect.set(0, 0, getWidth(), getHeight());
+    }
+
     @Override
     public int getWidth() {
         return image.getWidth();
@@ -88,7 +98,15 @@ public class WebPOldFrameSequence implements FrameSequence {
 
     @Override
     public boolean isOpaque() {
-        return true;
+        return opaque;
+    }
+
+    private static boolean isOpaque(WebPFrame firstFrame) {
+        try {
+            return !firstFrame.hasAlpha() && !firstFrame.hasOffsets();
+        } finally {
+            firstFrame.dispose();
+        }
     }
 
     @Override